@@ -0,0 +1,298 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+
+/**
+ * A {@link CueTokenizer} that works directly on the bytes in a
+ * {@link ByteBuffer}. Keywords, numbers and positions are scanned on the raw
+ * bytes, and only the text that is actually extracted, like quoted values or
+ * the line text of a warning, is decoded using the specified {@link Charset}.
+ * <p>
+ * This only works for {@link Charset}s where the ASCII characters are encoded
+ * as single ASCII bytes, and where such bytes never appear as part of a
+ * multibyte sequence in a way that matters to the cue sheet structure. Use
+ * {@link #isAsciiCompatible(Charset)} to check if a {@link Charset} can be
+ * used.
+ * <p>
+ * The content between the position and the limit of the {@link ByteBuffer}
+ * is tokenized. The position of the {@link ByteBuffer} isn't changed.
+ *
+ * @author Nadahar
+ */
+public class ByteCueTokenizer extends CueTokenizer {
+
+	/**
+	 * The multibyte {@link Charset} names where bytes below {@code 0x80}
+	 * always represent ASCII characters, or at least never whitespace, line
+	 * breaks or double quotes.
+	 */
+	protected static final Set<String> ASCII_COMPATIBLE_MULTIBYTE = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+		"UTF-8", "Shift_JIS", "windows-31j", "EUC-JP", "EUC-KR", "x-windows-949", "GBK", "GB2312", "GB18030", "Big5",
+		"Big5-HKSCS", "x-windows-950"
+	)));
+
+	/** The ASCII characters used to verify single-byte {@link Charset}s */
+	private static final String ASCII_TEST = "\t\n\r \"0123456789:ABCDEFGHIJKLMNOPQRSTUVWXYZ_abcdefghijklmnopqrstuvwxyz";
+
+	/** The {@link ByteBuffer} */
+	protected final ByteBuffer buffer;
+
+	/** The index in {@link #buffer} of the first byte to tokenize */
+	protected final int offset;
+
+	/** The {@link Charset} to use when decoding text */
+	protected final Charset charset;
+
+	/** Whether {@link #charset} always decodes one byte to one character */
+	protected final boolean singleByte;
+
+	/** A reusable array for decoding text from non-array buffers */
+	private byte[] bytes;
+
+	/**
+	 * Creates a new tokenizer for the specified {@link ByteBuffer}.
+	 *
+	 * @param buffer the {@link ByteBuffer} to tokenize.
+	 * @param charset the {@link Charset} to use when decoding text. Must be
+	 *            ASCII compatible as determined by
+	 *            {@link #isAsciiCompatible(Charset)}.
+	 * @throws IllegalArgumentException If {@code charset} isn't ASCII
+	 *             compatible.
+	 */
+	public ByteCueTokenizer(ByteBuffer buffer, Charset charset) {
+		super(new ByteCharSequence(buffer));
+		if (!isAsciiCompatible(charset)) {
+			throw new IllegalArgumentException("Charset " + charset + " isn't ASCII compatible");
+		}
+		this.buffer = buffer;
+		this.offset = buffer.position();
+		this.charset = charset;
+		this.singleByte = charset.newEncoder().maxBytesPerChar() <= 1f;
+	}
+
+	/**
+	 * @return The {@link Charset} used to decode text.
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	@Override
+	protected String text(int start, int end) {
+		int count = end - start;
+		if (count < 1) {
+			return "";
+		}
+		if (buffer.hasArray()) {
+			return new String(buffer.array(), buffer.arrayOffset() + offset + start, count, charset);
+		}
+		if (bytes == null || bytes.length < count) {
+			bytes = new byte[Math.max(count, 256)];
+		}
+		buffer.get(offset + start, bytes, 0, count);
+		return new String(bytes, 0, count, charset);
+	}
+
+	/**
+	 * Returns a {@link ByteText} reference to the bytes between the specified
+	 * absolute indices of the input. The reference uses the {@link ByteBuffer}
+	 * of this tokenizer, so the content of the buffer must not be modified as
+	 * long as the reference is in use.
+	 */
+	@Override
+	protected CharSequence reference(int start, int end) {
+		if (end - start < 1) {
+			return "";
+		}
+		return new ByteText(buffer, offset + start, end - start, charset);
+	}
+
+	@Override
+	public int getUnquotedTokenLength() {
+		int byteLength = super.getUnquotedTokenLength();
+		if (singleByte) {
+			return byteLength;
+		}
+		int start = isQuoted(tokenStart, tokenEnd) ? tokenStart + 1 : tokenStart;
+		for (int i = start; i < start + byteLength; i++) {
+			if (input.charAt(i) > 0x7F) {
+				return text(start, start + byteLength).length();
+			}
+		}
+		return byteLength;
+	}
+
+	/**
+	 * Evaluates if the specified {@link Charset} can be used with this
+	 * tokenizer.
+	 *
+	 * @param charset the {@link Charset} to evaluate.
+	 * @return {@code true} if {@code charset} is ASCII compatible,
+	 *         {@code false} otherwise.
+	 */
+	public static boolean isAsciiCompatible(Charset charset) {
+		if (charset == null || !charset.canEncode()) {
+			return false;
+		}
+		if (ASCII_COMPATIBLE_MULTIBYTE.contains(charset.name())) {
+			return true;
+		}
+		return
+			charset.newEncoder().maxBytesPerChar() <= 1f &&
+			Arrays.equals(ASCII_TEST.getBytes(charset), ASCII_TEST.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * A read-only {@link CharSequence} view of a {@link ByteBuffer} that maps
+	 * each byte to the character with the same unsigned value.
+	 *
+	 * @author Nadahar
+	 */
+	protected static class ByteCharSequence implements CharSequence {
+
+		private final ByteBuffer buffer;
+		private final int start;
+		private final int length;
+
+		/**
+		 * Creates a new view of the content between the position and the
+		 * limit of the specified {@link ByteBuffer}.
+		 *
+		 * @param buffer the {@link ByteBuffer}.
+		 */
+		public ByteCharSequence(ByteBuffer buffer) {
+			this(buffer, buffer.position(), buffer.remaining());
+		}
+
+		private ByteCharSequence(ByteBuffer buffer, int start, int length) {
+			this.buffer = buffer;
+			this.start = start;
+			this.length = length;
+		}
+
+		@Override
+		public int length() {
+			return length;
+		}
+
+		@Override
+		public char charAt(int index) {
+			return (char) (buffer.get(start + index) & 0xFF);
+		}
+
+		@Override
+		public CharSequence subSequence(int startIndex, int endIndex) {
+			return new ByteCharSequence(buffer, start + startIndex, endIndex - startIndex);
+		}
+
+		@Override
+		public String toString() {
+			byte[] result = new byte[length];
+			buffer.get(start, result);
+			return new String(result, StandardCharsets.ISO_8859_1);
+		}
+	}
+
+	/**
+	 * A reference to encoded text in a {@link ByteBuffer} that isn't decoded
+	 * until the text is needed. The decoded {@link String} is cached.
+	 * <p>
+	 * Only absolute reads are done on the {@link ByteBuffer}, so many
+	 * instances can share the same buffer.
+	 *
+	 * @author Nadahar
+	 */
+	public static class ByteText implements CharSequence {
+
+		/** The {@link ByteBuffer} holding the encoded text */
+		protected final ByteBuffer buffer;
+
+		/** The index in {@link #buffer} of the first byte */
+		protected final int start;
+
+		/** The number of bytes */
+		protected final int length;
+
+		/** The {@link Charset} to decode with */
+		protected final Charset charset;
+
+		/** The cached decoded value */
+		protected String value;
+
+		/**
+		 * Creates a new reference.
+		 *
+		 * @param buffer the {@link ByteBuffer} holding the encoded text.
+		 * @param start the index in {@code buffer} of the first byte.
+		 * @param length the number of bytes.
+		 * @param charset the {@link Charset} to decode with.
+		 */
+		public ByteText(ByteBuffer buffer, int start, int length, Charset charset) {
+			this.buffer = buffer;
+			this.start = start;
+			this.length = length;
+			this.charset = charset;
+		}
+
+		/**
+		 * @return The number of encoded bytes.
+		 */
+		public int getByteLength() {
+			return length;
+		}
+
+		@Override
+		public int length() {
+			return toString().length();
+		}
+
+		@Override
+		public char charAt(int index) {
+			return toString().charAt(index);
+		}
+
+		@Override
+		public CharSequence subSequence(int startIndex, int endIndex) {
+			return toString().subSequence(startIndex, endIndex);
+		}
+
+		@Override
+		public String toString() {
+			if (value == null) {
+				if (buffer.hasArray()) {
+					value = new String(buffer.array(), buffer.arrayOffset() + start, length, charset);
+				} else {
+					byte[] result = new byte[length];
+					buffer.get(start, result);
+					value = new String(result, charset);
+				}
+			}
+			return value;
+		}
+	}
+}
@@ -0,0 +1,573 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+
+
+/**
+ * Detects the {@link Charset} of a cue sheet by looking at the raw bytes. The
+ * detection looks for a byte order mark first, then checks if the content is
+ * pure ASCII or valid UTF-8. If neither applies, the content is scored as
+ * Shift_JIS ({@code windows-31j}), GBK, {@code windows-1251} and
+ * {@code windows-1252}, and the best match is chosen. Because accented Latin
+ * letters often form valid multibyte sequences, a multibyte {@link Charset}
+ * is only chosen if it beats the single-byte {@link Charset}s by at least
+ * {@link #MULTIBYTE_MARGIN}.
+ * <p>
+ * The heuristics are tuned for the short texts typically found in cue sheets
+ * and don't attempt to be a general purpose charset detector.
+ *
+ * @author Nadahar
+ */
+public class CharsetDetector {
+
+	/** The Japanese {@link Charset}, or {@code null} if unsupported */
+	protected static final Charset SHIFT_JIS = lookup("windows-31j");
+
+	/** The simplified Chinese {@link Charset}, or {@code null} if unsupported */
+	protected static final Charset GBK = lookup("GBK");
+
+	/** The Cyrillic {@link Charset}, or {@code null} if unsupported */
+	protected static final Charset WINDOWS_1251 = lookup("windows-1251");
+
+	/** The western European {@link Charset}, or {@code null} if unsupported */
+	protected static final Charset WINDOWS_1252 = lookup("windows-1252");
+
+	/** The {@link Charset} to use if everything else fails */
+	protected static final Charset FALLBACK = WINDOWS_1252 == null ? StandardCharsets.ISO_8859_1 : WINDOWS_1252;
+
+	/**
+	 * How much higher the score of a multibyte {@link Charset} must be than
+	 * the best single-byte score for the multibyte {@link Charset} to be
+	 * chosen
+	 */
+	protected static final double MULTIBYTE_MARGIN = 0.25;
+
+	private CharsetDetector() {
+	}
+
+	/**
+	 * Detects the {@link Charset} of the bytes between the position and the
+	 * limit of the specified {@link ByteBuffer}. The position of the buffer
+	 * isn't changed.
+	 *
+	 * @param buffer the {@link ByteBuffer} to examine.
+	 * @return The resulting {@link Match}.
+	 */
+	public static Match detect(ByteBuffer buffer) {
+		int start = buffer.position();
+		int end = buffer.limit();
+		int length = end - start;
+
+		// Byte order marks
+		if (
+			length >= 3 &&
+			(buffer.get(start) & 0xFF) == 0xEF &&
+			(buffer.get(start + 1) & 0xFF) == 0xBB &&
+			(buffer.get(start + 2) & 0xFF) == 0xBF
+		) {
+			return new Match(StandardCharsets.UTF_8, 100, 3);
+		}
+		if (length >= 2) {
+			int first = buffer.get(start) & 0xFF;
+			int second = buffer.get(start + 1) & 0xFF;
+			if (first == 0xFE && second == 0xFF) {
+				return new Match(StandardCharsets.UTF_16BE, 100, 2);
+			}
+			if (first == 0xFF && second == 0xFE) {
+				return new Match(StandardCharsets.UTF_16LE, 100, 2);
+			}
+		}
+
+		// UTF-16 without BOM, recognized by the zero high bytes of ASCII characters
+		Match match = detectUtf16(buffer, start, end);
+		if (match != null) {
+			return match;
+		}
+
+		int highBytes = 0;
+		for (int i = start; i < end; i++) {
+			if (buffer.get(i) < 0) {
+				highBytes++;
+			}
+		}
+		if (highBytes == 0) {
+			return new Match(StandardCharsets.US_ASCII, 100, 0);
+		}
+
+		int utf8Sequences = countUtf8Sequences(buffer, start, end);
+		if (utf8Sequences > 0) {
+			return new Match(StandardCharsets.UTF_8, utf8Sequences > 1 ? 100 : 90, 0);
+		}
+
+		// The best single-byte candidate
+		double[] singleByteScores = scoreSingleByte(buffer, start, end, highBytes);
+		Charset singleByte = FALLBACK;
+		double singleByteScore = singleByteScores[1];
+		double singleByteSecond = WINDOWS_1251 == null ? 0d : singleByteScores[0];
+		if (WINDOWS_1251 != null && singleByteScores[0] > singleByteScores[1]) {
+			singleByte = WINDOWS_1251;
+			singleByteScore = singleByteScores[0];
+			singleByteSecond = singleByteScores[1];
+		}
+
+		// The best multibyte candidate
+		Charset multibyte = null;
+		double multibyteScore = 0d;
+		double multibyteSecond = 0d;
+		double score;
+		if (SHIFT_JIS != null && (score = scoreShiftJis(buffer, start, end, highBytes)) > 0d) {
+			multibyteScore = score;
+			multibyte = SHIFT_JIS;
+		}
+		if (GBK != null && (score = scoreGbk(buffer, start, end, highBytes)) > 0d) {
+			if (score > multibyteScore) {
+				multibyteSecond = multibyteScore;
+				multibyteScore = score;
+				multibyte = GBK;
+			} else {
+				multibyteSecond = score;
+			}
+		}
+
+		Charset best;
+		double bestScore;
+		double secondScore;
+		if (multibyte != null && multibyteScore >= singleByteScore + MULTIBYTE_MARGIN) {
+			best = multibyte;
+			bestScore = multibyteScore;
+			secondScore = Math.max(multibyteSecond, singleByteScore);
+		} else {
+			best = singleByte;
+			bestScore = singleByteScore;
+			secondScore = Math.max(singleByteSecond, multibyteScore);
+		}
+
+		if (bestScore <= 0d) {
+			return new Match(FALLBACK, 0, 0);
+		}
+
+		// Few high bytes or a close runner-up means less certainty
+		double sampleFactor = Math.min(1d, 0.5d + highBytes / 32d);
+		double marginFactor = Math.max(0d, Math.min(1d, 0.5d + (bestScore - secondScore) / bestScore));
+		int confidence = (int) Math.round(Math.min(1d, bestScore) * sampleFactor * marginFactor * 100d);
+		return new Match(best, Math.max(1, Math.min(99, confidence)), 0);
+	}
+
+	/**
+	 * Checks for UTF-16 without a byte order mark by looking for zero bytes
+	 * at every other position.
+	 *
+	 * @param buffer the {@link ByteBuffer}.
+	 * @param start the start index.
+	 * @param end the end index.
+	 * @return The {@link Match} or {@code null} if the content doesn't look
+	 *         like UTF-16.
+	 */
+	protected static Match detectUtf16(ByteBuffer buffer, int start, int end) {
+		int pairs = (end - start) / 2;
+		if (pairs < 4) {
+			return null;
+		}
+		int evenZeros = 0;
+		int oddZeros = 0;
+		for (int i = start; i + 1 < end; i += 2) {
+			if (buffer.get(i) == 0) {
+				evenZeros++;
+			}
+			if (buffer.get(i + 1) == 0) {
+				oddZeros++;
+			}
+		}
+		if (evenZeros > pairs * 0.6 && oddZeros < pairs * 0.1) {
+			return new Match(StandardCharsets.UTF_16BE, evenZeros > pairs * 0.9 ? 90 : 70, 0);
+		}
+		if (oddZeros > pairs * 0.6 && evenZeros < pairs * 0.1) {
+			return new Match(StandardCharsets.UTF_16LE, oddZeros > pairs * 0.9 ? 90 : 70, 0);
+		}
+		return null;
+	}
+
+	/**
+	 * Validates the content as UTF-8, rejecting overlong encodings, surrogates
+	 * and code points above {@code U+10FFFF}.
+	 *
+	 * @param buffer the {@link ByteBuffer}.
+	 * @param start the start index.
+	 * @param end the end index.
+	 * @return The number of multibyte sequences if the content is valid UTF-8,
+	 *         {@code -1} otherwise.
+	 */
+	protected static int countUtf8Sequences(ByteBuffer buffer, int start, int end) {
+		int sequences = 0;
+		int i = start;
+		while (i < end) {
+			int b = buffer.get(i) & 0xFF;
+			if (b < 0x80) {
+				i++;
+				continue;
+			}
+			int count;
+			int min;
+			int max = 0xBF;
+			if (b >= 0xC2 && b <= 0xDF) {
+				count = 1;
+				min = 0x80;
+			} else if (b >= 0xE0 && b <= 0xEF) {
+				count = 2;
+				min = b == 0xE0 ? 0xA0 : 0x80;
+				if (b == 0xED) {
+					max = 0x9F;
+				}
+			} else if (b >= 0xF0 && b <= 0xF4) {
+				count = 3;
+				min = b == 0xF0 ? 0x90 : 0x80;
+				if (b == 0xF4) {
+					max = 0x8F;
+				}
+			} else {
+				return -1;
+			}
+			if (i + count >= end) {
+				return -1;
+			}
+			int next = buffer.get(i + 1) & 0xFF;
+			if (next < min || next > max) {
+				return -1;
+			}
+			for (int j = 2; j <= count; j++) {
+				if ((buffer.get(i + j) & 0xC0) != 0x80) {
+					return -1;
+				}
+			}
+			sequences++;
+			i += count + 1;
+		}
+		return sequences;
+	}
+
+	/**
+	 * Scores the content as Shift_JIS. Hiragana, katakana, common punctuation
+	 * and kanji count as good, invalid sequences count heavily against.
+	 * Accented Latin letters and typographic quotes followed by an ASCII
+	 * letter often look like kanji, so such sequences only count as good for
+	 * the full-width and katakana lead bytes.
+	 *
+	 * @param buffer the {@link ByteBuffer}.
+	 * @param start the start index.
+	 * @param end the end index.
+	 * @param highBytes the number of bytes above {@code 0x7F}.
+	 * @return The score where {@code 1.0} is a perfect match.
+	 */
+	protected static double scoreShiftJis(ByteBuffer buffer, int start, int end, int highBytes) {
+		int good = 0;
+		int bad = 0;
+		int i = start;
+		while (i < end) {
+			int b = buffer.get(i) & 0xFF;
+			if (b < 0x80 || (b >= 0xA1 && b <= 0xDF)) {
+				// ASCII or half-width katakana, valid but not indicative
+				i++;
+				continue;
+			}
+			if ((b >= 0x81 && b <= 0x9F) || (b >= 0xE0 && b <= 0xFC)) {
+				int trail = i + 1 < end ? buffer.get(i + 1) & 0xFF : -1;
+				if (trail < 0x40 || trail == 0x7F || trail > 0xFC) {
+					bad++;
+					i++;
+					continue;
+				}
+				if (
+					b == 0x81 && !isAsciiLetter((byte) trail) ||
+					(b == 0x82 && trail >= 0x4F) ||
+					(b == 0x83 && trail <= 0x96) ||
+					(b >= 0x88 && b <= 0x9F || b >= 0xE0 && b <= 0xEA) && !isAsciiLetter((byte) trail)
+				) {
+					good += 2;
+				}
+				i += 2;
+				continue;
+			}
+			bad++;
+			i++;
+		}
+		return (good - 4d * bad) / highBytes;
+	}
+
+	/**
+	 * Scores the content as GBK. Characters in the GB2312 hanzi and
+	 * punctuation ranges count as good, invalid sequences count heavily
+	 * against.
+	 *
+	 * @param buffer the {@link ByteBuffer}.
+	 * @param start the start index.
+	 * @param end the end index.
+	 * @param highBytes the number of bytes above {@code 0x7F}.
+	 * @return The score where {@code 1.0} is a perfect match.
+	 */
+	protected static double scoreGbk(ByteBuffer buffer, int start, int end, int highBytes) {
+		int good = 0;
+		int bad = 0;
+		int i = start;
+		while (i < end) {
+			int b = buffer.get(i) & 0xFF;
+			if (b < 0x80) {
+				i++;
+				continue;
+			}
+			if (b >= 0x81 && b <= 0xFE) {
+				int trail = i + 1 < end ? buffer.get(i + 1) & 0xFF : -1;
+				if (trail < 0x40 || trail == 0x7F || trail > 0xFE) {
+					bad++;
+					i++;
+					continue;
+				}
+				if (trail >= 0xA1 && ((b >= 0xB0 && b <= 0xF7) || b == 0xA1 || b == 0xA3)) {
+					good += 2;
+				}
+				i += 2;
+				continue;
+			}
+			bad++;
+			i++;
+		}
+		return (good - 4d * bad) / highBytes;
+	}
+
+	/**
+	 * Scores the content as {@code windows-1251} and {@code windows-1252}.
+	 * Cyrillic text consists of whole words of high bytes, so Cyrillic
+	 * letters only count when they form a word with a plausible case
+	 * pattern, while accented Latin letters are mostly surrounded by ASCII
+	 * letters. Typographic punctuation is shared by both and counts for both.
+	 *
+	 * @param buffer the {@link ByteBuffer}.
+	 * @param start the start index.
+	 * @param end the end index.
+	 * @param highBytes the number of bytes above {@code 0x7F}.
+	 * @return An array with the {@code windows-1251} score at index 0 and the
+	 *         {@code windows-1252} score at index 1.
+	 */
+	protected static double[] scoreSingleByte(ByteBuffer buffer, int start, int end, int highBytes) {
+		int cyrillic = 0;
+		int latin = 0;
+		int bad1251 = 0;
+		int bad1252 = 0;
+		for (int i = start; i < end; i++) {
+			int b = buffer.get(i) & 0xFF;
+			if (b < 0x80) {
+				continue;
+			}
+			if (isPunctuation(b)) {
+				cyrillic++;
+				latin++;
+				continue;
+			}
+			if (b == 0x81 || b == 0x8D || b == 0x8F || b == 0x90 || b == 0x9D) {
+				bad1252++;
+			}
+			if (b == 0x98) {
+				bad1251++;
+			}
+			if (
+				(b >= 0xC0 && b != 0xD7 && b != 0xF7) ||
+				b == 0x8A || b == 0x8C || b == 0x8E || b == 0x9A || b == 0x9C || b == 0x9E || b == 0x9F
+			) {
+				if (
+					(i > start && isAsciiLetter(buffer.get(i - 1))) ||
+					(i + 1 < end && isAsciiLetter(buffer.get(i + 1)))
+				) {
+					latin++;
+				}
+			}
+		}
+
+		// Cyrillic words must be lower case, capitalized or all upper case
+		int i = start;
+		while (i < end) {
+			int b = buffer.get(i) & 0xFF;
+			if (!isCyrillicLetter(b)) {
+				i++;
+				continue;
+			}
+			boolean firstUpper = isCyrillicUpperCase(b);
+			int restUpper = 0;
+			int restLower = 0;
+			int wordStart = i;
+			for (i++; i < end && isCyrillicLetter(b = buffer.get(i) & 0xFF); i++) {
+				if (isCyrillicUpperCase(b)) {
+					restUpper++;
+				} else {
+					restLower++;
+				}
+			}
+			if (
+				i - wordStart > 1 &&
+				(restUpper == 0 || restLower == 0 && firstUpper) &&
+				(wordStart == start || isWordBoundary(buffer.get(wordStart - 1) & 0xFF)) &&
+				(i == end || isWordBoundary(buffer.get(i) & 0xFF))
+			) {
+				cyrillic += i - wordStart;
+			}
+		}
+		return new double[] {
+			(cyrillic - 4d * bad1251) / highBytes,
+			(latin - 4d * bad1252) / highBytes
+		};
+	}
+
+	/**
+	 * Checks if the specified unsigned byte is typographic punctuation that
+	 * is shared by {@code windows-1251} and {@code windows-1252}.
+	 *
+	 * @param b the unsigned byte to check.
+	 * @return {@code true} if {@code b} is typographic punctuation,
+	 *         {@code false} otherwise.
+	 */
+	protected static boolean isPunctuation(int b) {
+		return (b >= 0x91 && b <= 0x97) || b == 0x85 || b == 0x80 || b == 0xAB || b == 0xBB;
+	}
+
+	/**
+	 * Checks if the specified unsigned byte can border a word, which is true
+	 * for ASCII characters that aren't letters and for typographic
+	 * punctuation.
+	 *
+	 * @param b the unsigned byte to check.
+	 * @return {@code true} if {@code b} can border a word, {@code false}
+	 *         otherwise.
+	 */
+	protected static boolean isWordBoundary(int b) {
+		return b < 0x80 ? !isAsciiLetter((byte) b) : isPunctuation(b);
+	}
+
+	/**
+	 * Checks if the specified unsigned byte is a Cyrillic letter in
+	 * {@code windows-1251}.
+	 *
+	 * @param b the unsigned byte to check.
+	 * @return {@code true} if {@code b} is a Cyrillic letter, {@code false}
+	 *         otherwise.
+	 */
+	protected static boolean isCyrillicLetter(int b) {
+		return b >= 0xC0 || b == 0xA8 || b == 0xB8;
+	}
+
+	/**
+	 * Checks if the specified unsigned byte is an upper case Cyrillic letter
+	 * in {@code windows-1251}.
+	 *
+	 * @param b the unsigned byte to check.
+	 * @return {@code true} if {@code b} is an upper case Cyrillic letter,
+	 *         {@code false} otherwise.
+	 */
+	protected static boolean isCyrillicUpperCase(int b) {
+		return (b >= 0xC0 && b <= 0xDF) || b == 0xA8;
+	}
+
+	/**
+	 * Checks if the specified byte is an ASCII letter.
+	 *
+	 * @param b the byte to check.
+	 * @return {@code true} if {@code b} is an ASCII letter, {@code false}
+	 *         otherwise.
+	 */
+	protected static boolean isAsciiLetter(byte b) {
+		return (b >= 'A' && b <= 'Z') || (b >= 'a' && b <= 'z');
+	}
+
+	/**
+	 * Looks up a {@link Charset} without throwing if it isn't supported.
+	 *
+	 * @param name the {@link Charset} name.
+	 * @return The {@link Charset} or {@code null}.
+	 */
+	protected static Charset lookup(String name) {
+		try {
+			return Charset.forName(name);
+		} catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * The result of a {@link Charset} detection.
+	 *
+	 * @author Nadahar
+	 */
+	public static class Match {
+
+		/** The detected {@link Charset} */
+		protected final Charset charset;
+
+		/** The confidence from {@code 0} to {@code 100} */
+		protected final int confidence;
+
+		/** The length of the byte order mark in bytes */
+		protected final int bomLength;
+
+		/**
+		 * Creates a new instance using the specified parameters.
+		 *
+		 * @param charset the detected {@link Charset}.
+		 * @param confidence the confidence from {@code 0} to {@code 100}.
+		 * @param bomLength the length of the byte order mark in bytes, or
+		 *            {@code 0} if there is none.
+		 */
+		public Match(Charset charset, int confidence, int bomLength) {
+			this.charset = charset;
+			this.confidence = confidence;
+			this.bomLength = bomLength;
+		}
+
+		/**
+		 * @return The detected {@link Charset}.
+		 */
+		public Charset getCharset() {
+			return charset;
+		}
+
+		/**
+		 * @return The confidence from {@code 0} to {@code 100}, where
+		 *         {@code 100} means that the {@link Charset} was given by a
+		 *         byte order mark or is certain for other reasons.
+		 */
+		public int getConfidence() {
+			return confidence;
+		}
+
+		/**
+		 * @return The length of the byte order mark in bytes, or {@code 0} if
+		 *         there is none.
+		 */
+		public int getBomLength() {
+			return bomLength;
+		}
+
+		@Override
+		public String toString() {
+			return getClass().getSimpleName() + " [Charset=" + charset + ", Confidence=" + confidence + ", BOM=" + bomLength + "]";
+		}
+	}
+}
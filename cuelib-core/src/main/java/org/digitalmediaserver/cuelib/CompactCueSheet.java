@@ -0,0 +1,829 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib;
+
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import org.digitalmediaserver.cuelib.CueSheet.MetaDataField;
+
+
+/**
+ * An immutable and compact representation of a {@link CueSheet}, intended for
+ * keeping large numbers of parsed cue sheets in memory. Instances are created
+ * with {@link CueSheet#freeze()}.
+ * <p>
+ * Instead of an object graph, all data is stored in arrays indexed by the
+ * ordinal of the file, track or index:
+ * <ul>
+ * <li>Tracks are numbered from {@code 0} across all files, in the same order
+ * as {@link CueSheet#getAllTrackData()}.</li>
+ * <li>Positions are stored as total frames, as returned by
+ * {@link Position#getTotalFrames()}, with {@code -1} meaning "not set".
+ * {@link Position} instances returned by the accessors are therefore
+ * normalized, so that seconds and frames are within their valid ranges.</li>
+ * <li>Flags that are in {@link CueParser#COMPLIANT_FLAGS} are stored as a
+ * bitmask, only other flags are stored as {@link String}s.</li>
+ * <li>All {@link String}s are interned, so that values that repeat across
+ * many cue sheets, like performers, genres and file types, are only stored
+ * once.</li>
+ * <li>Sample offsets, as found in FLAC {@code CUESHEET} blocks, are only
+ * stored if at least one is known, with {@code -1} meaning "unknown".</li>
+ * </ul>
+ * The parsing {@link Message}s aren't kept.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @author Nadahar
+ */
+public final class CompactCueSheet {
+
+	/** The compliant flags, where the index is the bit in the flag bitmask */
+	private static final String[] FLAGS = CueParser.COMPLIANT_FLAGS.toArray(new String[0]);
+
+	private final Path file;
+	private final Charset charset;
+	private final int charsetConfidence;
+	private final String catalog;
+	private final String cdTextFile;
+	private final String performer;
+	private final String title;
+	private final String songwriter;
+	private final String comment;
+	private final String discId;
+	private final String genre;
+	private final int year;
+	private final int totalDiscs;
+	private final int discNumber;
+
+	/** The file names, indexed by file ordinal */
+	private final String[] fileNames;
+
+	/** The file types, indexed by file ordinal */
+	private final String[] fileTypes;
+
+	/** The ordinal of the first track of each file, plus the track count */
+	private final int[] fileTrackStart;
+
+	private final int[] trackNumbers;
+	private final String[] dataTypes;
+	private final String[] isrcCodes;
+	private final String[] trackPerformers;
+	private final String[] trackTitles;
+	private final String[] trackSongwriters;
+	private final int[] pregaps;
+	private final int[] postgaps;
+	private final int[] flagMasks;
+
+	/** The track sample offsets, or {@code null} if none are known */
+	private final long[] trackSampleOffsets;
+
+	/** The noncompliant flags per track, or {@code null} if there are none */
+	private final String[][] otherFlags;
+
+	/** The ordinal of the first index of each track, plus the index count */
+	private final int[] trackIndexStart;
+
+	private final int[] indexNumbers;
+	private final int[] indexFrames;
+
+	/** The index sample offsets, or {@code null} if none are known */
+	private final long[] indexSampleOffsets;
+
+	/**
+	 * Creates a new compact copy of the specified {@link CueSheet}.
+	 *
+	 * @param cueSheet the {@link CueSheet} to copy.
+	 */
+	CompactCueSheet(CueSheet cueSheet) {
+		file = cueSheet.getFile();
+		charset = cueSheet.getCharset();
+		charsetConfidence = cueSheet.getCharsetConfidence();
+		catalog = intern(cueSheet.getCatalog());
+		cdTextFile = intern(cueSheet.getCdTextFile());
+		performer = intern(cueSheet.getPerformer());
+		title = intern(cueSheet.getTitle());
+		songwriter = intern(cueSheet.getSongwriter());
+		comment = intern(cueSheet.getComment());
+		discId = intern(cueSheet.getDiscId());
+		genre = intern(cueSheet.getGenre());
+		year = cueSheet.getYear();
+		totalDiscs = cueSheet.getTotalDiscs();
+		discNumber = cueSheet.getDiscNumber();
+
+		List<FileData> fileDataList = cueSheet.getFileData();
+		int fileCount = fileDataList.size();
+		fileNames = new String[fileCount];
+		fileTypes = new String[fileCount];
+		fileTrackStart = new int[fileCount + 1];
+		int trackCount = 0;
+		int indexCount = 0;
+		for (int i = 0; i < fileCount; i++) {
+			FileData fileData = fileDataList.get(i);
+			fileNames[i] = intern(fileData.getFile());
+			fileTypes[i] = intern(fileData.getFileType());
+			fileTrackStart[i] = trackCount;
+			trackCount += fileData.getTrackData().size();
+			for (TrackData trackData : fileData.getTrackData()) {
+				indexCount += trackData.getIndices().size();
+			}
+		}
+		fileTrackStart[fileCount] = trackCount;
+
+		trackNumbers = new int[trackCount];
+		String[] tmpDataTypes = new String[trackCount];
+		String[] tmpIsrcCodes = new String[trackCount];
+		String[] tmpPerformers = new String[trackCount];
+		String[] tmpTitles = new String[trackCount];
+		String[] tmpSongwriters = new String[trackCount];
+		pregaps = new int[trackCount];
+		postgaps = new int[trackCount];
+		flagMasks = new int[trackCount];
+		String[][] tmpOtherFlags = null;
+		long[] tmpTrackSampleOffsets = null;
+		long[] tmpIndexSampleOffsets = null;
+		trackIndexStart = new int[trackCount + 1];
+		indexNumbers = new int[indexCount];
+		indexFrames = new int[indexCount];
+
+		int track = 0;
+		int index = 0;
+		for (FileData fileData : fileDataList) {
+			for (TrackData trackData : fileData.getTrackData()) {
+				trackNumbers[track] = trackData.getNumber();
+				tmpDataTypes[track] = intern(trackData.getDataType());
+				tmpIsrcCodes[track] = intern(trackData.getIsrcCode());
+				tmpPerformers[track] = intern(trackData.getPerformer());
+				tmpTitles[track] = intern(trackData.getTitle());
+				tmpSongwriters[track] = intern(trackData.getSongwriter());
+				pregaps[track] = toFrames(trackData.getPregap());
+				postgaps[track] = toFrames(trackData.getPostgap());
+				if (trackData.getSampleOffset() >= 0) {
+					if (tmpTrackSampleOffsets == null) {
+						tmpTrackSampleOffsets = newSampleOffsets(trackCount);
+					}
+					tmpTrackSampleOffsets[track] = trackData.getSampleOffset();
+				}
+
+				int mask = 0;
+				TreeSet<String> others = null;
+				for (String flag : trackData.getFlags()) {
+					int bit = flagBit(flag);
+					if (bit >= 0) {
+						mask |= 1 << bit;
+					} else {
+						if (others == null) {
+							others = new TreeSet<>();
+						}
+						others.add(intern(flag));
+					}
+				}
+				flagMasks[track] = mask;
+				if (others != null) {
+					if (tmpOtherFlags == null) {
+						tmpOtherFlags = new String[trackCount][];
+					}
+					tmpOtherFlags[track] = others.toArray(new String[others.size()]);
+				}
+
+				trackIndexStart[track] = index;
+				for (Index idx : trackData.getIndices()) {
+					indexNumbers[index] = idx.getNumber();
+					indexFrames[index] = toFrames(idx.getPosition());
+					if (idx.getSampleOffset() >= 0) {
+						if (tmpIndexSampleOffsets == null) {
+							tmpIndexSampleOffsets = newSampleOffsets(indexCount);
+						}
+						tmpIndexSampleOffsets[index] = idx.getSampleOffset();
+					}
+					index++;
+				}
+				track++;
+			}
+		}
+		trackIndexStart[trackCount] = index;
+
+		dataTypes = nullIfEmpty(tmpDataTypes);
+		isrcCodes = nullIfEmpty(tmpIsrcCodes);
+		trackPerformers = nullIfEmpty(tmpPerformers);
+		trackTitles = nullIfEmpty(tmpTitles);
+		trackSongwriters = nullIfEmpty(tmpSongwriters);
+		otherFlags = tmpOtherFlags;
+		trackSampleOffsets = tmpTrackSampleOffsets;
+		indexSampleOffsets = tmpIndexSampleOffsets;
+	}
+
+	/**
+	 * Convenience method for getting metadata from the cue sheet, with the
+	 * same semantics as {@link CueSheet#getMetaData(MetaDataField)}.
+	 *
+	 * @param metaDataField The {@link MetaDataField}.
+	 * @return The specified metadata.
+	 * @throws IllegalArgumentException If the {@link MetaDataField} is
+	 *             unsupported.
+	 */
+	public String getMetaData(MetaDataField metaDataField) throws IllegalArgumentException {
+		switch (metaDataField) {
+			case CATALOG:
+				return catalog == null ? "" : catalog;
+			case CDTEXTFILE:
+				return cdTextFile == null ? "" : cdTextFile;
+			case COMMENT:
+				return comment == null ? "" : comment;
+			case DISCID:
+				return discId == null ? "" : discId;
+			case DISCNUMBER:
+				return discNumber == -1 ? "" : "" + discNumber;
+			case GENRE:
+				return genre == null ? "" : genre;
+			case PERFORMER:
+			case ALBUMPERFORMER:
+				return performer == null ? "" : performer;
+			case SONGWRITER:
+			case ALBUMSONGWRITER:
+				return songwriter == null ? "" : songwriter;
+			case TITLE:
+			case ALBUMTITLE:
+				return title == null ? "" : title;
+			case TOTALDISCS:
+				return totalDiscs == -1 ? "" : "" + totalDiscs;
+			case YEAR:
+				return year == -1 ? "" : "" + year;
+			default:
+				throw new IllegalArgumentException("Unsupported field: " + metaDataField.toString());
+		}
+	}
+
+	/**
+	 * Convenience method for getting metadata for a track, with the same
+	 * semantics as {@link TrackData#getMetaData(MetaDataField)}.
+	 *
+	 * @param track the track ordinal.
+	 * @param metaDataField The {@link MetaDataField}.
+	 * @return The specified metadata.
+	 * @throws IllegalArgumentException If a field is ambiguous.
+	 */
+	public String getMetaData(int track, MetaDataField metaDataField) throws IllegalArgumentException {
+		checkTrack(track);
+		switch (metaDataField) {
+			case ISRCCODE:
+				String isrcCode = getIsrcCode(track);
+				return isrcCode == null ? "" : isrcCode;
+			case PERFORMER:
+				String trackPerformer = getTrackPerformer(track);
+				return trackPerformer == null ? performer : trackPerformer;
+			case TRACKPERFORMER:
+				trackPerformer = getTrackPerformer(track);
+				return trackPerformer == null ? "" : trackPerformer;
+			case SONGWRITER:
+				String trackSongwriter = getTrackSongwriter(track);
+				return trackSongwriter == null ? songwriter : trackSongwriter;
+			case TRACKSONGWRITER:
+				return getTrackSongwriter(track);
+			case TITLE:
+				String trackTitle = getTrackTitle(track);
+				return trackTitle == null ? title : trackTitle;
+			case TRACKTITLE:
+				return getTrackTitle(track);
+			case TRACKNUMBER:
+				return Integer.toString(trackNumbers[track]);
+			default:
+				return getMetaData(metaDataField);
+		}
+	}
+
+	/**
+	 * @return The CUE {@link Path} or {@code null}.
+	 */
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * @return The {@link Charset} the cue sheet was decoded with or
+	 *         {@code null}.
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * @return The confidence of the {@link Charset} detection from 0 to 100,
+	 *         or -1 if the {@link Charset} wasn't detected.
+	 */
+	public int getCharsetConfidence() {
+		return charsetConfidence;
+	}
+
+	/**
+	 * @return The disc's media catalog number or {@code null}.
+	 */
+	public String getCatalog() {
+		return catalog;
+	}
+
+	/**
+	 * @return The file containing the cd text data or {@code null}.
+	 */
+	public String getCdTextFile() {
+		return cdTextFile;
+	}
+
+	/**
+	 * @return The performer of the album or {@code null}.
+	 */
+	public String getPerformer() {
+		return performer;
+	}
+
+	/**
+	 * @return The title of the album or {@code null}.
+	 */
+	public String getTitle() {
+		return title;
+	}
+
+	/**
+	 * @return The songwriter of the album or {@code null}.
+	 */
+	public String getSongwriter() {
+		return songwriter;
+	}
+
+	/**
+	 * @return The comment or {@code null}.
+	 */
+	public String getComment() {
+		return comment;
+	}
+
+	/**
+	 * @return The disc id or {@code null}.
+	 */
+	public String getDiscId() {
+		return discId;
+	}
+
+	/**
+	 * @return The genre or {@code null}.
+	 */
+	public String getGenre() {
+		return genre;
+	}
+
+	/**
+	 * @return The year of the album. -1 signifies that it has not been
+	 *         specified.
+	 */
+	public int getYear() {
+		return year;
+	}
+
+	/**
+	 * @return The total discs of the album. -1 signifies that it has not been
+	 *         specified.
+	 */
+	public int getTotalDiscs() {
+		return totalDiscs;
+	}
+
+	/**
+	 * @return The disc number of the album. -1 signifies that it has not been
+	 *         specified.
+	 */
+	public int getDiscNumber() {
+		return discNumber;
+	}
+
+	/**
+	 * @return The number of files.
+	 */
+	public int getFileCount() {
+		return fileNames.length;
+	}
+
+	/**
+	 * @param fileOrdinal the file ordinal.
+	 * @return The file name or {@code null}.
+	 */
+	public String getFileName(int fileOrdinal) {
+		return fileNames[fileOrdinal];
+	}
+
+	/**
+	 * @param fileOrdinal the file ordinal.
+	 * @return The file type or {@code null}.
+	 */
+	public String getFileType(int fileOrdinal) {
+		return fileTypes[fileOrdinal];
+	}
+
+	/**
+	 * @param fileOrdinal the file ordinal.
+	 * @return The ordinal of the first track of the file.
+	 */
+	public int getFirstTrack(int fileOrdinal) {
+		checkFile(fileOrdinal);
+		return fileTrackStart[fileOrdinal];
+	}
+
+	/**
+	 * @param fileOrdinal the file ordinal.
+	 * @return The number of tracks in the file.
+	 */
+	public int getTrackCount(int fileOrdinal) {
+		checkFile(fileOrdinal);
+		return fileTrackStart[fileOrdinal + 1] - fileTrackStart[fileOrdinal];
+	}
+
+	/**
+	 * @return The total number of tracks in all files.
+	 */
+	public int getTrackCount() {
+		return trackNumbers.length;
+	}
+
+	/**
+	 * Finds the file a track belongs to.
+	 *
+	 * @param track the track ordinal.
+	 * @return The file ordinal.
+	 */
+	public int getTrackFile(int track) {
+		checkTrack(track);
+		int low = 0;
+		int high = fileNames.length - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (fileTrackStart[mid] <= track) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		// Skip files without tracks that start at the same ordinal
+		while (low + 1 < fileNames.length && fileTrackStart[low + 1] <= track) {
+			low++;
+		}
+		return low;
+	}
+
+	/**
+	 * @param track the track ordinal.
+	 * @return The track number. -1 signifies that it has not been set.
+	 */
+	public int getTrackNumber(int track) {
+		checkTrack(track);
+		return trackNumbers[track];
+	}
+
+	/**
+	 * @param track the track ordinal.
+	 * @return The data type of the track or {@code null}.
+	 */
+	public String getDataType(int track) {
+		checkTrack(track);
+		return dataTypes == null ? null : dataTypes[track];
+	}
+
+	/**
+	 * @param track the track ordinal.
+	 * @return The ISRC code of the track or {@code null}.
+	 */
+	public String getIsrcCode(int track) {
+		checkTrack(track);
+		return isrcCodes == null ? null : isrcCodes[track];
+	}
+
+	/**
+	 * @param track the track ordinal.
+	 * @return The performer of the track, without falling back to the album
+	 *         performer, or {@code null}.
+	 */
+	public String getTrackPerformer(int track) {
+		checkTrack(track);
+		return trackPerformers == null ? null : trackPerformers[track];
+	}
+
+	/**
+	 * @param track the track ordinal.
+	 * @return The title of the track, without falling back to the album
+	 *         title, or {@code null}.
+	 */
+	public String getTrackTitle(int track) {
+		checkTrack(track);
+		return trackTitles == null ? null : trackTitles[track];
+	}
+
+	/**
+	 * @param track the track ordinal.
+	 * @return The songwriter of the track, without falling back to the album
+	 *         songwriter, or {@code null}.
+	 */
+	public String getTrackSongwriter(int track) {
+		checkTrack(track);
+		return trackSongwriters == null ? null : trackSongwriters[track];
+	}
+
+	/**
+	 * @param track the track ordinal.
+	 * @return The pregap of the track in total frames or {@code -1}.
+	 */
+	public int getPregapFrames(int track) {
+		checkTrack(track);
+		return pregaps[track];
+	}
+
+	/**
+	 * @param track the track ordinal.
+	 * @return The pregap of the track or {@code null}.
+	 */
+	public Position getPregap(int track) {
+		return toPosition(getPregapFrames(track));
+	}
+
+	/**
+	 * @param track the track ordinal.
+	 * @return The postgap of the track in total frames or {@code -1}.
+	 */
+	public int getPostgapFrames(int track) {
+		checkTrack(track);
+		return postgaps[track];
+	}
+
+	/**
+	 * @param track the track ordinal.
+	 * @return The postgap of the track or {@code null}.
+	 */
+	public Position getPostgap(int track) {
+		return toPosition(getPostgapFrames(track));
+	}
+
+	/**
+	 * @param track the track ordinal.
+	 * @return The sample offset of the track or {@code -1} if unknown.
+	 */
+	public long getSampleOffset(int track) {
+		checkTrack(track);
+		return trackSampleOffsets == null ? -1 : trackSampleOffsets[track];
+	}
+
+	/**
+	 * @param track the track ordinal.
+	 * @return The sample offset of the start index of the track, as found by
+	 *         {@link #findStartIndex(int)}, or {@code -1} if unknown.
+	 */
+	public long getStartSampleOffset(int track) {
+		int i = findStartIndex(track);
+		return i < 0 ? -1 : getIndexSampleOffset(track, i);
+	}
+
+	/**
+	 * Returns the bitmask of the compliant flags of a track, where bit
+	 * {@code n} is set if the {@code n}th flag of
+	 * {@link CueParser#COMPLIANT_FLAGS} in iteration order is set.
+	 *
+	 * @param track the track ordinal.
+	 * @return The flag bitmask.
+	 */
+	public int getFlagMask(int track) {
+		checkTrack(track);
+		return flagMasks[track];
+	}
+
+	/**
+	 * Checks if a track has the specified flag.
+	 *
+	 * @param track the track ordinal.
+	 * @param flag the flag.
+	 * @return {@code true} if the track has the flag, {@code false}
+	 *         otherwise.
+	 */
+	public boolean hasFlag(int track, String flag) {
+		checkTrack(track);
+		int bit = flagBit(flag);
+		if (bit >= 0) {
+			return (flagMasks[track] & (1 << bit)) != 0;
+		}
+		if (otherFlags == null || otherFlags[track] == null) {
+			return false;
+		}
+		for (String other : otherFlags[track]) {
+			if (other.equals(flag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @param track the track ordinal.
+	 * @return An unmodifiable sorted {@link Set} of the flags of the track.
+	 */
+	public Set<String> getFlags(int track) {
+		checkTrack(track);
+		int mask = flagMasks[track];
+		String[] others = otherFlags == null ? null : otherFlags[track];
+		if (mask == 0 && others == null) {
+			return Collections.emptySet();
+		}
+		TreeSet<String> result = new TreeSet<>();
+		for (int i = 0; i < FLAGS.length; i++) {
+			if ((mask & (1 << i)) != 0) {
+				result.add(FLAGS[i]);
+			}
+		}
+		if (others != null) {
+			Collections.addAll(result, others);
+		}
+		return Collections.unmodifiableSet(result);
+	}
+
+	/**
+	 * @param track the track ordinal.
+	 * @return The number of indices of the track.
+	 */
+	public int getIndexCount(int track) {
+		checkTrack(track);
+		return trackIndexStart[track + 1] - trackIndexStart[track];
+	}
+
+	/**
+	 * @param track the track ordinal.
+	 * @param i the index ordinal within the track.
+	 * @return The index number.
+	 */
+	public int getIndexNumber(int track, int i) {
+		return indexNumbers[indexOrdinal(track, i)];
+	}
+
+	/**
+	 * @param track the track ordinal.
+	 * @param i the index ordinal within the track.
+	 * @return The index position in total frames or {@code -1} if it has no
+	 *         position.
+	 */
+	public int getIndexFrames(int track, int i) {
+		return indexFrames[indexOrdinal(track, i)];
+	}
+
+	/**
+	 * @param track the track ordinal.
+	 * @param i the index ordinal within the track.
+	 * @return The index {@link Position} or {@code null} if it has no
+	 *         position.
+	 */
+	public Position getIndexPosition(int track, int i) {
+		return toPosition(indexFrames[indexOrdinal(track, i)]);
+	}
+
+	/**
+	 * @param track the track ordinal.
+	 * @param i the index ordinal within the track.
+	 * @return The absolute sample offset of the index or {@code -1} if
+	 *         unknown.
+	 */
+	public long getIndexSampleOffset(int track, int i) {
+		int ordinal = indexOrdinal(track, i);
+		return indexSampleOffsets == null ? -1 : indexSampleOffsets[ordinal];
+	}
+
+	/**
+	 * Finds the ordinal within the track of the index with the specified
+	 * number, with the same semantics as {@link TrackData#getIndex(int)}.
+	 *
+	 * @param track the track ordinal.
+	 * @param number the index number.
+	 * @return The index ordinal within the track or {@code -1} if there is no
+	 *         such index.
+	 */
+	public int findIndex(int track, int number) {
+		checkTrack(track);
+		int start = trackIndexStart[track];
+		for (int i = start; i < trackIndexStart[track + 1]; i++) {
+			if (indexNumbers[i] == number) {
+				return i - start;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Finds the ordinal within the track of the index that indicates the
+	 * start of the track, with the same semantics as
+	 * {@link TrackData#getStartIndex()}.
+	 *
+	 * @param track the track ordinal.
+	 * @return The index ordinal within the track or {@code -1} if there is no
+	 *         start index.
+	 */
+	public int findStartIndex(int track) {
+		int result = findIndex(track, 1);
+		return result < 0 ? findIndex(track, 0) : result;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(getClass().getSimpleName()).append(" [");
+		if (file != null) {
+			sb.append("file=\"").append(file).append("\", ");
+		}
+		if (title != null) {
+			sb.append("title=").append(title).append(", ");
+		}
+		if (performer != null) {
+			sb.append("performer=").append(performer).append(", ");
+		}
+		sb.append("files=").append(fileNames.length)
+			.append(", tracks=").append(trackNumbers.length)
+			.append(", indices=").append(indexNumbers.length).append("]");
+		return sb.toString();
+	}
+
+	private int indexOrdinal(int track, int i) {
+		checkTrack(track);
+		int ordinal = trackIndexStart[track] + i;
+		if (i < 0 || ordinal >= trackIndexStart[track + 1]) {
+			throw new IndexOutOfBoundsException("Index " + i + " out of bounds for track " + track);
+		}
+		return ordinal;
+	}
+
+	private void checkTrack(int track) {
+		if (track < 0 || track >= trackNumbers.length) {
+			throw new IndexOutOfBoundsException("Track " + track + " out of bounds for length " + trackNumbers.length);
+		}
+	}
+
+	private void checkFile(int fileOrdinal) {
+		if (fileOrdinal < 0 || fileOrdinal >= fileNames.length) {
+			throw new IndexOutOfBoundsException("File " + fileOrdinal + " out of bounds for length " + fileNames.length);
+		}
+	}
+
+	/**
+	 * Converts total frames to a {@link Position}.
+	 *
+	 * @param totalFrames the total frames or {@code -1}.
+	 * @return The {@link Position} or {@code null} if {@code totalFrames} is
+	 *         negative.
+	 */
+	public static Position toPosition(int totalFrames) {
+		if (totalFrames < 0) {
+			return null;
+		}
+		return new Position(totalFrames / 4500, (totalFrames / 75) % 60, totalFrames % 75);
+	}
+
+	private static int toFrames(Position position) {
+		return position == null ? -1 : position.getTotalFrames();
+	}
+
+	private static int flagBit(String flag) {
+		for (int i = 0; i < FLAGS.length; i++) {
+			if (FLAGS[i].equals(flag)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static String intern(String s) {
+		return s == null ? null : s.intern();
+	}
+
+	private static long[] newSampleOffsets(int length) {
+		long[] result = new long[length];
+		Arrays.fill(result, -1L);
+		return result;
+	}
+
+	private static String[] nullIfEmpty(String[] array) {
+		for (String s : array) {
+			if (s != null) {
+				return array;
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,674 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Parses many cue sheets concurrently. The cue sheets to parse are either
+ * found by walking a directory tree, or supplied as a {@link Stream} of
+ * {@link Path}s. The results are delivered either to a callback or as a
+ * {@link Stream}, in the order of the input or in the order they complete.
+ * <p>
+ * The number of cue sheets that are being parsed or waiting to be consumed
+ * at any given time is bounded by the "max in-flight" value, so that the
+ * input is never read far ahead of the consumer.
+ * <p>
+ * When walking a directory tree, the tree is walked lazily as the cue sheets
+ * are submitted, so that parsing starts before the walk has completed.
+ * Folders that can't be read don't stop the walk. Each of them is delivered
+ * as a failed {@link Result} instead, as soon as it is found.
+ * <p>
+ * Instances using the default executor must be closed when no longer needed.
+ *
+ * @author Nadahar
+ */
+public class CueBatchParser implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CueBatchParser.class);
+
+	/** The {@link Executor} that parses the cue sheets */
+	protected final Executor executor;
+
+	/** Whether {@link #executor} was created by and belongs to this instance */
+	protected final boolean ownsExecutor;
+
+	/** The maximum number of cue sheets being processed at the same time */
+	protected final int maxInFlight;
+
+	/**
+	 * The {@link Charset} to use or {@code null} to let
+	 * {@link CueParser#parse(Path)} decide
+	 */
+	protected final Charset charset;
+
+	/**
+	 * Creates a new instance using a fixed pool of daemon threads, one per
+	 * available processor, and a max in-flight value of twice the number of
+	 * threads.
+	 */
+	public CueBatchParser() {
+		this(null, 0, null);
+	}
+
+	/**
+	 * Creates a new instance using the specified parameters.
+	 *
+	 * @param executor the {@link Executor} to parse the cue sheets on. If
+	 *            {@code null}, a fixed pool of daemon threads, one per
+	 *            available processor, is created and shut down by
+	 *            {@link #close()}.
+	 * @param maxInFlight the maximum number of cue sheets that can be parsed
+	 *            or wait for delivery at the same time. If less than
+	 *            {@code 1}, twice the number of available processors is used.
+	 * @param charset the {@link Charset} to parse the cue sheets with. If
+	 *            {@code null}, {@link CueParser#parse(Path)} is used.
+	 */
+	public CueBatchParser(Executor executor, int maxInFlight, Charset charset) {
+		int processors = Runtime.getRuntime().availableProcessors();
+		if (executor == null) {
+			AtomicInteger threadCount = new AtomicInteger();
+			this.executor = Executors.newFixedThreadPool(processors, runnable -> {
+				Thread thread = new Thread(runnable, "CueBatchParser-" + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+			this.ownsExecutor = true;
+		} else {
+			this.executor = executor;
+			this.ownsExecutor = false;
+		}
+		this.maxInFlight = maxInFlight < 1 ? 2 * processors : maxInFlight;
+		this.charset = charset;
+	}
+
+	/**
+	 * @return The maximum number of cue sheets being processed at the same
+	 *         time.
+	 */
+	public int getMaxInFlight() {
+		return maxInFlight;
+	}
+
+	/**
+	 * Parses all cue sheets found under {@code root} and hands each
+	 * {@link Result} to {@code callback}. This method returns when all the cue
+	 * sheets have been parsed.
+	 * <p>
+	 * <b>Note:</b> {@code callback} is called from the executor threads and
+	 * must be thread-safe.
+	 *
+	 * @param root the root folder to search for cue sheets.
+	 * @param callback the {@link Consumer} to deliver the results to.
+	 * @throws IOException If an error occurs while opening the root folder.
+	 * @throws InterruptedException If the current thread is interrupted while
+	 *             waiting.
+	 */
+	public void parse(Path root, Consumer<? super Result> callback) throws IOException, InterruptedException {
+		if (callback == null) {
+			throw new IllegalArgumentException("callback cannot be null");
+		}
+		try (Stream<Path> files = findCueSheets(root, callback)) {
+			parse(files, callback);
+		}
+	}
+
+	/**
+	 * Parses all cue sheets in {@code files} and hands each {@link Result} to
+	 * {@code callback}. This method returns when all the cue sheets have been
+	 * parsed.
+	 * <p>
+	 * <b>Note:</b> {@code callback} is called from the executor threads and
+	 * must be thread-safe.
+	 *
+	 * @param files the {@link Stream} of cue sheet {@link Path}s.
+	 * @param callback the {@link Consumer} to deliver the results to.
+	 * @throws InterruptedException If the current thread is interrupted while
+	 *             waiting.
+	 */
+	public void parse(Stream<Path> files, Consumer<? super Result> callback) throws InterruptedException {
+		if (callback == null) {
+			throw new IllegalArgumentException("callback cannot be null");
+		}
+		Semaphore permits = new Semaphore(maxInFlight);
+		Iterator<Path> iterator = files.iterator();
+		while (iterator.hasNext()) {
+			Path file = iterator.next();
+			permits.acquire();
+			try {
+				executor.execute(() -> {
+					Result result;
+					try {
+						result = parseFile(file);
+					} catch (Throwable t) {
+						result = createFailure(file, t);
+					}
+					try {
+						callback.accept(result);
+					} catch (RuntimeException e) {
+						LOGGER.error("Callback failed for \"{}\": {}", file, e.getMessage());
+						LOGGER.trace("", e);
+					} finally {
+						permits.release();
+					}
+				});
+			} catch (RuntimeException e) {
+				permits.release();
+				throw e;
+			}
+		}
+		permits.acquire(maxInFlight);
+		permits.release(maxInFlight);
+	}
+
+	/**
+	 * Returns a lazy {@link Stream} of the {@link Result}s of parsing all cue
+	 * sheets found under {@code root}. The returned {@link Stream} should be
+	 * closed after use.
+	 *
+	 * @param root the root folder to search for cue sheets.
+	 * @param ordered {@code true} to deliver the results in the order the cue
+	 *            sheets are found, {@code false} to deliver them as they
+	 *            complete.
+	 * @return The {@link Stream} of {@link Result}s.
+	 * @throws IOException If an error occurs while opening the root folder.
+	 */
+	public Stream<Result> stream(Path root, boolean ordered) throws IOException {
+		Queue<Result> failures = new ArrayDeque<>();
+		Stream<Path> files = findCueSheets(root, failures::add);
+		ResultSpliterator spliterator = new ResultSpliterator(files.iterator(), ordered, failures);
+		return StreamSupport.stream(spliterator, false).onClose(files::close);
+	}
+
+	/**
+	 * Returns a lazy {@link Stream} of the {@link Result}s of parsing all cue
+	 * sheets in {@code files}. Closing the returned {@link Stream} closes
+	 * {@code files}.
+	 *
+	 * @param files the {@link Stream} of cue sheet {@link Path}s.
+	 * @param ordered {@code true} to deliver the results in the order of
+	 *            {@code files}, {@code false} to deliver them as they
+	 *            complete.
+	 * @return The {@link Stream} of {@link Result}s.
+	 */
+	public Stream<Result> stream(Stream<Path> files, boolean ordered) {
+		ResultSpliterator spliterator = new ResultSpliterator(files.iterator(), ordered, null);
+		return StreamSupport.stream(spliterator, false).onClose(files::close);
+	}
+
+	/**
+	 * Shuts down the executor if it was created by this instance.
+	 */
+	@Override
+	public void close() {
+		if (ownsExecutor) {
+			((ExecutorService) executor).shutdown();
+		}
+	}
+
+	/**
+	 * Parses one cue sheet and catches any failure.
+	 *
+	 * @param file the cue sheet {@link Path}.
+	 * @return The {@link Result}.
+	 */
+	protected Result parseFile(Path file) {
+		try {
+			return new Result(file, charset == null ? CueParser.parse(file) : CueParser.parse(file, charset), null);
+		} catch (IOException | RuntimeException e) {
+			LOGGER.debug("Failed to parse cue sheet \"{}\": {}", file, e.getMessage());
+			LOGGER.trace("", e);
+			return new Result(file, null, e);
+		}
+	}
+
+	/**
+	 * Creates a failed {@link Result} for a task that ended with the
+	 * specified {@link Throwable}.
+	 *
+	 * @param file the cue sheet {@link Path}.
+	 * @param throwable the {@link Throwable}.
+	 * @return The failed {@link Result}.
+	 */
+	protected static Result createFailure(Path file, Throwable throwable) {
+		if (throwable instanceof CompletionException && throwable.getCause() != null) {
+			throwable = throwable.getCause();
+		}
+		LOGGER.error("Failed to parse cue sheet \"{}\": {}", file, throwable.toString());
+		LOGGER.trace("", throwable);
+		return new Result(file, null, throwable instanceof Exception ? (Exception) throwable : new CompletionException(throwable));
+	}
+
+	/**
+	 * Returns a lazy {@link Stream} of all regular files with the {@code .cue}
+	 * extension in the folder tree under {@code root}. Folders that can't be
+	 * read are logged and skipped. The returned {@link Stream} should be
+	 * closed after use.
+	 *
+	 * @param root the root folder.
+	 * @return The {@link Stream} of cue sheet {@link Path}s.
+	 * @throws IOException If an error occurs while opening the root folder.
+	 */
+	public static Stream<Path> findCueSheets(Path root) throws IOException {
+		return findCueSheets(root, null);
+	}
+
+	/**
+	 * Returns a lazy {@link Stream} of all regular files with the {@code .cue}
+	 * extension in the folder tree under {@code root}. The tree is walked as
+	 * the {@link Stream} is consumed. Folders and files that can't be read
+	 * don't stop the walk, but are handed to {@code failures} as failed
+	 * {@link Result}s on the consuming thread. The returned {@link Stream}
+	 * should be closed after use.
+	 *
+	 * @param root the root folder.
+	 * @param failures the {@link Consumer} to hand a {@link Result} to for
+	 *            each folder or file that can't be read, or {@code null} to
+	 *            only log them.
+	 * @return The {@link Stream} of cue sheet {@link Path}s.
+	 * @throws IOException If an error occurs while opening the root folder.
+	 */
+	protected static Stream<Path> findCueSheets(Path root, Consumer<? super Result> failures) throws IOException {
+		CueSheetIterator iterator = new CueSheetIterator(root, failures);
+		return StreamSupport.stream(
+			Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+			false
+		).onClose(iterator::close);
+	}
+
+	/**
+	 * Evaluates if the specified file is a cue sheet.
+	 *
+	 * @param file the {@link Path} to evaluate.
+	 * @param attrs the {@link BasicFileAttributes} of {@code file}, read
+	 *            without following links.
+	 * @return {@code true} if {@code file} is a regular file, or a link to
+	 *         one, with the {@code .cue} extension.
+	 */
+	protected static boolean isCueSheet(Path file, BasicFileAttributes attrs) {
+		String name = file.getFileName() == null ? null : file.getFileName().toString();
+		return
+			name != null &&
+			name.length() > 4 &&
+			name.regionMatches(true, name.length() - 4, ".cue", 0, 4) &&
+			(attrs.isRegularFile() || attrs.isSymbolicLink() && Files.isRegularFile(file));
+	}
+
+	/**
+	 * The result of parsing one cue sheet.
+	 *
+	 * @author Nadahar
+	 */
+	public static class Result {
+
+		/** The cue sheet {@link Path} */
+		protected final Path file;
+
+		/** The parsed {@link CueSheet} or {@code null} if parsing failed */
+		protected final CueSheet cueSheet;
+
+		/** The {@link Exception} that made parsing fail or {@code null} */
+		protected final Exception exception;
+
+		/**
+		 * Creates a new instance using the specified parameters.
+		 *
+		 * @param file the cue sheet {@link Path}.
+		 * @param cueSheet the parsed {@link CueSheet} or {@code null}.
+		 * @param exception the {@link Exception} or {@code null}.
+		 */
+		public Result(Path file, CueSheet cueSheet, Exception exception) {
+			this.file = file;
+			this.cueSheet = cueSheet;
+			this.exception = exception;
+		}
+
+		/**
+		 * @return The cue sheet {@link Path}.
+		 */
+		public Path getFile() {
+			return file;
+		}
+
+		/**
+		 * @return The parsed {@link CueSheet} or {@code null} if parsing
+		 *         failed.
+		 */
+		public CueSheet getCueSheet() {
+			return cueSheet;
+		}
+
+		/**
+		 * @return The {@link Exception} that made parsing fail or
+		 *         {@code null}.
+		 */
+		public Exception getException() {
+			return exception;
+		}
+
+		/**
+		 * @return {@code true} if the cue sheet was parsed, {@code false}
+		 *         otherwise.
+		 */
+		public boolean isSuccess() {
+			return cueSheet != null;
+		}
+
+		/**
+		 * @return The {@link Message}s generated while parsing, or an empty
+		 *         {@link List} if parsing failed.
+		 */
+		public List<Message> getMessages() {
+			return cueSheet == null ? Collections.<Message>emptyList() : cueSheet.getMessages();
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			sb.append(getClass().getSimpleName()).append(" [File=").append(file);
+			if (cueSheet != null) {
+				sb.append(", Messages=").append(cueSheet.getMessages().size());
+			}
+			if (exception != null) {
+				sb.append(", Exception=").append(exception);
+			}
+			sb.append("]");
+			return sb.toString();
+		}
+	}
+
+	/**
+	 * A {@link Spliterator} that submits up to {@link #maxInFlight} parse
+	 * tasks ahead of the consumer.
+	 *
+	 * @author Nadahar
+	 */
+	protected class ResultSpliterator implements Spliterator<Result> {
+
+		/** The source of cue sheet {@link Path}s */
+		protected final Iterator<Path> files;
+
+		/** Whether the results should be delivered in the source order */
+		protected final boolean ordered;
+
+		/** The pending results in submission order, when ordered */
+		protected final ArrayDeque<CompletableFuture<Result>> pending = new ArrayDeque<>();
+
+		/** The completed results in completion order, when unordered */
+		protected final BlockingQueue<Result> completed = new LinkedBlockingQueue<>();
+
+		/**
+		 * The failures found by the source that haven't been delivered, or
+		 * {@code null}
+		 */
+		protected final Queue<Result> failures;
+
+		/** The number of submitted results that haven't been delivered */
+		protected int inFlight;
+
+		/**
+		 * Creates a new instance.
+		 *
+		 * @param files the source of cue sheet {@link Path}s.
+		 * @param ordered {@code true} to deliver the results in the source
+		 *            order.
+		 * @param failures the {@link Queue} that {@code files} adds failures
+		 *            to while advancing, or {@code null}. The failures are
+		 *            delivered ahead of the pending results.
+		 */
+		public ResultSpliterator(Iterator<Path> files, boolean ordered, Queue<Result> failures) {
+			this.files = files;
+			this.ordered = ordered;
+			this.failures = failures;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Result> action) {
+			while (inFlight < maxInFlight && files.hasNext()) {
+				Path file = files.next();
+				CompletableFuture<Result> future = CompletableFuture.supplyAsync(() -> parseFile(file), executor).handle(
+					(result, throwable) -> throwable == null ? result : createFailure(file, throwable)
+				);
+				if (ordered) {
+					pending.add(future);
+				} else {
+					future.thenAccept(completed::add);
+				}
+				inFlight++;
+			}
+			if (failures != null && !failures.isEmpty()) {
+				action.accept(failures.poll());
+				return true;
+			}
+			if (inFlight == 0) {
+				return false;
+			}
+			Result result;
+			if (ordered) {
+				result = pending.poll().join();
+			} else {
+				try {
+					result = completed.take();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted while waiting for cue sheet results", e);
+				}
+			}
+			inFlight--;
+			action.accept(result);
+			return true;
+		}
+
+		@Override
+		public Spliterator<Result> trySplit() {
+			return null;
+		}
+
+		@Override
+		public long estimateSize() {
+			return Long.MAX_VALUE;
+		}
+
+		@Override
+		public int characteristics() {
+			return ordered ? NONNULL | ORDERED : NONNULL;
+		}
+	}
+
+	/**
+	 * An {@link Iterator} that lazily walks a folder tree depth-first and
+	 * returns the cue sheets it finds. Only the folders on the current path
+	 * are kept open. Links to folders aren't followed, except for the root.
+	 *
+	 * @author Nadahar
+	 */
+	protected static class CueSheetIterator implements Iterator<Path>, Closeable {
+
+		/** The open folders, the current one first */
+		protected final ArrayDeque<Folder> folders = new ArrayDeque<>();
+
+		/**
+		 * The {@link Consumer} to hand failures to, or {@code null} to only
+		 * log them
+		 */
+		protected final Consumer<? super Result> failures;
+
+		/** The next cue sheet to return or {@code null} */
+		protected Path next;
+
+		/**
+		 * Creates a new instance and opens {@code root}.
+		 *
+		 * @param root the root folder. If it is a cue sheet, it is the only
+		 *            element.
+		 * @param failures the {@link Consumer} to hand failures to, or
+		 *            {@code null} to only log them.
+		 * @throws IOException If an error occurs while opening {@code root}.
+		 */
+		public CueSheetIterator(Path root, Consumer<? super Result> failures) throws IOException {
+			this.failures = failures;
+			BasicFileAttributes attrs = Files.readAttributes(root, BasicFileAttributes.class);
+			if (attrs.isDirectory()) {
+				folders.push(new Folder(root, Files.newDirectoryStream(root)));
+			} else if (isCueSheet(root, attrs)) {
+				next = root;
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (next == null && !folders.isEmpty()) {
+				Folder folder = folders.peek();
+				Path entry;
+				try {
+					if (!folder.entries.hasNext()) {
+						closeFolder();
+						continue;
+					}
+					entry = folder.entries.next();
+				} catch (DirectoryIteratorException e) {
+					LOGGER.warn(
+						"Failed to list all of \"{}\" while searching for cue sheets: {}",
+						folder.path,
+						e.getCause().toString()
+					);
+					LOGGER.trace("", e.getCause());
+					fail(folder.path, e.getCause());
+					closeFolder();
+					continue;
+				}
+				try {
+					BasicFileAttributes attrs = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+					if (attrs.isDirectory()) {
+						folders.push(new Folder(entry, Files.newDirectoryStream(entry)));
+					} else if (isCueSheet(entry, attrs)) {
+						next = entry;
+					}
+				} catch (IOException e) {
+					LOGGER.warn("Skipping \"{}\" while searching for cue sheets: {}", entry, e.toString());
+					LOGGER.trace("", e);
+					fail(entry, e);
+				}
+			}
+			return next != null;
+		}
+
+		@Override
+		public Path next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Path result = next;
+			next = null;
+			return result;
+		}
+
+		/**
+		 * Closes all open folders.
+		 */
+		@Override
+		public void close() {
+			while (!folders.isEmpty()) {
+				closeFolder();
+			}
+		}
+
+		/**
+		 * Closes and removes the current folder.
+		 */
+		protected void closeFolder() {
+			Folder folder = folders.pop();
+			try {
+				folder.stream.close();
+			} catch (IOException e) {
+				LOGGER.trace("Failed to close \"{}\": {}", folder.path, e.getMessage());
+			}
+		}
+
+		/**
+		 * Hands a failure to {@link #failures} if it isn't {@code null}.
+		 *
+		 * @param path the {@link Path} that failed.
+		 * @param exception the {@link IOException}.
+		 */
+		protected void fail(Path path, IOException exception) {
+			if (failures != null) {
+				failures.accept(new Result(path, null, exception));
+			}
+		}
+
+		/**
+		 * An open folder.
+		 */
+		protected static class Folder {
+
+			/** The folder {@link Path} */
+			protected final Path path;
+
+			/** The open {@link DirectoryStream} */
+			protected final DirectoryStream<Path> stream;
+
+			/** The remaining entries of {@link #stream} */
+			protected final Iterator<Path> entries;
+
+			/**
+			 * Creates a new instance.
+			 *
+			 * @param path the folder {@link Path}.
+			 * @param stream the open {@link DirectoryStream}.
+			 */
+			public Folder(Path path, DirectoryStream<Path> stream) {
+				this.path = path;
+				this.stream = stream;
+				this.entries = stream.iterator();
+			}
+		}
+	}
+}
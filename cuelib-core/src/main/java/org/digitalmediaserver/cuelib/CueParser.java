@@ -19,24 +19,26 @@
 package org.digitalmediaserver.cuelib;
 
 import java.io.File;
-import java.io.FileFilter;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.LineNumberReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Scanner;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,6 +55,12 @@ public class CueParser {
 	 */
 	private static final Logger LOGGER = LoggerFactory.getLogger(CueParser.class);
 
+	/**
+	 * The file size in bytes above which {@link #parse(Path)} memory-maps the
+	 * file instead of reading it.
+	 */
+	public static final int MAP_THRESHOLD = 256 * 1024;
+
 	// Constants for warning texts. Quick and dirty. Should really be a ResourceBundle.
 
 	/** The Constant WARNING_EMPTY_LINES. */
@@ -139,85 +147,6 @@ public class CueParser {
 	/** The Constant WARNING_INVALID_YEAR. */
 	protected static final String WARNING_INVALID_YEAR = "Invalid year. Should be a number from 1 to 9999 (inclusive)";
 
-	// Patterns used for parsing and validation. Quick and dirty. A formal grammar would be nicer.
-
-	/** The Constant PATTERN_POSITION. */
-	protected static final Pattern PATTERN_POSITION = Pattern.compile("^(\\d*):(\\d*):(\\d*)$");
-
-	/** The Constant PATTERN_CATALOG_NUMBER. */
-	protected static final Pattern PATTERN_CATALOG_NUMBER = Pattern.compile("^\\d{13}$");
-
-	/** The Constant PATTERN_FILE. */
-	protected static final Pattern PATTERN_FILE = Pattern.compile(
-		"^FILE\\s+((?:\"[^\"]*\")|\\S+)\\s+(\\S+)\\s*$", Pattern.CASE_INSENSITIVE
-	);
-
-	/** The Constant PATTERN_CDTEXTFILE. */
-	protected static final Pattern PATTERN_CDTEXTFILE = Pattern.compile(
-		"^CDTEXTFILE\\s+((?:\"[^\"]*\")|\\S+)\\s*$", Pattern.CASE_INSENSITIVE
-	);
-
-	/** The Constant PATTERN_FLAGS. */
-	protected static final Pattern PATTERN_FLAGS = Pattern.compile("^FLAGS(\\s+\\w+)*\\s*$", Pattern.CASE_INSENSITIVE);
-
-	/** The Constant PATTERN_INDEX. */
-	protected static final Pattern PATTERN_INDEX = Pattern.compile("^INDEX\\s+(\\d+)\\s+(\\d*:\\d*:\\d*)\\s*$", Pattern.CASE_INSENSITIVE);
-
-	/** The Constant PATTERN_ISRC_CODE. */
-	protected static final Pattern PATTERN_ISRC_CODE = Pattern.compile("^\\w{5}\\d{7}$");
-
-	/** The Constant PATTERN_PERFORMER. */
-	protected static final Pattern PATTERN_PERFORMER = Pattern.compile(
-		"^PERFORMER\\s+((?:\"[^\"]*\")|\\S+)\\s*$", Pattern.CASE_INSENSITIVE
-	);
-
-	/** The Constant PATTERN_POSTGAP. */
-	protected static final Pattern PATTERN_POSTGAP = Pattern.compile("^POSTGAP\\s+(\\d*:\\d*:\\d*)\\s*$", Pattern.CASE_INSENSITIVE);
-
-	/** The Constant PATTERN_PREGAP. */
-	protected static final Pattern PATTERN_PREGAP = Pattern.compile("^PREGAP\\s+(\\d*:\\d*:\\d*)\\s*$", Pattern.CASE_INSENSITIVE);
-
-	/** The Constant PATTERN_REM_COMMENT. */
-	protected static final Pattern PATTERN_REM_COMMENT = Pattern.compile(
-		"^(REM\\s+COMMENT)\\s+((?:\"[^\"]*\")|\\S+)\\s*$", Pattern.CASE_INSENSITIVE
-	);
-
-	/** The Constant PATTERN_REM_DATE. */
-	protected static final Pattern PATTERN_REM_DATE = Pattern.compile(
-		"^(REM\\s+DATE)\\s+(\\d+)\\s*$", Pattern.CASE_INSENSITIVE
-	);
-
-	/** The Constant PATTERN_REM_DISCID. */
-	protected static final Pattern PATTERN_REM_DISCID = Pattern.compile(
-		"^(REM\\s+DISCID)\\s+((?:\"[^\"]*\")|\\S+)\\s*$", Pattern.CASE_INSENSITIVE
-	);
-
-	/** The Constant PATTERN_REM_DISCNUMBER. */
-	protected static final Pattern PATTERN_REM_DISCNUMBER = Pattern.compile(
-		"^(REM\\s+DISCNUMBER)\\s+((?:\"[^\"]*\")|\\S+)\\s*$", Pattern.CASE_INSENSITIVE
-	);
-
-	/** The Constant PATTERN_REM_GENRE. */
-	protected static final Pattern PATTERN_REM_GENRE = Pattern.compile(
-		"^(REM\\s+GENRE)\\s+((?:\"[^\"]*\")|\\S+)\\s*$", Pattern.CASE_INSENSITIVE
-	);
-
-	/** The Constant PATTERN_REM_TOTALDISCS. */
-	protected static final Pattern PATTERN_REM_TOTALDISCS = Pattern.compile(
-		"^(REM\\s+TOTALDISCS)\\s+((?:\"[^\"]*\")|\\S+)\\s*$", Pattern.CASE_INSENSITIVE
-	);
-
-	/** The Constant PATTERN_SONGWRITER. */
-	protected static final Pattern PATTERN_SONGWRITER = Pattern.compile(
-		"^SONGWRITER\\s+((?:\"[^\"]*\")|\\S+)\\s*$", Pattern.CASE_INSENSITIVE
-	);
-
-	/** The Constant PATTERN_TITLE. */
-	protected static final Pattern PATTERN_TITLE = Pattern.compile("^TITLE\\s+((?:\"[^\"]*\")|\\S+)\\s*$", Pattern.CASE_INSENSITIVE);
-
-	/** The Constant PATTERN_TRACK. */
-	protected static final Pattern PATTERN_TRACK = Pattern.compile("TRACK\\s+(\\d+)\\s+(\\S+)\\s*$", Pattern.CASE_INSENSITIVE);
-
 	/**
 	 * A set of all file types that are allowed by the cue sheet spec.
 	 */
@@ -281,9 +210,12 @@ public class CueParser {
 		if (charset == null) {
 			charset = Charset.defaultCharset();
 		}
+		CueSheet sheet;
 		try (LineNumberReader lnReader = new LineNumberReader(new InputStreamReader(inputStream, charset))) {
-			return parse(lnReader);
+			sheet = parse(lnReader);
 		}
+		sheet.setCharset(charset);
+		return sheet;
 	}
 
 	/**
@@ -300,9 +232,12 @@ public class CueParser {
 			charset = Charset.defaultCharset();
 		}
 
+		CueSheet sheet;
 		try (LineNumberReader lnReader = new LineNumberReader(Files.newBufferedReader(file, charset))) {
-			return parse(lnReader, file);
+			sheet = parse(lnReader, file);
 		}
+		sheet.setCharset(charset);
+		return sheet;
 	}
 
 	/**
@@ -331,9 +266,12 @@ public class CueParser {
 		if (charset == null) {
 			charset = Charset.defaultCharset();
 		}
+		CueSheet sheet;
 		try (LineNumberReader lnReader = new LineNumberReader(new InputStreamReader(new FileInputStream(file), charset))) {
-			return parse(lnReader, file.toPath());
+			sheet = parse(lnReader, file.toPath());
 		}
+		sheet.setCharset(charset);
+		return sheet;
 	}
 
 	/**
@@ -358,193 +296,460 @@ public class CueParser {
 	 * @throws IOException If an error occurs during the operation.
 	 */
 	public static CueSheet parse(LineNumberReader reader, Path file) throws IOException {
+		StringBuilder sb = new StringBuilder(4096);
+		int lineNumber;
+		try {
+			lineNumber = reader.getLineNumber();
+			char[] chars = new char[4096];
+			int count;
+			while ((count = reader.read(chars)) >= 0) {
+				sb.append(chars, 0, count);
+			}
+		} finally {
+			LOGGER.trace("Closing input reader.");
+			reader.close();
+		}
+		return parse(new CueTokenizer(sb, lineNumber), file);
+	}
+
+	/**
+	 * Parses a cue sheet from the specified {@link CharSequence}.
+	 *
+	 * @param cueSheet the cue sheet content.
+	 * @param file the CUE {@link Path} or {@code null} if not applicable.
+	 * @return The new {@link CueSheet} instance.
+	 */
+	public static CueSheet parse(CharSequence cueSheet, Path file) {
+		return parse(new CueTokenizer(cueSheet), file);
+	}
+
+	/**
+	 * Parses a cue sheet file, detecting the {@link Charset} with
+	 * {@link CharsetDetector}. The file is read in one operation, or
+	 * memory-mapped if it's larger than {@link #MAP_THRESHOLD} bytes. The
+	 * detected {@link Charset} and the confidence of the detection are
+	 * available from the resulting {@link CueSheet}.
+	 *
+	 * @param file the cue sheet {@link Path}.
+	 * @return The new {@link CueSheet} instance.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public static CueSheet parse(Path file) throws IOException {
+		return parse(readFile(file), file);
+	}
+
+	/**
+	 * Parses a cue sheet file like {@link #parse(Path)}, optionally in lazy
+	 * mode. In lazy mode, the performer, title and songwriter of the tracks
+	 * aren't decoded until they are retrieved from the {@link TrackData}, and
+	 * the file content is kept in memory until the {@link CueSheet} is
+	 * garbage collected.
+	 *
+	 * @param file the cue sheet {@link Path}.
+	 * @param lazy {@code true} to decode the track text values lazily,
+	 *            {@code false} to decode them during parsing.
+	 * @return The new {@link CueSheet} instance.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public static CueSheet parse(Path file, boolean lazy) throws IOException {
+		return parse(readFile(file), file, lazy);
+	}
+
+	/**
+	 * Parses a cue sheet from the bytes between the position and the limit of
+	 * the specified {@link ByteBuffer}, detecting the {@link Charset} with
+	 * {@link CharsetDetector}. A byte order mark is skipped. The position of
+	 * the buffer isn't changed.
+	 *
+	 * @param buffer the {@link ByteBuffer} containing the cue sheet.
+	 * @param file the CUE {@link Path} or {@code null} if not applicable.
+	 * @return The new {@link CueSheet} instance.
+	 */
+	public static CueSheet parse(ByteBuffer buffer, Path file) {
+		return parse(buffer, file, false);
+	}
+
+	/**
+	 * Parses a cue sheet from the bytes between the position and the limit of
+	 * the specified {@link ByteBuffer} like {@link #parse(ByteBuffer, Path)},
+	 * optionally in lazy mode. In lazy mode, the performer, title and
+	 * songwriter of the tracks aren't decoded until they are retrieved from
+	 * the {@link TrackData}, and the content of the buffer must remain
+	 * unchanged for as long as the {@link CueSheet} is in use.
+	 *
+	 * @param buffer the {@link ByteBuffer} containing the cue sheet.
+	 * @param file the CUE {@link Path} or {@code null} if not applicable.
+	 * @param lazy {@code true} to decode the track text values lazily,
+	 *            {@code false} to decode them during parsing.
+	 * @return The new {@link CueSheet} instance.
+	 */
+	public static CueSheet parse(ByteBuffer buffer, Path file, boolean lazy) {
+		CharsetDetector.Match match = CharsetDetector.detect(buffer);
+		LOGGER.debug("Detected charset {}", match);
+		ByteBuffer content = buffer;
+		if (match.getBomLength() > 0) {
+			content = buffer.duplicate();
+			content.position(content.position() + match.getBomLength());
+		}
+		CueSheet sheet = parse(content, match.getCharset(), file, lazy);
+		sheet.setCharsetConfidence(match.getConfidence());
+		return sheet;
+	}
+
+	/**
+	 * Parses a cue sheet from the bytes between the position and the limit of
+	 * the specified {@link ByteBuffer}. The position of the buffer isn't
+	 * changed.
+	 * <p>
+	 * If {@code charset} is ASCII compatible, as determined by
+	 * {@link ByteCueTokenizer#isAsciiCompatible(Charset)}, the cue sheet
+	 * structure is parsed directly on the bytes and only the extracted text
+	 * values are decoded. Otherwise the whole content is decoded before
+	 * parsing.
+	 *
+	 * @param buffer the {@link ByteBuffer} containing the cue sheet.
+	 * @param charset The {@link Charset} to use. If {@code null}, the JVM
+	 *            default {@link Charset} will be used.
+	 * @param file the CUE {@link Path} or {@code null} if not applicable.
+	 * @return The new {@link CueSheet} instance.
+	 */
+	public static CueSheet parse(ByteBuffer buffer, Charset charset, Path file) {
+		return parse(buffer, charset, file, false);
+	}
+
+	/**
+	 * Parses a cue sheet from the bytes between the position and the limit of
+	 * the specified {@link ByteBuffer} like
+	 * {@link #parse(ByteBuffer, Charset, Path)}, optionally in lazy mode. In
+	 * lazy mode, the performer, title and songwriter of the tracks are kept as
+	 * references into the buffer and aren't decoded until they are retrieved
+	 * from the {@link TrackData}. The content of the buffer must then remain
+	 * unchanged for as long as the {@link CueSheet} is in use. Lazy mode has
+	 * no effect if {@code charset} isn't ASCII compatible.
+	 *
+	 * @param buffer the {@link ByteBuffer} containing the cue sheet.
+	 * @param charset The {@link Charset} to use. If {@code null}, the JVM
+	 *            default {@link Charset} will be used.
+	 * @param file the CUE {@link Path} or {@code null} if not applicable.
+	 * @param lazy {@code true} to decode the track text values lazily,
+	 *            {@code false} to decode them during parsing.
+	 * @return The new {@link CueSheet} instance.
+	 */
+	public static CueSheet parse(ByteBuffer buffer, Charset charset, Path file, boolean lazy) {
+		if (charset == null) {
+			charset = Charset.defaultCharset();
+		}
+		CueSheet sheet = parse(createTokenizer(buffer, charset), file, lazy);
+		sheet.setCharset(charset);
+		return sheet;
+	}
+
+	/**
+	 * Parses a cue sheet from the specified {@link CharSequence}, reporting
+	 * the content to the specified {@link CueSheetHandler} instead of building
+	 * a {@link CueSheet}.
+	 *
+	 * @param cueSheet the cue sheet content.
+	 * @param handler the {@link CueSheetHandler} to report to.
+	 */
+	public static void parseEvents(CharSequence cueSheet, CueSheetHandler handler) {
+		parseEvents(new CueTokenizer(cueSheet), handler);
+	}
+
+	/**
+	 * Parses a cue sheet from the bytes between the position and the limit of
+	 * the specified {@link ByteBuffer}, reporting the content to the specified
+	 * {@link CueSheetHandler} instead of building a {@link CueSheet}. The
+	 * position of the buffer isn't changed.
+	 *
+	 * @param buffer the {@link ByteBuffer} containing the cue sheet.
+	 * @param charset The {@link Charset} to use. If {@code null}, the JVM
+	 *            default {@link Charset} will be used.
+	 * @param handler the {@link CueSheetHandler} to report to.
+	 */
+	public static void parseEvents(ByteBuffer buffer, Charset charset, CueSheetHandler handler) {
+		if (charset == null) {
+			charset = Charset.defaultCharset();
+		}
+		parseEvents(createTokenizer(buffer, charset), handler);
+	}
+
+	/**
+	 * Parses a cue sheet file, detecting the {@link Charset} with
+	 * {@link CharsetDetector}, and reports the content to the specified
+	 * {@link CueSheetHandler} instead of building a {@link CueSheet}.
+	 *
+	 * @param file the cue sheet {@link Path}.
+	 * @param handler the {@link CueSheetHandler} to report to.
+	 * @return The {@link CharsetDetector.Match} describing the detected
+	 *         {@link Charset}.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public static CharsetDetector.Match parseEvents(Path file, CueSheetHandler handler) throws IOException {
+		ByteBuffer buffer = readFile(file);
+		CharsetDetector.Match match = CharsetDetector.detect(buffer);
+		buffer.position(buffer.position() + match.getBomLength());
+		parseEvents(createTokenizer(buffer, match.getCharset()), handler);
+		return match;
+	}
+
+	/**
+	 * Creates a {@link CueTokenizer} for the bytes between the position and
+	 * the limit of the specified {@link ByteBuffer}. If {@code charset} is
+	 * ASCII compatible, a {@link ByteCueTokenizer} is returned, otherwise the
+	 * content is decoded first.
+	 *
+	 * @param buffer the {@link ByteBuffer} containing the cue sheet.
+	 * @param charset the {@link Charset} to use.
+	 * @return The new {@link CueTokenizer}.
+	 */
+	protected static CueTokenizer createTokenizer(ByteBuffer buffer, Charset charset) {
+		if (ByteCueTokenizer.isAsciiCompatible(charset)) {
+			return new ByteCueTokenizer(buffer, charset);
+		}
+		return new CueTokenizer(charset.decode(buffer.duplicate()));
+	}
+
+	/**
+	 * Reads the content of the specified file into a {@link ByteBuffer}. Files
+	 * larger than {@link #MAP_THRESHOLD} bytes are memory-mapped, smaller
+	 * files are read into a heap buffer since mapping has a higher fixed cost
+	 * and the mapping isn't released until the buffer is garbage collected.
+	 *
+	 * @param file the {@link Path} to read.
+	 * @return The {@link ByteBuffer} with the file content.
+	 * @throws IOException If an error occurs during the operation or if the
+	 *             file is too large.
+	 */
+	protected static ByteBuffer readFile(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("File \"" + file + "\" is too large to be a cue sheet");
+			}
+			if (size > MAP_THRESHOLD) {
+				return channel.map(MapMode.READ_ONLY, 0, size);
+			}
+			ByteBuffer buffer = ByteBuffer.allocate((int) size);
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+				// Keep reading until the buffer is full or EOF is reached
+			}
+			buffer.flip();
+			return buffer;
+		}
+	}
+
+	/**
+	 * Parses a cue sheet using the specified {@link CueTokenizer}.
+	 *
+	 * @param tokenizer the {@link CueTokenizer} positioned before the first
+	 *            line of the cue sheet.
+	 * @param file the CUE {@link Path} or {@code null} if not applicable.
+	 * @return The new {@link CueSheet} instance.
+	 */
+	protected static CueSheet parse(CueTokenizer tokenizer, Path file) {
+		return parse(tokenizer, file, false);
+	}
+
+	/**
+	 * Parses a cue sheet using the specified {@link CueTokenizer}, optionally
+	 * in lazy mode.
+	 *
+	 * @param tokenizer the {@link CueTokenizer} positioned before the first
+	 *            line of the cue sheet.
+	 * @param file the CUE {@link Path} or {@code null} if not applicable.
+	 * @param lazy {@code true} to decode the track text values lazily,
+	 *            {@code false} to decode them during parsing.
+	 * @return The new {@link CueSheet} instance.
+	 */
+	protected static CueSheet parse(CueTokenizer tokenizer, Path file, boolean lazy) {
 		if (file == null) {
 			LOGGER.debug("Parsing cue sheet.");
 		} else {
 			LOGGER.debug("Parsing cue sheet \"{}\".", file);
 		}
 
-		CueSheet result = new CueSheet(file);
+		CueSheetBuilder builder = new CueSheetBuilder(file, lazy);
+		parseEvents(tokenizer, builder);
+		return builder.getCueSheet();
+	}
 
-		try {
-			// Go through all lines of input.
-			String inputLine = reader.readLine();
-
-			while (inputLine != null) {
-				LOGGER.trace("Processing input line \"{}\".", inputLine);
-
-				// Normalize by removing left and right whitespace.
-				inputLine = inputLine.trim();
-
-				LineOfInput input = new LineOfInput(reader.getLineNumber(), inputLine, result);
-
-				// Do some validation. If there are no problems, then parse the
-				// line.
-				if (inputLine.length() == 0) {
-					// File should not contain empty lines.
-					addWarning(input, WARNING_EMPTY_LINES);
-				} else if (inputLine.length() < 2) {
-					// No token in the spec has length smaller than 2. Unknown
-					// token.
-					addWarning(input, WARNING_UNPARSEABLE_INPUT);
-				} else {
-					// Use first 1-2 characters to guide parsing. These two
-					// characters are enough to determine how to
-					// proceed.
-					switch (inputLine.charAt(0)) {
-						case 'c':
-						case 'C':
-							switch (inputLine.charAt(1)) {
-								case 'a':
-								case 'A':
-									CueParser.parseCatalog(input);
-									break;
-								case 'd':
-								case 'D':
-									CueParser.parseCdTextFile(input);
-									break;
-								default:
-									addWarning(input, WARNING_UNPARSEABLE_INPUT);
-									break;
-							}
-							break;
-						case 'f':
-						case 'F':
-							switch (inputLine.charAt(1)) {
-								case 'i':
-								case 'I':
-									CueParser.parseFile(input);
-									break;
-								case 'l':
-								case 'L':
-									CueParser.parseFlags(input);
-									break;
-								default:
-									addWarning(input, WARNING_UNPARSEABLE_INPUT);
-									break;
-							}
-							break;
-						case 'i':
-						case 'I':
-							switch (inputLine.charAt(1)) {
-								case 'n':
-								case 'N':
-									CueParser.parseIndex(input);
-									break;
-								case 's':
-								case 'S':
-									CueParser.parseIsrc(input);
-									break;
-								default:
-									addWarning(input, WARNING_UNPARSEABLE_INPUT);
-									break;
-							}
-							break;
-						case 'p':
-						case 'P':
-							switch (inputLine.charAt(1)) {
-								case 'e':
-								case 'E':
-									CueParser.parsePerformer(input);
-									break;
-								case 'o':
-								case 'O':
-									CueParser.parsePostgap(input);
-									break;
-								case 'r':
-								case 'R':
-									CueParser.parsePregap(input);
-									break;
-								default:
-									addWarning(input, WARNING_UNPARSEABLE_INPUT);
-									break;
-							}
-							break;
-						case 'r':
-						case 'R':
-							CueParser.parseRem(input);
-							break;
-						case 's':
-						case 'S':
-							CueParser.parseSongwriter(input);
-							break;
-						case 't':
-						case 'T':
-							switch (inputLine.charAt(1)) {
-								case 'i':
-								case 'I':
-									CueParser.parseTitle(input);
-									break;
-								case 'r':
-								case 'R':
-									CueParser.parseTrack(input);
-									break;
-								default:
-									addWarning(input, WARNING_UNPARSEABLE_INPUT);
-									break;
-							}
-							break;
-						default:
-							addWarning(input, WARNING_UNPARSEABLE_INPUT);
-							break;
-					}
-				}
+	/**
+	 * Parses a cue sheet using the specified {@link CueTokenizer}, reporting
+	 * the content to the specified {@link CueSheetHandler}.
+	 *
+	 * @param tokenizer the {@link CueTokenizer} positioned before the first
+	 *            line of the cue sheet.
+	 * @param handler the {@link CueSheetHandler} to report to.
+	 */
+	protected static void parseEvents(CueTokenizer tokenizer, CueSheetHandler handler) {
+		if (handler == null) {
+			throw new IllegalArgumentException("handler cannot be null");
+		}
+		State state = new State(handler);
 
-				// And on to the next line...
-				inputLine = reader.readLine();
+		// Go through all lines of input.
+		while (tokenizer.nextLine()) {
+			if (LOGGER.isTraceEnabled()) {
+				LOGGER.trace("Processing input line \"{}\".", tokenizer.getLine());
 			}
-		} finally {
-			LOGGER.trace("Closing input reader.");
-			reader.close();
-		}
 
-		return result;
+			// Do some validation. If there are no problems, then parse the
+			// line.
+			if (tokenizer.getLineLength() == 0) {
+				// File should not contain empty lines.
+				addWarning(tokenizer, state, WARNING_EMPTY_LINES);
+			} else if (tokenizer.getLineLength() < 2) {
+				// No token in the spec has length smaller than 2. Unknown
+				// token.
+				addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
+			} else {
+				// Use first 1-2 characters to guide parsing. These two
+				// characters are enough to determine how to
+				// proceed.
+				switch (tokenizer.charAt(0)) {
+					case 'c':
+					case 'C':
+						switch (tokenizer.charAt(1)) {
+							case 'a':
+							case 'A':
+								parseCatalog(tokenizer, state);
+								break;
+							case 'd':
+							case 'D':
+								parseCdTextFile(tokenizer, state);
+								break;
+							default:
+								addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
+								break;
+						}
+						break;
+					case 'f':
+					case 'F':
+						switch (tokenizer.charAt(1)) {
+							case 'i':
+							case 'I':
+								parseFile(tokenizer, state);
+								break;
+							case 'l':
+							case 'L':
+								parseFlags(tokenizer, state);
+								break;
+							default:
+								addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
+								break;
+						}
+						break;
+					case 'i':
+					case 'I':
+						switch (tokenizer.charAt(1)) {
+							case 'n':
+							case 'N':
+								parseIndex(tokenizer, state);
+								break;
+							case 's':
+							case 'S':
+								parseIsrc(tokenizer, state);
+								break;
+							default:
+								addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
+								break;
+						}
+						break;
+					case 'p':
+					case 'P':
+						switch (tokenizer.charAt(1)) {
+							case 'e':
+							case 'E':
+								parsePerformer(tokenizer, state);
+								break;
+							case 'o':
+							case 'O':
+								parsePostgap(tokenizer, state);
+								break;
+							case 'r':
+							case 'R':
+								parsePregap(tokenizer, state);
+								break;
+							default:
+								addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
+								break;
+						}
+						break;
+					case 'r':
+					case 'R':
+						parseRem(tokenizer, state);
+						break;
+					case 's':
+					case 'S':
+						parseSongwriter(tokenizer, state);
+						break;
+					case 't':
+					case 'T':
+						switch (tokenizer.charAt(1)) {
+							case 'i':
+							case 'I':
+								parseTitle(tokenizer, state);
+								break;
+							case 'r':
+							case 'R':
+								parseTrack(tokenizer, state);
+								break;
+							default:
+								addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
+								break;
+						}
+						break;
+					default:
+						addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
+						break;
+				}
+			}
+		}
 	}
 
 	/**
-	 * Determine if the input starts with some string. Will return true if it
-	 * matches, regardless of case. If there is a match, but the case differs,
-	 * then a "TOKEN NOT UPPERCASE" warning will be added to the cue sheet
-	 * associated with the input.
+	 * Determine if the current line starts with some string. Will return true
+	 * if it matches, regardless of case. If there is a match, but the case
+	 * differs, then a "TOKEN NOT UPPERCASE" warning will be reported. The
+	 * cursor of the {@link CueTokenizer} is left just after the matched
+	 * string.
 	 *
-	 * @param input The input to check.
+	 * @param tokenizer the {@link CueTokenizer} positioned at the line to
+	 *            check.
+	 * @param state the parser {@link State}.
 	 * @param start The starting string to check for. Should be uppercase, or
 	 *            else the warning will not make sense.
 	 * @return True if there is a match. False otherwise.
 	 */
-	protected static boolean startsWith(LineOfInput input, String start) {
-		if (input.getInput().startsWith(start)) {
+	protected static boolean startsWith(CueTokenizer tokenizer, State state, String start) {
+		if (tokenizer.startsWith(start)) {
+			tokenizer.seek(start.length());
 			return true;
-		} else if (input.getInput().substring(0, start.length()).equalsIgnoreCase(start)) {
-			addWarning(input, WARNING_TOKEN_NOT_UPPERCASE);
+		} else if (tokenizer.startsWithIgnoreCase(start)) {
+			addWarning(tokenizer, state, WARNING_TOKEN_NOT_UPPERCASE);
+			tokenizer.seek(start.length());
 			return true;
 		}
 		return false;
 	}
 
 	/**
-	 * Determine if the input contains the specified pattern. Will return true
-	 * if it matches. If there is a match and and there is a capturing group,
-	 * then the first such group will be checked for case. If it is not
-	 * uppercase, then a "TOKEN NOT UPPERCASE" warning will be added to the cue
-	 * sheet associated with the input.
-	 *
-	 * @param input The input to check.
-	 * @param pattern {@link Pattern} to check for. If it contains a capturing
-	 *            group, then on a match, this group will be checked for case as
-	 *            per the method description.
+	 * Determine if the current line is a {@code REM} command with the
+	 * specified non-standard keyword. The cursor of the {@link CueTokenizer}
+	 * is left just after the keyword.
+	 *
+	 * @param tokenizer the {@link CueTokenizer} positioned at the line to
+	 *            check.
+	 * @param keyword the uppercase keyword following {@code REM}.
 	 * @return True if there is a match. False otherwise.
 	 */
-	protected static boolean contains(LineOfInput input, Pattern pattern) {
-		Matcher matcher = pattern.matcher(input.getInput());
-
-		if (matcher.find()) {
-			if (matcher.groupCount() > 0 && !matcher.group(1).equals(matcher.group(1).toUpperCase())) {
-				addWarning(input, WARNING_TOKEN_NOT_UPPERCASE);
-			}
-			return true;
-		}
-		return false;
+	protected static boolean remStartsWith(CueTokenizer tokenizer, String keyword) {
+		tokenizer.rewind();
+		return
+			tokenizer.skipKeyword("REM") &&
+			tokenizer.skipWhitespace() &&
+			tokenizer.skipKeyword(keyword);
 	}
 
 	/**
@@ -554,22 +759,24 @@ public class CueParser {
 	 * rules. Usually the first command, but this is not required. Not a
 	 * mandatory command.
 	 *
-	 * @param input The {@link LineOfInput}.
+	 * @param tokenizer the {@link CueTokenizer} positioned at the line.
+	 * @param state the parser {@link State}.
 	 */
-	protected static void parseCatalog(LineOfInput input) {
-		if (startsWith(input, "CATALOG")) {
-			String catalogNumber = input.getInput().substring("CATALOG".length()).trim();
-			if (!PATTERN_CATALOG_NUMBER.matcher(catalogNumber).matches()) {
-				addWarning(input, WARNING_INVALID_CATALOG_NUMBER);
+	protected static void parseCatalog(CueTokenizer tokenizer, State state) {
+		if (startsWith(tokenizer, state, "CATALOG")) {
+			tokenizer.readRemainder("CATALOG".length());
+			if (!tokenizer.isTokenDigits(13)) {
+				addWarning(tokenizer, state, WARNING_INVALID_CATALOG_NUMBER);
 			}
 
-			if (input.getAssociatedSheet().getCatalog() != null) {
-				addWarning(input, WARNING_DATUM_APPEARS_TOO_OFTEN);
+			if (state.catalog) {
+				addWarning(tokenizer, state, WARNING_DATUM_APPEARS_TOO_OFTEN);
 			}
 
-			input.getAssociatedSheet().setCatalog(catalogNumber);
+			state.catalog = true;
+			state.handler.onCatalog(tokenizer.getTokenText());
 		} else {
-			addWarning(input, WARNING_UNPARSEABLE_INPUT);
+			addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
 		}
 	}
 
@@ -581,19 +788,29 @@ public class CueParser {
 	 * contradicts the official examples and is often broken in practice. Hence,
 	 * we don't raise a warning when this rule is broken.
 	 *
-	 * @param input The {@link LineOfInput}.
+	 * @param tokenizer the {@link CueTokenizer} positioned at the line.
+	 * @param state the parser {@link State}.
 	 */
-	protected static void parseFile(LineOfInput input) {
-		Matcher fileMatcher = PATTERN_FILE.matcher(input.getInput());
-
-		if (startsWith(input, "FILE") && fileMatcher.matches()) {
-			if (!COMPLIANT_FILE_TYPES.contains(fileMatcher.group(2))) {
-				if (COMPLIANT_FILE_TYPES.contains(fileMatcher.group(2).toUpperCase())) {
-					addWarning(input, WARNING_TOKEN_NOT_UPPERCASE);
+	protected static void parseFile(CueTokenizer tokenizer, State state) {
+		if (
+			startsWith(tokenizer, state, "FILE") &&
+			matchesKeyword(tokenizer, "FILE") &&
+			tokenizer.skipWhitespace() &&
+			tokenizer.readValueBeforeWord()
+		) {
+			// If the file name is enclosed in quotes, remove those.
+			int fileStart = tokenizer.getTokenStart();
+			int fileEnd = tokenizer.getTokenEnd();
+			tokenizer.skipWhitespace();
+			tokenizer.readWord();
+			String fileType = tokenizer.getToken();
+			if (!COMPLIANT_FILE_TYPES.contains(fileType)) {
+				fileType = fileType.toUpperCase();
+				if (COMPLIANT_FILE_TYPES.contains(fileType)) {
+					addWarning(tokenizer, state, WARNING_TOKEN_NOT_UPPERCASE);
 				} else {
-					addWarning(input, WARNING_NONCOMPLIANT_FILE_TYPE);
+					addWarning(tokenizer, state, WARNING_NONCOMPLIANT_FILE_TYPE);
 				}
-
 			}
 
 			/*
@@ -604,30 +821,22 @@ public class CueParser {
 			 * for CATALOG. (Technically, we should also check for REM commands,
 			 * but we don't keep track of all of those.)
 			 *
-			 * if ( input.getAssociatedSheet().getFileData().size()==0 && (
-			 * input.getAssociatedSheet().getCdTextFile() != null ||
-			 * input.getAssociatedSheet().getPerformer() != null ||
-			 * input.getAssociatedSheet().getSongwriter() != null ||
-			 * input.getAssociatedSheet().getTitle() != null ||
-			 * input.getAssociatedSheet().getComment() != null ||
-			 * input.getAssociatedSheet().getDiscid() != null ||
-			 * input.getAssociatedSheet().getYear() != -1 ||
-			 * input.getAssociatedSheet().getGenre() != null ) ) {
-			 * CueParser.logger.warning(WARNING_FILE_IN_WRONG_PLACE);
-			 * input.getAssociatedSheet().addWarning(input,
-			 * WARNING_FILE_IN_WRONG_PLACE); }
+			 * if ( sheet.getFileData().size()==0 && (
+			 * sheet.getCdTextFile() != null ||
+			 * sheet.getPerformer() != null ||
+			 * sheet.getSongwriter() != null ||
+			 * sheet.getTitle() != null ||
+			 * sheet.getComment() != null ||
+			 * sheet.getDiscid() != null ||
+			 * sheet.getYear() != -1 ||
+			 * sheet.getGenre() != null ) ) {
+			 * addWarning(tokenizer, sheet, WARNING_FILE_IN_WRONG_PLACE); }
 			 */
 
-			// If the file name is enclosed in quotes, remove those.
-			String file = fileMatcher.group(1);
-			if (file.length() > 0 && file.charAt(0) == '"' && file.charAt(file.length() - 1) == '"') {
-				file = file.substring(1, file.length() - 1);
-			}
-
-			input.getAssociatedSheet().getFileData()
-				.add(new FileData(input.getAssociatedSheet(), file, fileMatcher.group(2).toUpperCase()));
+			tokenizer.setToken(fileStart, fileEnd);
+			state.startFile(tokenizer.getUnquotedTokenText(), fileType);
 		} else {
-			addWarning(input, WARNING_UNPARSEABLE_INPUT);
+			addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
 		}
 	}
 
@@ -636,26 +845,25 @@ public class CueParser {
 	 *
 	 * CDTEXTFILE [filename] File that contains cd text data. Not mandatory.
 	 *
-	 * @param input The {@link LineOfInput}.
+	 * @param tokenizer the {@link CueTokenizer} positioned at the line.
+	 * @param state the parser {@link State}.
 	 */
-	protected static void parseCdTextFile(LineOfInput input) {
-		Matcher cdTextFileMatcher = PATTERN_CDTEXTFILE.matcher(input.getInput());
-
-		if (startsWith(input, "CDTEXTFILE") && cdTextFileMatcher.matches()) {
-			if (input.getAssociatedSheet().getCdTextFile() != null) {
-				LOGGER.warn(WARNING_DATUM_APPEARS_TOO_OFTEN);
-				input.getAssociatedSheet().addWarning(input, WARNING_DATUM_APPEARS_TOO_OFTEN);
+	protected static void parseCdTextFile(CueTokenizer tokenizer, State state) {
+		if (
+			startsWith(tokenizer, state, "CDTEXTFILE") &&
+			matchesKeyword(tokenizer, "CDTEXTFILE") &&
+			tokenizer.skipWhitespace() &&
+			tokenizer.readValue()
+		) {
+			if (state.cdTextFile) {
+				addWarning(tokenizer, state, WARNING_DATUM_APPEARS_TOO_OFTEN);
 			}
 
 			// If the file name is enclosed in quotes, remove those.
-			String file = cdTextFileMatcher.group(1);
-			if (file.length() > 0 && file.charAt(0) == '"' && file.charAt(file.length() - 1) == '"') {
-				file = file.substring(1, file.length() - 1);
-			}
-
-			input.getAssociatedSheet().setCdTextFile(file);
+			state.cdTextFile = true;
+			state.handler.onCdTextFile(tokenizer.getUnquotedTokenText());
 		} else {
-			addWarning(input, WARNING_UNPARSEABLE_INPUT);
+			addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
 		}
 	}
 
@@ -664,40 +872,70 @@ public class CueParser {
 	 *
 	 * FLAGS [flags] Track subcode flags. Rarely used according to spec.
 	 *
-	 * @param input The {@link LineOfInput}.
+	 * @param tokenizer the {@link CueTokenizer} positioned at the line.
+	 * @param state the parser {@link State}.
 	 */
-	protected static void parseFlags(LineOfInput input) {
-		Matcher flagsMatcher = PATTERN_FLAGS.matcher(input.getInput());
+	protected static void parseFlags(CueTokenizer tokenizer, State state) {
+		if (!startsWith(tokenizer, state, "FLAGS") || !matchesKeyword(tokenizer, "FLAGS")) {
+			addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
+			return;
+		}
 
-		if (startsWith(input, "FLAGS") && flagsMatcher.matches()) {
-			if (null == flagsMatcher.group(1)) {
-				addWarning(input, WARNING_NO_FLAGS);
-			} else {
-				TrackData trackData = getLastTrackData(input);
+		// Validate the whole line before anything is stored
+		int flagsStart = tokenizer.getPosition();
+		int count = 0;
+		boolean compliant = true;
+		while (!tokenizer.isAtEnd()) {
+			if (!tokenizer.skipWhitespace() || !tokenizer.readWordCharacters()) {
+				addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
+				return;
+			}
+			if (!isCompliantFlag(tokenizer)) {
+				compliant = false;
+			}
+			count++;
+		}
 
-				if (trackData.getIndices().size() > 0) {
-					addWarning(input, WARNING_FLAGS_IN_WRONG_PLACE);
-				}
+		if (count == 0) {
+			addWarning(tokenizer, state, WARNING_NO_FLAGS);
+			return;
+		}
 
-				Set<String> flagCollection = trackData.getFlags();
+		state.ensureTrack(tokenizer);
 
-				if (!flagCollection.isEmpty()) {
-					addWarning(input, WARNING_DATUM_APPEARS_TOO_OFTEN);
-				}
+		if (state.indexCount > 0) {
+			addWarning(tokenizer, state, WARNING_FLAGS_IN_WRONG_PLACE);
+		}
 
-				try (Scanner flagScanner = new Scanner(flagsMatcher.group(1))) {
-					while (flagScanner.hasNext()) {
-						String flag = flagScanner.next();
-						if (!COMPLIANT_FLAGS.contains(flag)) {
-							addWarning(input, WARNING_NONCOMPLIANT_FLAG);
-						}
-						flagCollection.add(flag);
-					}
-				}
+		if (state.flags) {
+			addWarning(tokenizer, state, WARNING_DATUM_APPEARS_TOO_OFTEN);
+		}
+
+		state.flags = true;
+		tokenizer.setPosition(flagsStart);
+		while (tokenizer.skipWhitespace() && tokenizer.readWordCharacters()) {
+			state.handler.onFlag(tokenizer.getToken());
+		}
+		if (!compliant) {
+			addWarning(tokenizer, state, WARNING_NONCOMPLIANT_FLAG);
+		}
+	}
+
+	/**
+	 * Evaluates if the last token read by the specified {@link CueTokenizer}
+	 * is one of the {@link #COMPLIANT_FLAGS} without creating a
+	 * {@link String}.
+	 *
+	 * @param tokenizer the {@link CueTokenizer} that has read the flag.
+	 * @return {@code true} if the flag is compliant, {@code false} otherwise.
+	 */
+	protected static boolean isCompliantFlag(CueTokenizer tokenizer) {
+		for (String flag : COMPLIANT_FLAGS) {
+			if (tokenizer.isToken(flag)) {
+				return true;
 			}
-		} else {
-			addWarning(input, WARNING_UNPARSEABLE_INPUT);
 		}
+		return false;
 	}
 
 	/**
@@ -711,49 +949,60 @@ public class CueParser {
 	 * is track pregap. {@code 1} is starting time of track data. {@code > 1} is
 	 * subindex within track.
 	 *
-	 * @param input The {@link LineOfInput}.
+	 * @param tokenizer the {@link CueTokenizer} positioned at the line.
+	 * @param state the parser {@link State}.
 	 */
-	protected static void parseIndex(LineOfInput input) {
-		Matcher indexMatcher = PATTERN_INDEX.matcher(input.getInput());
-
-		if (startsWith(input, "INDEX") && indexMatcher.matches()) {
-			if (indexMatcher.group(1).length() != 2) {
-				addWarning(input, WARNING_WRONG_NUMBER_OF_DIGITS);
-			}
-
-			TrackData trackData = getLastTrackData(input);
-			List<Index> trackIndices = trackData.getIndices();
+	protected static void parseIndex(CueTokenizer tokenizer, State state) {
+		if (
+			!startsWith(tokenizer, state, "INDEX") ||
+			!matchesKeyword(tokenizer, "INDEX") ||
+			!tokenizer.skipWhitespace() ||
+			!tokenizer.readNumber()
+		) {
+			addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
+			return;
+		}
+		int indexNumber = tokenizer.getTokenValue();
+		boolean indexNumberCompliant = tokenizer.getTokenLength() == 2;
+		if (!tokenizer.skipWhitespace() || !tokenizer.readPosition() || !tokenizer.isAtEnd()) {
+			addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
+			return;
+		}
 
-			// Postgap data must come after all index data. Only check for first
-			// index. No need to repeat this warning for
-			// all indices that follow.
-			if (trackIndices.isEmpty() && trackData.getPostgap() != null) {
-				addWarning(input, WARNING_INDEX_AFTER_POSTGAP);
-			}
+		if (!indexNumberCompliant) {
+			addWarning(tokenizer, state, WARNING_WRONG_NUMBER_OF_DIGITS);
+		}
 
-			int indexNumber = Integer.parseInt(indexMatcher.group(1));
+		state.ensureTrack(tokenizer);
 
-			// If first index of track, then number must be 0 or 1; if not first
-			// index of track, then number must be 1
-			// higher than last one.
-			if (trackIndices.isEmpty() && indexNumber > 1 || !trackIndices.isEmpty() &&
-				trackIndices.get(trackIndices.size() - 1).getNumber() != indexNumber - 1) {
-				addWarning(input, WARNING_INVALID_INDEX_NUMBER);
-			}
+		// Postgap data must come after all index data. Only check for first
+		// index. No need to repeat this warning for
+		// all indices that follow.
+		if (state.indexCount == 0 && state.postgap) {
+			addWarning(tokenizer, state, WARNING_INDEX_AFTER_POSTGAP);
+		}
 
-			List<Index> fileIndices = getLastFileData(input).getAllIndices();
+		// If first index of track, then number must be 0 or 1; if not first
+		// index of track, then number must be 1
+		// higher than last one.
+		if (state.indexCount == 0 && indexNumber > 1 || state.indexCount > 0 &&
+			state.lastIndexNumber != indexNumber - 1) {
+			addWarning(tokenizer, state, WARNING_INVALID_INDEX_NUMBER);
+		}
 
-			Position position = parsePosition(input, indexMatcher.group(2));
+		boolean firstFileIndex = !state.fileIndices;
 
-			// Position of first index of file must be 00:00:00.
-			if (fileIndices.isEmpty() && !(position.getMinutes() == 0 && position.getSeconds() == 0 && position.getFrames() == 0)) {
-				addWarning(input, WARNING_INVALID_FIRST_POSITION);
-			}
+		validatePosition(tokenizer, state);
 
-			trackIndices.add(new Index(indexNumber, position));
-		} else {
-			addWarning(input, WARNING_UNPARSEABLE_INPUT);
+		// Position of first index of file must be 00:00:00.
+		if (firstFileIndex && !(tokenizer.getMinutes() == 0 && tokenizer.getSeconds() == 0 && tokenizer.getFrames() == 0)) {
+			addWarning(tokenizer, state, WARNING_INVALID_FIRST_POSITION);
 		}
+
+		state.indexCount++;
+		state.lastIndexNumber = indexNumber;
+		state.fileIndices = true;
+		state.handler.onIndex(indexNumber, tokenizer.getMinutes(), tokenizer.getSeconds(), tokenizer.getFrames());
 	}
 
 	/**
@@ -762,28 +1011,30 @@ public class CueParser {
 	 * ISRC [code] International Standard Recording Code of track. Must come
 	 * after TRACK, but before INDEX.
 	 *
-	 * @param input The {@link LineOfInput}.
+	 * @param tokenizer the {@link CueTokenizer} positioned at the line.
+	 * @param state the parser {@link State}.
 	 */
-	protected static void parseIsrc(LineOfInput input) {
-		if (startsWith(input, "ISRC")) {
-			String isrcCode = input.getInput().substring("ISRC".length()).trim();
-			if (!PATTERN_ISRC_CODE.matcher(isrcCode).matches()) {
-				addWarning(input, WARNING_NONCOMPLIANT_ISRC_CODE);
+	protected static void parseIsrc(CueTokenizer tokenizer, State state) {
+		if (startsWith(tokenizer, state, "ISRC")) {
+			tokenizer.readRemainder("ISRC".length());
+			if (!tokenizer.isTokenWordAndDigits(5, 7)) {
+				addWarning(tokenizer, state, WARNING_NONCOMPLIANT_ISRC_CODE);
 			}
 
-			TrackData trackData = getLastTrackData(input);
+			state.ensureTrack(tokenizer);
 
-			if (trackData.getIndices().size() > 0) {
-				addWarning(input, WARNING_ISRC_IN_WRONG_PLACE);
+			if (state.indexCount > 0) {
+				addWarning(tokenizer, state, WARNING_ISRC_IN_WRONG_PLACE);
 			}
 
-			if (trackData.getIsrcCode() != null) {
-				addWarning(input, WARNING_DATUM_APPEARS_TOO_OFTEN);
+			if (state.isrc) {
+				addWarning(tokenizer, state, WARNING_DATUM_APPEARS_TOO_OFTEN);
 			}
 
-			trackData.setIsrcCode(isrcCode);
+			state.isrc = true;
+			state.handler.onIsrc(tokenizer.getTokenText());
 		} else {
-			addWarning(input, WARNING_UNPARSEABLE_INPUT);
+			addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
 		}
 	}
 
@@ -796,43 +1047,31 @@ public class CueParser {
 	 * it to disc. If used before any TRACK fields, then it is the album artist.
 	 * If after a TRACK field, then it is the performer of that track.
 	 *
-	 * @param input The {@link LineOfInput}.
+	 * @param tokenizer the {@link CueTokenizer} positioned at the line.
+	 * @param state the parser {@link State}.
 	 */
-	protected static void parsePerformer(LineOfInput input) {
-		Matcher performerMatcher = PATTERN_PERFORMER.matcher(input.getInput());
-
-		if (startsWith(input, "PERFORMER") && performerMatcher.matches()) {
-			String performer = performerMatcher.group(1);
+	protected static void parsePerformer(CueTokenizer tokenizer, State state) {
+		if (!readTextValue(tokenizer, state, "PERFORMER")) {
+			addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
+			return;
+		}
 
-			if (performer.charAt(0) == '\"') {
-				performer = performer.substring(1, performer.length() - 1);
+		if (state.isAlbumContext()) {
+			// Performer of album.
+			if (state.albumPerformer) {
+				addWarning(tokenizer, state, WARNING_DATUM_APPEARS_TOO_OFTEN);
 			}
 
-			if (performer.length() > 80) {
-				addWarning(input, WARNING_FIELD_LENGTH_OVER_80);
+			state.albumPerformer = true;
+			state.handler.onPerformer(tokenizer.getUnquotedTokenText(), false);
+		} else {
+			// Performer of track.
+			if (state.performer) {
+				addWarning(tokenizer, state, WARNING_DATUM_APPEARS_TOO_OFTEN);
 			}
 
-			// First check file data, as getLastFileData will create a FileData
-			// instance if there is none
-			// and we don't actually want to create such an instance.
-			if (input.getAssociatedSheet().getFileData().size() == 0 || getLastFileData(input).getTrackData().size() == 0) {
-				// Performer of album.
-				if (input.getAssociatedSheet().getPerformer() != null) {
-					addWarning(input, WARNING_DATUM_APPEARS_TOO_OFTEN);
-				}
-
-				input.getAssociatedSheet().setPerformer(performer);
-			} else {
-				// Performer of track.
-				TrackData trackData = getLastTrackData(input);
-				if (trackData.getPerformer() != null) {
-					addWarning(input, WARNING_DATUM_APPEARS_TOO_OFTEN);
-				}
-
-				trackData.setPerformer(performer);
-			}
-		} else {
-			addWarning(input, WARNING_UNPARSEABLE_INPUT);
+			state.performer = true;
+			state.handler.onPerformer(tokenizer.getUnquotedTokenText(), true);
 		}
 	}
 
@@ -842,20 +1081,21 @@ public class CueParser {
 	 * POSTGAP [mm:ss:ff] Must come after all INDEX fields for a track. Only one
 	 * per track allowed.
 	 *
-	 * @param input The {@link LineOfInput}.
+	 * @param tokenizer the {@link CueTokenizer} positioned at the line.
+	 * @param state the parser {@link State}.
 	 */
-	protected static void parsePostgap(LineOfInput input) {
-		Matcher postgapMatcher = PATTERN_POSTGAP.matcher(input.getInput());
-
-		if (startsWith(input, "POSTGAP") && postgapMatcher.matches()) {
-			TrackData trackData = getLastTrackData(input);
-			if (trackData.getPostgap() != null) {
-				addWarning(input, WARNING_DATUM_APPEARS_TOO_OFTEN);
+	protected static void parsePostgap(CueTokenizer tokenizer, State state) {
+		if (readPositionValue(tokenizer, state, "POSTGAP")) {
+			state.ensureTrack(tokenizer);
+			if (state.postgap) {
+				addWarning(tokenizer, state, WARNING_DATUM_APPEARS_TOO_OFTEN);
 			}
 
-			trackData.setPostgap(parsePosition(input, postgapMatcher.group(1)));
+			validatePosition(tokenizer, state);
+			state.postgap = true;
+			state.handler.onPostgap(tokenizer.getMinutes(), tokenizer.getSeconds(), tokenizer.getFrames());
 		} else {
-			addWarning(input, WARNING_UNPARSEABLE_INPUT);
+			addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
 		}
 	}
 
@@ -865,24 +1105,25 @@ public class CueParser {
 	 * PREGAP [mm:ss:ff] Must come after TRACK, but before INDEX fields for that
 	 * track.
 	 *
-	 * @param input The {@link LineOfInput}.
+	 * @param tokenizer the {@link CueTokenizer} positioned at the line.
+	 * @param state the parser {@link State}.
 	 */
-	protected static void parsePregap(LineOfInput input) {
-		Matcher pregapMatcher = PATTERN_PREGAP.matcher(input.getInput());
-
-		if (startsWith(input, "PREGAP") && pregapMatcher.matches()) {
-			TrackData trackData = getLastTrackData(input);
-			if (trackData.getPregap() != null) {
-				addWarning(input, WARNING_DATUM_APPEARS_TOO_OFTEN);
+	protected static void parsePregap(CueTokenizer tokenizer, State state) {
+		if (readPositionValue(tokenizer, state, "PREGAP")) {
+			state.ensureTrack(tokenizer);
+			if (state.pregap) {
+				addWarning(tokenizer, state, WARNING_DATUM_APPEARS_TOO_OFTEN);
 			}
 
-			if (trackData.getIndices().size() > 0) {
-				addWarning(input, WARNING_PREGAP_IN_WRONG_PLACE);
+			if (state.indexCount > 0) {
+				addWarning(tokenizer, state, WARNING_PREGAP_IN_WRONG_PLACE);
 			}
 
-			trackData.setPregap(parsePosition(input, pregapMatcher.group(1)));
+			validatePosition(tokenizer, state);
+			state.pregap = true;
+			state.handler.onPregap(tokenizer.getMinutes(), tokenizer.getSeconds(), tokenizer.getFrames());
 		} else {
-			addWarning(input, WARNING_UNPARSEABLE_INPUT);
+			addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
 		}
 	}
 
@@ -891,20 +1132,13 @@ public class CueParser {
 	 *
 	 * REM COMMENT [comment]
 	 *
-	 * @param input The {@link LineOfInput}.
+	 * @param tokenizer the {@link CueTokenizer} positioned at the value.
+	 * @param state the parser {@link State}.
+	 * @return {@code true} if the value was accepted, {@code false} otherwise.
 	 */
-	protected static void parseRemComment(LineOfInput input) {
-		Matcher matcher = PATTERN_REM_COMMENT.matcher(input.getInput());
-
-		if (matcher.find()) {
-			String comment = matcher.group(2);
-			if (comment.charAt(0) == '"' && comment.charAt(comment.length() - 1) == '"') {
-				comment = comment.substring(1, comment.length() - 1);
-			}
-			input.getAssociatedSheet().setComment(comment);
-		} else {
-			addWarning(input, WARNING_UNPARSEABLE_INPUT);
-		}
+	protected static boolean parseRemComment(CueTokenizer tokenizer, State state) {
+		state.handler.onComment(tokenizer.getUnquotedTokenText());
+		return true;
 	}
 
 	/**
@@ -912,20 +1146,17 @@ public class CueParser {
 	 *
 	 * REM DATE [year]
 	 *
-	 * @param input The {@link LineOfInput}.
+	 * @param tokenizer the {@link CueTokenizer} positioned at the value.
+	 * @param state the parser {@link State}.
+	 * @return {@code true} if the value was accepted, {@code false} otherwise.
 	 */
-	protected static void parseRemDate(LineOfInput input) {
-		Matcher matcher = PATTERN_REM_DATE.matcher(input.getInput());
-
-		if (matcher.find()) {
-			int year = Integer.parseInt(matcher.group(2));
-			if (year < 1 || year > 9999) {
-				addWarning(input, WARNING_INVALID_YEAR);
-			}
-			input.getAssociatedSheet().setYear(year);
-		} else {
-			addWarning(input, WARNING_UNPARSEABLE_INPUT);
+	protected static boolean parseRemDate(CueTokenizer tokenizer, State state) {
+		int year = tokenizer.getTokenValue();
+		if (year < 1 || year > 9999) {
+			addWarning(tokenizer, state, WARNING_INVALID_YEAR);
 		}
+		state.handler.onYear(year);
+		return true;
 	}
 
 	/**
@@ -933,20 +1164,13 @@ public class CueParser {
 	 *
 	 * REM DISCID [discid]
 	 *
-	 * @param input The {@link LineOfInput}.
+	 * @param tokenizer the {@link CueTokenizer} positioned at the value.
+	 * @param state the parser {@link State}.
+	 * @return {@code true} if the value was accepted, {@code false} otherwise.
 	 */
-	protected static void parseRemDiscid(LineOfInput input) {
-		Matcher matcher = PATTERN_REM_DISCID.matcher(input.getInput());
-
-		if (matcher.find()) {
-			String discid = matcher.group(2);
-			if (discid.charAt(0) == '"' && discid.charAt(discid.length() - 1) == '"') {
-				discid = discid.substring(1, discid.length() - 1);
-			}
-			input.getAssociatedSheet().setDiscId(discid);
-		} else {
-			addWarning(input, WARNING_UNPARSEABLE_INPUT);
-		}
+	protected static boolean parseRemDiscid(CueTokenizer tokenizer, State state) {
+		state.handler.onDiscId(tokenizer.getUnquotedTokenText());
+		return true;
 	}
 
 	/**
@@ -954,20 +1178,23 @@ public class CueParser {
 	 *
 	 * REM DISCNUMBER [discNumber]
 	 *
-	 * @param input The {@link LineOfInput}.
+	 * @param tokenizer the {@link CueTokenizer} positioned at the value.
+	 * @param state the parser {@link State}.
+	 * @return {@code true} if the value was accepted, {@code false} otherwise.
 	 */
-	protected static void parseRemDiscNumber(LineOfInput input) {
-		Matcher matcher = PATTERN_REM_DISCNUMBER.matcher(input.getInput());
-
-		if (matcher.find()) {
-			int discNumber = Integer.parseInt(matcher.group(2));
-			if (discNumber < 1) {
-				addWarning(input, WARNING_INVALID_DISCNUMBER);
-			}
-			input.getAssociatedSheet().setDiscNumber(discNumber);
-		} else {
-			addWarning(input, WARNING_UNPARSEABLE_INPUT);
+	protected static boolean parseRemDiscNumber(CueTokenizer tokenizer, State state) {
+		int discNumber;
+		try {
+			discNumber = Integer.parseInt(tokenizer.getToken());
+		} catch (NumberFormatException e) {
+			addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
+			return false;
 		}
+		if (discNumber < 1) {
+			addWarning(tokenizer, state, WARNING_INVALID_DISCNUMBER);
+		}
+		state.handler.onDiscNumber(discNumber);
+		return true;
 	}
 
 	/**
@@ -975,20 +1202,13 @@ public class CueParser {
 	 *
 	 * REM GENRE [genre]
 	 *
-	 * @param input The {@link LineOfInput}.
+	 * @param tokenizer the {@link CueTokenizer} positioned at the value.
+	 * @param state the parser {@link State}.
+	 * @return {@code true} if the value was accepted, {@code false} otherwise.
 	 */
-	protected static void parseRemGenre(LineOfInput input) {
-		Matcher matcher = PATTERN_REM_GENRE.matcher(input.getInput());
-
-		if (matcher.find()) {
-			String genre = matcher.group(2);
-			if (genre.charAt(0) == '"' && genre.charAt(genre.length() - 1) == '"') {
-				genre = genre.substring(1, genre.length() - 1);
-			}
-			input.getAssociatedSheet().setGenre(genre);
-		} else {
-			addWarning(input, WARNING_UNPARSEABLE_INPUT);
-		}
+	protected static boolean parseRemGenre(CueTokenizer tokenizer, State state) {
+		state.handler.onGenre(tokenizer.getUnquotedTokenText());
+		return true;
 	}
 
 	/**
@@ -996,25 +1216,29 @@ public class CueParser {
 	 *
 	 * REM TOTALDISCS [totalDiscs]
 	 *
-	 * @param input The {@link LineOfInput}.
+	 * @param tokenizer the {@link CueTokenizer} positioned at the value.
+	 * @param state the parser {@link State}.
+	 * @return {@code true} if the value was accepted, {@code false} otherwise.
 	 */
-	protected static void parseRemTotalDiscs(LineOfInput input) {
-		Matcher matcher = PATTERN_REM_TOTALDISCS.matcher(input.getInput());
-
-		if (matcher.find()) {
-			int totalDiscs = Integer.parseInt(matcher.group(2));
-			if (totalDiscs < 1) {
-				addWarning(input, WARNING_INVALID_TOTALDISCS);
-			}
-			input.getAssociatedSheet().setTotalDiscs(totalDiscs);
-		} else {
-			addWarning(input, WARNING_UNPARSEABLE_INPUT);
+	protected static boolean parseRemTotalDiscs(CueTokenizer tokenizer, State state) {
+		int totalDiscs;
+		try {
+			totalDiscs = Integer.parseInt(tokenizer.getToken());
+		} catch (NumberFormatException e) {
+			addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
+			return false;
+		}
+		if (totalDiscs < 1) {
+			addWarning(tokenizer, state, WARNING_INVALID_TOTALDISCS);
 		}
+		state.handler.onTotalDiscs(totalDiscs);
+		return true;
 	}
 
 	/**
 	 * Parse the REM command. Will also parse a number of non-standard commands
-	 * used by Exact Audio Copy.
+	 * used by Exact Audio Copy. Remarks that aren't one of these are reported
+	 * with {@link CueSheetHandler#onRem}.
 	 *
 	 * REM [comment]
 	 *
@@ -1023,51 +1247,61 @@ public class CueParser {
 	 * REM COMMENT [comment] REM DATE [year] REM DISCID [discid] REM GENRE
 	 * [genre]
 	 *
-	 * @param input The {@link LineOfInput}.
+	 * @param tokenizer the {@link CueTokenizer} positioned at the line.
+	 * @param state the parser {@link State}.
 	 */
-	protected static void parseRem(LineOfInput input) {
-		if (startsWith(input, "REM")) {
-			// This is a comment, but popular implementation like Exact Audio Copy may still
-			// embed information here. We'll try to parse this, but we'll silently accept anything.
-			// There will be no warnings or errors, except for case mismatches.
-
-			String comment = input.getInput().substring("REM".length()).trim();
-
-			switch (comment.charAt(0)) {
-				case 'c':
-				case 'C':
-					if (contains(input, PATTERN_REM_COMMENT)) {
-						parseRemComment(input);
-					}
-					break;
-				case 'd':
-				case 'D':
-					if (contains(input, PATTERN_REM_DATE)) {
-						parseRemDate(input);
-					} else if (contains(input, PATTERN_REM_DISCID)) {
-						parseRemDiscid(input);
-					} else if (contains(input, PATTERN_REM_DISCNUMBER)) {
-						parseRemDiscNumber(input);
-					}
-					break;
-				case 'g':
-				case 'G':
-					if (contains(input, PATTERN_REM_GENRE)) {
-						parseRemGenre(input);
-					}
-					break;
-				case 't':
-				case 'T':
-					if (contains(input, PATTERN_REM_TOTALDISCS)) {
-						parseRemTotalDiscs(input);
-					}
-					break;
-				default:
-					addWarning(input, WARNING_UNPARSEABLE_INPUT);
-					break;
-			}
-		} else {
-			addWarning(input, WARNING_UNPARSEABLE_INPUT);
+	protected static void parseRem(CueTokenizer tokenizer, State state) {
+		if (!startsWith(tokenizer, state, "REM")) {
+			addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
+			return;
+		}
+
+		// This is a comment, but popular implementation like Exact Audio Copy may still
+		// embed information here. We'll try to parse this, but we'll silently accept anything.
+		// There will be no warnings or errors, except for case mismatches.
+		tokenizer.readRemainder("REM".length());
+		if (tokenizer.getTokenLength() == 0) {
+			addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
+			return;
+		}
+
+		boolean handled = false;
+		switch (tokenizer.getTokenCharAt(0)) {
+			case 'c':
+			case 'C':
+				if (remStartsWith(tokenizer, "COMMENT") && readRemValue(tokenizer, state, false)) {
+					handled = parseRemComment(tokenizer, state);
+				}
+				break;
+			case 'd':
+			case 'D':
+				if (remStartsWith(tokenizer, "DATE") && readRemValue(tokenizer, state, true)) {
+					handled = parseRemDate(tokenizer, state);
+				} else if (remStartsWith(tokenizer, "DISCID") && readRemValue(tokenizer, state, false)) {
+					handled = parseRemDiscid(tokenizer, state);
+				} else if (remStartsWith(tokenizer, "DISCNUMBER") && readRemValue(tokenizer, state, false)) {
+					handled = parseRemDiscNumber(tokenizer, state);
+				}
+				break;
+			case 'g':
+			case 'G':
+				if (remStartsWith(tokenizer, "GENRE") && readRemValue(tokenizer, state, false)) {
+					handled = parseRemGenre(tokenizer, state);
+				}
+				break;
+			case 't':
+			case 'T':
+				if (remStartsWith(tokenizer, "TOTALDISCS") && readRemValue(tokenizer, state, false)) {
+					handled = parseRemTotalDiscs(tokenizer, state);
+				}
+				break;
+			default:
+				addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
+				break;
+		}
+		if (!handled) {
+			tokenizer.readRemainder("REM".length());
+			state.handler.onRem(tokenizer.getTokenText());
 		}
 	}
 
@@ -1079,43 +1313,31 @@ public class CueParser {
 	 * it to disc. If used before any TRACK fields, then it is the album writer.
 	 * If after a TRACK field, then it is the writer of that track.
 	 *
-	 * @param input The {@link LineOfInput}.
+	 * @param tokenizer the {@link CueTokenizer} positioned at the line.
+	 * @param state the parser {@link State}.
 	 */
-	protected static void parseSongwriter(LineOfInput input) {
-		Matcher songwriterMatcher = PATTERN_SONGWRITER.matcher(input.getInput());
-
-		if (startsWith(input, "SONGWRITER") && songwriterMatcher.matches()) {
-			String songwriter = songwriterMatcher.group(1);
+	protected static void parseSongwriter(CueTokenizer tokenizer, State state) {
+		if (!readTextValue(tokenizer, state, "SONGWRITER")) {
+			addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
+			return;
+		}
 
-			if (songwriter.charAt(0) == '\"') {
-				songwriter = songwriter.substring(1, songwriter.length() - 1);
+		if (state.isAlbumContext()) {
+			// Songwriter of album.
+			if (state.albumSongwriter) {
+				addWarning(tokenizer, state, WARNING_DATUM_APPEARS_TOO_OFTEN);
 			}
 
-			if (songwriter.length() > 80) {
-				addWarning(input, WARNING_FIELD_LENGTH_OVER_80);
+			state.albumSongwriter = true;
+			state.handler.onSongwriter(tokenizer.getUnquotedTokenText(), false);
+		} else {
+			// Songwriter of track.
+			if (state.songwriter) {
+				addWarning(tokenizer, state, WARNING_DATUM_APPEARS_TOO_OFTEN);
 			}
 
-			// First check file data, as getLastFileData will create a FileData
-			// instance if there is none
-			// and we don't actually want to create such an instance.
-			if (input.getAssociatedSheet().getFileData().size() == 0 || getLastFileData(input).getTrackData().size() == 0) {
-				// Songwriter of album.
-				if (input.getAssociatedSheet().getSongwriter() != null) {
-					addWarning(input, WARNING_DATUM_APPEARS_TOO_OFTEN);
-				}
-
-				input.getAssociatedSheet().setSongwriter(songwriter);
-			} else {
-				// Songwriter of track.
-				TrackData trackData = getLastTrackData(input);
-				if (trackData.getSongwriter() != null) {
-					addWarning(input, WARNING_DATUM_APPEARS_TOO_OFTEN);
-				}
-
-				trackData.setSongwriter(songwriter);
-			}
-		} else {
-			addWarning(input, WARNING_UNPARSEABLE_INPUT);
+			state.songwriter = true;
+			state.handler.onSongwriter(tokenizer.getUnquotedTokenText(), true);
 		}
 	}
 
@@ -1127,43 +1349,31 @@ public class CueParser {
 	 * any TRACK fields, then it is the album title. If after a TRACK field,
 	 * then it is the title of that track.
 	 *
-	 * @param input The {@link LineOfInput}.
+	 * @param tokenizer the {@link CueTokenizer} positioned at the line.
+	 * @param state the parser {@link State}.
 	 */
-	protected static void parseTitle(LineOfInput input) {
-		Matcher titleMatcher = PATTERN_TITLE.matcher(input.getInput());
-
-		if (startsWith(input, "TITLE") && titleMatcher.matches()) {
-			String title = titleMatcher.group(1);
+	protected static void parseTitle(CueTokenizer tokenizer, State state) {
+		if (!readTextValue(tokenizer, state, "TITLE")) {
+			addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
+			return;
+		}
 
-			if (title.charAt(0) == '\"') {
-				title = title.substring(1, title.length() - 1);
+		if (state.isAlbumContext()) {
+			// Title of album.
+			if (state.albumTitle) {
+				addWarning(tokenizer, state, WARNING_DATUM_APPEARS_TOO_OFTEN);
 			}
 
-			if (title.length() > 80) {
-				addWarning(input, WARNING_FIELD_LENGTH_OVER_80);
+			state.albumTitle = true;
+			state.handler.onTitle(tokenizer.getUnquotedTokenText(), false);
+		} else {
+			// Title of track.
+			if (state.title) {
+				addWarning(tokenizer, state, WARNING_DATUM_APPEARS_TOO_OFTEN);
 			}
 
-			// First check file data, as getLastFileData will create a FileData
-			// instance if there is none
-			// and we don't actually want to create such an instance.
-			if (input.getAssociatedSheet().getFileData().size() == 0 || getLastFileData(input).getTrackData().size() == 0) {
-				// Title of album.
-				if (input.getAssociatedSheet().getTitle() != null) {
-					addWarning(input, WARNING_DATUM_APPEARS_TOO_OFTEN);
-				}
-
-				input.getAssociatedSheet().setTitle(title);
-			} else {
-				// Title of track.
-				TrackData trackData = getLastTrackData(input);
-				if (trackData.getTitle() != null) {
-					addWarning(input, WARNING_DATUM_APPEARS_TOO_OFTEN);
-				}
-
-				trackData.setTitle(title);
-			}
-		} else {
-			addWarning(input, WARNING_UNPARSEABLE_INPUT);
+			state.title = true;
+			state.handler.onTitle(tokenizer.getUnquotedTokenText(), true);
 		}
 	}
 
@@ -1180,159 +1390,344 @@ public class CueParser {
 	 * Data (raw) MODE2/2336 - CDROM-XA Mode2 Data MODE2/2352 - CDROM-XA Mode2
 	 * Data CDI/2336 - CDI Mode2 Data CDI/2352 - CDI Mode2 Data
 	 *
-	 * @param input The {@link LineOfInput}.
+	 * @param tokenizer the {@link CueTokenizer} positioned at the line.
+	 * @param state the parser {@link State}.
 	 */
-	protected static void parseTrack(LineOfInput input) {
-		Matcher trackMatcher = PATTERN_TRACK.matcher(input.getInput());
-
-		if (startsWith(input, "TRACK") && trackMatcher.matches()) {
-			if (trackMatcher.group(1).length() != 2) {
-				addWarning(input, WARNING_WRONG_NUMBER_OF_DIGITS);
-			}
-			int trackNumber = Integer.parseInt(trackMatcher.group(1));
-
-			String dataType = trackMatcher.group(2);
-			if (!COMPLIANT_DATA_TYPES.contains(dataType)) {
-				addWarning(input, WARNING_NONCOMPLIANT_DATA_TYPE);
-			}
+	protected static void parseTrack(CueTokenizer tokenizer, State state) {
+		if (
+			!startsWith(tokenizer, state, "TRACK") ||
+			!matchesKeyword(tokenizer, "TRACK") ||
+			!tokenizer.skipWhitespace() ||
+			!tokenizer.readNumber()
+		) {
+			addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
+			return;
+		}
+		int trackNumber = tokenizer.getTokenValue();
+		boolean trackNumberCompliant = tokenizer.getTokenLength() == 2;
+		if (!tokenizer.skipWhitespace() || !tokenizer.readWord() || !tokenizer.isAtEnd()) {
+			addWarning(tokenizer, state, WARNING_UNPARSEABLE_INPUT);
+			return;
+		}
 
-			List<TrackData> trackDataList = input.getAssociatedSheet().getAllTrackData();
+		if (!trackNumberCompliant) {
+			addWarning(tokenizer, state, WARNING_WRONG_NUMBER_OF_DIGITS);
+		}
 
-			// First track must have number 1; all next ones sequential.
-			if (trackDataList.isEmpty() && trackNumber != 1 || !trackDataList.isEmpty() &&
-				trackDataList.get(trackDataList.size() - 1).getNumber() != trackNumber - 1) {
-				addWarning(input, WARNING_INVALID_TRACK_NUMBER);
-			}
+		String dataType = tokenizer.getToken();
+		if (!COMPLIANT_DATA_TYPES.contains(dataType)) {
+			addWarning(tokenizer, state, WARNING_NONCOMPLIANT_DATA_TYPE);
+		}
 
-			FileData lastFileData = getLastFileData(input);
-			lastFileData.getTrackData().add(new TrackData(lastFileData, trackNumber, dataType));
-		} else {
-			addWarning(input, WARNING_UNPARSEABLE_INPUT);
+		// First track must have number 1; all next ones sequential.
+		if (!state.anyTrack && trackNumber != 1 || state.anyTrack &&
+			state.lastTrackNumber != trackNumber - 1) {
+			addWarning(tokenizer, state, WARNING_INVALID_TRACK_NUMBER);
 		}
+
+		state.ensureFile(tokenizer);
+		state.startTrack(trackNumber, dataType);
 	}
 
 	/**
-	 * Parse a position, as used by several commands.
+	 * Checks that the keyword at the start of the current line matches the
+	 * specified keyword when comparing ASCII letters without regard to case.
+	 * The cursor is left just after the keyword.
 	 *
-	 * [mm:ss:ff] mm = minutes ss = seconds ff = frames (75 per second)
-	 *
-	 * @param input The {@link LineOfInput}.
-	 * @param position The position {@link String}.
-	 * @return the {@link Position}.
+	 * @param tokenizer the {@link CueTokenizer} positioned at the line.
+	 * @param keyword the uppercase keyword.
+	 * @return {@code true} if the keyword matches, {@code false} otherwise.
 	 */
-	protected static Position parsePosition(LineOfInput input, String position) {
-		Matcher positionMatcher = PATTERN_POSITION.matcher(position);
-
-		if (positionMatcher.matches()) {
-			String minutesString = positionMatcher.group(1);
-			String secondsString = positionMatcher.group(2);
-			String framesString = positionMatcher.group(3);
-			int minutes = Integer.parseInt(minutesString);
-			int seconds = Integer.parseInt(secondsString);
-			int frames = Integer.parseInt(framesString);
-
-			if (!(minutesString.length() == 2 && secondsString.length() == 2 && framesString.length() == 2)) {
-				addWarning(input, WARNING_WRONG_NUMBER_OF_DIGITS);
-			}
-
-			if (seconds > 59) {
-				addWarning(input, WARNING_INVALID_SECONDS_VALUE);
-			}
+	protected static boolean matchesKeyword(CueTokenizer tokenizer, String keyword) {
+		tokenizer.rewind();
+		return tokenizer.skipKeyword(keyword);
+	}
 
-			if (frames > 74) {
-				addWarning(input, WARNING_INVALID_FRAMES_VALUE);
+	/**
+	 * Reads the value of a CD-TEXT command like {@code TITLE}. A
+	 * "FIELD LENGTH OVER 80" warning is added if the unquoted value is too long.
+	 *
+	 * @param tokenizer the {@link CueTokenizer} positioned at the line.
+	 * @param state the parser {@link State}.
+	 * @param keyword the uppercase keyword.
+	 * @return {@code true} if the line was parsed, {@code false} if it is
+	 *         unparseable.
+	 */
+	protected static boolean readTextValue(CueTokenizer tokenizer, State state, String keyword) {
+		if (
+			startsWith(tokenizer, state, keyword) &&
+			matchesKeyword(tokenizer, keyword) &&
+			tokenizer.skipWhitespace() &&
+			tokenizer.readValue()
+		) {
+			if (tokenizer.getUnquotedTokenLength() > 80) {
+				addWarning(tokenizer, state, WARNING_FIELD_LENGTH_OVER_80);
 			}
-
-			return new Position(minutes, seconds, frames);
+			return true;
 		}
-		addWarning(input, WARNING_UNPARSEABLE_INPUT);
-		return new Position();
+		return false;
 	}
 
 	/**
-	 * Get the last {@link TrackData} element. If none exist, an empty one is
-	 * created and a warning added.
+	 * Reads the position of a command like {@code PREGAP}.
 	 *
-	 * @param input the {@link LineOfInput}.
-	 * @return The last {@link TrackData} element. If none exist, an empty one
-	 *         is created and a warning added.
+	 * @param tokenizer the {@link CueTokenizer} positioned at the line.
+	 * @param state the parser {@link State}.
+	 * @param keyword the uppercase keyword.
+	 * @return {@code true} if the line was parsed, {@code false} if it is
+	 *         unparseable.
 	 */
-	protected static TrackData getLastTrackData(LineOfInput input) {
-		FileData lastFileData = getLastFileData(input);
-		List<TrackData> trackDataList = lastFileData.getTrackData();
+	protected static boolean readPositionValue(CueTokenizer tokenizer, State state, String keyword) {
+		return
+			startsWith(tokenizer, state, keyword) &&
+			matchesKeyword(tokenizer, keyword) &&
+			tokenizer.skipWhitespace() &&
+			tokenizer.readPosition() &&
+			tokenizer.isAtEnd();
+	}
 
-		if (trackDataList.size() == 0) {
-			trackDataList.add(new TrackData(lastFileData));
-			addWarning(input, WARNING_NO_TRACK_SPECIFIED);
+	/**
+	 * Reads the value of a non-standard {@code REM} command after
+	 * {@link #remStartsWith} has matched. A "TOKEN NOT UPPERCASE" warning is
+	 * added if {@code REM} or the keyword isn't uppercase.
+	 *
+	 * @param tokenizer the {@link CueTokenizer} positioned after the keyword.
+	 * @param state the parser {@link State}.
+	 * @param numeric {@code true} if the value must be a number,
+	 *            {@code false} if it can be any value.
+	 * @return {@code true} if a value was read, {@code false} otherwise.
+	 */
+	protected static boolean readRemValue(CueTokenizer tokenizer, State state, boolean numeric) {
+		int keywordEnd = tokenizer.getPosition();
+		if (
+			!tokenizer.skipWhitespace() ||
+			(numeric ? !tokenizer.readNumber() || !tokenizer.isAtEnd() : !tokenizer.readValue())
+		) {
+			return false;
 		}
-
-		return trackDataList.get(trackDataList.size() - 1);
+		if (!tokenizer.isUpperCaseUntil(keywordEnd)) {
+			addWarning(tokenizer, state, WARNING_TOKEN_NOT_UPPERCASE);
+		}
+		return true;
 	}
 
 	/**
-	 * Get the last {@link FileData} element. If none exist, an empty one is
-	 * created and a warning added.
+	 * Validates the last position read by the specified {@link CueTokenizer},
+	 * adding warnings for noncompliant values.
 	 *
-	 * @param input The {@link LineOfInput}.
-	 * @return The last {@link FileData} element. If none exist, an empty one is
-	 *         created and a warning added.
+	 * [mm:ss:ff] mm = minutes ss = seconds ff = frames (75 per second)
+	 *
+	 * @param tokenizer the {@link CueTokenizer} that has read the position.
+	 * @param state the parser {@link State}.
 	 */
-	protected static FileData getLastFileData(LineOfInput input) {
-		List<FileData> fileDataList = input.getAssociatedSheet().getFileData();
+	protected static void validatePosition(CueTokenizer tokenizer, State state) {
+		if (!tokenizer.isPositionCompliant()) {
+			addWarning(tokenizer, state, WARNING_WRONG_NUMBER_OF_DIGITS);
+		}
 
-		if (fileDataList.size() == 0) {
-			fileDataList.add(new FileData(input.getAssociatedSheet()));
-			addWarning(input, WARNING_NO_FILE_SPECIFIED);
+		if (tokenizer.getSeconds() > 59) {
+			addWarning(tokenizer, state, WARNING_INVALID_SECONDS_VALUE);
 		}
 
-		return fileDataList.get(fileDataList.size() - 1);
+		if (tokenizer.getFrames() > 74) {
+			addWarning(tokenizer, state, WARNING_INVALID_FRAMES_VALUE);
+		}
 	}
 
 	/**
-	 * Write a warning to the {@link CueSheet} associated with the
-	 * {@link LineOfInput}.
+	 * Report a warning to the {@link CueSheetHandler} for the current line of
+	 * the {@link CueTokenizer}.
 	 *
-	 * @param input The {@link LineOfInput} the warning pertains to.
+	 * @param tokenizer the {@link CueTokenizer} positioned at the line the
+	 *            warning pertains to.
+	 * @param state the parser {@link State}.
 	 * @param warning The warning to write.
 	 */
-	protected static void addWarning(LineOfInput input, String warning) {
-		LOGGER.warn("Cue sheet parsing line {}: {}", input.getLineNumber(), warning);
-		input.getAssociatedSheet().addWarning(input, warning);
+	protected static void addWarning(CueTokenizer tokenizer, State state, String warning) {
+		state.handler.onWarning(tokenizer.getLineNumber(), tokenizer.getLineText(), warning);
 	}
 
 	/**
-	 * Parse all .cue files in the user's working directory and print any
-	 * warnings to standard out.
+	 * The state the parser needs to validate the cue sheet structure without
+	 * building the object graph. It tracks what has been seen so far for the
+	 * album, the current {@code FILE} and the current {@code TRACK}.
 	 *
-	 * @param args The command line arguments.
+	 * @author Nadahar
 	 */
-	public static void main(String[] args) {
-		CueSheet sheet = null;
+	protected static class State {
 
-		try {
-			CueSheetToXmlSerializer xmlSerializer = new CueSheetToXmlSerializer();
+		/** The {@link CueSheetHandler} to report to */
+		protected final CueSheetHandler handler;
 
-			FileFilter cueFilter = new FileFilter() {
+		/** Whether the album has a catalog number */
+		protected boolean catalog;
 
-				@Override
-				public boolean accept(File file) {
-					return file.getName().length() >= 4 && file.getName().substring(file.getName().length() - 4).equalsIgnoreCase(".cue");
-				}
-			};
+		/** Whether the album has a CD-TEXT file */
+		protected boolean cdTextFile;
+
+		/** Whether the album has a performer */
+		protected boolean albumPerformer;
+
+		/** Whether the album has a songwriter */
+		protected boolean albumSongwriter;
+
+		/** Whether the album has a title */
+		protected boolean albumTitle;
+
+		/** The number of files */
+		protected int fileCount;
+
+		/** The number of tracks in the current file */
+		protected int fileTrackCount;
+
+		/** Whether any track in the current file has indices */
+		protected boolean fileIndices;
+
+		/** Whether there are any tracks in any file */
+		protected boolean anyTrack;
+
+		/** The number of the last track in any file */
+		protected int lastTrackNumber = -1;
+
+		/** The number of indices in the current track */
+		protected int indexCount;
+
+		/** The number of the last index in the current track */
+		protected int lastIndexNumber = -1;
+
+		/** Whether the current track has flags */
+		protected boolean flags;
+
+		/** Whether the current track has an ISRC code */
+		protected boolean isrc;
+
+		/** Whether the current track has a performer */
+		protected boolean performer;
+
+		/** Whether the current track has a songwriter */
+		protected boolean songwriter;
+
+		/** Whether the current track has a title */
+		protected boolean title;
+
+		/** Whether the current track has a pregap */
+		protected boolean pregap;
 
-			List<File> files = new ArrayList<File>();
-			File[] filesFound = null;
+		/** Whether the current track has a postgap */
+		protected boolean postgap;
 
-			File workingDir = new File(System.getProperty("user.dir"));
+		/**
+		 * Creates a new instance.
+		 *
+		 * @param handler the {@link CueSheetHandler} to report to.
+		 */
+		public State(CueSheetHandler handler) {
+			this.handler = handler;
+		}
+
+		/**
+		 * @return {@code true} if CD-TEXT data belongs to the album,
+		 *         {@code false} if it belongs to the current track.
+		 */
+		public boolean isAlbumContext() {
+			return fileCount == 0 || fileTrackCount == 0;
+		}
 
-			filesFound = workingDir.listFiles(cueFilter);
-			if (filesFound != null) {
-				files.addAll(Arrays.asList(filesFound));
+		/**
+		 * Starts a new file and reports it.
+		 *
+		 * @param file the file name or {@code null} if implied.
+		 * @param fileType the file type or {@code null} if implied.
+		 */
+		public void startFile(CharSequence file, String fileType) {
+			fileCount++;
+			fileTrackCount = 0;
+			fileIndices = false;
+			handler.onFile(file, fileType);
+		}
+
+		/**
+		 * Starts a new track in the current file and reports it.
+		 *
+		 * @param number the track number or {@code -1} if implied.
+		 * @param dataType the data type or {@code null} if implied.
+		 */
+		public void startTrack(int number, String dataType) {
+			fileTrackCount++;
+			anyTrack = true;
+			lastTrackNumber = number;
+			indexCount = 0;
+			lastIndexNumber = -1;
+			flags = false;
+			isrc = false;
+			performer = false;
+			songwriter = false;
+			title = false;
+			pregap = false;
+			postgap = false;
+			handler.onTrack(number, dataType);
+		}
+
+		/**
+		 * Makes sure that there is a current file. If there is none, an
+		 * implied file is started and a warning added.
+		 *
+		 * @param tokenizer the {@link CueTokenizer} positioned at the current
+		 *            line.
+		 */
+		public void ensureFile(CueTokenizer tokenizer) {
+			if (fileCount == 0) {
+				startFile(null, null);
+				addWarning(tokenizer, this, WARNING_NO_FILE_SPECIFIED);
 			}
+		}
+
+		/**
+		 * Makes sure that there is a current track. If there is none, an
+		 * implied track, and if needed file, is started and a warning added.
+		 *
+		 * @param tokenizer the {@link CueTokenizer} positioned at the current
+		 *            line.
+		 */
+		public void ensureTrack(CueTokenizer tokenizer) {
+			ensureFile(tokenizer);
+			if (fileTrackCount == 0) {
+				startTrack(-1, null);
+				addWarning(tokenizer, this, WARNING_NO_TRACK_SPECIFIED);
+			}
+		}
+	}
 
-			for (File file : files) {
-				LOGGER.info("Processing file: \"{}\"", file);
-				sheet = CueParser.parse(file);
+	/**
+	 * Parse all .cue files in the user's working directory and print any
+	 * warnings to standard out.
+	 *
+	 * @param args The command line arguments.
+	 */
+	public static void main(String[] args) {
+		try (
+			CueBatchParser batchParser = new CueBatchParser(null, 0, Charset.defaultCharset());
+			Stream<CueBatchParser.Result> results = batchParser.stream(
+				Files.list(Paths.get(System.getProperty("user.dir"))).filter(path -> {
+					String name = path.getFileName().toString();
+					return name.length() >= 4 && name.substring(name.length() - 4).equalsIgnoreCase(".cue") && Files.isRegularFile(path);
+				}),
+				true
+			)
+		) {
+			CueSheetToXmlSerializer xmlSerializer = new CueSheetToXmlSerializer();
+
+			// The cue sheets are parsed concurrently, but delivered in order
+			Iterator<CueBatchParser.Result> iterator = results.iterator();
+			while (iterator.hasNext()) {
+				CueBatchParser.Result result = iterator.next();
+				LOGGER.info("Processing file: \"{}\"", result.getFile());
+				if (!result.isSuccess()) {
+					LOGGER.error("Failed to parse \"{}\": {}", result.getFile(), result.getException().getMessage());
+					LOGGER.trace("", result.getException());
+					continue;
+				}
+				CueSheet sheet = result.getCueSheet();
 
 				for (Message message : sheet.getMessages()) {
 					System.out.println(message);
@@ -19,6 +19,7 @@
 package org.digitalmediaserver.cuelib;
 
 import static org.digitalmediaserver.cuelib.util.Utils.*;
+import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
@@ -189,6 +190,17 @@ public class CueSheet {
 	 */
 	private int discNumber = -1;
 
+	/**
+	 * The {@link Charset} the cue sheet was decoded with. May be null.
+	 */
+	private Charset charset = null;
+
+	/**
+	 * The confidence of the {@link Charset} detection from 0 to 100. -1
+	 * signifies that the {@link Charset} wasn't detected.
+	 */
+	private int charsetConfidence = -1;
+
 	/**
 	 * Create a new instance that isn't based on a file.
 	 */
@@ -535,6 +547,47 @@ public class CueSheet {
 		this.discNumber = discNumber;
 	}
 
+	/**
+	 * Get the {@link Charset} the cue sheet was decoded with. May be
+	 * {@code null} if it's unknown.
+	 *
+	 * @return The {@link Charset} or {@code null}.
+	 */
+	public Charset getCharset() {
+		return charset;
+	}
+
+	/**
+	 * Set the {@link Charset} the cue sheet was decoded with.
+	 *
+	 * @param charset The {@link Charset}.
+	 */
+	public void setCharset(Charset charset) {
+		this.charset = charset;
+	}
+
+	/**
+	 * Get the confidence of the {@link Charset} detection from 0 to 100, where
+	 * 100 means that it was given by a byte order mark or is certain for other
+	 * reasons. -1 indicates that the {@link Charset} wasn't detected.
+	 *
+	 * @return The confidence of the {@link Charset} detection.
+	 */
+	public int getCharsetConfidence() {
+		return charsetConfidence;
+	}
+
+	/**
+	 * Set the confidence of the {@link Charset} detection from 0 to 100. -1
+	 * indicates that the {@link Charset} wasn't detected.
+	 *
+	 * @param charsetConfidence The confidence of the {@link Charset}
+	 *            detection.
+	 */
+	public void setCharsetConfidence(int charsetConfidence) {
+		this.charsetConfidence = charsetConfidence;
+	}
+
 	/**
 	 * Get the CUE {@link Path} for this {@link CueSheet}. Might be {@code null}
 	 * if the information wasn't given in the constructor.
@@ -545,6 +598,17 @@ public class CueSheet {
 		return file;
 	}
 
+	/**
+	 * Creates an immutable and compact copy of this {@link CueSheet}, suitable
+	 * for keeping large numbers of cue sheets in memory. Later changes to this
+	 * {@link CueSheet} aren't reflected in the copy.
+	 *
+	 * @return The new {@link CompactCueSheet}.
+	 */
+	public CompactCueSheet freeze() {
+		return new CompactCueSheet(this);
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder("CueSheet [").append("\n");
@@ -598,6 +662,13 @@ public class CueSheet {
 			first = appendSeparator(sb, first, "\n");
 			sb.append("    catalog=").append(catalog);
 		}
+		if (charset != null) {
+			first = appendSeparator(sb, first, "\n");
+			sb.append("    charset=").append(charset);
+			if (charsetConfidence >= 0) {
+				sb.append(" (").append(charsetConfidence).append("%)");
+			}
+		}
 		if (!fileData.isEmpty()) {
 			first = appendSeparator(sb, first, "\n");
 			sb.append("    fileData=").append(collectionToString(fileData, 8));
@@ -0,0 +1,561 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib;
+
+import static org.digitalmediaserver.cuelib.CueSheetBinaryWriter.*;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import org.digitalmediaserver.cuelib.ByteCueTokenizer.ByteText;
+
+
+/**
+ * Class for reading {@link CueSheet}s written by {@link CueSheetBinaryWriter}
+ * directly from a {@link ByteBuffer}, for example a memory-mapped file.
+ * <p>
+ * Records are read sequentially from the position of the {@link ByteBuffer}
+ * given to the constructor. The position of that {@link ByteBuffer} isn't
+ * changed. Strings are decoded directly from the {@link ByteBuffer}, and in
+ * lazy mode the performer, title and songwriter of the tracks are kept as
+ * references into the {@link ByteBuffer} until they are retrieved, in which
+ * case the content of the buffer must remain unchanged for as long as the
+ * {@link CueSheet}s are in use.
+ * <p>
+ * Invalid data is reported with {@link IllegalArgumentException}. Instances
+ * aren't thread-safe.
+ *
+ * @author Nadahar
+ */
+public class CueSheetBinaryReader {
+
+	/** The {@link ByteBuffer} to read from */
+	protected final ByteBuffer buffer;
+
+	/** Whether to decode track text values lazily */
+	protected final boolean lazy;
+
+	/** A reusable array for decoding strings from non-array buffers */
+	private byte[] bytes;
+
+	/**
+	 * Creates a new reader for the records between the position and the
+	 * limit of the specified {@link ByteBuffer}.
+	 *
+	 * @param buffer the {@link ByteBuffer} to read from.
+	 */
+	public CueSheetBinaryReader(ByteBuffer buffer) {
+		this(buffer, false);
+	}
+
+	/**
+	 * Creates a new reader for the records between the position and the
+	 * limit of the specified {@link ByteBuffer}.
+	 *
+	 * @param buffer the {@link ByteBuffer} to read from.
+	 * @param lazy {@code true} to postpone the decoding of the performer,
+	 *            title and songwriter of the tracks until they are retrieved,
+	 *            {@code false} to decode them immediately.
+	 */
+	public CueSheetBinaryReader(ByteBuffer buffer, boolean lazy) {
+		if (buffer == null) {
+			throw new IllegalArgumentException("buffer cannot be null");
+		}
+		this.buffer = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+		this.lazy = lazy;
+	}
+
+	/**
+	 * Deserializes a single record created by
+	 * {@link CueSheetBinaryWriter#serializeCueSheet(CueSheet)}.
+	 *
+	 * @param record the record.
+	 * @return The new {@link CueSheet}.
+	 * @throws IllegalArgumentException If {@code record} is invalid.
+	 */
+	public static CueSheet deserializeCueSheet(byte[] record) {
+		return new CueSheetBinaryReader(ByteBuffer.wrap(record)).next();
+	}
+
+	/**
+	 * @return {@code true} if there are more records to read, {@code false}
+	 *         otherwise.
+	 */
+	public boolean hasNext() {
+		return buffer.hasRemaining();
+	}
+
+	/**
+	 * @return The current position of this reader in the {@link ByteBuffer}.
+	 */
+	public int getPosition() {
+		return buffer.position();
+	}
+
+	/**
+	 * Reads the next record.
+	 *
+	 * @return The new {@link CueSheet}.
+	 * @throws IllegalArgumentException If the record is invalid.
+	 */
+	public CueSheet next() {
+		return next(null, false);
+	}
+
+	/**
+	 * Reads the next record, skipping its CUE file and using the specified
+	 * {@link Path} instead.
+	 *
+	 * @param file the CUE {@link Path} to give the {@link CueSheet}.
+	 * @return The new {@link CueSheet}.
+	 * @throws IllegalArgumentException If the record is invalid.
+	 */
+	public CueSheet next(Path file) {
+		return next(file, true);
+	}
+
+	/**
+	 * Skips the next record without decoding it.
+	 *
+	 * @throws IllegalArgumentException If the record is invalid.
+	 */
+	public void skip() {
+		try {
+			int length = buffer.getInt();
+			if (length < 1 || length > buffer.remaining()) {
+				throw new IllegalArgumentException("Invalid record length " + length);
+			}
+			buffer.position(buffer.position() + length);
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Truncated cue sheet record", e);
+		}
+	}
+
+	/**
+	 * Reads the next record.
+	 *
+	 * @param file the CUE {@link Path} to use if {@code overrideFile} is
+	 *            {@code true}.
+	 * @param overrideFile whether to use {@code file} instead of the file in
+	 *            the record.
+	 * @return The new {@link CueSheet}.
+	 * @throws IllegalArgumentException If the record is invalid.
+	 */
+	protected CueSheet next(Path file, boolean overrideFile) {
+		int start = buffer.position();
+		try {
+			int length = buffer.getInt();
+			if (length < 1 || length > buffer.remaining()) {
+				throw new IllegalArgumentException("Invalid record length " + length);
+			}
+			int end = buffer.position() + length;
+			int version = buffer.get() & 0xFF;
+			if (version != VERSION) {
+				throw new IllegalArgumentException("Unsupported cue sheet record version " + version);
+			}
+			String fileName = readString();
+			if (!overrideFile && fileName != null) {
+				try {
+					file = Paths.get(fileName);
+				} catch (InvalidPathException e) {
+					file = null;
+				}
+			}
+			CueSheet result = readCueSheet(file);
+			if (buffer.position() != end) {
+				throw new IllegalArgumentException("Cue sheet record length mismatch");
+			}
+			return result;
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new IllegalArgumentException("Truncated cue sheet record at position " + start, e);
+		}
+	}
+
+	/**
+	 * Reads the cue sheet data following the CUE file name of a record.
+	 *
+	 * @param file the CUE {@link Path} to give the {@link CueSheet}.
+	 * @return The new {@link CueSheet}.
+	 */
+	protected CueSheet readCueSheet(Path file) {
+		CueSheet cueSheet = new CueSheet(file);
+		String charsetName = readString();
+		if (charsetName != null && Charset.isSupported(charsetName)) {
+			cueSheet.setCharset(Charset.forName(charsetName));
+		}
+		cueSheet.setCharsetConfidence(readSignedVarInt());
+		cueSheet.setCatalog(readString());
+		cueSheet.setCdTextFile(readString());
+		cueSheet.setPerformer(readString());
+		cueSheet.setTitle(readString());
+		cueSheet.setSongwriter(readString());
+		cueSheet.setComment(readString());
+		cueSheet.setDiscId(readString());
+		cueSheet.setGenre(readString());
+		cueSheet.setYear(readSignedVarInt());
+		cueSheet.setTotalDiscs(readSignedVarInt());
+		cueSheet.setDiscNumber(readSignedVarInt());
+
+		for (int i = readCount(); i > 0; i--) {
+			int type = buffer.get();
+			int lineNumber = readSignedVarInt();
+			String input = readString();
+			String message = readString();
+			cueSheet.getMessages().add(
+				type == MESSAGE_ERROR ? new Error(input, lineNumber, message) : new Warning(input, lineNumber, message)
+			);
+		}
+
+		for (int i = readCount(); i > 0; i--) {
+			FileData fileData = new FileData(cueSheet, readString(), readString());
+			cueSheet.getFileData().add(fileData);
+			for (int j = readCount(); j > 0; j--) {
+				TrackData trackData = new TrackData(fileData, readSignedVarInt(), readString());
+				fileData.getTrackData().add(trackData);
+				trackData.setIsrcCode(readString());
+				if (lazy) {
+					trackData.setLazyPerformer(readText());
+					trackData.setLazyTitle(readText());
+					trackData.setLazySongwriter(readText());
+				} else {
+					trackData.setPerformer(readString());
+					trackData.setTitle(readString());
+					trackData.setSongwriter(readString());
+				}
+				trackData.setPregap(readPosition());
+				trackData.setPostgap(readPosition());
+				trackData.setSampleOffset(readSignedVarLong());
+				for (int k = readCount(); k > 0; k--) {
+					trackData.getFlags().add(readString());
+				}
+				for (int k = readCount(); k > 0; k--) {
+					Index index = new Index(readSignedVarInt(), readPosition());
+					index.setSampleOffset(readSignedVarLong());
+					trackData.getIndices().add(index);
+				}
+			}
+		}
+		return cueSheet;
+	}
+
+	/**
+	 * @return The next {@link Position} or {@code null}.
+	 */
+	protected Position readPosition() {
+		if (buffer.get() == 0) {
+			return null;
+		}
+		return new Position(readSignedVarInt(), readSignedVarInt(), readSignedVarInt());
+	}
+
+	/**
+	 * @return The next string or {@code null}.
+	 */
+	protected String readString() {
+		int length = readVarInt() - 1;
+		if (length < 0) {
+			return null;
+		}
+		checkRemaining(length);
+		int position = buffer.position();
+		String result;
+		if (buffer.hasArray()) {
+			result = new String(buffer.array(), buffer.arrayOffset() + position, length, StandardCharsets.UTF_8);
+		} else {
+			if (bytes == null || bytes.length < length) {
+				bytes = new byte[Math.max(length, 256)];
+			}
+			buffer.get(position, bytes, 0, length);
+			result = new String(bytes, 0, length, StandardCharsets.UTF_8);
+		}
+		buffer.position(position + length);
+		return result;
+	}
+
+	/**
+	 * @return A {@link ByteText} reference to the next string, or
+	 *         {@code null}.
+	 */
+	protected CharSequence readText() {
+		int length = readVarInt() - 1;
+		if (length < 0) {
+			return null;
+		}
+		checkRemaining(length);
+		int position = buffer.position();
+		buffer.position(position + length);
+		return length == 0 ? "" : new ByteText(buffer, position, length, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @return The next unsigned variable length integer used as a count.
+	 */
+	protected int readCount() {
+		int count = readVarInt();
+		if (count < 0 || count > buffer.remaining()) {
+			throw new IllegalArgumentException("Invalid count " + count);
+		}
+		return count;
+	}
+
+	/**
+	 * @return The next zigzag encoded signed variable length integer.
+	 */
+	protected int readSignedVarInt() {
+		int value = readVarInt();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * @return The next unsigned variable length integer.
+	 */
+	protected int readVarInt() {
+		int result = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = buffer.get();
+			result |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new IllegalArgumentException("Invalid variable length integer");
+	}
+
+	/**
+	 * @return The next zigzag encoded signed variable length long.
+	 */
+	protected long readSignedVarLong() {
+		long value = readVarLong();
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * @return The next unsigned variable length long.
+	 */
+	protected long readVarLong() {
+		long result = 0;
+		for (int shift = 0; shift < 70; shift += 7) {
+			int b = buffer.get();
+			result |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new IllegalArgumentException("Invalid variable length integer");
+	}
+
+	private void checkRemaining(int length) {
+		if (length > buffer.remaining()) {
+			throw new IllegalArgumentException("Invalid string length " + length);
+		}
+	}
+
+	/**
+	 * Memory-maps a table file written by
+	 * {@link CueSheetBinaryWriter.TableWriter}.
+	 *
+	 * @param file the table file.
+	 * @param lazy {@code true} to postpone the decoding of the performer,
+	 *            title and songwriter of the tracks until they are retrieved,
+	 *            {@code false} to decode them immediately.
+	 * @return The {@link Table}.
+	 * @throws IOException If an error occurs during the operation or if the
+	 *             file isn't a valid table.
+	 */
+	public static Table openTable(Path file, boolean lazy) throws IOException {
+		ByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("Table file \"" + file + "\" is too large");
+			}
+			buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+		}
+		try {
+			return new Table(buffer, lazy);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Invalid table file \"" + file + "\": " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * A read-only view of a table written by
+	 * {@link CueSheetBinaryWriter.TableWriter}. The entries are sorted by
+	 * name, and nothing is read until an entry is requested.
+	 * <p>
+	 * This class is thread-safe.
+	 *
+	 * @author Nadahar
+	 */
+	public static class Table {
+
+		/** The {@link ByteBuffer} containing the table */
+		protected final ByteBuffer buffer;
+
+		/** Whether to decode track text values lazily */
+		protected final boolean lazy;
+
+		/** The position of the index in {@link #buffer} */
+		protected final int indexOffset;
+
+		/** The number of entries */
+		protected final int count;
+
+		/**
+		 * Creates a new view of the table between the position and the limit
+		 * of the specified {@link ByteBuffer}.
+		 *
+		 * @param buffer the {@link ByteBuffer} containing the table.
+		 * @param lazy {@code true} to postpone the decoding of the performer,
+		 *            title and songwriter of the tracks until they are
+		 *            retrieved, {@code false} to decode them immediately.
+		 * @throws IllegalArgumentException If the table is invalid.
+		 */
+		public Table(ByteBuffer buffer, boolean lazy) {
+			this.buffer = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+			this.lazy = lazy;
+			int limit = this.buffer.limit();
+			if (
+				limit < TABLE_HEADER_SIZE + TABLE_TRAILER_SIZE ||
+				this.buffer.getInt(0) != TABLE_MAGIC ||
+				this.buffer.getInt(limit - 4) != TABLE_END_MAGIC
+			) {
+				throw new IllegalArgumentException("Not a cue sheet table");
+			}
+			int version = this.buffer.getInt(4);
+			if (version != VERSION) {
+				throw new IllegalArgumentException("Unsupported cue sheet table version " + version);
+			}
+			long offset = this.buffer.getLong(limit - TABLE_TRAILER_SIZE);
+			count = this.buffer.getInt(limit - 8);
+			if (
+				count < 0 ||
+				offset < TABLE_HEADER_SIZE ||
+				offset + 8L * count != limit - TABLE_TRAILER_SIZE
+			) {
+				throw new IllegalArgumentException("Invalid cue sheet table index");
+			}
+			indexOffset = (int) offset;
+		}
+
+		/**
+		 * @return The number of entries.
+		 */
+		public int getCount() {
+			return count;
+		}
+
+		/**
+		 * Returns the name of the entry at the specified position in the
+		 * sorted index.
+		 *
+		 * @param i the index of the entry.
+		 * @return The name.
+		 */
+		public String getName(int i) {
+			int offset = getRecordOffset(i);
+			int length = buffer.getInt(offset);
+			if (length < 0 || offset + 4 + length > indexOffset) {
+				throw new IllegalArgumentException("Invalid name length " + length);
+			}
+			byte[] nameBytes = new byte[length];
+			buffer.get(offset + 4, nameBytes);
+			return new String(nameBytes, StandardCharsets.UTF_8);
+		}
+
+		/**
+		 * Reads the entry at the specified position in the sorted index.
+		 *
+		 * @param i the index of the entry.
+		 * @return The new {@link CueSheet}.
+		 * @throws IllegalArgumentException If the entry is invalid.
+		 */
+		public CueSheet get(int i) {
+			int offset = getRecordOffset(i);
+			int nameLength = buffer.getInt(offset);
+			if (nameLength < 0 || offset + 4 + nameLength > indexOffset) {
+				throw new IllegalArgumentException("Invalid name length " + nameLength);
+			}
+			ByteBuffer record = buffer.duplicate();
+			record.position(offset + 4 + nameLength).limit(indexOffset);
+			return new CueSheetBinaryReader(record, lazy).next();
+		}
+
+		/**
+		 * Finds the position in the sorted index of the entry with the
+		 * specified name using a binary search.
+		 *
+		 * @param name the name to look for.
+		 * @return The index of the entry, or {@code -1} if there is no entry
+		 *         with that name.
+		 */
+		public int indexOf(String name) {
+			int low = 0;
+			int high = count - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				int comparison = getName(mid).compareTo(name);
+				if (comparison < 0) {
+					low = mid + 1;
+				} else if (comparison > 0) {
+					high = mid - 1;
+				} else {
+					return mid;
+				}
+			}
+			return -1;
+		}
+
+		/**
+		 * Reads the entry with the specified name.
+		 *
+		 * @param name the name to look for.
+		 * @return The new {@link CueSheet} or {@code null} if there is no
+		 *         entry with that name.
+		 * @throws IllegalArgumentException If the entry is invalid.
+		 */
+		public CueSheet get(String name) {
+			int i = indexOf(name);
+			return i < 0 ? null : get(i);
+		}
+
+		private int getRecordOffset(int i) {
+			if (i < 0 || i >= count) {
+				throw new IndexOutOfBoundsException("Index " + i + " out of bounds for length " + count);
+			}
+			long offset = buffer.getLong(indexOffset + 8 * i);
+			if (offset < TABLE_HEADER_SIZE || offset + 4 > indexOffset) {
+				throw new IllegalArgumentException("Invalid record offset " + offset);
+			}
+			return (int) offset;
+		}
+
+		@Override
+		public String toString() {
+			return getClass().getSimpleName() + " [count=" + count + ", size=" + buffer.limit() + "]";
+		}
+	}
+}
@@ -0,0 +1,446 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+
+/**
+ * Class for serializing {@link CueSheet}s to a compact binary format that can
+ * be read with {@link CueSheetBinaryReader}.
+ * <p>
+ * Each {@link CueSheet} is written as a record that consists of the length of
+ * the rest of the record as a 4 byte big-endian integer, a format version
+ * byte, and the cue sheet data. All data of the {@link CueSheet} is included,
+ * including the {@link Message}s. Integers in the cue sheet data are written
+ * as variable length integers, and strings are written as UTF-8 prefixed by
+ * their length.
+ * <p>
+ * Many {@link CueSheet}s can be written to the same file with a
+ * {@link TableWriter}, which adds an index that allows
+ * {@link CueSheetBinaryReader.Table} to look them up by name.
+ * <p>
+ * Instances reuse an internal buffer and aren't thread-safe.
+ *
+ * @author Nadahar
+ */
+public class CueSheetBinaryWriter {
+
+	/** The current format version of the cue sheet records */
+	public static final int VERSION = 1;
+
+	/** The magic number at the start of a table file, "CUET" */
+	public static final int TABLE_MAGIC = 0x43554554;
+
+	/** The magic number at the end of a table file, "CUEI" */
+	public static final int TABLE_END_MAGIC = 0x43554549;
+
+	/** The size of the table file header */
+	public static final int TABLE_HEADER_SIZE = 8;
+
+	/** The size of the table file trailer */
+	public static final int TABLE_TRAILER_SIZE = 16;
+
+	/** The {@link Message} type of {@link Warning}s */
+	protected static final int MESSAGE_WARNING = 0;
+
+	/** The {@link Message} type of {@link Error}s */
+	protected static final int MESSAGE_ERROR = 1;
+
+	/** The buffer */
+	protected byte[] buffer = new byte[1024];
+
+	/** The number of bytes in {@link #buffer} */
+	protected int size;
+
+	/**
+	 * Serializes the specified {@link CueSheet} to a new record.
+	 *
+	 * @param cueSheet the {@link CueSheet} to serialize.
+	 * @return The record.
+	 */
+	public byte[] serializeCueSheet(CueSheet cueSheet) {
+		encode(cueSheet);
+		return Arrays.copyOf(buffer, size);
+	}
+
+	/**
+	 * Serializes the specified {@link CueSheet} and writes the record to the
+	 * specified {@link OutputStream}.
+	 *
+	 * @param cueSheet the {@link CueSheet} to serialize.
+	 * @param outputStream the {@link OutputStream} to write to.
+	 * @return The number of bytes written.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public int writeCueSheet(CueSheet cueSheet, OutputStream outputStream) throws IOException {
+		encode(cueSheet);
+		outputStream.write(buffer, 0, size);
+		return size;
+	}
+
+	/**
+	 * Encodes a record for the specified {@link CueSheet} into
+	 * {@link #buffer}.
+	 *
+	 * @param cueSheet the {@link CueSheet} to encode.
+	 */
+	protected void encode(CueSheet cueSheet) {
+		if (cueSheet == null) {
+			throw new IllegalArgumentException("cueSheet cannot be null");
+		}
+		size = 4;
+		writeByte(VERSION);
+		writeString(cueSheet.getFile() == null ? null : cueSheet.getFile().toString());
+		writeString(cueSheet.getCharset() == null ? null : cueSheet.getCharset().name());
+		writeSignedVarInt(cueSheet.getCharsetConfidence());
+		writeString(cueSheet.getCatalog());
+		writeString(cueSheet.getCdTextFile());
+		writeString(cueSheet.getPerformer());
+		writeString(cueSheet.getTitle());
+		writeString(cueSheet.getSongwriter());
+		writeString(cueSheet.getComment());
+		writeString(cueSheet.getDiscId());
+		writeString(cueSheet.getGenre());
+		writeSignedVarInt(cueSheet.getYear());
+		writeSignedVarInt(cueSheet.getTotalDiscs());
+		writeSignedVarInt(cueSheet.getDiscNumber());
+
+		List<Message> messages = cueSheet.getMessages();
+		writeVarInt(messages.size());
+		for (Message message : messages) {
+			writeByte(message instanceof Error ? MESSAGE_ERROR : MESSAGE_WARNING);
+			writeSignedVarInt(message.getLineNumber());
+			writeString(message.getInput());
+			writeString(message.getMessage());
+		}
+
+		List<FileData> fileDataList = cueSheet.getFileData();
+		writeVarInt(fileDataList.size());
+		for (FileData fileData : fileDataList) {
+			writeString(fileData.getFile());
+			writeString(fileData.getFileType());
+			writeVarInt(fileData.getTrackData().size());
+			for (TrackData trackData : fileData.getTrackData()) {
+				writeSignedVarInt(trackData.getNumber());
+				writeString(trackData.getDataType());
+				writeString(trackData.getIsrcCode());
+				writeString(trackData.getPerformer());
+				writeString(trackData.getTitle());
+				writeString(trackData.getSongwriter());
+				writePosition(trackData.getPregap());
+				writePosition(trackData.getPostgap());
+				writeSignedVarLong(trackData.getSampleOffset());
+				writeVarInt(trackData.getFlags().size());
+				for (String flag : trackData.getFlags()) {
+					writeString(flag);
+				}
+				writeVarInt(trackData.getIndices().size());
+				for (Index index : trackData.getIndices()) {
+					writeSignedVarInt(index.getNumber());
+					writePosition(index.getPosition());
+					writeSignedVarLong(index.getSampleOffset());
+				}
+			}
+		}
+
+		int length = size - 4;
+		buffer[0] = (byte) (length >>> 24);
+		buffer[1] = (byte) (length >>> 16);
+		buffer[2] = (byte) (length >>> 8);
+		buffer[3] = (byte) length;
+	}
+
+	/**
+	 * Writes a {@link Position} as a presence byte followed by the minutes,
+	 * seconds and frames if it isn't {@code null}.
+	 *
+	 * @param position the {@link Position} or {@code null}.
+	 */
+	protected void writePosition(Position position) {
+		if (position == null) {
+			writeByte(0);
+			return;
+		}
+		writeByte(1);
+		writeSignedVarInt(position.getMinutes());
+		writeSignedVarInt(position.getSeconds());
+		writeSignedVarInt(position.getFrames());
+	}
+
+	/**
+	 * Writes a string as its UTF-8 length plus one followed by the UTF-8
+	 * bytes, where a length of zero means {@code null}.
+	 *
+	 * @param s the string or {@code null}.
+	 */
+	protected void writeString(String s) {
+		if (s == null) {
+			writeVarInt(0);
+			return;
+		}
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(bytes.length + 1);
+		ensureCapacity(bytes.length);
+		System.arraycopy(bytes, 0, buffer, size, bytes.length);
+		size += bytes.length;
+	}
+
+	/**
+	 * Writes a signed integer as a zigzag encoded variable length integer.
+	 *
+	 * @param value the value to write.
+	 */
+	protected void writeSignedVarInt(int value) {
+		writeVarInt((value << 1) ^ (value >> 31));
+	}
+
+	/**
+	 * Writes an unsigned variable length integer using 7 bits per byte, least
+	 * significant group first, where the high bit signals that more bytes
+	 * follow.
+	 *
+	 * @param value the value to write.
+	 */
+	protected void writeVarInt(int value) {
+		ensureCapacity(5);
+		while ((value & ~0x7F) != 0) {
+			buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buffer[size++] = (byte) value;
+	}
+
+	/**
+	 * Writes a signed long as a zigzag encoded variable length integer.
+	 *
+	 * @param value the value to write.
+	 */
+	protected void writeSignedVarLong(long value) {
+		writeVarLong((value << 1) ^ (value >> 63));
+	}
+
+	/**
+	 * Writes an unsigned variable length long using 7 bits per byte, least
+	 * significant group first, where the high bit signals that more bytes
+	 * follow.
+	 *
+	 * @param value the value to write.
+	 */
+	protected void writeVarLong(long value) {
+		ensureCapacity(10);
+		while ((value & ~0x7FL) != 0) {
+			buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buffer[size++] = (byte) value;
+	}
+
+	/**
+	 * Writes a single byte.
+	 *
+	 * @param value the value to write.
+	 */
+	protected void writeByte(int value) {
+		ensureCapacity(1);
+		buffer[size++] = (byte) value;
+	}
+
+	/**
+	 * Makes sure that {@link #buffer} has room for the specified number of
+	 * additional bytes.
+	 *
+	 * @param count the number of additional bytes.
+	 */
+	protected void ensureCapacity(int count) {
+		if (size + count > buffer.length) {
+			buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + count));
+		}
+	}
+
+	/**
+	 * Writes many {@link CueSheet}s to a table that can be read with
+	 * {@link CueSheetBinaryReader.Table}.
+	 * <p>
+	 * The table consists of a header with {@link #TABLE_MAGIC} and
+	 * {@link #VERSION}, the records, each prefixed by the length-prefixed
+	 * UTF-8 name it's stored under, an index of the 8 byte record offsets
+	 * sorted by name, and a trailer with the offset of the index, the number
+	 * of entries and {@link #TABLE_END_MAGIC}. All fixed size integers are
+	 * big-endian.
+	 * <p>
+	 * The index is held in memory until the table is closed, and is only
+	 * written by {@link #close()}.
+	 *
+	 * @author Nadahar
+	 */
+	public static class TableWriter implements Closeable {
+
+		/** The {@link OutputStream} to write to */
+		protected final OutputStream outputStream;
+
+		/** The {@link CueSheetBinaryWriter} used to serialize the records */
+		protected final CueSheetBinaryWriter writer = new CueSheetBinaryWriter();
+
+		/** The names and offsets of the written records */
+		protected final List<IndexEntry> entries = new ArrayList<>();
+
+		/** The current position in the output */
+		protected long position;
+
+		/** Whether this table is closed */
+		protected boolean closed;
+
+		/**
+		 * Creates a new table writer and writes the table header. The
+		 * {@link OutputStream} should be buffered.
+		 *
+		 * @param outputStream the {@link OutputStream} to write to. It's
+		 *            closed by {@link #close()}.
+		 * @throws IOException If an error occurs during the operation.
+		 */
+		public TableWriter(OutputStream outputStream) throws IOException {
+			if (outputStream == null) {
+				throw new IllegalArgumentException("outputStream cannot be null");
+			}
+			this.outputStream = outputStream;
+			writeInt(TABLE_MAGIC);
+			writeInt(VERSION);
+		}
+
+		/**
+		 * Adds a {@link CueSheet} using the string representation of its file
+		 * as the name, or an empty name if it has no file.
+		 *
+		 * @param cueSheet the {@link CueSheet} to add.
+		 * @throws IOException If an error occurs during the operation.
+		 */
+		public void add(CueSheet cueSheet) throws IOException {
+			add(cueSheet.getFile() == null ? "" : cueSheet.getFile().toString(), cueSheet);
+		}
+
+		/**
+		 * Adds a {@link CueSheet} under the specified name. If several
+		 * {@link CueSheet}s are added with the same name, it's undefined which
+		 * of them a lookup by name finds.
+		 *
+		 * @param name the name to store the {@link CueSheet} under.
+		 * @param cueSheet the {@link CueSheet} to add.
+		 * @throws IOException If an error occurs during the operation.
+		 */
+		public void add(String name, CueSheet cueSheet) throws IOException {
+			if (closed) {
+				throw new IOException("The table is closed");
+			}
+			if (name == null) {
+				throw new IllegalArgumentException("name cannot be null");
+			}
+			entries.add(new IndexEntry(name, position));
+			byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+			writeInt(nameBytes.length);
+			outputStream.write(nameBytes);
+			position += nameBytes.length;
+			position += writer.writeCueSheet(cueSheet, outputStream);
+		}
+
+		/**
+		 * @return The number of {@link CueSheet}s added so far.
+		 */
+		public int getCount() {
+			return entries.size();
+		}
+
+		/**
+		 * Writes the index and the trailer and closes the
+		 * {@link OutputStream}.
+		 *
+		 * @throws IOException If an error occurs during the operation.
+		 */
+		@Override
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			try {
+				entries.sort(Comparator.comparing(IndexEntry::getName));
+				long indexOffset = position;
+				for (IndexEntry entry : entries) {
+					writeLong(entry.offset);
+				}
+				writeLong(indexOffset);
+				writeInt(entries.size());
+				writeInt(TABLE_END_MAGIC);
+				outputStream.flush();
+			} finally {
+				outputStream.close();
+			}
+		}
+
+		private void writeInt(int value) throws IOException {
+			outputStream.write(value >>> 24);
+			outputStream.write(value >>> 16);
+			outputStream.write(value >>> 8);
+			outputStream.write(value);
+			position += 4;
+		}
+
+		private void writeLong(long value) throws IOException {
+			writeInt((int) (value >>> 32));
+			writeInt((int) value);
+		}
+
+		/**
+		 * The name and offset of a record in the table.
+		 */
+		protected static class IndexEntry {
+
+			/** The name */
+			protected final String name;
+
+			/** The offset of the record */
+			protected final long offset;
+
+			/**
+			 * Creates a new instance.
+			 *
+			 * @param name the name.
+			 * @param offset the offset of the record.
+			 */
+			protected IndexEntry(String name, long offset) {
+				this.name = name;
+				this.offset = offset;
+			}
+
+			/**
+			 * @return The name.
+			 */
+			public String getName() {
+				return name;
+			}
+		}
+	}
+}
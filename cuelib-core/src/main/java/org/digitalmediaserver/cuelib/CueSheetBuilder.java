@@ -0,0 +1,248 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib;
+
+import java.nio.file.Path;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * A {@link CueSheetHandler} that builds a {@link CueSheet} with its
+ * {@link FileData}, {@link TrackData} and {@link Index} instances from the
+ * parser events.
+ * <p>
+ * In lazy mode, the performer, title and songwriter of the tracks are kept as
+ * references to the parser input and are only decoded when they are first
+ * retrieved from the {@link TrackData}. This only makes a difference when the
+ * input is a {@link java.nio.ByteBuffer} parsed by a {@link ByteCueTokenizer},
+ * and the buffer content must then remain unchanged for as long as the
+ * {@link CueSheet} is in use.
+ *
+ * @author Nadahar
+ */
+public class CueSheetBuilder implements CueSheetHandler {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CueSheetBuilder.class);
+
+	/** The {@link CueSheet} being built */
+	protected final CueSheet cueSheet;
+
+	/** Whether track text values should be decoded lazily */
+	protected final boolean lazy;
+
+	/**
+	 * Creates a new builder for a {@link CueSheet} that isn't based on a file.
+	 */
+	public CueSheetBuilder() {
+		this(null, false);
+	}
+
+	/**
+	 * Creates a new builder.
+	 *
+	 * @param file the CUE {@link Path} or {@code null} if not applicable.
+	 */
+	public CueSheetBuilder(Path file) {
+		this(file, false);
+	}
+
+	/**
+	 * Creates a new builder.
+	 *
+	 * @param file the CUE {@link Path} or {@code null} if not applicable.
+	 * @param lazy {@code true} to postpone the decoding of the performer,
+	 *            title and songwriter of the tracks until they are retrieved,
+	 *            {@code false} to decode them immediately.
+	 */
+	public CueSheetBuilder(Path file, boolean lazy) {
+		this.cueSheet = new CueSheet(file);
+		this.lazy = lazy;
+	}
+
+	/**
+	 * @return {@code true} if track text values are decoded lazily,
+	 *         {@code false} otherwise.
+	 */
+	public boolean isLazy() {
+		return lazy;
+	}
+
+	/**
+	 * @return The {@link CueSheet} being built.
+	 */
+	public CueSheet getCueSheet() {
+		return cueSheet;
+	}
+
+	@Override
+	public void onCatalog(CharSequence catalog) {
+		cueSheet.setCatalog(catalog.toString());
+	}
+
+	@Override
+	public void onCdTextFile(CharSequence cdTextFile) {
+		cueSheet.setCdTextFile(cdTextFile.toString());
+	}
+
+	@Override
+	public void onFile(CharSequence file, String fileType) {
+		cueSheet.getFileData().add(new FileData(cueSheet, file == null ? null : file.toString(), fileType));
+	}
+
+	@Override
+	public void onTrack(int number, String dataType) {
+		FileData fileData = getLastFileData();
+		fileData.getTrackData().add(new TrackData(fileData, number, dataType));
+	}
+
+	@Override
+	public void onFlag(String flag) {
+		getLastTrackData().getFlags().add(flag);
+	}
+
+	@Override
+	public void onIndex(int number, int minutes, int seconds, int frames) {
+		getLastTrackData().getIndices().add(new Index(number, new Position(minutes, seconds, frames)));
+	}
+
+	@Override
+	public void onIsrc(CharSequence isrcCode) {
+		getLastTrackData().setIsrcCode(isrcCode.toString());
+	}
+
+	@Override
+	public void onPerformer(CharSequence performer, boolean track) {
+		if (track) {
+			if (lazy) {
+				getLastTrackData().setLazyPerformer(detach(performer));
+			} else {
+				getLastTrackData().setPerformer(performer.toString());
+			}
+		} else {
+			cueSheet.setPerformer(performer.toString());
+		}
+	}
+
+	@Override
+	public void onSongwriter(CharSequence songwriter, boolean track) {
+		if (track) {
+			if (lazy) {
+				getLastTrackData().setLazySongwriter(detach(songwriter));
+			} else {
+				getLastTrackData().setSongwriter(songwriter.toString());
+			}
+		} else {
+			cueSheet.setSongwriter(songwriter.toString());
+		}
+	}
+
+	@Override
+	public void onTitle(CharSequence title, boolean track) {
+		if (track) {
+			if (lazy) {
+				getLastTrackData().setLazyTitle(detach(title));
+			} else {
+				getLastTrackData().setTitle(title.toString());
+			}
+		} else {
+			cueSheet.setTitle(title.toString());
+		}
+	}
+
+	@Override
+	public void onPregap(int minutes, int seconds, int frames) {
+		getLastTrackData().setPregap(new Position(minutes, seconds, frames));
+	}
+
+	@Override
+	public void onPostgap(int minutes, int seconds, int frames) {
+		getLastTrackData().setPostgap(new Position(minutes, seconds, frames));
+	}
+
+	@Override
+	public void onComment(CharSequence comment) {
+		cueSheet.setComment(comment.toString());
+	}
+
+	@Override
+	public void onYear(int year) {
+		cueSheet.setYear(year);
+	}
+
+	@Override
+	public void onDiscId(CharSequence discId) {
+		cueSheet.setDiscId(discId.toString());
+	}
+
+	@Override
+	public void onDiscNumber(int discNumber) {
+		cueSheet.setDiscNumber(discNumber);
+	}
+
+	@Override
+	public void onGenre(CharSequence genre) {
+		cueSheet.setGenre(genre.toString());
+	}
+
+	@Override
+	public void onTotalDiscs(int totalDiscs) {
+		cueSheet.setTotalDiscs(totalDiscs);
+	}
+
+	@Override
+	public void onWarning(int lineNumber, CharSequence line, String warning) {
+		LOGGER.warn("Cue sheet parsing line {}: {}", lineNumber, warning);
+		cueSheet.addWarning(new LineOfInput(lineNumber, line.toString(), cueSheet), warning);
+	}
+
+	/**
+	 * Returns a {@link CharSequence} with the same content as the specified
+	 * event value that remains valid after the event.
+	 *
+	 * @param value the event value.
+	 * @return The detached {@link CharSequence}.
+	 */
+	protected static CharSequence detach(CharSequence value) {
+		if (value instanceof CueTokenizer.TokenText) {
+			return ((CueTokenizer.TokenText) value).detach();
+		}
+		return value.toString();
+	}
+
+	/**
+	 * @return The last {@link FileData}. The parser guarantees that one exists
+	 *         when an event that needs it is called.
+	 */
+	protected FileData getLastFileData() {
+		List<FileData> fileDataList = cueSheet.getFileData();
+		return fileDataList.get(fileDataList.size() - 1);
+	}
+
+	/**
+	 * @return The last {@link TrackData} of the last {@link FileData}. The
+	 *         parser guarantees that one exists when an event that needs it is
+	 *         called.
+	 */
+	protected TrackData getLastTrackData() {
+		List<TrackData> trackDataList = getLastFileData().getTrackData();
+		return trackDataList.get(trackDataList.size() - 1);
+	}
+}
@@ -0,0 +1,763 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * A persistent cache of parsed cue sheets, so that cue sheets that haven't
+ * changed don't have to be read and parsed again, not even after a restart.
+ * <p>
+ * The cached cue sheets are stored in a single append-only cache file, using
+ * the binary format of {@link CueSheetBinaryWriter}. Each entry is keyed by
+ * the absolute path of the source file, its size, its last modified time and
+ * the {@link Charset} used to parse it. An entry is only used if the size and
+ * the last modified time of the source file still match, in which case the
+ * source file itself isn't opened. Otherwise the cue sheet is loaded again and
+ * a new entry is appended, making the old entry obsolete. Call
+ * {@link #compact()} to remove obsolete entries from the cache file.
+ * <p>
+ * The index of the cache file is kept in memory, and a least recently used
+ * cache of the encoded entries is kept in front of the cache file. Every call
+ * to {@link #get} returns a new {@link CueSheet} instance, while
+ * {@link #getCompact} returns a shared {@link CompactCueSheet}.
+ * <p>
+ * How a cue sheet is loaded on a cache miss is decided by a {@link Loader},
+ * which makes it possible to cache for example the cue sheets embedded in
+ * FLAC files. A {@code null} result from the {@link Loader} is also cached.
+ * The {@link Loader} isn't part of the key, so a file must always be loaded
+ * with the same {@link Loader}.
+ * <p>
+ * This class is thread-safe. Loading of cue sheets that aren't cached is
+ * done without holding any locks. Instances must be closed when no longer
+ * needed.
+ *
+ * @author Nadahar
+ */
+public class CueSheetCache implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(CueSheetCache.class);
+
+	/** The magic number at the start of the cache file, "CUEC" */
+	protected static final int MAGIC = 0x43554543;
+
+	/** The version of the cache file format */
+	protected static final int VERSION = 1;
+
+	/** The size of the cache file header */
+	protected static final int HEADER_SIZE = 8;
+
+	/** The default maximum number of entries in the memory cache */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/**
+	 * The default {@link Loader} that uses {@link CueParser#parse(Path)} if the
+	 * {@link Charset} is {@code null} and
+	 * {@link CueParser#parse(Path, Charset)} otherwise.
+	 */
+	public static final Loader CUE_LOADER = (file, charset) -> charset == null ?
+		CueParser.parse(file) :
+		CueParser.parse(file, charset);
+
+	/** The cache file */
+	protected final Path cacheFile;
+
+	/** The maximum number of entries in the memory cache */
+	protected final int capacity;
+
+	/** The index of the entries in the cache file */
+	protected final Map<String, DiskEntry> index = new HashMap<>();
+
+	/** The least recently used memory cache */
+	protected final LinkedHashMap<String, MemoryEntry> memory;
+
+	/** The {@link FileChannel} of the cache file */
+	protected FileChannel channel;
+
+	/** The position in the cache file where the next entry is written */
+	protected long end;
+
+	/** The number of bytes in the cache file used by obsolete entries */
+	protected long obsoleteBytes;
+
+	/** The number of hits in the memory cache */
+	protected long memoryHits;
+
+	/** The number of hits in the cache file */
+	protected long diskHits;
+
+	/** The number of misses */
+	protected long misses;
+
+	/**
+	 * Opens or creates a cache file with a memory cache of
+	 * {@link #DEFAULT_CAPACITY} entries.
+	 *
+	 * @param cacheFile the cache file.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public CueSheetCache(Path cacheFile) throws IOException {
+		this(cacheFile, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Opens or creates a cache file. If the existing cache file is of an
+	 * unknown format or version, it's cleared.
+	 *
+	 * @param cacheFile the cache file.
+	 * @param capacity the maximum number of entries in the memory cache.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public CueSheetCache(Path cacheFile, int capacity) throws IOException {
+		if (cacheFile == null) {
+			throw new IllegalArgumentException("cacheFile cannot be null");
+		}
+		this.cacheFile = cacheFile;
+		this.capacity = Math.max(capacity, 0);
+		this.memory = new LinkedHashMap<String, MemoryEntry>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, MemoryEntry> eldest) {
+				return size() > CueSheetCache.this.capacity;
+			}
+		};
+		channel = FileChannel.open(cacheFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			loadIndex();
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the cue sheet for the specified file using {@link #CUE_LOADER}
+	 * on a cache miss.
+	 *
+	 * @param file the cue sheet {@link Path}.
+	 * @param charset the {@link Charset} to parse with or {@code null} to
+	 *            detect it.
+	 * @return The new {@link CueSheet} instance.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public CueSheet get(Path file, Charset charset) throws IOException {
+		return get(file, charset, CUE_LOADER);
+	}
+
+	/**
+	 * Returns the cue sheet for the specified file, using the specified
+	 * {@link Loader} on a cache miss.
+	 *
+	 * @param file the source {@link Path}.
+	 * @param charset the {@link Charset} passed to {@code loader}. Entries
+	 *            are cached separately for each {@link Charset}.
+	 * @param loader the {@link Loader} to use on a cache miss.
+	 * @return The new {@link CueSheet} instance or {@code null} if
+	 *         {@code loader} returned {@code null}.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public CueSheet get(Path file, Charset charset, Loader loader) throws IOException {
+		MemoryEntry entry = getEntry(file, charset, loader);
+		try {
+			return decode(entry.data, file);
+		} catch (RuntimeException e) {
+			return decode(reload(file, charset, loader, e).data, file);
+		}
+	}
+
+	/**
+	 * Returns the {@link CompactCueSheet} for the specified file using
+	 * {@link #CUE_LOADER} on a cache miss.
+	 *
+	 * @param file the cue sheet {@link Path}.
+	 * @param charset the {@link Charset} to parse with or {@code null} to
+	 *            detect it.
+	 * @return The {@link CompactCueSheet}.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public CompactCueSheet getCompact(Path file, Charset charset) throws IOException {
+		return getCompact(file, charset, CUE_LOADER);
+	}
+
+	/**
+	 * Returns the {@link CompactCueSheet} for the specified file, using the
+	 * specified {@link Loader} on a cache miss. The instance is shared for as
+	 * long as the entry stays in the memory cache.
+	 *
+	 * @param file the source {@link Path}.
+	 * @param charset the {@link Charset} passed to {@code loader}. Entries
+	 *            are cached separately for each {@link Charset}.
+	 * @param loader the {@link Loader} to use on a cache miss.
+	 * @return The {@link CompactCueSheet} or {@code null} if {@code loader}
+	 *         returned {@code null}.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public CompactCueSheet getCompact(Path file, Charset charset, Loader loader) throws IOException {
+		MemoryEntry entry = getEntry(file, charset, loader);
+		try {
+			return entry.getCompact(file);
+		} catch (RuntimeException e) {
+			return reload(file, charset, loader, e).getCompact(file);
+		}
+	}
+
+	/**
+	 * @return The number of entries in the cache file index.
+	 */
+	public synchronized int size() {
+		return index.size();
+	}
+
+	/**
+	 * @return The number of hits in the memory cache.
+	 */
+	public synchronized long getMemoryHits() {
+		return memoryHits;
+	}
+
+	/**
+	 * @return The number of hits in the cache file.
+	 */
+	public synchronized long getDiskHits() {
+		return diskHits;
+	}
+
+	/**
+	 * @return The number of misses that required loading the source file.
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * @return The number of bytes in the cache file used by obsolete
+	 *         entries.
+	 */
+	public synchronized long getObsoleteBytes() {
+		return obsoleteBytes;
+	}
+
+	/**
+	 * Rewrites the cache file without the obsolete entries. If the cache file
+	 * can't be replaced, the cache is left as it was.
+	 *
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public synchronized void compact() throws IOException {
+		if (obsoleteBytes == 0) {
+			return;
+		}
+		Path tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+		Map<String, DiskEntry> newIndex = new HashMap<>(index.size() * 4 / 3 + 1);
+		long newEnd;
+		try (FileChannel target = FileChannel.open(
+			tempFile,
+			StandardOpenOption.CREATE,
+			StandardOpenOption.TRUNCATE_EXISTING,
+			StandardOpenOption.WRITE
+		)) {
+			writeFully(target, createHeader(), 0);
+			long position = HEADER_SIZE;
+			for (Map.Entry<String, DiskEntry> mapEntry : index.entrySet()) {
+				DiskEntry diskEntry = mapEntry.getValue();
+				byte[] record = createRecord(mapEntry.getKey(), diskEntry.size, diskEntry.lastModified, readData(diskEntry));
+				writeFully(target, ByteBuffer.wrap(record), position);
+				newIndex.put(mapEntry.getKey(), new DiskEntry(
+					diskEntry.size,
+					diskEntry.lastModified,
+					position + record.length - diskEntry.length,
+					diskEntry.length
+				));
+				position += record.length;
+			}
+			target.force(false);
+			newEnd = position;
+		}
+
+		// The channel must be closed for the move to succeed on Windows
+		channel.close();
+		try {
+			Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | RuntimeException e) {
+			try {
+				Files.deleteIfExists(tempFile);
+			} catch (IOException e2) {
+				e.addSuppressed(e2);
+			}
+			throw e;
+		} finally {
+			// Reopen the cache file whether it was replaced or not, so that the cache stays usable
+			channel = FileChannel.open(cacheFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		}
+		end = newEnd;
+		index.clear();
+		index.putAll(newIndex);
+		obsoleteBytes = 0;
+	}
+
+	/**
+	 * Forces the written entries to the storage device.
+	 *
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public synchronized void flush() throws IOException {
+		channel.force(false);
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		memory.clear();
+		channel.close();
+	}
+
+	@Override
+	public synchronized String toString() {
+		return
+			getClass().getSimpleName() + " [cacheFile=" + cacheFile + ", entries=" + index.size() +
+			", memoryEntries=" + memory.size() + ", memoryHits=" + memoryHits + ", diskHits=" + diskHits +
+			", misses=" + misses + ", obsoleteBytes=" + obsoleteBytes + "]";
+	}
+
+	/**
+	 * Looks up the entry for the specified file in the memory cache and in
+	 * the cache file, and loads the file using {@code loader} if there is no
+	 * valid entry.
+	 *
+	 * @param file the source {@link Path}.
+	 * @param charset the {@link Charset} passed to {@code loader}.
+	 * @param loader the {@link Loader} to use on a cache miss.
+	 * @return The {@link MemoryEntry}.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	protected MemoryEntry getEntry(Path file, Charset charset, Loader loader) throws IOException {
+		if (file == null) {
+			throw new IllegalArgumentException("file cannot be null");
+		}
+		if (loader == null) {
+			throw new IllegalArgumentException("loader cannot be null");
+		}
+		BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+		long size = attributes.size();
+		long lastModified = attributes.lastModifiedTime().toMillis();
+		String key = createKey(file, charset);
+		synchronized (this) {
+			MemoryEntry entry = memory.get(key);
+			if (entry != null && entry.matches(size, lastModified)) {
+				memoryHits++;
+				return entry;
+			}
+			DiskEntry diskEntry = index.get(key);
+			if (diskEntry != null && diskEntry.matches(size, lastModified)) {
+				entry = new MemoryEntry(size, lastModified, readData(diskEntry));
+				memory.put(key, entry);
+				diskHits++;
+				return entry;
+			}
+			misses++;
+		}
+		return load(key, file, size, lastModified, charset, loader);
+	}
+
+	/**
+	 * Loads the specified file using {@code loader} and stores the result in
+	 * the memory cache and the cache file.
+	 *
+	 * @param key the entry key.
+	 * @param file the source {@link Path}.
+	 * @param size the size of the source file.
+	 * @param lastModified the last modified time of the source file.
+	 * @param charset the {@link Charset} passed to {@code loader}.
+	 * @param loader the {@link Loader} to use.
+	 * @return The new {@link MemoryEntry}.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	protected MemoryEntry load(
+		String key,
+		Path file,
+		long size,
+		long lastModified,
+		Charset charset,
+		Loader loader
+	) throws IOException {
+		LOGGER.trace("Loading \"{}\" into the cue sheet cache", file);
+		byte[] data = encode(loader.load(file, charset));
+		MemoryEntry entry = new MemoryEntry(size, lastModified, data);
+		byte[] record = createRecord(key, size, lastModified, data);
+		synchronized (this) {
+			writeFully(channel, ByteBuffer.wrap(record), end);
+			DiskEntry previous = index.put(key, new DiskEntry(size, lastModified, end + record.length - data.length, data.length));
+			if (previous != null) {
+				obsoleteBytes += previous.length + record.length - data.length;
+			}
+			end += record.length;
+			memory.put(key, entry);
+		}
+		return entry;
+	}
+
+	/**
+	 * Handles an entry that couldn't be decoded by loading the source file
+	 * again.
+	 *
+	 * @param file the source {@link Path}.
+	 * @param charset the {@link Charset} passed to {@code loader}.
+	 * @param loader the {@link Loader} to use.
+	 * @param cause the decoding failure.
+	 * @return The new {@link MemoryEntry}.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	protected MemoryEntry reload(Path file, Charset charset, Loader loader, RuntimeException cause) throws IOException {
+		LOGGER.warn("Discarding corrupt cue sheet cache entry for \"{}\": {}", file, cause.getMessage());
+		LOGGER.trace("", cause);
+		BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+		return load(
+			createKey(file, charset),
+			file,
+			attributes.size(),
+			attributes.lastModifiedTime().toMillis(),
+			charset,
+			loader
+		);
+	}
+
+	/**
+	 * Reads the encoded data of the specified entry from the cache file.
+	 *
+	 * @param diskEntry the {@link DiskEntry} to read.
+	 * @return The encoded data.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	protected byte[] readData(DiskEntry diskEntry) throws IOException {
+		byte[] data = new byte[diskEntry.length];
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+		long position = diskEntry.offset;
+		while (buffer.hasRemaining()) {
+			int count = channel.read(buffer, position);
+			if (count < 0) {
+				throw new EOFException("Unexpected end of cue sheet cache file \"" + cacheFile + "\"");
+			}
+			position += count;
+		}
+		return data;
+	}
+
+	/**
+	 * Reads the cache file header and builds the index from the entries. An
+	 * incomplete entry at the end of the file, for example after a crash, is
+	 * truncated.
+	 *
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	protected void loadIndex() throws IOException {
+		long fileSize = channel.size();
+		if (fileSize >= HEADER_SIZE) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+				// Keep reading until the header is complete
+			}
+			header.flip();
+			int magic = header.getInt();
+			int version = header.getInt();
+			if (magic == MAGIC && version == VERSION) {
+				end = HEADER_SIZE;
+				readEntries(fileSize);
+				if (end < fileSize) {
+					LOGGER.warn("Truncating incomplete entry at the end of cue sheet cache file \"{}\"", cacheFile);
+					channel.truncate(end);
+				}
+				LOGGER.debug("Loaded {} entries from cue sheet cache file \"{}\"", index.size(), cacheFile);
+				return;
+			}
+			LOGGER.warn("Clearing cue sheet cache file \"{}\" because of unknown format or version", cacheFile);
+		}
+		channel.truncate(0);
+		writeFully(channel, createHeader(), 0);
+		end = HEADER_SIZE;
+	}
+
+	/**
+	 * Reads the entry headers from {@link #end} and adds them to the index,
+	 * updating {@link #end} after each complete entry.
+	 *
+	 * @param fileSize the size of the cache file.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	protected void readEntries(long fileSize) throws IOException {
+		channel.position(end);
+		DataInputStream input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 65536));
+		try {
+			while (end + 4 <= fileSize) {
+				int recordLength = input.readInt();
+				long recordEnd = end + 4 + recordLength;
+				if (recordLength < 0 || recordEnd > fileSize) {
+					break;
+				}
+				int keyLength = input.readInt();
+				int dataLength = recordLength - 4 - keyLength - 16;
+				if (keyLength < 0 || dataLength < 0) {
+					break;
+				}
+				byte[] keyBytes = new byte[keyLength];
+				input.readFully(keyBytes);
+				String key = new String(keyBytes, StandardCharsets.UTF_8);
+				long size = input.readLong();
+				long lastModified = input.readLong();
+				input.skipBytes(dataLength);
+				DiskEntry previous = index.put(key, new DiskEntry(size, lastModified, recordEnd - dataLength, dataLength));
+				if (previous != null) {
+					obsoleteBytes += previous.length + recordEnd - end - dataLength;
+				}
+				end = recordEnd;
+			}
+		} catch (EOFException e) {
+			// The last entry is incomplete
+		}
+	}
+
+	/**
+	 * Creates the cache key for the specified file and {@link Charset}.
+	 *
+	 * @param file the source {@link Path}.
+	 * @param charset the {@link Charset} or {@code null}.
+	 * @return The key.
+	 */
+	protected static String createKey(Path file, Charset charset) {
+		String path = file.toAbsolutePath().normalize().toString();
+		return charset == null ? path : path + '\0' + charset.name();
+	}
+
+	/**
+	 * @return A {@link ByteBuffer} with the cache file header.
+	 */
+	protected static ByteBuffer createHeader() {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putInt(MAGIC).putInt(VERSION).flip();
+		return header;
+	}
+
+	/**
+	 * Creates a cache file record.
+	 *
+	 * @param key the entry key.
+	 * @param size the size of the source file.
+	 * @param lastModified the last modified time of the source file.
+	 * @param data the encoded cue sheet.
+	 * @return The record.
+	 */
+	protected static byte[] createRecord(String key, long size, long lastModified, byte[] data) {
+		byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer record = ByteBuffer.allocate(4 + 4 + keyBytes.length + 16 + data.length);
+		record.putInt(record.capacity() - 4).putInt(keyBytes.length).put(keyBytes).putLong(size).putLong(lastModified).put(data);
+		return record.array();
+	}
+
+	/**
+	 * Encodes a {@link CueSheet} for the cache as a presence byte followed by
+	 * a {@link CueSheetBinaryWriter} record.
+	 *
+	 * @param cueSheet the {@link CueSheet} to encode or {@code null}.
+	 * @return The encoded {@link CueSheet}.
+	 */
+	protected static byte[] encode(CueSheet cueSheet) {
+		if (cueSheet == null) {
+			return new byte[1];
+		}
+		byte[] record = new CueSheetBinaryWriter().serializeCueSheet(cueSheet);
+		byte[] result = new byte[record.length + 1];
+		result[0] = 1;
+		System.arraycopy(record, 0, result, 1, record.length);
+		return result;
+	}
+
+	/**
+	 * Decodes a {@link CueSheet} encoded by {@link #encode(CueSheet)}.
+	 *
+	 * @param data the encoded {@link CueSheet}.
+	 * @param file the CUE {@link Path} to give the {@link CueSheet}.
+	 * @return The new {@link CueSheet} or {@code null} if {@code null} was
+	 *         encoded.
+	 * @throws IllegalArgumentException If {@code data} is invalid.
+	 */
+	protected static CueSheet decode(byte[] data, Path file) {
+		if (data.length == 0) {
+			throw new IllegalArgumentException("Empty cue sheet cache data");
+		}
+		if (data[0] == 0) {
+			return null;
+		}
+		return new CueSheetBinaryReader(ByteBuffer.wrap(data, 1, data.length - 1)).next(file);
+	}
+
+	private static void writeFully(FileChannel target, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			position += target.write(buffer, position);
+		}
+	}
+
+	/**
+	 * Loads a cue sheet on a cache miss.
+	 *
+	 * @author Nadahar
+	 */
+	@FunctionalInterface
+	public interface Loader {
+
+		/**
+		 * Loads the cue sheet for the specified file.
+		 *
+		 * @param file the source {@link Path}.
+		 * @param charset the {@link Charset} given to the cache.
+		 * @return The {@link CueSheet} or {@code null} if the file has no cue
+		 *         sheet.
+		 * @throws IOException If an error occurs during the operation.
+		 */
+		CueSheet load(Path file, Charset charset) throws IOException;
+	}
+
+	/**
+	 * An entry in the cache file index.
+	 *
+	 * @author Nadahar
+	 */
+	protected static class DiskEntry {
+
+		/** The size of the source file */
+		protected final long size;
+
+		/** The last modified time of the source file */
+		protected final long lastModified;
+
+		/** The position of the encoded data in the cache file */
+		protected final long offset;
+
+		/** The length of the encoded data */
+		protected final int length;
+
+		/**
+		 * Creates a new instance.
+		 *
+		 * @param size the size of the source file.
+		 * @param lastModified the last modified time of the source file.
+		 * @param offset the position of the encoded data in the cache file.
+		 * @param length the length of the encoded data.
+		 */
+		protected DiskEntry(long size, long lastModified, long offset, int length) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.offset = offset;
+			this.length = length;
+		}
+
+		/**
+		 * Checks if this entry is valid for a source file with the specified
+		 * size and last modified time.
+		 *
+		 * @param fileSize the size of the source file.
+		 * @param fileLastModified the last modified time of the source file.
+		 * @return {@code true} if this entry is valid, {@code false}
+		 *         otherwise.
+		 */
+		protected boolean matches(long fileSize, long fileLastModified) {
+			return size == fileSize && lastModified == fileLastModified;
+		}
+	}
+
+	/**
+	 * An entry in the memory cache.
+	 *
+	 * @author Nadahar
+	 */
+	protected static class MemoryEntry {
+
+		/** The size of the source file */
+		protected final long size;
+
+		/** The last modified time of the source file */
+		protected final long lastModified;
+
+		/** The encoded {@link CueSheet} */
+		protected final byte[] data;
+
+		/** The {@link CompactCueSheet} if it has been created */
+		protected volatile CompactCueSheet compact;
+
+		/**
+		 * Creates a new instance.
+		 *
+		 * @param size the size of the source file.
+		 * @param lastModified the last modified time of the source file.
+		 * @param data the encoded {@link CueSheet}.
+		 */
+		protected MemoryEntry(long size, long lastModified, byte[] data) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.data = data;
+		}
+
+		/**
+		 * Checks if this entry is valid for a source file with the specified
+		 * size and last modified time.
+		 *
+		 * @param fileSize the size of the source file.
+		 * @param fileLastModified the last modified time of the source file.
+		 * @return {@code true} if this entry is valid, {@code false}
+		 *         otherwise.
+		 */
+		protected boolean matches(long fileSize, long fileLastModified) {
+			return size == fileSize && lastModified == fileLastModified;
+		}
+
+		/**
+		 * Returns the {@link CompactCueSheet}, creating it if needed.
+		 *
+		 * @param file the CUE {@link Path}.
+		 * @return The {@link CompactCueSheet} or {@code null}.
+		 */
+		protected CompactCueSheet getCompact(Path file) {
+			CompactCueSheet result = compact;
+			if (result == null && data.length > 1) {
+				result = decode(data, file).freeze();
+				compact = result;
+			}
+			return result;
+		}
+	}
+}
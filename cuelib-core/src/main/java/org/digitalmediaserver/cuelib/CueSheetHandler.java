@@ -0,0 +1,229 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib;
+
+
+/**
+ * A callback interface for event based cue sheet parsing. The
+ * {@code CueParser.parseEvents} methods call the methods of this interface as
+ * they parse the cue sheet, in the order the data appears. All validation is
+ * done by the parser, the events are only called for data that was
+ * successfully parsed, and problems are reported through {@link #onWarning}.
+ * <p>
+ * {@link CueSheetBuilder} is the implementation that builds a
+ * {@link CueSheet}.
+ * <p>
+ * Commands that belong to a {@code FILE} or {@code TRACK} are always preceded
+ * by a corresponding {@link #onFile} and {@link #onTrack} event. If the cue
+ * sheet lacks the {@code FILE} or {@code TRACK} command, an "implied" event
+ * with {@code null} values is generated first, followed by a warning.
+ * <p>
+ * Text values are passed as {@link CharSequence}s that are only decoded when
+ * accessed. They are reused by the parser and are only valid for the duration
+ * of the call. Call {@link CharSequence#toString()} to keep the value.
+ * <p>
+ * All methods have empty default implementations, so that implementations
+ * only need to override the events they are interested in.
+ *
+ * @author Nadahar
+ */
+public interface CueSheetHandler {
+
+	/**
+	 * Called for the {@code CATALOG} command.
+	 *
+	 * @param catalog the media catalog number.
+	 */
+	default void onCatalog(CharSequence catalog) {
+	}
+
+	/**
+	 * Called for the {@code CDTEXTFILE} command.
+	 *
+	 * @param cdTextFile the unquoted name of the CD-TEXT file.
+	 */
+	default void onCdTextFile(CharSequence cdTextFile) {
+	}
+
+	/**
+	 * Called for the {@code FILE} command, or when a command that must belong
+	 * to a {@code FILE} appears before any {@code FILE} command.
+	 *
+	 * @param file the unquoted file name, or {@code null} if implied.
+	 * @param fileType the file type, or {@code null} if implied.
+	 */
+	default void onFile(CharSequence file, String fileType) {
+	}
+
+	/**
+	 * Called for the {@code TRACK} command, or when a command that must belong
+	 * to a {@code TRACK} appears before any {@code TRACK} command in the
+	 * current {@code FILE}.
+	 *
+	 * @param number the track number, or {@code -1} if implied.
+	 * @param dataType the data type, or {@code null} if implied.
+	 */
+	default void onTrack(int number, String dataType) {
+	}
+
+	/**
+	 * Called once for each flag of the {@code FLAGS} command.
+	 *
+	 * @param flag the flag.
+	 */
+	default void onFlag(String flag) {
+	}
+
+	/**
+	 * Called for the {@code INDEX} command.
+	 *
+	 * @param number the index number.
+	 * @param minutes the minutes of the position.
+	 * @param seconds the seconds of the position.
+	 * @param frames the frames of the position.
+	 */
+	default void onIndex(int number, int minutes, int seconds, int frames) {
+	}
+
+	/**
+	 * Called for the {@code ISRC} command.
+	 *
+	 * @param isrcCode the ISRC code.
+	 */
+	default void onIsrc(CharSequence isrcCode) {
+	}
+
+	/**
+	 * Called for the {@code PERFORMER} command.
+	 *
+	 * @param performer the unquoted performer.
+	 * @param track {@code true} if this is the performer of the current
+	 *            track, {@code false} if it's the performer of the album.
+	 */
+	default void onPerformer(CharSequence performer, boolean track) {
+	}
+
+	/**
+	 * Called for the {@code SONGWRITER} command.
+	 *
+	 * @param songwriter the unquoted songwriter.
+	 * @param track {@code true} if this is the songwriter of the current
+	 *            track, {@code false} if it's the songwriter of the album.
+	 */
+	default void onSongwriter(CharSequence songwriter, boolean track) {
+	}
+
+	/**
+	 * Called for the {@code TITLE} command.
+	 *
+	 * @param title the unquoted title.
+	 * @param track {@code true} if this is the title of the current track,
+	 *            {@code false} if it's the title of the album.
+	 */
+	default void onTitle(CharSequence title, boolean track) {
+	}
+
+	/**
+	 * Called for the {@code PREGAP} command.
+	 *
+	 * @param minutes the minutes of the position.
+	 * @param seconds the seconds of the position.
+	 * @param frames the frames of the position.
+	 */
+	default void onPregap(int minutes, int seconds, int frames) {
+	}
+
+	/**
+	 * Called for the {@code POSTGAP} command.
+	 *
+	 * @param minutes the minutes of the position.
+	 * @param seconds the seconds of the position.
+	 * @param frames the frames of the position.
+	 */
+	default void onPostgap(int minutes, int seconds, int frames) {
+	}
+
+	/**
+	 * Called for the non-standard {@code REM COMMENT} command.
+	 *
+	 * @param comment the unquoted comment.
+	 */
+	default void onComment(CharSequence comment) {
+	}
+
+	/**
+	 * Called for the non-standard {@code REM DATE} command.
+	 *
+	 * @param year the year.
+	 */
+	default void onYear(int year) {
+	}
+
+	/**
+	 * Called for the non-standard {@code REM DISCID} command.
+	 *
+	 * @param discId the unquoted disc id.
+	 */
+	default void onDiscId(CharSequence discId) {
+	}
+
+	/**
+	 * Called for the non-standard {@code REM DISCNUMBER} command.
+	 *
+	 * @param discNumber the disc number.
+	 */
+	default void onDiscNumber(int discNumber) {
+	}
+
+	/**
+	 * Called for the non-standard {@code REM GENRE} command.
+	 *
+	 * @param genre the unquoted genre.
+	 */
+	default void onGenre(CharSequence genre) {
+	}
+
+	/**
+	 * Called for the non-standard {@code REM TOTALDISCS} command.
+	 *
+	 * @param totalDiscs the total number of discs.
+	 */
+	default void onTotalDiscs(int totalDiscs) {
+	}
+
+	/**
+	 * Called for {@code REM} commands that aren't handled by any of the other
+	 * events.
+	 *
+	 * @param remark everything following {@code REM}.
+	 */
+	default void onRem(CharSequence remark) {
+	}
+
+	/**
+	 * Called when the parser finds a problem with the cue sheet. The parser
+	 * doesn't log the warnings, that is left to the implementation.
+	 *
+	 * @param lineNumber the line number.
+	 * @param line the trimmed line of input, only decoded when accessed.
+	 * @param warning the warning text.
+	 */
+	default void onWarning(int lineNumber, CharSequence line, String warning) {
+	}
+}
@@ -21,10 +21,15 @@ package org.digitalmediaserver.cuelib;
 import java.io.File;
 import java.io.OutputStream;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Set;
+import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
@@ -118,31 +123,102 @@ import org.w3c.dom.Element;
  *
  *</xsd:schema>}
  *</pre>
+ * <p>
+ * The XML can either be built as a DOM tree that is written using a
+ * {@link Transformer}, or be written directly using an
+ * {@link XMLStreamWriter} by the {@code streamCueSheet} methods. The latter
+ * is much faster and doesn't hold the document in memory. Many cue sheets can
+ * be written to a single {@code cuesheets} document using
+ * {@link #openCueSheets(OutputStream)}. The {@code cuesheets} element is
+ * defined in its own namespace by {@code cuesheets-2026-1.xsd}, which imports
+ * the schema above for the {@code cuesheet} elements it contains:
+ *
+ * <pre>{@code
+ *<xsd:schema xmlns:xsd="http://www.w3.org/2001/XMLSchema"
+ *  xmlns:tns="http://jwbroek/cuelib/2026/cuesheets/1"
+ *  xmlns:cs="http://jwbroek/cuelib/2008/cuesheet/1"
+ *  targetNamespace="http://jwbroek/cuelib/2026/cuesheets/1"
+ *  elementFormDefault="qualified"
+ *  attributeFormDefault="unqualified"
+ *  >
+ *
+ *  <xsd:import namespace="http://jwbroek/cuelib/2008/cuesheet/1" schemaLocation="cuesheet-2008-1.xsd"/>
+ *
+ *  <xsd:element name="cuesheets" type="tns:cuesheets"/>
+ *
+ *  <xsd:complexType name="cuesheets">
+ *    <xsd:sequence>
+ *      <xsd:element ref="cs:cuesheet" minOccurs="0" maxOccurs="unbounded"/>
+ *    </xsd:sequence>
+ *  </xsd:complexType>
+ *
+ *</xsd:schema>}
+ *</pre>
  *
  * @author jwbroek
  */
 public class CueSheetToXmlSerializer {
 
 	/**
-	 * The builder for creating XML documents.
+	 * The builder for creating XML documents, created when first needed.
 	 */
 	private DocumentBuilder docBuilder;
 
+	/**
+	 * The factory for creating {@link XMLStreamWriter}s, created when first
+	 * needed.
+	 */
+	private XMLOutputFactory outputFactory;
+
 	/**
 	 * The namespace for the elements in the XML document.
 	 */
 	private String namespace = "http://jwbroek/cuelib/2008/cuesheet/1";
 
+	/**
+	 * The namespace for the {@code cuesheets} element.
+	 */
+	private String cueSheetsNamespace = "http://jwbroek/cuelib/2026/cuesheets/1";
+
 	/**
 	 * Create a default CueSheetToXmlSerializer.
 	 *
-	 * @throws ParserConfigurationException If a DocumentBuilder cannot be
-	 *             created which satisfies the configuration requested.
+	 * @throws ParserConfigurationException Never thrown, since the
+	 *             DocumentBuilder is created when a DOM tree is first needed.
+	 *             Declared for compatibility.
 	 */
 	public CueSheetToXmlSerializer() throws ParserConfigurationException {
-		DocumentBuilderFactory docBuilderFactory = DocumentBuilderFactory.newInstance();
-		docBuilderFactory.setNamespaceAware(true);
-		this.docBuilder = docBuilderFactory.newDocumentBuilder();
+	}
+
+	/**
+	 * Get the DocumentBuilder, creating it if needed.
+	 *
+	 * @return The DocumentBuilder.
+	 * @throws IllegalStateException If a DocumentBuilder cannot be created.
+	 */
+	protected DocumentBuilder getDocumentBuilder() {
+		if (docBuilder == null) {
+			DocumentBuilderFactory docBuilderFactory = DocumentBuilderFactory.newInstance();
+			docBuilderFactory.setNamespaceAware(true);
+			try {
+				docBuilder = docBuilderFactory.newDocumentBuilder();
+			} catch (ParserConfigurationException e) {
+				throw new IllegalStateException("Unable to create a DocumentBuilder: " + e.getMessage(), e);
+			}
+		}
+		return docBuilder;
+	}
+
+	/**
+	 * Get the XMLOutputFactory, creating it if needed.
+	 *
+	 * @return The XMLOutputFactory.
+	 */
+	protected XMLOutputFactory getOutputFactory() {
+		if (outputFactory == null) {
+			outputFactory = XMLOutputFactory.newInstance();
+		}
+		return outputFactory;
 	}
 
 	/**
@@ -203,7 +279,7 @@ public class CueSheetToXmlSerializer {
 	 * @return An XML DOM tree representation of the cue sheet.
 	 */
 	public Document serializeCueSheet(CueSheet cueSheet) {
-		Document doc = docBuilder.newDocument();
+		Document doc = getDocumentBuilder().newDocument();
 		Element cueSheetElement = doc.createElementNS(this.namespace, "cuesheet");
 		doc.appendChild(cueSheetElement);
 
@@ -224,6 +300,230 @@ public class CueSheetToXmlSerializer {
 		return doc;
 	}
 
+	/**
+	 * Write an XML document with the cue sheet directly to the Writer, without
+	 * building a DOM tree.
+	 *
+	 * @param cueSheet The CueSheet to serialize.
+	 * @param writer The Writer to write the XML document to.
+	 * @throws XMLStreamException If an error occurs while writing.
+	 */
+	public void streamCueSheet(CueSheet cueSheet, Writer writer) throws XMLStreamException {
+		XMLStreamWriter xmlWriter = getOutputFactory().createXMLStreamWriter(writer);
+		xmlWriter.writeStartDocument();
+		serializeCueSheet(cueSheet, xmlWriter);
+		xmlWriter.writeEndDocument();
+		xmlWriter.close();
+	}
+
+	/**
+	 * Write an UTF-8 encoded XML document with the cue sheet directly to the
+	 * OutputStream, without building a DOM tree.
+	 *
+	 * @param cueSheet The CueSheet to serialize.
+	 * @param outputStream The OutputStream to write the XML document to.
+	 * @throws XMLStreamException If an error occurs while writing.
+	 */
+	public void streamCueSheet(CueSheet cueSheet, OutputStream outputStream) throws XMLStreamException {
+		XMLStreamWriter xmlWriter = getOutputFactory().createXMLStreamWriter(outputStream, StandardCharsets.UTF_8.name());
+		xmlWriter.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+		serializeCueSheet(cueSheet, xmlWriter);
+		xmlWriter.writeEndDocument();
+		xmlWriter.close();
+	}
+
+	/**
+	 * Write an UTF-8 encoded {@code cuesheets} XML document with all the cue
+	 * sheets directly to the OutputStream. The cue sheets are retrieved from
+	 * the Iterable one at a time, so they don't have to be in memory at the
+	 * same time.
+	 *
+	 * @param cueSheets The CueSheets to serialize.
+	 * @param outputStream The OutputStream to write the XML document to.
+	 * @throws XMLStreamException If an error occurs while writing.
+	 */
+	public void streamCueSheets(Iterable<CueSheet> cueSheets, OutputStream outputStream) throws XMLStreamException {
+		try (CueSheetsWriter cueSheetsWriter = openCueSheets(outputStream)) {
+			for (CueSheet cueSheet : cueSheets) {
+				cueSheetsWriter.add(cueSheet);
+			}
+		}
+	}
+
+	/**
+	 * Start an UTF-8 encoded {@code cuesheets} XML document, to which cue
+	 * sheets can be added one at a time. The document must be closed to be
+	 * complete.
+	 *
+	 * @param outputStream The OutputStream to write the XML document to. It
+	 *            isn't closed when the document is closed.
+	 * @return The {@link CueSheetsWriter}.
+	 * @throws XMLStreamException If an error occurs while writing.
+	 */
+	public CueSheetsWriter openCueSheets(OutputStream outputStream) throws XMLStreamException {
+		XMLStreamWriter xmlWriter = getOutputFactory().createXMLStreamWriter(outputStream, StandardCharsets.UTF_8.name());
+		xmlWriter.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+		return new CueSheetsWriter(xmlWriter);
+	}
+
+	/**
+	 * Start a {@code cuesheets} XML document, to which cue sheets can be added
+	 * one at a time. The document must be closed to be complete.
+	 *
+	 * @param writer The Writer to write the XML document to. It isn't closed
+	 *            when the document is closed.
+	 * @return The {@link CueSheetsWriter}.
+	 * @throws XMLStreamException If an error occurs while writing.
+	 */
+	public CueSheetsWriter openCueSheets(Writer writer) throws XMLStreamException {
+		XMLStreamWriter xmlWriter = getOutputFactory().createXMLStreamWriter(writer);
+		xmlWriter.writeStartDocument();
+		return new CueSheetsWriter(xmlWriter);
+	}
+
+	/**
+	 * Write a {@code cuesheet} element for the cue sheet to the
+	 * XMLStreamWriter. The default namespace is declared on the element unless
+	 * it's already in effect, so the element can be written both as a root
+	 * element and inside other elements.
+	 *
+	 * @param cueSheet The CueSheet to serialize.
+	 * @param writer The XMLStreamWriter to write to.
+	 * @throws XMLStreamException If an error occurs while writing.
+	 */
+	public void serializeCueSheet(CueSheet cueSheet, XMLStreamWriter writer) throws XMLStreamException {
+		startRootElement(writer, this.namespace, "cuesheet");
+
+		addAttribute(writer, "genre", cueSheet.getGenre());
+		addAttribute(writer, "date", cueSheet.getYear());
+		addAttribute(writer, "discid", cueSheet.getDiscId());
+		addAttribute(writer, "comment", cueSheet.getComment());
+		addAttribute(writer, "catalog", cueSheet.getCatalog());
+		addAttribute(writer, "performer", cueSheet.getPerformer());
+		addAttribute(writer, "title", cueSheet.getTitle());
+		addAttribute(writer, "songwriter", cueSheet.getSongwriter());
+		addAttribute(writer, "cdtextfile", cueSheet.getCdTextFile());
+
+		for (FileData fileData : cueSheet.getFileData()) {
+			serializeFileData(writer, fileData);
+		}
+
+		writer.writeEndElement();
+	}
+
+	/**
+	 * Serialize the FileData to the XMLStreamWriter.
+	 *
+	 * @param writer The XMLStreamWriter to write to.
+	 * @param fileData The FileData to serialize.
+	 * @throws XMLStreamException If an error occurs while writing.
+	 */
+	protected void serializeFileData(XMLStreamWriter writer, FileData fileData) throws XMLStreamException {
+		writer.writeStartElement(this.namespace, "file");
+
+		addAttribute(writer, "file", fileData.getFile());
+		addAttribute(writer, "type", fileData.getFileType());
+
+		for (TrackData trackData : fileData.getTrackData()) {
+			serializeTrackData(writer, trackData);
+		}
+
+		writer.writeEndElement();
+	}
+
+	/**
+	 * Serialize the TrackData to the XMLStreamWriter.
+	 *
+	 * @param writer The XMLStreamWriter to write to.
+	 * @param trackData The TrackData to serialize.
+	 * @throws XMLStreamException If an error occurs while writing.
+	 */
+	protected void serializeTrackData(XMLStreamWriter writer, TrackData trackData) throws XMLStreamException {
+		writer.writeStartElement(this.namespace, "track");
+
+		addAttribute(writer, "number", trackData.getNumber());
+		addAttribute(writer, "type", trackData.getDataType());
+
+		addAttribute(writer, "isrc", trackData.getIsrcCode());
+		addAttribute(writer, "performer", trackData.getPerformer());
+		addAttribute(writer, "title", trackData.getTitle());
+		addAttribute(writer, "songwriter", trackData.getSongwriter());
+
+		addElement(writer, "pregap", trackData.getPregap(), false);
+		addElement(writer, "postgap", trackData.getPostgap(), false);
+
+		if (trackData.getFlags().size() > 0) {
+			writer.writeStartElement(this.namespace, "flags");
+			for (String flag : trackData.getFlags()) {
+				writer.writeStartElement(this.namespace, "flag");
+				writer.writeCharacters(flag);
+				writer.writeEndElement();
+			}
+			writer.writeEndElement();
+		}
+
+		for (Index index : trackData.getIndices()) {
+			addElement(writer, "index", index.getPosition(), true);
+			addAttribute(writer, "number", index.getNumber());
+		}
+
+		writer.writeEndElement();
+	}
+
+	/**
+	 * Start an element in the specified namespace, declaring the namespace as
+	 * the default namespace unless it already is.
+	 *
+	 * @param writer The XMLStreamWriter to write to.
+	 * @param elementNamespace The namespace of the element.
+	 * @param elementName The name of the element.
+	 * @throws XMLStreamException If an error occurs while writing.
+	 */
+	protected static void startRootElement(
+		XMLStreamWriter writer,
+		String elementNamespace,
+		String elementName
+	) throws XMLStreamException {
+		if (elementNamespace.equals(writer.getNamespaceContext().getNamespaceURI(XMLConstants.DEFAULT_NS_PREFIX))) {
+			writer.writeStartElement(elementNamespace, elementName);
+		} else {
+			// Bind the namespace after starting the element, so that the
+			// binding is scoped to the element and not to its parent
+			writer.writeStartElement(XMLConstants.DEFAULT_NS_PREFIX, elementName, elementNamespace);
+			writer.writeDefaultNamespace(elementNamespace);
+			writer.setDefaultNamespace(elementNamespace);
+		}
+	}
+
+	/**
+	 * Write an empty position element. The element is only written if the
+	 * position is != null, or if writing is forced. In the latter case, the
+	 * attributes with position data will still only be written if present.
+	 * Further attributes can be added to the element after this call.
+	 *
+	 * @param writer The XMLStreamWriter to write to.
+	 * @param elementName The name for the position element to write.
+	 * @param position The {@link Position} to write.
+	 * @param forceElement Force writing of the element, but not necessarily
+	 *            of the attributes.
+	 * @throws XMLStreamException If an error occurs while writing.
+	 */
+	protected void addElement(
+		XMLStreamWriter writer,
+		String elementName,
+		Position position,
+		boolean forceElement
+	) throws XMLStreamException {
+		if (position != null || forceElement) {
+			writer.writeEmptyElement(this.namespace, elementName);
+			if (position != null) {
+				writer.writeAttribute("minutes", Integer.toString(position.getMinutes()));
+				writer.writeAttribute("seconds", Integer.toString(position.getSeconds()));
+				writer.writeAttribute("frames", Integer.toString(position.getFrames()));
+			}
+		}
+	}
+
 	/**
 	 * Serialize the FileData.
 	 *
@@ -414,4 +714,103 @@ public class CueSheetToXmlSerializer {
 			parentElement.setAttribute(attributeName, "" + value);
 		}
 	}
+
+	/**
+	 * Write an attribute to the current element. The attribute is only
+	 * written if the value is {@code != null}.
+	 *
+	 * @param writer The XMLStreamWriter to write to.
+	 * @param attributeName The name for the attribute.
+	 * @param value The value for the attribute.
+	 * @throws XMLStreamException If an error occurs while writing.
+	 */
+	protected static void addAttribute(XMLStreamWriter writer, String attributeName, String value) throws XMLStreamException {
+		if (value != null) {
+			writer.writeAttribute(attributeName, value);
+		}
+	}
+
+	/**
+	 * Write an attribute to the current element. The attribute is only
+	 * written if the value is {@code > -1}.
+	 *
+	 * @param writer The XMLStreamWriter to write to.
+	 * @param attributeName The name for the attribute.
+	 * @param value The value for the attribute.
+	 * @throws XMLStreamException If an error occurs while writing.
+	 */
+	protected static void addAttribute(XMLStreamWriter writer, String attributeName, int value) throws XMLStreamException {
+		if (value > -1) {
+			writer.writeAttribute(attributeName, Integer.toString(value));
+		}
+	}
+
+	/**
+	 * Writes a {@code cuesheets} XML document, one cue sheet at a time.
+	 * Closing it completes the document, but doesn't close the underlying
+	 * output.
+	 *
+	 * @author Nadahar
+	 */
+	public class CueSheetsWriter implements AutoCloseable {
+
+		/** The XMLStreamWriter to write to */
+		protected final XMLStreamWriter writer;
+
+		/** Whether the document has been completed */
+		protected boolean closed;
+
+		/** The number of cue sheets written */
+		protected int count;
+
+		/**
+		 * Creates a new instance and starts the {@code cuesheets} element.
+		 *
+		 * @param writer The XMLStreamWriter positioned after the start of the
+		 *            document.
+		 * @throws XMLStreamException If an error occurs while writing.
+		 */
+		protected CueSheetsWriter(XMLStreamWriter writer) throws XMLStreamException {
+			this.writer = writer;
+			startRootElement(writer, cueSheetsNamespace, "cuesheets");
+		}
+
+		/**
+		 * Write a {@code cuesheet} element for the cue sheet.
+		 *
+		 * @param cueSheet The CueSheet to serialize.
+		 * @throws XMLStreamException If an error occurs while writing.
+		 */
+		public void add(CueSheet cueSheet) throws XMLStreamException {
+			if (closed) {
+				throw new XMLStreamException("The document is closed");
+			}
+			serializeCueSheet(cueSheet, writer);
+			count++;
+		}
+
+		/**
+		 * @return The number of cue sheets written.
+		 */
+		public int getCount() {
+			return count;
+		}
+
+		/**
+		 * Completes the document and flushes the output.
+		 *
+		 * @throws XMLStreamException If an error occurs while writing.
+		 */
+		@Override
+		public void close() throws XMLStreamException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			writer.writeEndElement();
+			writer.writeEndDocument();
+			writer.flush();
+			writer.close();
+		}
+	}
 }
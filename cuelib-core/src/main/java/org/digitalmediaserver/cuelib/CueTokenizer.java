@@ -0,0 +1,976 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib;
+
+import java.io.LineNumberReader;
+
+
+/**
+ * A hand-written tokenizer for cue sheets. It splits the input into lines and
+ * offers primitives for reading keywords, words, quoted strings, numbers and
+ * {@code mm:ss:ff} positions directly from the underlying
+ * {@link CharSequence}. Nothing is copied out of the input unless a value is
+ * actually extracted, so no per-line {@link String} is created for lines that
+ * parse cleanly.
+ * <p>
+ * Lines are terminated by {@code \n}, {@code \r} or {@code \r\n} and are
+ * numbered the same way as {@link LineNumberReader} numbers them. Each line is
+ * trimmed like {@link String#trim()} does. Within a line, whitespace and
+ * digits are those matched by the regular expression classes {@code \s} and
+ * {@code \d}.
+ * <p>
+ * The tokenizer keeps a cursor within the current line. The {@code read} and
+ * {@code skip} methods advance the cursor only when they succeed. The bounds of
+ * the last token read are available through {@link #getTokenStart()} and
+ * {@link #getTokenEnd()}.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @author Nadahar
+ */
+public class CueTokenizer {
+
+	/** The input */
+	protected final CharSequence input;
+
+	/** The length of the input */
+	protected final int length;
+
+	/** The index where the next line starts */
+	protected int next;
+
+	/** The number of the current line */
+	protected int lineNumber;
+
+	/** The index of the first character of the trimmed current line */
+	protected int lineStart;
+
+	/** The index after the last character of the trimmed current line */
+	protected int lineEnd;
+
+	/** The cursor */
+	protected int position;
+
+	/** The start index of the last token read */
+	protected int tokenStart;
+
+	/** The end index of the last token read */
+	protected int tokenEnd;
+
+	/** The numeric value of the last number read */
+	protected int tokenValue;
+
+	/** The minutes of the last position read */
+	protected int minutes;
+
+	/** The seconds of the last position read */
+	protected int seconds;
+
+	/** The frames of the last position read */
+	protected int frames;
+
+	/** Whether all fields of the last position read had two digits */
+	protected boolean positionCompliant;
+
+	/** The cached {@link String} representation of the current line */
+	protected String line;
+
+	/** The reusable {@link TokenText} instance */
+	protected final TokenText tokenText = new TokenText();
+
+	/** The reusable {@link TokenText} instance for the current line */
+	protected final TokenText lineText = new TokenText();
+
+	/**
+	 * Creates a new tokenizer for the specified input.
+	 *
+	 * @param input the {@link CharSequence} to tokenize.
+	 */
+	public CueTokenizer(CharSequence input) {
+		this(input, 0);
+	}
+
+	/**
+	 * Creates a new tokenizer for the specified input.
+	 *
+	 * @param input the {@link CharSequence} to tokenize.
+	 * @param lineNumber the line number before the first line of
+	 *            {@code input}. The first line will get this number plus one.
+	 */
+	public CueTokenizer(CharSequence input, int lineNumber) {
+		if (input == null) {
+			throw new IllegalArgumentException("input cannot be null");
+		}
+		this.input = input;
+		this.length = input.length();
+		this.lineNumber = lineNumber;
+	}
+
+	/**
+	 * Advances to the next line and places the cursor at its start.
+	 *
+	 * @return {@code true} if there was another line, {@code false} if the end
+	 *         of the input has been reached.
+	 */
+	public boolean nextLine() {
+		if (next >= length) {
+			return false;
+		}
+		int start = next;
+		int i = start;
+		char c = 0;
+		while (i < length) {
+			c = input.charAt(i);
+			if (c == '\n' || c == '\r') {
+				break;
+			}
+			i++;
+		}
+		int end = i;
+		if (i < length) {
+			i++;
+			if (c == '\r' && i < length && input.charAt(i) == '\n') {
+				i++;
+			}
+		}
+		next = i;
+		lineNumber++;
+
+		while (start < end && input.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && input.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		lineStart = start;
+		lineEnd = end;
+		position = start;
+		tokenStart = start;
+		tokenEnd = start;
+		line = null;
+		return true;
+	}
+
+	/**
+	 * @return The number of the current line.
+	 */
+	public int getLineNumber() {
+		return lineNumber;
+	}
+
+	/**
+	 * @return The length of the trimmed current line.
+	 */
+	public int getLineLength() {
+		return lineEnd - lineStart;
+	}
+
+	/**
+	 * Returns the character at the specified index of the trimmed current
+	 * line.
+	 *
+	 * @param index the index relative to the start of the line.
+	 * @return The character.
+	 */
+	public char charAt(int index) {
+		return input.charAt(lineStart + index);
+	}
+
+	/**
+	 * Returns the trimmed current line as a {@link String}. The instance is
+	 * created on the first call for each line.
+	 *
+	 * @return The trimmed current line.
+	 */
+	public String getLine() {
+		if (line == null) {
+			line = text(lineStart, lineEnd);
+		}
+		return line;
+	}
+
+	/**
+	 * Returns the trimmed current line as a {@link CharSequence} that is only
+	 * converted to a {@link String} when needed. The returned instance is
+	 * reused and is only valid until the next call to this method.
+	 *
+	 * @return The reusable {@link TokenText} for the current line.
+	 */
+	public TokenText getLineText() {
+		lineText.set(lineStart, lineEnd);
+		return lineText;
+	}
+
+	/**
+	 * Returns the text between the specified absolute indices of the input.
+	 * This is the only place where text is copied out of the input.
+	 *
+	 * @param start the start index, inclusive.
+	 * @param end the end index, exclusive.
+	 * @return The resulting {@link String}.
+	 */
+	protected String text(int start, int end) {
+		return input.subSequence(start, end).toString();
+	}
+
+	/**
+	 * Returns a {@link CharSequence} for the text between the specified
+	 * absolute indices of the input that remains valid when the tokenizer
+	 * moves on. This implementation returns the text as a {@link String},
+	 * subclasses can return a reference that postpones the decoding.
+	 *
+	 * @param start the start index, inclusive.
+	 * @param end the end index, exclusive.
+	 * @return The resulting {@link CharSequence}.
+	 */
+	protected CharSequence reference(int start, int end) {
+		return text(start, end);
+	}
+
+	/**
+	 * @return The absolute cursor position.
+	 */
+	public int getPosition() {
+		return position;
+	}
+
+	/**
+	 * Moves the cursor to the specified absolute position, clamped to the
+	 * bounds of the current line.
+	 *
+	 * @param position the absolute position.
+	 */
+	public void setPosition(int position) {
+		this.position = Math.max(lineStart, Math.min(position, lineEnd));
+	}
+
+	/**
+	 * Sets the bounds of the current token, typically to restore a token read
+	 * earlier on the current line. The cursor isn't moved.
+	 *
+	 * @param start the absolute start index of the token.
+	 * @param end the absolute end index of the token.
+	 */
+	public void setToken(int start, int end) {
+		this.tokenStart = start;
+		this.tokenEnd = end;
+	}
+
+	/**
+	 * Moves the cursor back to the start of the current line.
+	 */
+	public void rewind() {
+		position = lineStart;
+	}
+
+	/**
+	 * Moves the cursor to the specified offset from the start of the current
+	 * line, clamped to the end of the line.
+	 *
+	 * @param offset the offset relative to the start of the line.
+	 */
+	public void seek(int offset) {
+		position = Math.min(lineStart + offset, lineEnd);
+	}
+
+	/**
+	 * @return {@code true} if the cursor is at the end of the current line,
+	 *         {@code false} otherwise.
+	 */
+	public boolean isAtEnd() {
+		return position >= lineEnd;
+	}
+
+	/**
+	 * @return The absolute start index of the last token read.
+	 */
+	public int getTokenStart() {
+		return tokenStart;
+	}
+
+	/**
+	 * @return The absolute end index of the last token read.
+	 */
+	public int getTokenEnd() {
+		return tokenEnd;
+	}
+
+	/**
+	 * @return The length of the last token read.
+	 */
+	public int getTokenLength() {
+		return tokenEnd - tokenStart;
+	}
+
+	/**
+	 * Returns the character at the specified index of the last token read.
+	 *
+	 * @param index the index relative to the start of the token.
+	 * @return The character.
+	 */
+	public char getTokenCharAt(int index) {
+		return input.charAt(tokenStart + index);
+	}
+
+	/**
+	 * @return The last token read as a {@link String}.
+	 */
+	public String getToken() {
+		return text(tokenStart, tokenEnd);
+	}
+
+	/**
+	 * Returns the last token read as a {@link String}. If the token both
+	 * starts and ends with a double quote, these are removed.
+	 *
+	 * @return The unquoted token.
+	 */
+	public String getUnquotedToken() {
+		if (isQuoted(tokenStart, tokenEnd)) {
+			return text(tokenStart + 1, tokenEnd - 1);
+		}
+		return text(tokenStart, tokenEnd);
+	}
+
+	/**
+	 * Returns the last token read as a {@link CharSequence} that is only
+	 * converted to a {@link String} when needed. The returned instance is
+	 * reused and is only valid until the next call to this method or
+	 * {@link #getUnquotedTokenText()}.
+	 *
+	 * @return The reusable {@link TokenText} for the last token.
+	 */
+	public TokenText getTokenText() {
+		tokenText.set(tokenStart, tokenEnd);
+		return tokenText;
+	}
+
+	/**
+	 * Returns the last token read as a {@link CharSequence} that is only
+	 * converted to a {@link String} when needed. If the token both starts and
+	 * ends with a double quote, these are removed. The returned instance is
+	 * reused and is only valid until the next call to this method or
+	 * {@link #getTokenText()}.
+	 *
+	 * @return The reusable {@link TokenText} for the last token.
+	 */
+	public TokenText getUnquotedTokenText() {
+		if (isQuoted(tokenStart, tokenEnd)) {
+			tokenText.set(tokenStart + 1, tokenEnd - 1);
+		} else {
+			tokenText.set(tokenStart, tokenEnd);
+		}
+		return tokenText;
+	}
+
+	/**
+	 * Returns the length of the last token read as it would be returned by
+	 * {@link #getUnquotedToken()}.
+	 *
+	 * @return The unquoted length.
+	 */
+	public int getUnquotedTokenLength() {
+		return isQuoted(tokenStart, tokenEnd) ? tokenEnd - tokenStart - 2 : tokenEnd - tokenStart;
+	}
+
+	/**
+	 * @return The numeric value of the last number read.
+	 */
+	public int getTokenValue() {
+		return tokenValue;
+	}
+
+	/**
+	 * @return The minutes of the last position read.
+	 */
+	public int getMinutes() {
+		return minutes;
+	}
+
+	/**
+	 * @return The seconds of the last position read.
+	 */
+	public int getSeconds() {
+		return seconds;
+	}
+
+	/**
+	 * @return The frames of the last position read.
+	 */
+	public int getFrames() {
+		return frames;
+	}
+
+	/**
+	 * @return {@code true} if all the fields of the last position read had
+	 *         exactly two digits, {@code false} otherwise.
+	 */
+	public boolean isPositionCompliant() {
+		return positionCompliant;
+	}
+
+	/**
+	 * Checks if the trimmed current line starts with the specified
+	 * {@link String}, respecting case.
+	 *
+	 * @param prefix the prefix to look for.
+	 * @return {@code true} if the line starts with {@code prefix},
+	 *         {@code false} otherwise.
+	 */
+	public boolean startsWith(String prefix) {
+		int count = prefix.length();
+		if (count > lineEnd - lineStart) {
+			return false;
+		}
+		for (int i = 0; i < count; i++) {
+			if (input.charAt(lineStart + i) != prefix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks if the trimmed current line starts with the specified
+	 * {@link String}, ignoring case the same way as
+	 * {@link String#equalsIgnoreCase(String)}.
+	 *
+	 * @param prefix the prefix to look for.
+	 * @return {@code true} if the line starts with {@code prefix},
+	 *         {@code false} otherwise.
+	 */
+	public boolean startsWithIgnoreCase(String prefix) {
+		int count = prefix.length();
+		if (count > lineEnd - lineStart) {
+			return false;
+		}
+		for (int i = 0; i < count; i++) {
+			char c1 = input.charAt(lineStart + i);
+			char c2 = prefix.charAt(i);
+			if (c1 == c2) {
+				continue;
+			}
+			char u1 = Character.toUpperCase(c1);
+			char u2 = Character.toUpperCase(c2);
+			if (u1 != u2 && Character.toLowerCase(u1) != Character.toLowerCase(u2)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks that there are no lowercase ASCII letters between the start of
+	 * the current line and the specified index.
+	 *
+	 * @param end the absolute end index, exclusive.
+	 * @return {@code true} if no lowercase ASCII letters were found,
+	 *         {@code false} otherwise.
+	 */
+	public boolean isUpperCaseUntil(int end) {
+		for (int i = lineStart; i < end; i++) {
+			char c = input.charAt(i);
+			if (c >= 'a' && c <= 'z') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Skips the specified keyword at the cursor, comparing ASCII letters
+	 * without regard to case.
+	 *
+	 * @param keyword the keyword in uppercase.
+	 * @return {@code true} if the keyword was found and skipped, {@code false}
+	 *         otherwise.
+	 */
+	public boolean skipKeyword(String keyword) {
+		int count = keyword.length();
+		if (count > lineEnd - position) {
+			return false;
+		}
+		for (int i = 0; i < count; i++) {
+			char c = input.charAt(position + i);
+			if (c >= 'a' && c <= 'z') {
+				c -= 'a' - 'A';
+			}
+			if (c != keyword.charAt(i)) {
+				return false;
+			}
+		}
+		position += count;
+		return true;
+	}
+
+	/**
+	 * Skips any whitespace at the cursor.
+	 *
+	 * @return {@code true} if at least one whitespace character was skipped,
+	 *         {@code false} otherwise.
+	 */
+	public boolean skipWhitespace() {
+		int start = position;
+		position = whitespaceEnd(position);
+		return position > start;
+	}
+
+	/**
+	 * Reads a sequence of non-whitespace characters at the cursor.
+	 *
+	 * @return {@code true} if at least one character was read, {@code false}
+	 *         otherwise.
+	 */
+	public boolean readWord() {
+		int end = wordEnd(position);
+		if (end == position) {
+			return false;
+		}
+		tokenStart = position;
+		tokenEnd = end;
+		position = end;
+		return true;
+	}
+
+	/**
+	 * Reads a sequence of letters, digits and underscores at the cursor.
+	 *
+	 * @return {@code true} if at least one character was read, {@code false}
+	 *         otherwise.
+	 */
+	public boolean readWordCharacters() {
+		int end = position;
+		while (end < lineEnd && isWordCharacter(input.charAt(end))) {
+			end++;
+		}
+		if (end == position) {
+			return false;
+		}
+		tokenStart = position;
+		tokenEnd = end;
+		position = end;
+		return true;
+	}
+
+	/**
+	 * Reads a value that extends to the end of the line. A value is either a
+	 * double quoted string without any double quotes inside it, or a sequence
+	 * of non-whitespace characters other than a lone double quote.
+	 *
+	 * @return {@code true} if a value was read, {@code false} otherwise.
+	 */
+	public boolean readValue() {
+		int start = position;
+		if (start >= lineEnd || isLoneQuote(start)) {
+			return false;
+		}
+		if (input.charAt(start) == '"' && indexOf('"', start + 1) == lineEnd - 1 || wordEnd(start) == lineEnd) {
+			tokenStart = start;
+			tokenEnd = lineEnd;
+			position = lineEnd;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Reads a value that must be followed by whitespace and then exactly one
+	 * word that extends to the end of the line. A value is either a double
+	 * quoted string without any double quotes inside it, or a sequence of
+	 * non-whitespace characters other than a lone double quote. The cursor is
+	 * left just after the value.
+	 *
+	 * @return {@code true} if a value was read, {@code false} otherwise.
+	 */
+	public boolean readValueBeforeWord() {
+		int start = position;
+		if (start >= lineEnd || isLoneQuote(start)) {
+			return false;
+		}
+		if (input.charAt(start) == '"') {
+			int close = indexOf('"', start + 1);
+			if (close >= 0 && isWhitespaceAndWordToEnd(close + 1)) {
+				tokenStart = start;
+				tokenEnd = close + 1;
+				position = tokenEnd;
+				return true;
+			}
+		}
+		int end = wordEnd(start);
+		if (end > start && isWhitespaceAndWordToEnd(end)) {
+			tokenStart = start;
+			tokenEnd = end;
+			position = end;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Reads an unsigned decimal number at the cursor.
+	 *
+	 * @return {@code true} if a number that fits in an {@code int} was read,
+	 *         {@code false} otherwise.
+	 */
+	public boolean readNumber() {
+		int end = digitsEnd(position);
+		if (end == position) {
+			return false;
+		}
+		int value = parseDigits(position, end);
+		if (value < 0) {
+			return false;
+		}
+		tokenStart = position;
+		tokenEnd = end;
+		tokenValue = value;
+		position = end;
+		return true;
+	}
+
+	/**
+	 * Reads a position in the form {@code mm:ss:ff} at the cursor. The number
+	 * of digits in each field isn't enforced, but each field must contain at
+	 * least one digit.
+	 *
+	 * @return {@code true} if a position was read, {@code false} otherwise.
+	 */
+	public boolean readPosition() {
+		int start = position;
+		int minutesEnd = digitsEnd(start);
+		if (minutesEnd == start || minutesEnd >= lineEnd || input.charAt(minutesEnd) != ':') {
+			return false;
+		}
+		int secondsEnd = digitsEnd(minutesEnd + 1);
+		if (secondsEnd == minutesEnd + 1 || secondsEnd >= lineEnd || input.charAt(secondsEnd) != ':') {
+			return false;
+		}
+		int framesEnd = digitsEnd(secondsEnd + 1);
+		if (framesEnd == secondsEnd + 1) {
+			return false;
+		}
+		int newMinutes = parseDigits(start, minutesEnd);
+		int newSeconds = parseDigits(minutesEnd + 1, secondsEnd);
+		int newFrames = parseDigits(secondsEnd + 1, framesEnd);
+		if (newMinutes < 0 || newSeconds < 0 || newFrames < 0) {
+			return false;
+		}
+		minutes = newMinutes;
+		seconds = newSeconds;
+		frames = newFrames;
+		positionCompliant = minutesEnd - start == 2 && secondsEnd - minutesEnd == 3 && framesEnd - secondsEnd == 3;
+		tokenStart = start;
+		tokenEnd = framesEnd;
+		position = framesEnd;
+		return true;
+	}
+
+	/**
+	 * Sets the token bounds to the remainder of the current line after the
+	 * specified offset, trimmed like {@link String#trim()} does, and moves the
+	 * cursor to the end of the line.
+	 *
+	 * @param offset the offset relative to the start of the line.
+	 */
+	public void readRemainder(int offset) {
+		int start = Math.min(lineStart + offset, lineEnd);
+		while (start < lineEnd && input.charAt(start) <= ' ') {
+			start++;
+		}
+		tokenStart = start;
+		tokenEnd = lineEnd;
+		position = lineEnd;
+	}
+
+	/**
+	 * Checks if the last token read is equal to the specified {@link String}
+	 * without creating a {@link String} from the token.
+	 *
+	 * @param value the {@link String} to compare with.
+	 * @return {@code true} if the token matches, {@code false} otherwise.
+	 */
+	public boolean isToken(String value) {
+		int tokenLength = tokenEnd - tokenStart;
+		if (tokenLength != value.length()) {
+			return false;
+		}
+		for (int i = 0; i < tokenLength; i++) {
+			if (input.charAt(tokenStart + i) != value.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks if the last token read only consists of ASCII digits and has the
+	 * specified length.
+	 *
+	 * @param count the required length.
+	 * @return {@code true} if the token matches, {@code false} otherwise.
+	 */
+	public boolean isTokenDigits(int count) {
+		return tokenEnd - tokenStart == count && digitsEnd(tokenStart) >= tokenEnd;
+	}
+
+	/**
+	 * Checks if the last token read consists of the specified number of
+	 * letters, digits or underscores followed by the specified number of
+	 * digits.
+	 *
+	 * @param wordCount the number of leading word characters.
+	 * @param digitCount the number of trailing digits.
+	 * @return {@code true} if the token matches, {@code false} otherwise.
+	 */
+	public boolean isTokenWordAndDigits(int wordCount, int digitCount) {
+		if (tokenEnd - tokenStart != wordCount + digitCount) {
+			return false;
+		}
+		for (int i = tokenStart; i < tokenStart + wordCount; i++) {
+			if (!isWordCharacter(input.charAt(i))) {
+				return false;
+			}
+		}
+		return digitsEnd(tokenStart + wordCount) >= tokenEnd;
+	}
+
+	/**
+	 * Checks whether the specified index holds a double quote that is
+	 * followed by whitespace or the end of the line.
+	 *
+	 * @param index the index to check.
+	 * @return {@code true} if the index holds a lone double quote,
+	 *         {@code false} otherwise.
+	 */
+	protected boolean isLoneQuote(int index) {
+		return input.charAt(index) == '"' && wordEnd(index) == index + 1;
+	}
+
+	/**
+	 * Checks whether the specified range is enclosed in double quotes.
+	 *
+	 * @param start the start index, inclusive.
+	 * @param end the end index, exclusive.
+	 * @return {@code true} if the range is at least two characters long and
+	 *         both starts and ends with a double quote, {@code false}
+	 *         otherwise.
+	 */
+	protected boolean isQuoted(int start, int end) {
+		return end - start > 1 && input.charAt(start) == '"' && input.charAt(end - 1) == '"';
+	}
+
+	/**
+	 * Finds the specified character in the current line.
+	 *
+	 * @param c the character to look for.
+	 * @param from the absolute index to start from.
+	 * @return The absolute index of the first occurrence or {@code -1}.
+	 */
+	protected int indexOf(char c, int from) {
+		for (int i = from; i < lineEnd; i++) {
+			if (input.charAt(i) == c) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Checks if the line from the specified index consists of whitespace
+	 * followed by one word that extends to the end of the line.
+	 *
+	 * @param from the absolute index to start from.
+	 * @return {@code true} if it does, {@code false} otherwise.
+	 */
+	protected boolean isWhitespaceAndWordToEnd(int from) {
+		int wordStart = whitespaceEnd(from);
+		return wordStart > from && wordStart < lineEnd && wordEnd(wordStart) == lineEnd;
+	}
+
+	/**
+	 * @param from the absolute index to start from.
+	 * @return The absolute index of the first non-whitespace character at or
+	 *         after {@code from} in the current line.
+	 */
+	protected int whitespaceEnd(int from) {
+		int i = from;
+		while (i < lineEnd && isWhitespace(input.charAt(i))) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * @param from the absolute index to start from.
+	 * @return The absolute index of the first whitespace character at or after
+	 *         {@code from} in the current line.
+	 */
+	protected int wordEnd(int from) {
+		int i = from;
+		while (i < lineEnd && !isWhitespace(input.charAt(i))) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * @param from the absolute index to start from.
+	 * @return The absolute index of the first non-digit at or after
+	 *         {@code from} in the current line.
+	 */
+	protected int digitsEnd(int from) {
+		int i = from;
+		while (i < lineEnd && isDigit(input.charAt(i))) {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Parses a sequence of ASCII digits.
+	 *
+	 * @param start the start index, inclusive.
+	 * @param end the end index, exclusive.
+	 * @return The value or {@code -1} if it doesn't fit in an {@code int}.
+	 */
+	protected int parseDigits(int start, int end) {
+		long value = 0;
+		for (int i = start; i < end; i++) {
+			value = value * 10 + input.charAt(i) - '0';
+			if (value > Integer.MAX_VALUE) {
+				return -1;
+			}
+		}
+		return (int) value;
+	}
+
+	/**
+	 * Evaluates if the specified character is whitespace as defined by the
+	 * regular expression class {@code \s}.
+	 *
+	 * @param c the character to evaluate.
+	 * @return {@code true} if {@code c} is whitespace, {@code false}
+	 *         otherwise.
+	 */
+	public static boolean isWhitespace(char c) {
+		return c == ' ' || c >= '\t' && c <= '\r';
+	}
+
+	/**
+	 * Evaluates if the specified character is an ASCII digit.
+	 *
+	 * @param c the character to evaluate.
+	 * @return {@code true} if {@code c} is a digit, {@code false} otherwise.
+	 */
+	public static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * Evaluates if the specified character is a word character as defined by
+	 * the regular expression class {@code \w}.
+	 *
+	 * @param c the character to evaluate.
+	 * @return {@code true} if {@code c} is a word character, {@code false}
+	 *         otherwise.
+	 */
+	public static boolean isWordCharacter(char c) {
+		return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_';
+	}
+
+	/**
+	 * A reusable {@link CharSequence} view of a part of the input. The
+	 * {@link String} value is only created, using {@link CueTokenizer#text},
+	 * when the content is first accessed.
+	 *
+	 * @author Nadahar
+	 */
+	public class TokenText implements CharSequence {
+
+		/** The start index in the input */
+		protected int start;
+
+		/** The end index in the input */
+		protected int end;
+
+		/** The cached {@link String} value */
+		protected String value;
+
+		/**
+		 * Sets the bounds of this view and clears the cached value.
+		 *
+		 * @param start the start index in the input.
+		 * @param end the end index in the input.
+		 */
+		protected void set(int start, int end) {
+			this.start = start;
+			this.end = end;
+			this.value = null;
+		}
+
+		/**
+		 * Returns a {@link CharSequence} with the same content as this view
+		 * that remains valid after the tokenizer moves on. Depending on the
+		 * tokenizer, this is either the decoded {@link String} or a reference
+		 * to the input that is decoded by {@link CharSequence#toString()}.
+		 *
+		 * @return The detached {@link CharSequence}.
+		 */
+		public CharSequence detach() {
+			return value != null ? value : reference(start, end);
+		}
+
+		/**
+		 * @return The start index in the input.
+		 */
+		public int getStart() {
+			return start;
+		}
+
+		/**
+		 * @return The end index in the input.
+		 */
+		public int getEnd() {
+			return end;
+		}
+
+		@Override
+		public int length() {
+			return toString().length();
+		}
+
+		@Override
+		public char charAt(int index) {
+			return toString().charAt(index);
+		}
+
+		@Override
+		public CharSequence subSequence(int startIndex, int endIndex) {
+			return toString().subSequence(startIndex, endIndex);
+		}
+
+		@Override
+		public String toString() {
+			if (value == null) {
+				value = text(start, end);
+			}
+			return value;
+		}
+	}
+}
@@ -38,6 +38,13 @@ public class Index {
 	 */
 	private Position position;
 
+	/**
+	 * The exact position of this index in samples from the start of the
+	 * audio, as given by a FLAC {@code CUESHEET} block. -1 signifies that it
+	 * is unknown.
+	 */
+	private long sampleOffset = -1;
+
 	/**
 	 * Create a new Index.
 	 */
@@ -96,6 +103,31 @@ public class Index {
 		this.position = position;
 	}
 
+	/**
+	 * Get the exact position of this index in samples from the start of the
+	 * audio. This is only known when the index was read from a source with
+	 * sample resolution, like a FLAC {@code CUESHEET} block, since
+	 * {@link Position} only has a resolution of 1/75 second. -1 signifies that
+	 * it is unknown.
+	 *
+	 * @return The sample offset of this index. -1 signifies that it is
+	 *         unknown.
+	 */
+	public long getSampleOffset() {
+		return sampleOffset;
+	}
+
+	/**
+	 * Set the exact position of this index in samples from the start of the
+	 * audio. -1 signifies that it is unknown.
+	 *
+	 * @param sampleOffset The sample offset of this index. -1 signifies that
+	 *            it is unknown.
+	 */
+	public void setSampleOffset(long sampleOffset) {
+		this.sampleOffset = sampleOffset;
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder("[");
@@ -105,9 +137,13 @@ public class Index {
 			first = false;
 		}
 		if (position != null) {
-			appendSeparator(sb, first);
+			first = appendSeparator(sb, first);
 			sb.append("position=").append(position);
 		}
+		if (sampleOffset >= 0) {
+			appendSeparator(sb, first);
+			sb.append("sampleOffset=").append(sampleOffset);
+		}
 		sb.append("]");
 		return sb.toString();
 	}
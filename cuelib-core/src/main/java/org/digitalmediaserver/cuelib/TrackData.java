@@ -86,6 +86,33 @@ public class TrackData {
 	 */
 	private String songwriter = null;
 
+	/**
+	 * The exact offset of this track in samples from the start of the audio,
+	 * as given by a FLAC {@code CUESHEET} block. -1 signifies that it is
+	 * unknown.
+	 */
+	private long sampleOffset = -1;
+
+	/**
+	 * The performer of this track before conversion to a {@link String}, used by
+	 * the lazy parsing mode. Null signifies that there is nothing to convert.
+	 * It's only cleared after the converted value has been stored, so that
+	 * concurrent readers never see {@code null} for a value that is set.
+	 */
+	private volatile CharSequence lazyPerformer = null;
+
+	/**
+	 * The title of this track before conversion to a {@link String}, used by
+	 * the lazy parsing mode. Null signifies that there is nothing to convert.
+	 */
+	private volatile CharSequence lazyTitle = null;
+
+	/**
+	 * The songwriter of this track before conversion to a {@link String}, used by
+	 * the lazy parsing mode. Null signifies that there is nothing to convert.
+	 */
+	private volatile CharSequence lazySongwriter = null;
+
 	/**
 	 * The file data that this track data belongs to.
 	 */
@@ -216,6 +243,15 @@ public class TrackData {
 	 *         set.
 	 */
 	public String getPerformer() {
+		if (lazyPerformer != null) {
+			synchronized (this) {
+				CharSequence lazy = lazyPerformer;
+				if (lazy != null) {
+					performer = lazy.toString();
+					lazyPerformer = null;
+				}
+			}
+		}
 		return performer;
 	}
 
@@ -228,6 +264,19 @@ public class TrackData {
 	 */
 	public void setPerformer(String performer) {
 		this.performer = performer;
+		this.lazyPerformer = null;
+	}
+
+	/**
+	 * Set the performer of this track as a {@link CharSequence} that is converted
+	 * to a {@link String} the first time {@link #getPerformer()} is called.
+	 *
+	 * @param performer The performer of this track. Null signifies that it has not
+	 *            been set.
+	 */
+	protected void setLazyPerformer(CharSequence performer) {
+		this.performer = null;
+		this.lazyPerformer = performer;
 	}
 
 	/**
@@ -278,6 +327,15 @@ public class TrackData {
 	 *         set.
 	 */
 	public String getSongwriter() {
+		if (lazySongwriter != null) {
+			synchronized (this) {
+				CharSequence lazy = lazySongwriter;
+				if (lazy != null) {
+					songwriter = lazy.toString();
+					lazySongwriter = null;
+				}
+			}
+		}
 		return songwriter;
 	}
 
@@ -291,6 +349,19 @@ public class TrackData {
 	 */
 	public void setSongwriter(String songwriter) {
 		this.songwriter = songwriter;
+		this.lazySongwriter = null;
+	}
+
+	/**
+	 * Set the songwriter of this track as a {@link CharSequence} that is converted
+	 * to a {@link String} the first time {@link #getSongwriter()} is called.
+	 *
+	 * @param songwriter The songwriter of this track. Null signifies that it has not
+	 *            been set.
+	 */
+	protected void setLazySongwriter(CharSequence songwriter) {
+		this.songwriter = null;
+		this.lazySongwriter = songwriter;
 	}
 
 	/**
@@ -299,6 +370,15 @@ public class TrackData {
 	 * @return The title of this track. Null signifies that it has not been set.
 	 */
 	public String getTitle() {
+		if (lazyTitle != null) {
+			synchronized (this) {
+				CharSequence lazy = lazyTitle;
+				if (lazy != null) {
+					title = lazy.toString();
+					lazyTitle = null;
+				}
+			}
+		}
 		return title;
 	}
 
@@ -312,6 +392,56 @@ public class TrackData {
 	 */
 	public void setTitle(String title) {
 		this.title = title;
+		this.lazyTitle = null;
+	}
+
+	/**
+	 * Set the title of this track as a {@link CharSequence} that is converted
+	 * to a {@link String} the first time {@link #getTitle()} is called.
+	 *
+	 * @param title The title of this track. Null signifies that it has not
+	 *            been set.
+	 */
+	protected void setLazyTitle(CharSequence title) {
+		this.title = null;
+		this.lazyTitle = title;
+	}
+
+	/**
+	 * Get the exact offset of this track in samples from the start of the
+	 * audio. This is only known when the track was read from a FLAC
+	 * {@code CUESHEET} block. The offsets of the indices are available from
+	 * {@link Index#getSampleOffset()}. -1 signifies that it is unknown.
+	 *
+	 * @return The sample offset of this track. -1 signifies that it is
+	 *         unknown.
+	 */
+	public long getSampleOffset() {
+		return sampleOffset;
+	}
+
+	/**
+	 * Set the exact offset of this track in samples from the start of the
+	 * audio. -1 signifies that it is unknown.
+	 *
+	 * @param sampleOffset The sample offset of this track. -1 signifies that
+	 *            it is unknown.
+	 */
+	public void setSampleOffset(long sampleOffset) {
+		this.sampleOffset = sampleOffset;
+	}
+
+	/**
+	 * Get the start sample offset of this track, which is the sample offset
+	 * of the start {@link Index} as defined by {@link #getStartIndex()}. -1
+	 * signifies that it is unknown.
+	 *
+	 * @return The start sample offset of this track. -1 signifies that it is
+	 *         unknown.
+	 */
+	public long getStartSampleOffset() {
+		Index index = getStartIndex();
+		return index == null ? -1 : index.getSampleOffset();
 	}
 
 	/**
@@ -421,17 +551,17 @@ public class TrackData {
 			sb.append("dataType=").append(dataType);
 			first = false;
 		}
-		if (!isBlank(title)) {
+		if (!isBlank(getTitle())) {
 			first = appendSeparator(sb, first);
-			sb.append("title=").append(title);
+			sb.append("title=").append(getTitle());
 		}
-		if (!isBlank(performer)) {
+		if (!isBlank(getPerformer())) {
 			first = appendSeparator(sb, first);
-			sb.append("performer=").append(performer);
+			sb.append("performer=").append(getPerformer());
 		}
-		if (!isBlank(songwriter)) {
+		if (!isBlank(getSongwriter())) {
 			first = appendSeparator(sb, first);
-			sb.append("songwriter=").append(songwriter);
+			sb.append("songwriter=").append(getSongwriter());
 		}
 		if (number > 0) {
 			first = appendSeparator(sb, first);
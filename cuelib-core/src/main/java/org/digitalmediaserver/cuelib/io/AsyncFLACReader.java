@@ -0,0 +1,495 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.digitalmediaserver.cuelib.CueSheet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * This class parses embedded cue sheets from FLAC files without blocking the
+ * calling thread. It reads from an {@link AsynchronousFileChannel} using
+ * positional reads, and the result is delivered as a
+ * {@link CompletableFuture}.
+ * <p>
+ * The metadata is read in chunks of a configurable size. Blocks that fit in
+ * the current chunk are parsed directly. When a block of interest extends
+ * beyond the current chunk, the read of the block and the read of the next
+ * block header are issued at the same time, so that the next header is
+ * available by the time the block has been parsed.
+ * <p>
+ * The calling thread is never blocked. On most platforms, including Linux,
+ * {@link AsynchronousFileChannel} performs each read as a blocking read on a
+ * thread of the {@link ExecutorService} the channel was opened with, which
+ * also runs the completion handlers and thereby the parsing. The number of
+ * threads is thereby bounded by that {@link ExecutorService}, and the reads
+ * of files beyond that wait in its queue. The {@link Path} based methods use
+ * the bounded {@link #getDefaultExecutor() default executor} unless another
+ * {@link ExecutorService} is specified. Channels opened without an
+ * {@link ExecutorService} use the unbounded default thread pool of the JDK,
+ * where every pending read can hold a thread.
+ * <p>
+ * Like {@link FLACReader}, errors are logged and result in {@code null}.
+ * Only a failure to open the file completes the {@link CompletableFuture}
+ * exceptionally. The blocking methods inherited from {@link FLACReader}
+ * wait for the asynchronous result, except
+ * {@link #extractMetadata(ByteBuffer)} which isn't supported.
+ *
+ * @author Nadahar
+ */
+public class AsyncFLACReader extends FLACReader {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(AsyncFLACReader.class);
+
+	/** The default number of bytes to read at a time when looking for block headers */
+	public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+	/** The minimum capacity of the buffers used for parsing */
+	protected static final int MIN_BUFFER_SIZE = 128;
+
+	/** The number of threads of the default executor */
+	public static final int DEFAULT_THREAD_COUNT = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+	/** The {@link AsynchronousFileChannel} to read from */
+	protected final AsynchronousFileChannel channel;
+
+	/** The number of bytes to read at a time when looking for block headers */
+	protected final int chunkSize;
+
+	/** The {@link StreamInfo} once it has been parsed */
+	protected StreamInfo streamInfo;
+
+	/**
+	 * Returns the shared {@link ExecutorService} that is used when no
+	 * {@link ExecutorService} is specified. It has at most
+	 * {@link #DEFAULT_THREAD_COUNT} daemon threads, which are stopped when
+	 * idle, and an unbounded queue.
+	 *
+	 * @return The default {@link ExecutorService}.
+	 */
+	public static ExecutorService getDefaultExecutor() {
+		return DefaultExecutorHolder.EXECUTOR;
+	}
+
+	/**
+	 * Tries to create a {@link CueSheet} from the FLAC metadata in the
+	 * specified {@link Path} using the {@link #getDefaultExecutor() default
+	 * executor}.
+	 *
+	 * @param file the {@link Path} to read from.
+	 * @return The {@link CompletableFuture} for the new {@link CueSheet} or
+	 *         {@code null} if none was found.
+	 */
+	public static CompletableFuture<CueSheet> getCueSheetAsync(Path file) {
+		return getCueSheetAsync(file, null);
+	}
+
+	/**
+	 * Tries to create a {@link CueSheet} from the FLAC metadata in the
+	 * specified {@link Path}. The file is closed when the returned
+	 * {@link CompletableFuture} completes.
+	 *
+	 * @param file the {@link Path} to read from.
+	 * @param executor the {@link ExecutorService} to perform the reads and
+	 *            handle their completions or {@code null} to use the
+	 *            {@link #getDefaultExecutor() default executor}.
+	 * @return The {@link CompletableFuture} for the new {@link CueSheet} or
+	 *         {@code null} if none was found. If the file can't be opened,
+	 *         the {@link CompletableFuture} is completed exceptionally.
+	 */
+	public static CompletableFuture<CueSheet> getCueSheetAsync(Path file, ExecutorService executor) {
+		if (file == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+		AsynchronousFileChannel channel;
+		try {
+			channel = AsynchronousFileChannel.open(
+				file,
+				EnumSet.of(StandardOpenOption.READ),
+				executor == null ? getDefaultExecutor() : executor
+			);
+		} catch (IOException | RuntimeException e) {
+			return CompletableFuture.failedFuture(e);
+		}
+		return new AsyncFLACReader(channel, file, DEFAULT_CHUNK_SIZE).extractCueSheetAsync().whenComplete(
+			(cueSheet, throwable) -> {
+				try {
+					channel.close();
+				} catch (IOException e) {
+					LOGGER.debug("Failed to close \"{}\": {}", file, e.getMessage());
+				}
+			}
+		);
+	}
+
+	/**
+	 * Tries to create a {@link CueSheet} from the FLAC metadata in the
+	 * specified {@link AsynchronousFileChannel}. The channel isn't closed.
+	 *
+	 * @param channel the {@link AsynchronousFileChannel} to read from.
+	 * @param file the {@link Path} to use for the {@code FILE} command in
+	 *            resulting the {@link CueSheet}, and for logging purposes. If
+	 *            {@code null}, {@value #DEFAULT_FILENAME} will be used if no
+	 *            {@code FILE} value is available in the cue sheet data.
+	 * @return The {@link CompletableFuture} for the new {@link CueSheet} or
+	 *         {@code null} if none was found.
+	 */
+	public static CompletableFuture<CueSheet> getCueSheetAsync(AsynchronousFileChannel channel, Path file) {
+		if (channel == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+		return new AsyncFLACReader(channel, file, DEFAULT_CHUNK_SIZE).extractCueSheetAsync();
+	}
+
+	/**
+	 * Creates a new instance using the specified
+	 * {@link AsynchronousFileChannel}.
+	 *
+	 * @param channel the {@link AsynchronousFileChannel} to read from.
+	 * @param file the file to specify in the resulting {@link CueSheet}. If
+	 *            blank and nothing is specified in the cue sheet data itself,
+	 *            {@value #DEFAULT_FILENAME} is used.
+	 * @param chunkSize the number of bytes to read at a time when looking for
+	 *            block headers.
+	 */
+	public AsyncFLACReader(AsynchronousFileChannel channel, Path file, int chunkSize) {
+		super(null, file);
+		if (channel == null) {
+			throw new IllegalArgumentException("channel cannot be null");
+		}
+		if (chunkSize < MIN_BUFFER_SIZE) {
+			throw new IllegalArgumentException("chunkSize must be at least " + MIN_BUFFER_SIZE);
+		}
+		this.channel = channel;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Tries to find and parse a {@link CueSheet} in the FLAC metadata,
+	 * blocking until the asynchronous reads have completed. Must not be
+	 * called from a thread of the channel's {@link ExecutorService}. An
+	 * instance can only be used once.
+	 *
+	 * @param buffer ignored, the buffers are allocated for each read.
+	 * @return The new {@link CueSheet} or {@code null} if none was found.
+	 */
+	@Override
+	public CueSheet extractCueSheet(ByteBuffer buffer) {
+		return extractCueSheetAsync().join();
+	}
+
+	/**
+	 * Not supported, use {@link FLACReader#getMetadata(Path)} instead.
+	 *
+	 * @param buffer ignored.
+	 * @return Nothing.
+	 * @throws UnsupportedOperationException Always.
+	 */
+	@Override
+	public FLACMetadata extractMetadata(ByteBuffer buffer) {
+		throw new UnsupportedOperationException("AsyncFLACReader can't extract metadata");
+	}
+
+	/**
+	 * Tries to find and parse a {@link CueSheet} in the FLAC metadata. An
+	 * instance can only be used once.
+	 *
+	 * @return The {@link CompletableFuture} for the new {@link CueSheet} or
+	 *         {@code null} if none was found.
+	 */
+	public CompletableFuture<CueSheet> extractCueSheetAsync() {
+		return findStreamMarker(0L).handle((cueSheet, throwable) -> {
+			if (throwable == null) {
+				return cueSheet;
+			}
+			Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ?
+				throwable.getCause() :
+				throwable;
+			if (file == null) {
+				LOGGER.error("An error occurred while parsing cue sheet from FLAC metadata: {}", cause.getMessage());
+			} else {
+				LOGGER.error(
+					"An error occurred while parsing cue sheet from FLAC metadata in \"{}\": {}",
+					file,
+					cause.getMessage()
+				);
+			}
+			LOGGER.trace("", cause);
+			return null;
+		});
+	}
+
+	/**
+	 * Reads a chunk at the specified position and looks for the {@code fLaC}
+	 * stream marker, skipping any {@code ID3v2} tags.
+	 *
+	 * @param position the position to read from.
+	 * @return The {@link CompletableFuture} for the {@link CueSheet} or
+	 *         {@code null}.
+	 */
+	protected CompletableFuture<CueSheet> findStreamMarker(long position) {
+		return readAsync(position, chunkSize).thenCompose(chunk -> {
+			if (chunk.limit() < 4) {
+				return CompletableFuture.completedFuture(null);
+			}
+			if (chunk.get(0) == 'f' && chunk.get(1) == 'L' && chunk.get(2) == 'a' && chunk.get(3) == 'C') {
+				return findCueSheet(chunk, position, position + 4);
+			}
+			if (
+				chunk.limit() >= 10 &&
+				chunk.get(0) == 'I' && chunk.get(1) == 'D' && chunk.get(2) == '3' &&
+				chunk.get(3) != -1 && chunk.get(4) != -1
+			) {
+				// ID3 32/28 bit synchsafe integer
+				int tagSize =
+					((chunk.get(6) & 0xff) << 21) + ((chunk.get(7) & 0xff) << 14) +
+					((chunk.get(8) & 0xff) << 7) + (chunk.get(9) & 0xff);
+				return findStreamMarker(position + 10 + tagSize);
+			}
+			return CompletableFuture.completedFuture(null);
+		});
+	}
+
+	/**
+	 * Iterates through the FLAC metadata blocks starting at the specified
+	 * position, looking for potential cue sheet data.
+	 *
+	 * @param chunk the chunk containing the data read so far.
+	 * @param chunkPosition the position of {@code chunk} in the file.
+	 * @param position the position of the next block header.
+	 * @return The {@link CompletableFuture} for the {@link CueSheet} or
+	 *         {@code null}.
+	 */
+	protected CompletableFuture<CueSheet> findCueSheet(ByteBuffer chunk, long chunkPosition, long position) {
+		for (;;) {
+			long chunkEnd = chunkPosition + chunk.limit();
+			if (position + 4 > chunkEnd) {
+				long headerPosition = position;
+				return readAsync(headerPosition, chunkSize).thenCompose(next -> {
+					if (next.limit() < 4) {
+						return CompletableFuture.failedFuture(new EOFException("Missing FLAC metadata block"));
+					}
+					return findCueSheet(next, headerPosition, headerPosition);
+				});
+			}
+			int offset = (int) (position - chunkPosition);
+			byte blockHeader = chunk.get(offset);
+			int blockType = blockHeader & 0x7F;
+			int size =
+				((chunk.get(offset + 1) & 0xFF) << 16) |
+				((chunk.get(offset + 2) & 0xFF) << 8) |
+				chunk.get(offset + 3) & 0xFF;
+			boolean last = isLastBlock(blockHeader);
+			long blockPosition = position + 4;
+			long nextPosition = blockPosition + size;
+			if (
+				blockType == STREAMINFO ||
+				blockType == VORBIS_COMMENT ||
+				blockType == CUESHEET && streamInfo != null
+			) {
+				if (nextPosition <= chunkEnd) {
+					ByteBuffer block = chunk.duplicate();
+					block.limit(offset + 4 + size).position(offset + 4);
+					CueSheet cueSheet;
+					try {
+						cueSheet = parseBlock(blockType, block);
+					} catch (IOException | RuntimeException e) {
+						return CompletableFuture.failedFuture(e);
+					}
+					if (cueSheet != null || last) {
+						return CompletableFuture.completedFuture(cueSheet);
+					}
+				} else {
+					// Read the block and the next header at the same time
+					CompletableFuture<ByteBuffer> blockFuture = readAsync(blockPosition, size);
+					CompletableFuture<ByteBuffer> nextFuture = last ? null : readAsync(nextPosition, chunkSize);
+					return blockFuture.thenCompose(block -> {
+						CueSheet cueSheet;
+						try {
+							cueSheet = parseBlock(blockType, block);
+						} catch (IOException | RuntimeException e) {
+							return CompletableFuture.failedFuture(e);
+						}
+						if (cueSheet != null || nextFuture == null) {
+							return CompletableFuture.completedFuture(cueSheet);
+						}
+						return nextFuture.thenCompose(next -> findCueSheet(next, nextPosition, nextPosition));
+					});
+				}
+			} else if (last) {
+				return CompletableFuture.completedFuture(null);
+			}
+			position = nextPosition;
+		}
+	}
+
+	/**
+	 * Parses a metadata block that has been read in full.
+	 *
+	 * @param blockType the block type.
+	 * @param block the {@link ByteBuffer} positioned at the start of the
+	 *            block, with the limit at the end of the block.
+	 * @return The new {@link CueSheet} or {@code null} if none was found.
+	 * @throws IOException If the block is invalid.
+	 */
+	protected CueSheet parseBlock(int blockType, ByteBuffer block) throws IOException {
+		block.order(ByteOrder.BIG_ENDIAN);
+		CueSheet cueSheet;
+		switch (blockType) {
+			case STREAMINFO:
+				streamInfo = parseStreamInfoBlock(block);
+				return null;
+			case CUESHEET:
+				cueSheet = parseCuesheetBlock(block, streamInfo).getCueSheet();
+				break;
+			case VORBIS_COMMENT:
+				cueSheet = parseVorbisCommentBlock(block).getCueSheet();
+				break;
+			default:
+				return null;
+		}
+		if (cueSheet != null && LOGGER.isDebugEnabled()) {
+			if (file == null) {
+				LOGGER.debug("Parsed the following cue sheet from FLAC metadata:\n{}", cueSheet);
+			} else {
+				LOGGER.debug("Parsed the following cue sheet from FLAC metadata in \"{}\":\n{}", file, cueSheet);
+			}
+		}
+		return cueSheet;
+	}
+
+	/**
+	 * Reads the specified number of bytes from the specified position. The
+	 * resulting {@link ByteBuffer} is flipped, and will have less remaining
+	 * bytes than requested if the end of the file is reached.
+	 *
+	 * @param position the position to read from.
+	 * @param length the number of bytes to read.
+	 * @return The {@link CompletableFuture} for the {@link ByteBuffer}.
+	 */
+	protected CompletableFuture<ByteBuffer> readAsync(long position, int length) {
+		CompletableFuture<ByteBuffer> future = new CompletableFuture<>();
+		ByteBuffer buffer = ByteBuffer.allocate(Math.max(length, MIN_BUFFER_SIZE));
+		buffer.limit(length);
+		new ReadHandler(buffer, position, future).read();
+		return future;
+	}
+
+	/**
+	 * A {@link CompletionHandler} that keeps reading until the buffer is full
+	 * or the end of the file is reached.
+	 *
+	 * @author Nadahar
+	 */
+	protected class ReadHandler implements CompletionHandler<Integer, Void> {
+
+		/** The {@link ByteBuffer} to read into */
+		protected final ByteBuffer buffer;
+
+		/** The file position of the start of {@link #buffer} */
+		protected final long position;
+
+		/** The {@link CompletableFuture} to complete */
+		protected final CompletableFuture<ByteBuffer> future;
+
+		/**
+		 * Creates a new instance.
+		 *
+		 * @param buffer the {@link ByteBuffer} to read into.
+		 * @param position the file position of the start of {@code buffer}.
+		 * @param future the {@link CompletableFuture} to complete.
+		 */
+		public ReadHandler(ByteBuffer buffer, long position, CompletableFuture<ByteBuffer> future) {
+			this.buffer = buffer;
+			this.position = position;
+			this.future = future;
+		}
+
+		/**
+		 * Issues the next read.
+		 */
+		public void read() {
+			try {
+				channel.read(buffer, position + buffer.position(), null, this);
+			} catch (RuntimeException e) {
+				future.completeExceptionally(e);
+			}
+		}
+
+		@Override
+		public void completed(Integer result, Void attachment) {
+			if (result.intValue() < 0 || !buffer.hasRemaining()) {
+				buffer.flip();
+				future.complete(buffer);
+			} else {
+				read();
+			}
+		}
+
+		@Override
+		public void failed(Throwable exc, Void attachment) {
+			future.completeExceptionally(exc);
+		}
+	}
+
+	/**
+	 * Holds the default {@link ExecutorService}, which is created on first
+	 * use.
+	 */
+	private static class DefaultExecutorHolder {
+
+		/** The default {@link ExecutorService} */
+		private static final ExecutorService EXECUTOR = createDefaultExecutor();
+
+		private static ExecutorService createDefaultExecutor() {
+			AtomicInteger threadCount = new AtomicInteger();
+			ThreadPoolExecutor result = new ThreadPoolExecutor(
+				DEFAULT_THREAD_COUNT,
+				DEFAULT_THREAD_COUNT,
+				60L,
+				TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(),
+				runnable -> {
+					Thread thread = new Thread(runnable, "AsyncFLACReader-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			);
+			result.allowCoreThreadTimeOut(true);
+			return result;
+		}
+	}
+}
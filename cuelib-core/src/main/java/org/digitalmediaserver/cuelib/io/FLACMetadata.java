@@ -0,0 +1,459 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.io;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.digitalmediaserver.cuelib.CueSheet;
+import org.digitalmediaserver.cuelib.io.FLACReader.StreamInfo;
+
+
+/**
+ * This class holds the information collected from the metadata blocks of a
+ * FLAC file by {@link FLACReader#getMetadata(Path)}. Picture data isn't read,
+ * only its location in the file is recorded.
+ *
+ * @author Nadahar
+ */
+public class FLACMetadata {
+
+	/** The FLAC file or {@code null} */
+	protected final Path file;
+
+	/** The {@link StreamInfo} */
+	protected StreamInfo streamInfo;
+
+	/** The vendor string of the {@code VORBIS_COMMENT} block */
+	protected String vendor;
+
+	/** The vorbis comments with upper-case field names as keys */
+	protected final Map<String, List<String>> comments = new LinkedHashMap<>();
+
+	/** The {@code PICTURE} blocks */
+	protected final List<Picture> pictures = new ArrayList<>();
+
+	/** The {@link SeekTable} */
+	protected SeekTable seekTable;
+
+	/** The {@link CueSheet} */
+	protected CueSheet cueSheet;
+
+	/** The position of the first audio frame in the file */
+	protected long audioOffset = -1;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param file the FLAC file or {@code null}.
+	 */
+	public FLACMetadata(Path file) {
+		this.file = file;
+	}
+
+	/**
+	 * @return The FLAC file or {@code null}.
+	 */
+	public Path getFile() {
+		return file;
+	}
+
+	/**
+	 * @return The {@link StreamInfo} or {@code null} if the
+	 *         {@code STREAMINFO} block is missing.
+	 */
+	public StreamInfo getStreamInfo() {
+		return streamInfo;
+	}
+
+	/**
+	 * @param streamInfo the {@link StreamInfo} to set.
+	 */
+	protected void setStreamInfo(StreamInfo streamInfo) {
+		this.streamInfo = streamInfo;
+	}
+
+	/**
+	 * @return The vendor string of the {@code VORBIS_COMMENT} block or
+	 *         {@code null}.
+	 */
+	public String getVendor() {
+		return vendor;
+	}
+
+	/**
+	 * @param vendor the vendor string to set.
+	 */
+	protected void setVendor(String vendor) {
+		this.vendor = vendor;
+	}
+
+	/**
+	 * @return An unmodifiable {@link Map} of the vorbis comments, with the
+	 *         upper-case field names as keys and the values in the order they
+	 *         appear.
+	 */
+	public Map<String, List<String>> getComments() {
+		return Collections.unmodifiableMap(comments);
+	}
+
+	/**
+	 * Returns the first value of the specified vorbis comment field.
+	 *
+	 * @param fieldName the case-insensitive field name.
+	 * @return The first value or {@code null} if the field doesn't exist.
+	 */
+	public String getComment(String fieldName) {
+		List<String> values = comments.get(fieldName.toUpperCase(Locale.ROOT));
+		return values == null || values.isEmpty() ? null : values.get(0);
+	}
+
+	/**
+	 * Adds a vorbis comment.
+	 *
+	 * @param fieldName the field name.
+	 * @param value the value.
+	 */
+	protected void addComment(String fieldName, String value) {
+		comments.computeIfAbsent(fieldName.toUpperCase(Locale.ROOT), k -> new ArrayList<>(1)).add(value);
+	}
+
+	/**
+	 * @return An unmodifiable {@link List} of the {@code PICTURE} blocks.
+	 */
+	public List<Picture> getPictures() {
+		return Collections.unmodifiableList(pictures);
+	}
+
+	/**
+	 * @param picture the {@link Picture} to add.
+	 */
+	protected void addPicture(Picture picture) {
+		pictures.add(picture);
+	}
+
+	/**
+	 * @return The {@link SeekTable} or {@code null} if there is no
+	 *         {@code SEEKTABLE} block.
+	 */
+	public SeekTable getSeekTable() {
+		return seekTable;
+	}
+
+	/**
+	 * @param seekTable the {@link SeekTable} to set.
+	 */
+	protected void setSeekTable(SeekTable seekTable) {
+		this.seekTable = seekTable;
+	}
+
+	/**
+	 * @return The {@link CueSheet} from the {@code CUESHEET} block, or from
+	 *         the {@code CUESHEET} vorbis comment if there is no
+	 *         {@code CUESHEET} block, or {@code null}.
+	 */
+	public CueSheet getCueSheet() {
+		return cueSheet;
+	}
+
+	/**
+	 * @param cueSheet the {@link CueSheet} to set.
+	 */
+	protected void setCueSheet(CueSheet cueSheet) {
+		this.cueSheet = cueSheet;
+	}
+
+	/**
+	 * @return The position in the file of the first audio frame, or
+	 *         {@code -1} if unknown.
+	 */
+	public long getAudioOffset() {
+		return audioOffset;
+	}
+
+	/**
+	 * @param audioOffset the position of the first audio frame to set.
+	 */
+	protected void setAudioOffset(long audioOffset) {
+		this.audioOffset = audioOffset;
+	}
+
+	/**
+	 * Creates a {@link FLACTrackIndex} that maps the tracks of the
+	 * {@link CueSheet} to positions in the file.
+	 *
+	 * @return The new {@link FLACTrackIndex} or {@code null} if there is no
+	 *         {@link StreamInfo}, {@link CueSheet} or audio offset, or if the
+	 *         {@link CueSheet} has more than one {@code FILE}.
+	 */
+	public FLACTrackIndex createTrackIndex() {
+		if (
+			streamInfo == null ||
+			streamInfo.getSampleRate() < 1 ||
+			cueSheet == null ||
+			cueSheet.getFileData().size() > 1 ||
+			audioOffset < 0
+		) {
+			return null;
+		}
+		return new FLACTrackIndex(this);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(getClass().getSimpleName()).append(" [");
+		if (file != null) {
+			sb.append("file=\"").append(file).append("\", ");
+		}
+		sb.append("streamInfo=").append(streamInfo);
+		if (vendor != null) {
+			sb.append(", vendor=").append(vendor);
+		}
+		sb.append(", comments=").append(comments.size());
+		if (!pictures.isEmpty()) {
+			sb.append(", pictures=").append(pictures);
+		}
+		if (seekTable != null) {
+			sb.append(", seekPoints=").append(seekTable.getCount());
+		}
+		sb.append(", cueSheet=").append(cueSheet != null)
+			.append(", audioOffset=").append(audioOffset).append("]");
+		return sb.toString();
+	}
+
+	/**
+	 * This class represents a {@code METADATA_BLOCK_PICTURE} without the
+	 * picture data.
+	 *
+	 * @author Nadahar
+	 */
+	public static class Picture {
+
+		private final int type;
+		private final String mimeType;
+		private final String description;
+		private final int width;
+		private final int height;
+		private final int colorDepth;
+		private final int colors;
+		private final long dataOffset;
+		private final int dataLength;
+
+		/**
+		 * Creates a new instance using the specified values.
+		 *
+		 * @param type the ID3v2 APIC picture type.
+		 * @param mimeType the MIME type.
+		 * @param description the description.
+		 * @param width the width in pixels.
+		 * @param height the height in pixels.
+		 * @param colorDepth the color depth in bits per pixel.
+		 * @param colors the number of colors for indexed pictures or
+		 *            {@code 0}.
+		 * @param dataOffset the position of the picture data in the file.
+		 * @param dataLength the length of the picture data.
+		 */
+		public Picture(
+			int type,
+			String mimeType,
+			String description,
+			int width,
+			int height,
+			int colorDepth,
+			int colors,
+			long dataOffset,
+			int dataLength
+		) {
+			this.type = type;
+			this.mimeType = mimeType;
+			this.description = description;
+			this.width = width;
+			this.height = height;
+			this.colorDepth = colorDepth;
+			this.colors = colors;
+			this.dataOffset = dataOffset;
+			this.dataLength = dataLength;
+		}
+
+		/**
+		 * @return The ID3v2 APIC picture type.
+		 */
+		public int getType() {
+			return type;
+		}
+
+		/**
+		 * @return The MIME type.
+		 */
+		public String getMimeType() {
+			return mimeType;
+		}
+
+		/**
+		 * @return The description.
+		 */
+		public String getDescription() {
+			return description;
+		}
+
+		/**
+		 * @return The width in pixels.
+		 */
+		public int getWidth() {
+			return width;
+		}
+
+		/**
+		 * @return The height in pixels.
+		 */
+		public int getHeight() {
+			return height;
+		}
+
+		/**
+		 * @return The color depth in bits per pixel.
+		 */
+		public int getColorDepth() {
+			return colorDepth;
+		}
+
+		/**
+		 * @return The number of colors for indexed pictures or {@code 0}.
+		 */
+		public int getColors() {
+			return colors;
+		}
+
+		/**
+		 * @return The position of the picture data in the file.
+		 */
+		public long getDataOffset() {
+			return dataOffset;
+		}
+
+		/**
+		 * @return The length of the picture data.
+		 */
+		public int getDataLength() {
+			return dataLength;
+		}
+
+		@Override
+		public String toString() {
+			return
+				"Picture [type=" + type + ", mimeType=" + mimeType + ", " + width + "x" + height +
+				", dataOffset=" + dataOffset + ", dataLength=" + dataLength + "]";
+		}
+	}
+
+	/**
+	 * This class represents the seek points of a {@code METADATA_BLOCK_SEEKTABLE}
+	 * without the placeholder points, sorted by sample number.
+	 *
+	 * @author Nadahar
+	 */
+	public static class SeekTable {
+
+		private final long[] sampleNumbers;
+		private final long[] offsets;
+		private final int[] frameSamples;
+
+		/**
+		 * Creates a new instance using the specified values. The arrays must
+		 * have the same length and be sorted by sample number.
+		 *
+		 * @param sampleNumbers the sample numbers of the first sample in the
+		 *            target frames.
+		 * @param offsets the offsets in bytes from the first audio frame to
+		 *            the target frames.
+		 * @param frameSamples the number of samples in the target frames.
+		 */
+		public SeekTable(long[] sampleNumbers, long[] offsets, int[] frameSamples) {
+			if (sampleNumbers.length != offsets.length || sampleNumbers.length != frameSamples.length) {
+				throw new IllegalArgumentException("The arrays must have the same length");
+			}
+			this.sampleNumbers = sampleNumbers;
+			this.offsets = offsets;
+			this.frameSamples = frameSamples;
+		}
+
+		/**
+		 * @return The number of seek points.
+		 */
+		public int getCount() {
+			return sampleNumbers.length;
+		}
+
+		/**
+		 * @param i the index of the seek point.
+		 * @return The sample number of the first sample in the target frame.
+		 */
+		public long getSampleNumber(int i) {
+			return sampleNumbers[i];
+		}
+
+		/**
+		 * @param i the index of the seek point.
+		 * @return The offset in bytes from the first audio frame to the target
+		 *         frame.
+		 */
+		public long getOffset(int i) {
+			return offsets[i];
+		}
+
+		/**
+		 * @param i the index of the seek point.
+		 * @return The number of samples in the target frame.
+		 */
+		public int getFrameSamples(int i) {
+			return frameSamples[i];
+		}
+
+		/**
+		 * Finds the last seek point at or before the specified sample.
+		 *
+		 * @param sampleNumber the sample number.
+		 * @return The index of the seek point or {@code -1} if there is none.
+		 */
+		public int find(long sampleNumber) {
+			int low = 0;
+			int high = sampleNumbers.length - 1;
+			int result = -1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				if (sampleNumbers[mid] <= sampleNumber) {
+					result = mid;
+					low = mid + 1;
+				} else {
+					high = mid - 1;
+				}
+			}
+			return result;
+		}
+
+		@Override
+		public String toString() {
+			return "SeekTable [count=" + sampleNumbers.length + "]";
+		}
+	}
+}
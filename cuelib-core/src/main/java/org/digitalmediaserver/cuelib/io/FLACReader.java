@@ -20,8 +20,6 @@ package org.digitalmediaserver.cuelib.io;
 
 import java.io.EOFException;
 import java.io.IOException;
-import java.io.LineNumberReader;
-import java.io.StringReader;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.ReadableByteChannel;
@@ -30,14 +28,16 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Locale;
 import org.digitalmediaserver.cuelib.CueParser;
 import org.digitalmediaserver.cuelib.CueSheet;
 import org.digitalmediaserver.cuelib.FileData;
 import org.digitalmediaserver.cuelib.Index;
 import org.digitalmediaserver.cuelib.Position;
 import org.digitalmediaserver.cuelib.TrackData;
+import org.digitalmediaserver.cuelib.io.FLACMetadata.Picture;
+import org.digitalmediaserver.cuelib.io.FLACMetadata.SeekTable;
 import org.digitalmediaserver.cuelib.util.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -64,9 +64,18 @@ import org.slf4j.LoggerFactory;
  * 2 kB and 4 kB will be optimal taking into consideration the typical size of
  * the FLAC metadata header.
  * <p>
+ * Alternatively, a prefetch size can be specified when creating an instance.
+ * The head of the source is then read into a buffer of that size with a
+ * single read, and the metadata blocks are parsed from there. More reads are
+ * only made for blocks that extend beyond the prefetched region. The number
+ * of reads and seeks made by an instance is available from
+ * {@link #getReadCount()} and {@link #getSeekCount()} for tuning purposes.
+ * <p>
  * To probe FLACs for cue sheets, simply call on of the static
  * {@code getCueSheet()} methods. If {@code null} is returned, no cue sheet was
- * found.
+ * found. To collect all the metadata in a single pass, call one of the static
+ * {@code getMetadata()} methods instead. To read without blocking, use
+ * {@link AsyncFLACReader}.
  *
  * @author Nadahar
  */
@@ -98,12 +107,39 @@ public class FLACReader {
 	/** The default file name to use for the {@code FILE} command */
 	public static final String DEFAULT_FILENAME = "self.flac";
 
+	/** The default prefetch size */
+	public static final int DEFAULT_PREFETCH_SIZE = 65536;
+
+	/** The minimum prefetch size */
+	public static final int MIN_PREFETCH_SIZE = 128;
+
+	/** The upper-case vorbis comment prefix for an embedded cue sheet */
+	protected static final byte[] CUESHEET_FIELD = "CUESHEET=".getBytes(StandardCharsets.US_ASCII);
+
 	/** The input */
 	protected final ReadableByteChannel byteChannel;
 
 	/** The FLAC file {@link Path} reference */
 	protected final Path file;
 
+	/**
+	 * The size of the buffer to allocate for reading the head of the source in
+	 * one operation, or {@code 0} to read as needed
+	 */
+	protected final int prefetchSize;
+
+	/** The position in the byte channel after the last read or seek */
+	protected long channelPosition;
+
+	/** The number of reads from the byte channel */
+	protected int readCount;
+
+	/** The number of seeks in the byte channel */
+	protected int seekCount;
+
+	/** The reusable array for strings that can't be decoded from the buffer directly */
+	protected byte[] stringBuffer;
+
 	/**
 	 * Tries to create a {@link CueSheet} from the FLAC metadata in the
 	 * specified {@link Path}.
@@ -212,6 +248,85 @@ public class FLACReader {
 		return byteChannel == null ? null : new FLACReader(byteChannel, file).extractCueSheet(buffer);
 	}
 
+	/**
+	 * Tries to create a {@link CueSheet} from the FLAC metadata in the
+	 * specified {@link Path}, reading the head of the file in one operation.
+	 *
+	 * @param file the {@link Path} to read from.
+	 * @param prefetchSize the number of bytes to read from the head of the
+	 *            file in one operation, at least {@value #MIN_PREFETCH_SIZE}.
+	 * @return The new {@link CueSheet} or {@code null} if none was found.
+	 * @throws IOException If an error occurs when opening the file.
+	 */
+	public static CueSheet getCueSheet(Path file, int prefetchSize) throws IOException {
+		if (file == null) {
+			return null;
+		}
+		try (SeekableByteChannel byteChannel = Files.newByteChannel(file)) {
+			return new FLACReader(byteChannel, file, prefetchSize).extractCueSheet(null);
+		}
+	}
+
+	/**
+	 * Collects the metadata from the specified FLAC file in a single pass.
+	 *
+	 * @param file the {@link Path} to read from.
+	 * @return The new {@link FLACMetadata} or {@code null} if {@code file}
+	 *         isn't a valid FLAC file.
+	 * @throws IOException If an error occurs when opening the file.
+	 */
+	public static FLACMetadata getMetadata(Path file) throws IOException {
+		return getMetadata(file, null);
+	}
+
+	/**
+	 * Collects the metadata from the specified FLAC file in a single pass.
+	 * <p>
+	 * If a {@link ByteBuffer} is specified, it will be used internally to read
+	 * from the file. This allows reuse of the buffer when scanning multiple
+	 * sources. All existing data in the {@link ByteBuffer} will be lost.
+	 *
+	 * @param file the {@link Path} to read from.
+	 * @param buffer the reusable {@link ByteBuffer} or {@code null} to have one
+	 *            created for this read instance.
+	 * @return The new {@link FLACMetadata} or {@code null} if {@code file}
+	 *         isn't a valid FLAC file.
+	 * @throws IOException If an error occurs when opening the file.
+	 */
+	public static FLACMetadata getMetadata(Path file, ByteBuffer buffer) throws IOException {
+		if (file == null) {
+			return null;
+		}
+		try (SeekableByteChannel byteChannel = Files.newByteChannel(file)) {
+			return new FLACReader(byteChannel, file).extractMetadata(buffer);
+		}
+	}
+
+	/**
+	 * Collects the metadata from the specified {@link ReadableByteChannel} in
+	 * a single pass. Picture positions are relative to the position of
+	 * {@code byteChannel} if it is a {@link SeekableByteChannel}, otherwise
+	 * they are relative to the point where reading started.
+	 * <p>
+	 * If a {@link ByteBuffer} is specified, it will be used internally to read
+	 * from the byte channel. This allows reuse of the buffer when scanning
+	 * multiple sources. All existing data in the {@link ByteBuffer} will be
+	 * lost.
+	 *
+	 * @param byteChannel the {@link ReadableByteChannel} to read from.
+	 * @param buffer the reusable {@link ByteBuffer} or {@code null} to have one
+	 *            created for this read instance.
+	 * @param file the {@link Path} to use for the {@code FILE} command in
+	 *            resulting the {@link CueSheet}, and for logging purposes. If
+	 *            {@code null}, {@value #DEFAULT_FILENAME} will be used if no
+	 *            {@code FILE} value is available in the cue sheet data.
+	 * @return The new {@link FLACMetadata} or {@code null} if the content
+	 *         isn't a valid FLAC stream.
+	 */
+	public static FLACMetadata getMetadata(ReadableByteChannel byteChannel, ByteBuffer buffer, Path file) {
+		return byteChannel == null ? null : new FLACReader(byteChannel, file).extractMetadata(buffer);
+	}
+
 	/**
 	 * Creates a new instance using the specified {@link ReadableByteChannel}.
 	 * The file in the resulting {@link CueSheet} will either be that specified
@@ -232,8 +347,53 @@ public class FLACReader {
 	 *            {@value #DEFAULT_FILENAME} is used.
 	 */
 	public FLACReader(ReadableByteChannel byteChannel, Path file) {
+		this(byteChannel, file, 0);
+	}
+
+	/**
+	 * Creates a new instance using the specified {@link ReadableByteChannel}
+	 * and prefetch size. The prefetch size only applies when no
+	 * {@link ByteBuffer} is specified when extracting.
+	 *
+	 * @param byteChannel the {@link ReadableByteChannel} to read from.
+	 * @param file the file to specify in the resulting {@link CueSheet}. If
+	 *            blank and nothing is specified in the cue sheet data itself,
+	 *            {@value #DEFAULT_FILENAME} is used.
+	 * @param prefetchSize the number of bytes to read from the head of the
+	 *            source in one operation, at least {@value #MIN_PREFETCH_SIZE},
+	 *            or {@code 0} to read as needed.
+	 * @throws IllegalArgumentException If {@code prefetchSize} is invalid.
+	 */
+	public FLACReader(ReadableByteChannel byteChannel, Path file, int prefetchSize) {
+		if (prefetchSize != 0 && prefetchSize < MIN_PREFETCH_SIZE) {
+			throw new IllegalArgumentException("Invalid prefetch size: " + prefetchSize);
+		}
 		this.byteChannel = byteChannel;
 		this.file = file;
+		this.prefetchSize = prefetchSize;
+	}
+
+	/**
+	 * @return The prefetch size or {@code 0} if prefetching is disabled.
+	 */
+	public int getPrefetchSize() {
+		return prefetchSize;
+	}
+
+	/**
+	 * @return The number of reads made from the underlying
+	 *         {@link ReadableByteChannel}.
+	 */
+	public int getReadCount() {
+		return readCount;
+	}
+
+	/**
+	 * @return The number of seeks made in the underlying
+	 *         {@link SeekableByteChannel}.
+	 */
+	public int getSeekCount() {
+		return seekCount;
 	}
 
 	/**
@@ -258,51 +418,135 @@ public class FLACReader {
 	 * @return The new {@link CueSheet} or {@code null} if none was found.
 	 */
 	public CueSheet extractCueSheet(ByteBuffer buffer) {
-		boolean selfAllocated;
+		try {
+			if (buffer != null) {
+				buffer.clear().limit(0);
+			}
+			initChannelPosition();
+			buffer = findStreamMarker(buffer);
+			return buffer == null ? null : findCueSheet(buffer);
+		} catch (IOException e) {
+			if (file == null) {
+				LOGGER.error("An error occurred while parsing cue sheet from FLAC metadata: {}", e.getMessage());
+			} else {
+				LOGGER.error(
+					"An error occurred while parsing cue sheet from FLAC metadata in \"{}\": {}",
+					file,
+					e.getMessage()
+				);
+			}
+			LOGGER.trace("", e);
+			return null;
+		} finally {
+			logCounts();
+		}
+	}
+
+	/**
+	 * Collects the FLAC metadata in a single pass, reading all the metadata
+	 * blocks except the picture data.
+	 * <p>
+	 * If a {@link ByteBuffer} is specified, it will be used internally to read
+	 * from the byte channel. This allows reuse of the buffer when scanning
+	 * multiple sources. All existing data in the {@link ByteBuffer} will be
+	 * lost.
+	 *
+	 * @param buffer the reusable {@link ByteBuffer} or {@code null} to have one
+	 *            created for this read instance.
+	 * @return The new {@link FLACMetadata} or {@code null} if the content
+	 *         isn't a valid FLAC stream.
+	 */
+	public FLACMetadata extractMetadata(ByteBuffer buffer) {
+		try {
+			if (buffer != null) {
+				buffer.clear().limit(0);
+			}
+			initChannelPosition();
+			buffer = findStreamMarker(buffer);
+			return buffer == null ? null : findMetadata(buffer);
+		} catch (IOException e) {
+			if (file == null) {
+				LOGGER.error("An error occurred while parsing FLAC metadata: {}", e.getMessage());
+			} else {
+				LOGGER.error("An error occurred while parsing FLAC metadata in \"{}\": {}", file, e.getMessage());
+			}
+			LOGGER.trace("", e);
+			return null;
+		} finally {
+			logCounts();
+		}
+	}
+
+	/**
+	 * Initializes {@link #channelPosition} from the underlying
+	 * {@link SeekableByteChannel}, or to {@code 0} if it isn't seekable.
+	 *
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	protected void initChannelPosition() throws IOException {
+		channelPosition = byteChannel instanceof SeekableByteChannel ?
+			((SeekableByteChannel) byteChannel).position() :
+			0L;
+	}
+
+	/**
+	 * Logs the number of reads and seeks made so far at trace level.
+	 */
+	protected void logCounts() {
+		if (LOGGER.isTraceEnabled()) {
+			if (file == null) {
+				LOGGER.trace("Read FLAC metadata using {} reads and {} seeks", readCount, seekCount);
+			} else {
+				LOGGER.trace("Read FLAC metadata in \"{}\" using {} reads and {} seeks", file, readCount, seekCount);
+			}
+		}
+	}
+
+	/**
+	 * Reads until the end of the {@code fLaC} stream marker, skipping any
+	 * leading {@code ID3v2} tag.
+	 *
+	 * @param buffer the {@link ByteBuffer} to use or {@code null} to have one
+	 *            allocated. If {@link #prefetchSize} is set, the allocated
+	 *            buffer will be of that size.
+	 * @return The {@link ByteBuffer} to use for further reading, or
+	 *         {@code null} if the stream marker wasn't found.
+	 * @throws IOException If an error occurred during the operation.
+	 */
+	protected ByteBuffer findStreamMarker(ByteBuffer buffer) throws IOException {
+		boolean replaceBuffer;
 		if (buffer == null) {
-			selfAllocated = true;
-			buffer = ByteBuffer.allocateDirect(3);
+			replaceBuffer = prefetchSize == 0;
+			buffer = ByteBuffer.allocateDirect(replaceBuffer ? 3 : prefetchSize);
 			buffer.limit(0);
 		} else {
-			selfAllocated = false;
+			replaceBuffer = false;
 		}
 		buffer.order(ByteOrder.BIG_ENDIAN);
-		try {
+		for (;;) {
 			ensureAvailable(buffer, 3);
 			byte b = buffer.get();
 			if (b == 'f' && buffer.get() == 'L' && buffer.get() == 'a') {
-				if (selfAllocated) {
+				if (replaceBuffer) {
 					buffer = ByteBuffer.allocateDirect(2048);
 					buffer.order(ByteOrder.BIG_ENDIAN);
 					buffer.limit(0);
 				}
 				ensureAvailable(buffer, 1);
-				if (buffer.get() != 'C') {
-					return null;
-				}
-				return findCueSheet(buffer);
+				return buffer.get() == 'C' ? buffer : null;
 			} else if (b == 'I' && buffer.get() == 'D' && buffer.get() == '3') {
-				if (selfAllocated) {
+				if (replaceBuffer) {
 					buffer = ByteBuffer.allocateDirect(4096);
 					buffer.order(ByteOrder.BIG_ENDIAN);
 					buffer.limit(0);
+					replaceBuffer = false;
+				}
+				if (!skipID3v2(buffer)) {
+					return null;
 				}
-				return skipID3v2(buffer) ? extractCueSheet(buffer) : null;
 			} else {
 				return null;
 			}
-		} catch (IOException e) {
-			if (file == null) {
-				LOGGER.error("An error occurred while parsing cue sheet from FLAC metadata: {}", e.getMessage());
-			} else {
-				LOGGER.error(
-					"An error occurred while parsing cue sheet from FLAC metadata in \"{}\": {}",
-					file,
-					e.getMessage()
-				);
-			}
-			LOGGER.trace("", e);
-			return null;
 		}
 	}
 
@@ -375,6 +619,60 @@ public class FLACReader {
 		}
 	}
 
+	/**
+	 * Iterates through all the FLAC metadata blocks and collects the
+	 * information from them.
+	 *
+	 * @param buffer the {@link ByteBuffer} to use.
+	 * @return The new {@link FLACMetadata}.
+	 * @throws IOException If an error occurred during the operation.
+	 */
+	protected FLACMetadata findMetadata(ByteBuffer buffer) throws IOException {
+		FLACMetadata result = new FLACMetadata(file);
+		byte blockHeader;
+		for (;;) {
+			ensureAvailable(buffer, 4);
+			blockHeader = buffer.get();
+			int blockType = blockHeader & 0x7F;
+			int size = ((buffer.get() & 0xFF) << 16) | ((buffer.get() & 0xFF) << 8) | buffer.get() & 0xFF;
+			long blockEnd = getStreamPosition(buffer) + size;
+			int read = 0;
+			switch (blockType) {
+				case STREAMINFO:
+					result.setStreamInfo(parseStreamInfoBlock(buffer));
+					read = size;
+					break;
+				case SEEKTABLE:
+					result.setSeekTable(parseSeekTableBlock(buffer, size));
+					read = size - size % 18;
+					break;
+				case VORBIS_COMMENT:
+					read = parseVorbisComments(buffer, size, result);
+					buffer.order(ByteOrder.BIG_ENDIAN);
+					break;
+				case CUESHEET:
+					if (result.getStreamInfo() != null) {
+						CueSheetResult cueSheetResult = parseCuesheetBlock(buffer, result.getStreamInfo());
+						if (cueSheetResult.getCueSheet() != null) {
+							result.setCueSheet(cueSheetResult.getCueSheet());
+						}
+						read = cueSheetResult.getReadLength();
+					}
+					break;
+				case PICTURE:
+					read = parsePictureBlock(buffer, size, result);
+					break;
+				default:
+					break;
+			}
+			if (isLastBlock(blockHeader)) {
+				result.setAudioOffset(blockEnd);
+				return result;
+			}
+			skip(buffer, size - read);
+		}
+	}
+
 	/**
 	 * Parses the {@code METADATA_BLOCK_STREAMINFO}.
 	 *
@@ -383,16 +681,170 @@ public class FLACReader {
 	 * @throws IOException If an error occurred during the operation.
 	 */
 	protected StreamInfo parseStreamInfoBlock(ByteBuffer buffer) throws IOException {
-		skip(buffer, 10);
-		ensureAvailable(buffer, 4);
+		ensureAvailable(buffer, 34);
 		int pos = buffer.position();
+		int minBlockSize = buffer.getShort(pos) & 0xFFFF;
+		int maxBlockSize = buffer.getShort(pos + 2) & 0xFFFF;
+		int minFrameSize =
+			((buffer.get(pos + 4) & 0xFF) << 16) |
+			((buffer.get(pos + 5) & 0xFF) << 8) |
+			buffer.get(pos + 6) & 0xFF;
+		int maxFrameSize =
+			((buffer.get(pos + 7) & 0xFF) << 16) |
+			((buffer.get(pos + 8) & 0xFF) << 8) |
+			buffer.get(pos + 9) & 0xFF;
 		int sampleRate =
-			((buffer.get(pos) & 0xFF) << 12) |
-			((buffer.get(pos + 1) & 0xFF) << 4) |
-			((buffer.get(pos + 2) & 0xF0) >> 4);
-		int bitsPerSample = ((buffer.get(pos + 2) & 1) << 4) | ((buffer.get(pos + 3) & 0xF0) >> 4) + 1;
-		skip(buffer, 24);
-		return new StreamInfo(sampleRate, bitsPerSample);
+			((buffer.get(pos + 10) & 0xFF) << 12) |
+			((buffer.get(pos + 11) & 0xFF) << 4) |
+			((buffer.get(pos + 12) & 0xF0) >> 4);
+		int channels = ((buffer.get(pos + 12) & 0x0E) >> 1) + 1;
+		int bitsPerSample = (((buffer.get(pos + 12) & 1) << 4) | ((buffer.get(pos + 13) & 0xF0) >> 4)) + 1;
+		long totalSamples = ((buffer.get(pos + 13) & 0x0FL) << 32) | (buffer.getInt(pos + 14) & 0xFFFFFFFFL);
+		byte[] md5 = new byte[16];
+		buffer.position(pos + 18);
+		buffer.get(md5);
+		return new StreamInfo(
+			minBlockSize,
+			maxBlockSize,
+			minFrameSize,
+			maxFrameSize,
+			sampleRate,
+			channels,
+			bitsPerSample,
+			totalSamples,
+			md5
+		);
+	}
+
+	/**
+	 * Parses the {@code METADATA_BLOCK_SEEKTABLE}. Placeholder points are
+	 * left out.
+	 *
+	 * @param buffer the {@link ByteBuffer} to use.
+	 * @param size the size of the block.
+	 * @return The resulting {@link SeekTable}.
+	 * @throws IOException If an error occurred during the operation.
+	 */
+	protected SeekTable parseSeekTableBlock(ByteBuffer buffer, int size) throws IOException {
+		int numPoints = size / 18;
+		long[] sampleNumbers = new long[numPoints];
+		long[] offsets = new long[numPoints];
+		int[] frameSamples = new int[numPoints];
+		int count = 0;
+		for (int i = 0; i < numPoints; i++) {
+			ensureAvailable(buffer, 18);
+			long sampleNumber = buffer.getLong();
+			long offset = buffer.getLong();
+			int samples = buffer.getShort() & 0xFFFF;
+			if (sampleNumber != -1L) {
+				sampleNumbers[count] = sampleNumber;
+				offsets[count] = offset;
+				frameSamples[count] = samples;
+				count++;
+			}
+		}
+		if (count < numPoints) {
+			sampleNumbers = Arrays.copyOf(sampleNumbers, count);
+			offsets = Arrays.copyOf(offsets, count);
+			frameSamples = Arrays.copyOf(frameSamples, count);
+		}
+		return new SeekTable(sampleNumbers, offsets, frameSamples);
+	}
+
+	/**
+	 * Parses the {@code METADATA_BLOCK_VORBIS_COMMENT} and adds the vendor
+	 * string and all the comments to the specified {@link FLACMetadata}. A
+	 * {@code CUESHEET} comment is also parsed if {@code metadata} doesn't
+	 * already have a {@link CueSheet}.
+	 *
+	 * @param buffer the {@link ByteBuffer} to use.
+	 * @param size the size of the block.
+	 * @param metadata the {@link FLACMetadata} to add to.
+	 * @return The number of bytes read.
+	 * @throws IOException If an error occurred during the operation.
+	 */
+	protected int parseVorbisComments(ByteBuffer buffer, int size, FLACMetadata metadata) throws IOException {
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		int read = 0;
+		ensureAvailable(buffer, 4);
+		int length = buffer.getInt();
+		read += 4;
+		checkLength(length, size - read);
+		metadata.setVendor(readString(buffer, StandardCharsets.UTF_8, length, false, false));
+		read += length;
+		ensureAvailable(buffer, 4);
+		int numComments = buffer.getInt();
+		read += 4;
+		for (int i = 0; i < numComments; i++) {
+			ensureAvailable(buffer, 4);
+			length = buffer.getInt();
+			read += 4;
+			checkLength(length, size - read);
+			read += length;
+			if (metadata.getCueSheet() == null && length > CUESHEET_FIELD.length) {
+				ensureAvailable(buffer, CUESHEET_FIELD.length);
+				if (matchesIgnoreCase(buffer, CUESHEET_FIELD)) {
+					buffer.position(buffer.position() + CUESHEET_FIELD.length);
+					ByteBuffer value = readBytes(buffer, length - CUESHEET_FIELD.length);
+					metadata.addComment("CUESHEET", StandardCharsets.UTF_8.decode(value.duplicate()).toString());
+					metadata.setCueSheet(parseVorbisCueSheet(value));
+					continue;
+				}
+			}
+			String comment = readString(buffer, StandardCharsets.UTF_8, length, false, false);
+			int idx = comment.indexOf('=');
+			if (idx > 0) {
+				metadata.addComment(comment.substring(0, idx), comment.substring(idx + 1));
+			}
+		}
+		return read;
+	}
+
+	/**
+	 * Parses the {@code METADATA_BLOCK_PICTURE} without reading the picture
+	 * data, and adds the result to the specified {@link FLACMetadata}.
+	 *
+	 * @param buffer the {@link ByteBuffer} to use.
+	 * @param size the size of the block.
+	 * @param metadata the {@link FLACMetadata} to add to.
+	 * @return The number of bytes read.
+	 * @throws IOException If an error occurred during the operation.
+	 */
+	protected int parsePictureBlock(ByteBuffer buffer, int size, FLACMetadata metadata) throws IOException {
+		int read = 0;
+		ensureAvailable(buffer, 8);
+		int type = buffer.getInt();
+		int length = buffer.getInt();
+		read += 8;
+		checkLength(length, size - read);
+		String mimeType = readString(buffer, StandardCharsets.US_ASCII, length, false, false);
+		read += length;
+		ensureAvailable(buffer, 4);
+		length = buffer.getInt();
+		read += 4;
+		checkLength(length, size - read);
+		String description = readString(buffer, StandardCharsets.UTF_8, length, false, false);
+		read += length;
+		ensureAvailable(buffer, 20);
+		int width = buffer.getInt();
+		int height = buffer.getInt();
+		int colorDepth = buffer.getInt();
+		int colors = buffer.getInt();
+		length = buffer.getInt();
+		read += 20;
+		checkLength(length, size - read);
+		metadata.addPicture(new Picture(
+			type,
+			mimeType,
+			description,
+			width,
+			height,
+			colorDepth,
+			colors,
+			getStreamPosition(buffer),
+			length
+		));
+		return read;
 	}
 
 	/**
@@ -434,6 +886,7 @@ public class FLACReader {
 				long trackOffsetSamples = buffer.getLong();
 				read += 8;
 				TrackData track = new TrackData(fileData, buffer.get() & 0xFF, "AUDIO");
+				track.setSampleOffset(trackOffsetSamples);
 				read++;
 				track.setIsrcCode(readString(buffer, StandardCharsets.US_ASCII, 12, true, true));
 				read += 12;
@@ -456,6 +909,7 @@ public class FLACReader {
 					read += 12;
 					Position position = new Position(trackOffsetSamples + offsetSamples, streamInfo.getSampleRate());
 					Index index = new Index(indexNo, position);
+					index.setSampleOffset(trackOffsetSamples + offsetSamples);
 					track.getIndices().add(index);
 				}
 				int trackNo = track.getNumber();
@@ -488,18 +942,17 @@ public class FLACReader {
 		length = buffer.getInt();
 		read += 4;
 		int commentLength;
-		byte[] commentID = new byte[9];
 		for (int i = 0; i < length; i++) {
 			ensureAvailable(buffer, 4);
 			commentLength = buffer.getInt();
 			read += 4 + commentLength;
-			if (commentLength > 9) {
-				ensureAvailable(buffer, 9);
-				buffer.get(commentID);
-				if (!"CUESHEET=".equals(new String(commentID, StandardCharsets.US_ASCII).toUpperCase(Locale.ROOT))) {
-					skip(buffer, commentLength - 9);
+			if (commentLength > CUESHEET_FIELD.length) {
+				ensureAvailable(buffer, CUESHEET_FIELD.length);
+				if (!matchesIgnoreCase(buffer, CUESHEET_FIELD)) {
+					skip(buffer, commentLength);
 					continue;
 				}
+				buffer.position(buffer.position() + CUESHEET_FIELD.length);
 				if (LOGGER.isDebugEnabled()) {
 					if (file == null) {
 						LOGGER.debug("Parsing cue sheet from the FLAC VORBIS_COMMENTCUESHEET block");
@@ -507,22 +960,10 @@ public class FLACReader {
 						LOGGER.debug("Parsing cue sheet from the FLAC VORBIS_COMMENTCUESHEET block in \"{}\"", file);
 					}
 				}
-				try (
-					LineNumberReader reader = new LineNumberReader(new StringReader(
-						readString(buffer, StandardCharsets.UTF_8, commentLength - 9, false, false)
-				))) {
-					CueSheet result = CueParser.parse(reader, file);
-					if (file != null) {
-						Path fileName = file.getFileName();
-						if (fileName != null) {
-							String fileNameStr = fileName.toString();
-							for (FileData fileData : result.getFileData()) {
-								fileData.setFile(fileNameStr);
-							}
-						}
-					}
-					return new CueSheetResult(result, read);
-				}
+				return new CueSheetResult(
+					parseVorbisCueSheet(readBytes(buffer, commentLength - CUESHEET_FIELD.length)),
+					read
+				);
 			}
 			skip(buffer, commentLength);
 		}
@@ -530,6 +971,38 @@ public class FLACReader {
 		return new CueSheetResult(null, read);
 	}
 
+	/**
+	 * Parses the UTF-8 value of a {@code CUESHEET} vorbis comment directly
+	 * from the bytes. The {@code FILE} values are replaced with the name of
+	 * the FLAC file if it is known.
+	 *
+	 * @param cueSheet the {@link ByteBuffer} with the cue sheet between its
+	 *            position and limit. The position might be changed.
+	 * @return The resulting {@link CueSheet}.
+	 */
+	protected CueSheet parseVorbisCueSheet(ByteBuffer cueSheet) {
+		int pos = cueSheet.position();
+		if (
+			cueSheet.remaining() >= 3 &&
+			cueSheet.get(pos) == (byte) 0xEF &&
+			cueSheet.get(pos + 1) == (byte) 0xBB &&
+			cueSheet.get(pos + 2) == (byte) 0xBF
+		) {
+			cueSheet.position(pos + 3);
+		}
+		CueSheet result = CueParser.parse(cueSheet, StandardCharsets.UTF_8, file);
+		if (file != null) {
+			Path fileName = file.getFileName();
+			if (fileName != null) {
+				String fileNameStr = fileName.toString();
+				for (FileData fileData : result.getFileData()) {
+					fileData.setFile(fileNameStr);
+				}
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Skips over an {@code ID3v2} tag.
 	 *
@@ -578,7 +1051,7 @@ public class FLACReader {
 		buffer.compact();
 		int count;
 		while (available < length) {
-			count = byteChannel.read(buffer);
+			count = read(buffer);
 			if (count < 0) {
 				throw new EOFException("The required number of bytes (" + length + " ) isn't available");
 			}
@@ -623,7 +1096,9 @@ public class FLACReader {
 		if (byteChannel instanceof SeekableByteChannel) {
 			// The fast way
 			SeekableByteChannel seekable = (SeekableByteChannel) byteChannel;
-			seekable.position(seekable.position() - buffer.remaining() + count);
+			channelPosition = channelPosition - buffer.remaining() + count;
+			seekable.position(channelPosition);
+			seekCount++;
 			buffer.position(0);
 			buffer.limit(0);
 			return;
@@ -641,7 +1116,7 @@ public class FLACReader {
 			}
 			if (remainingSkip > 0) {
 				buffer.clear();
-				if (byteChannel.read(buffer) == -1) {
+				if (read(buffer) == -1) {
 					throw new EOFException("The required number of bytes (" + count + " ) isn't available");
 				}
 				buffer.flip();
@@ -675,35 +1150,154 @@ public class FLACReader {
 		if (byteLength < 1) {
 			return returnNull ? null : "";
 		}
-		byte[] bytes = new byte[byteLength];
-		int pos = 0;
-		for (int remainingBytes = byteLength; remainingBytes > 0;) {
-			if (remainingBytes <= buffer.remaining()) {
-				buffer.get(bytes, pos, remainingBytes);
-				break;
-			}
-			if (buffer.remaining() > 0) {
-				int available = buffer.remaining();
-				remainingBytes -= available;
-				buffer.get(bytes, pos, available);
-				pos += available;
+		byte[] bytes;
+		int offset;
+		if (byteLength <= buffer.remaining() && buffer.hasArray()) {
+			// Decode directly from the backing array
+			bytes = buffer.array();
+			offset = buffer.arrayOffset() + buffer.position();
+			buffer.position(buffer.position() + byteLength);
+		} else {
+			if (stringBuffer == null || stringBuffer.length < byteLength) {
+				stringBuffer = new byte[Math.max(byteLength, 256)];
 			}
-			if (remainingBytes > 0) {
-				buffer.clear();
-				byteChannel.read(buffer);
-				buffer.flip();
+			bytes = stringBuffer;
+			offset = 0;
+			int pos = 0;
+			for (int remainingBytes = byteLength; remainingBytes > 0;) {
+				if (remainingBytes <= buffer.remaining()) {
+					buffer.get(bytes, pos, remainingBytes);
+					break;
+				}
+				if (buffer.remaining() > 0) {
+					int available = buffer.remaining();
+					remainingBytes -= available;
+					buffer.get(bytes, pos, available);
+					pos += available;
+				}
+				if (remainingBytes > 0) {
+					buffer.clear();
+					if (read(buffer) == -1) {
+						throw new EOFException("The required number of bytes (" + byteLength + " ) isn't available");
+					}
+					buffer.flip();
+				}
 			}
 		}
+		int length = byteLength;
 		if (nullTerminated) {
-			for (int i = bytes.length; i > 0; i--) {
-				if (bytes[i - 1] != 0) {
-					return new String(bytes, 0, i, charset);
-				}
+			while (length > 0 && bytes[offset + length - 1] == 0) {
+				length--;
 			}
-			return returnNull ? null : "";
+			if (length == 0) {
+				return returnNull ? null : "";
+			}
+		}
+
+		return new String(bytes, offset, length, charset);
+	}
+
+	/**
+	 * Reads the specified number of bytes. If they are all available in the
+	 * specified {@link ByteBuffer}, a view of that region is returned without
+	 * copying, and it's only valid until {@code buffer} is used again.
+	 * Otherwise, a new {@link ByteBuffer} is allocated and filled.
+	 *
+	 * @param buffer the {@link ByteBuffer} to read from.
+	 * @param length the number of bytes to read.
+	 * @return The {@link ByteBuffer} with the bytes between its position and
+	 *         limit.
+	 * @throws EOFException If the source doesn't contain the required number of
+	 *             bytes.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	protected ByteBuffer readBytes(ByteBuffer buffer, int length) throws IOException {
+		if (length <= buffer.remaining()) {
+			ByteBuffer result = buffer.slice();
+			result.limit(length);
+			buffer.position(buffer.position() + length);
+			return result;
+		}
+		ByteBuffer result = ByteBuffer.allocate(length);
+		result.put(buffer);
+		while (result.hasRemaining()) {
+			if (read(result) == -1) {
+				throw new EOFException("The required number of bytes (" + length + " ) isn't available");
+			}
+		}
+		result.flip();
+		return result;
+	}
+
+	/**
+	 * Checks if the bytes at the position of the specified {@link ByteBuffer}
+	 * match the specified upper-case ASCII bytes, ignoring the case of ASCII
+	 * letters. Neither the position of {@code buffer} is changed nor is
+	 * anything allocated.
+	 *
+	 * @param buffer the {@link ByteBuffer} with at least
+	 *            {@code upperCase.length} bytes remaining.
+	 * @param upperCase the upper-case ASCII bytes to match.
+	 * @return {@code true} if the bytes match, {@code false} otherwise.
+	 */
+	protected static boolean matchesIgnoreCase(ByteBuffer buffer, byte[] upperCase) {
+		int pos = buffer.position();
+		for (int i = 0; i < upperCase.length; i++) {
+			int b = buffer.get(pos + i);
+			if (b >= 'a' && b <= 'z') {
+				b -= 'a' - 'A';
+			}
+			if (b != upperCase[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Reads from the underlying {@link ReadableByteChannel} into the specified
+	 * {@link ByteBuffer} and keeps track of the channel position and the
+	 * number of reads.
+	 *
+	 * @param buffer the {@link ByteBuffer} to read into.
+	 * @return The number of bytes read or {@code -1} if the end of the stream
+	 *         has been reached.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	protected int read(ByteBuffer buffer) throws IOException {
+		int count = byteChannel.read(buffer);
+		readCount++;
+		if (count > 0) {
+			channelPosition += count;
 		}
+		return count;
+	}
+
+	/**
+	 * Returns the position in the stream of the next byte to be read from the
+	 * specified {@link ByteBuffer}.
+	 *
+	 * @param buffer the {@link ByteBuffer}.
+	 * @return The stream position.
+	 */
+	protected long getStreamPosition(ByteBuffer buffer) {
+		return channelPosition - buffer.remaining();
+	}
 
-		return new String(bytes, charset);
+	/**
+	 * Verifies that a length field read from a metadata block is within the
+	 * remainder of the block.
+	 *
+	 * @param length the length to verify.
+	 * @param remaining the number of bytes remaining in the block.
+	 * @throws IOException If {@code length} is invalid.
+	 */
+	protected static void checkLength(int length, int remaining) throws IOException {
+		if (length < 0 || length > remaining) {
+			throw new IOException(
+				"Invalid length " + (length & 0xFFFFFFFFL) + " in a block with " + remaining + " bytes left"
+			);
+		}
 	}
 
 	/**
@@ -719,24 +1313,98 @@ public class FLACReader {
 	}
 
 	/**
-	 * This class represents a subset of {@code METADATA_BLOCK_STREAMINFO}.
+	 * This class represents {@code METADATA_BLOCK_STREAMINFO}.
 	 *
 	 * @author Nadahar
 	 */
-	protected static class StreamInfo {
+	public static class StreamInfo {
 
+		private final int minBlockSize;
+		private final int maxBlockSize;
+		private final int minFrameSize;
+		private final int maxFrameSize;
 		private final int sampleRate;
+		private final int channels;
 		private final int bitsPerSample;
+		private final long totalSamples;
+		private final byte[] md5;
 
 		/**
-		 * Creates a new instance using the specified values.
+		 * Creates a new instance using the specified values. The remaining
+		 * values will be unknown.
 		 *
 		 * @param sampleRate the number of samples per second.
 		 * @param bitsPerSample the number of bits per sample.
 		 */
 		public StreamInfo(int sampleRate, int bitsPerSample) {
+			this(0, 0, 0, 0, sampleRate, 0, bitsPerSample, 0L, null);
+		}
+
+		/**
+		 * Creates a new instance using the specified values.
+		 *
+		 * @param minBlockSize the minimum block size in samples.
+		 * @param maxBlockSize the maximum block size in samples.
+		 * @param minFrameSize the minimum frame size in bytes or {@code 0} if
+		 *            unknown.
+		 * @param maxFrameSize the maximum frame size in bytes or {@code 0} if
+		 *            unknown.
+		 * @param sampleRate the number of samples per second.
+		 * @param channels the number of channels.
+		 * @param bitsPerSample the number of bits per sample.
+		 * @param totalSamples the total number of samples per channel or
+		 *            {@code 0} if unknown.
+		 * @param md5 the MD5 signature of the unencoded audio data or
+		 *            {@code null}.
+		 */
+		public StreamInfo(
+			int minBlockSize,
+			int maxBlockSize,
+			int minFrameSize,
+			int maxFrameSize,
+			int sampleRate,
+			int channels,
+			int bitsPerSample,
+			long totalSamples,
+			byte[] md5
+		) {
+			this.minBlockSize = minBlockSize;
+			this.maxBlockSize = maxBlockSize;
+			this.minFrameSize = minFrameSize;
+			this.maxFrameSize = maxFrameSize;
 			this.sampleRate = sampleRate;
+			this.channels = channels;
 			this.bitsPerSample = bitsPerSample;
+			this.totalSamples = totalSamples;
+			this.md5 = md5;
+		}
+
+		/**
+		 * @return The minimum block size in samples.
+		 */
+		public int getMinBlockSize() {
+			return minBlockSize;
+		}
+
+		/**
+		 * @return The maximum block size in samples.
+		 */
+		public int getMaxBlockSize() {
+			return maxBlockSize;
+		}
+
+		/**
+		 * @return The minimum frame size in bytes or {@code 0} if unknown.
+		 */
+		public int getMinFrameSize() {
+			return minFrameSize;
+		}
+
+		/**
+		 * @return The maximum frame size in bytes or {@code 0} if unknown.
+		 */
+		public int getMaxFrameSize() {
+			return maxFrameSize;
 		}
 
 		/**
@@ -746,6 +1414,13 @@ public class FLACReader {
 			return sampleRate;
 		}
 
+		/**
+		 * @return The number of channels.
+		 */
+		public int getChannels() {
+			return channels;
+		}
+
 		/**
 		 * @return The number of bits per sample.
 		 */
@@ -753,12 +1428,53 @@ public class FLACReader {
 			return bitsPerSample;
 		}
 
+		/**
+		 * @return The total number of samples per channel or {@code 0} if
+		 *         unknown.
+		 */
+		public long getTotalSamples() {
+			return totalSamples;
+		}
+
+		/**
+		 * @return A copy of the MD5 signature of the unencoded audio data or
+		 *         {@code null}.
+		 */
+		public byte[] getMD5() {
+			return md5 == null ? null : md5.clone();
+		}
+
+		/**
+		 * @return The MD5 signature of the unencoded audio data as a
+		 *         hexadecimal {@link String} or {@code null}.
+		 */
+		public String getMD5String() {
+			if (md5 == null) {
+				return null;
+			}
+			StringBuilder sb = new StringBuilder(md5.length * 2);
+			for (byte b : md5) {
+				sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return sb.toString();
+		}
+
 		@Override
 		public String toString() {
 			StringBuilder builder = new StringBuilder();
 			builder
 				.append("StreamInfo [sampleRate=").append(sampleRate)
-				.append(", bitsPerSample=").append(bitsPerSample).append("]");
+				.append(", bitsPerSample=").append(bitsPerSample);
+			if (channels > 0) {
+				builder.append(", channels=").append(channels);
+			}
+			if (totalSamples > 0) {
+				builder.append(", totalSamples=").append(totalSamples);
+			}
+			if (md5 != null) {
+				builder.append(", md5=").append(getMD5String());
+			}
+			builder.append("]");
 			return builder.toString();
 		}
 	}
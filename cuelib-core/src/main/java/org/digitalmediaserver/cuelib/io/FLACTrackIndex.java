@@ -0,0 +1,251 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.io;
+
+import java.util.Arrays;
+import java.util.List;
+import org.digitalmediaserver.cuelib.CueSheet;
+import org.digitalmediaserver.cuelib.Index;
+import org.digitalmediaserver.cuelib.TrackData;
+import org.digitalmediaserver.cuelib.io.FLACMetadata.SeekTable;
+import org.digitalmediaserver.cuelib.io.FLACReader.StreamInfo;
+
+
+/**
+ * A random-access lookup from the tracks of a FLAC file with an embedded cue
+ * sheet to positions in the file. For each track, it holds the exact start
+ * and end samples and the file position of the closest frame at or before the
+ * start, found using the {@code SEEKTABLE} block. A player can jump to a track
+ * by reading from {@link #getByteOffset(int)} and discarding
+ * {@link #getSkipSamples(int)} decoded samples.
+ * <p>
+ * The exact sample offsets are used when the tracks come from a
+ * {@code CUESHEET} block. Otherwise, they are calculated from the
+ * {@link org.digitalmediaserver.cuelib.Position}s, which have a resolution of
+ * 1/75 second. Tracks without a start {@link Index} are left out, and the
+ * tracks are ordered by their start samples. Cue sheets with more than one
+ * {@code FILE} aren't supported, since their positions are relative to
+ * different files.
+ *
+ * @author Nadahar
+ */
+public class FLACTrackIndex {
+
+	/** The track numbers */
+	protected final int[] trackNumbers;
+
+	/** The first sample of each track */
+	protected final long[] startSamples;
+
+	/** The sample following the last sample of each track or {@code -1} */
+	protected final long[] endSamples;
+
+	/** The file position of the frame to start decoding from for each track */
+	protected final long[] byteOffsets;
+
+	/** The first sample of the frame at {@link #byteOffsets} for each track */
+	protected final long[] frameSamples;
+
+	/** The number of samples per second */
+	protected final int sampleRate;
+
+	/**
+	 * Creates a new instance from the specified {@link FLACMetadata}.
+	 *
+	 * @param metadata the {@link FLACMetadata} to use.
+	 * @throws IllegalArgumentException If {@code metadata} doesn't have a
+	 *             {@link StreamInfo}, a {@link CueSheet} and a known audio
+	 *             offset, or if the {@link CueSheet} has more than one
+	 *             {@code FILE}.
+	 */
+	public FLACTrackIndex(FLACMetadata metadata) {
+		StreamInfo streamInfo = metadata.getStreamInfo();
+		CueSheet cueSheet = metadata.getCueSheet();
+		long audioOffset = metadata.getAudioOffset();
+		if (streamInfo == null || streamInfo.getSampleRate() < 1 || cueSheet == null || audioOffset < 0) {
+			throw new IllegalArgumentException("The metadata must have a stream info, a cue sheet and an audio offset");
+		}
+		if (cueSheet.getFileData().size() > 1) {
+			throw new IllegalArgumentException("Cue sheets with more than one file aren't supported");
+		}
+		sampleRate = streamInfo.getSampleRate();
+		List<TrackData> tracks = cueSheet.getAllTrackData();
+		int count = 0;
+		long[][] starts = new long[tracks.size()][];
+		for (TrackData track : tracks) {
+			long startSample = getStartSample(track.getStartIndex(), sampleRate);
+			if (startSample >= 0) {
+				starts[count++] = new long[] {startSample, track.getNumber()};
+			}
+		}
+		// Stable, so tracks with the same start keep their order
+		Arrays.sort(starts, 0, count, (o1, o2) -> Long.compare(o1[0], o2[0]));
+		trackNumbers = new int[count];
+		startSamples = new long[count];
+		for (int i = 0; i < count; i++) {
+			startSamples[i] = starts[i][0];
+			trackNumbers[i] = (int) starts[i][1];
+		}
+		endSamples = new long[count];
+		byteOffsets = new long[count];
+		frameSamples = new long[count];
+		SeekTable seekTable = metadata.getSeekTable();
+		long totalSamples = streamInfo.getTotalSamples();
+		for (int i = 0; i < count; i++) {
+			if (i + 1 < count) {
+				endSamples[i] = startSamples[i + 1];
+			} else {
+				endSamples[i] = totalSamples > 0 ? totalSamples : -1;
+			}
+			int seekPoint = seekTable == null ? -1 : seekTable.find(startSamples[i]);
+			if (seekPoint < 0) {
+				byteOffsets[i] = audioOffset;
+				frameSamples[i] = 0;
+			} else {
+				byteOffsets[i] = audioOffset + seekTable.getOffset(seekPoint);
+				frameSamples[i] = seekTable.getSampleNumber(seekPoint);
+			}
+		}
+	}
+
+	/**
+	 * Returns the first sample of the specified start {@link Index}.
+	 *
+	 * @param index the start {@link Index} or {@code null}.
+	 * @param sampleRate the number of samples per second.
+	 * @return The sample offset or {@code -1} if unknown.
+	 */
+	protected static long getStartSample(Index index, int sampleRate) {
+		if (index == null) {
+			return -1;
+		}
+		if (index.getSampleOffset() >= 0) {
+			return index.getSampleOffset();
+		}
+		if (index.getPosition() == null) {
+			return -1;
+		}
+		return (long) index.getPosition().getTotalFrames() * sampleRate / 75;
+	}
+
+	/**
+	 * @return The number of tracks.
+	 */
+	public int getTrackCount() {
+		return trackNumbers.length;
+	}
+
+	/**
+	 * @return The number of samples per second.
+	 */
+	public int getSampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * Finds the track with the specified track number.
+	 *
+	 * @param trackNumber the track number.
+	 * @return The index of the track or {@code -1} if it doesn't exist.
+	 */
+	public int indexOf(int trackNumber) {
+		for (int i = 0; i < trackNumbers.length; i++) {
+			if (trackNumbers[i] == trackNumber) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Finds the track that contains the specified sample.
+	 *
+	 * @param sample the sample number.
+	 * @return The index of the track or {@code -1} if the sample is before the
+	 *         first track.
+	 */
+	public int findTrack(long sample) {
+		int result = Arrays.binarySearch(startSamples, sample);
+		return result >= 0 ? result : -result - 2;
+	}
+
+	/**
+	 * @param i the index of the track.
+	 * @return The track number.
+	 */
+	public int getTrackNumber(int i) {
+		return trackNumbers[i];
+	}
+
+	/**
+	 * @param i the index of the track.
+	 * @return The first sample of the track.
+	 */
+	public long getStartSample(int i) {
+		return startSamples[i];
+	}
+
+	/**
+	 * @param i the index of the track.
+	 * @return The sample following the last sample of the track, or
+	 *         {@code -1} if the last track has an unknown end.
+	 */
+	public long getEndSample(int i) {
+		return endSamples[i];
+	}
+
+	/**
+	 * @param i the index of the track.
+	 * @return The file position of the frame to start decoding from to reach
+	 *         the start of the track.
+	 */
+	public long getByteOffset(int i) {
+		return byteOffsets[i];
+	}
+
+	/**
+	 * @param i the index of the track.
+	 * @return The first sample of the frame at {@link #getByteOffset(int)}.
+	 */
+	public long getFrameSample(int i) {
+		return frameSamples[i];
+	}
+
+	/**
+	 * @param i the index of the track.
+	 * @return The number of decoded samples to discard after starting at
+	 *         {@link #getByteOffset(int)} to reach the start of the track.
+	 */
+	public long getSkipSamples(int i) {
+		return startSamples[i] - frameSamples[i];
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(getClass().getSimpleName()).append(" [");
+		for (int i = 0; i < trackNumbers.length; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append(trackNumbers[i]).append(": ").append(startSamples[i]).append('-').append(endSamples[i])
+				.append(" @").append(byteOffsets[i]).append('+').append(getSkipSamples(i));
+		}
+		return sb.append("]").toString();
+	}
+}
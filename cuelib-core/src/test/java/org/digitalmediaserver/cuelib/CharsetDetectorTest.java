@@ -0,0 +1,141 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * Unit test for {@link CharsetDetector}.
+ *
+ * @author Nadahar
+ */
+public class CharsetDetectorTest {
+
+	/**
+	 * Encodes the specified text and detects its {@link Charset}.
+	 *
+	 * @param text the text.
+	 * @param charsetName the name of the {@link Charset} to encode with.
+	 * @return The detected {@link Charset}.
+	 */
+	private static Charset detect(String text, String charsetName) {
+		return CharsetDetector.detect(ByteBuffer.wrap(text.getBytes(Charset.forName(charsetName)))).getCharset();
+	}
+
+	/**
+	 * Wraps the specified text in a cue sheet.
+	 *
+	 * @param text the text.
+	 * @return The cue sheet.
+	 */
+	private static String cueSheet(String text) {
+		return
+			"PERFORMER \"" + text + "\"\r\n" +
+			"TITLE \"" + text + "\"\r\n" +
+			"FILE \"" + text + ".flac\" WAVE\r\n" +
+			"  TRACK 01 AUDIO\r\n" +
+			"    TITLE \"" + text + "\"\r\n" +
+			"    INDEX 01 00:00:00\r\n";
+	}
+
+	/**
+	 * Test for byte order marks, ASCII and UTF-8.
+	 */
+	@Test
+	public void testUnicode() {
+		CharsetDetector.Match match = CharsetDetector.detect(ByteBuffer.wrap(new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, 'A'}));
+		Assert.assertEquals(StandardCharsets.UTF_8, match.getCharset());
+		Assert.assertEquals(3, match.getBomLength());
+		Assert.assertEquals(100, match.getConfidence());
+		Assert.assertEquals(StandardCharsets.UTF_16LE, detect("\ufeffTITLE", "UTF-16LE"));
+		Assert.assertEquals(StandardCharsets.US_ASCII, detect(cueSheet("Homogenic"), "US-ASCII"));
+		Assert.assertEquals(StandardCharsets.UTF_8, detect(cueSheet("Bj\u00f6rk"), "UTF-8"));
+	}
+
+	/**
+	 * Test that accented Latin text is detected as {@code windows-1252} and
+	 * not as a multibyte {@link Charset}, even if the bytes form valid
+	 * multibyte sequences.
+	 */
+	@Test
+	public void testLatinAccentedText() {
+		Charset expected = Charset.forName("windows-1252");
+		String[] texts = {
+			"Bj\u00f6rk/Homog\u00e9nic",
+			"Am\u00e9lie",
+			"C\u00e9line Dion",
+			"H\u00e9l\u00e8ne Grimaud",
+			"Fran\u00e7oise Hardy",
+			"Cr\u00e8me br\u00fbl\u00e9e",
+			"Don\u2019t Stop",
+			"Amadou & Mariam - Dimanche \u00e0 Bamako",
+			"Sigur R\u00f3s - \u00c1g\u00e6tis byrjun",
+			"M\u00e4dchen"
+		};
+		for (String text : texts) {
+			Assert.assertEquals(text, expected, detect(text, "windows-1252"));
+			Assert.assertEquals(text, expected, detect(cueSheet(text), "windows-1252"));
+		}
+	}
+
+	/**
+	 * Test for Japanese, Chinese and Cyrillic text.
+	 */
+	@Test
+	public void testNonWesternText() {
+		// "Utada Hikaru", "Shiina Ringo - Muzai Moratorium"
+		for (String text : new String[] {
+			"\u5b87\u591a\u7530\u30d2\u30ab\u30eb",
+			"\u690e\u540d\u6797\u6a8e - \u7121\u7f6a\u30e2\u30e9\u30c8\u30ea\u30a2\u30e0"
+		}) {
+			Assert.assertEquals(text, Charset.forName("windows-31j"), detect(cueSheet(text), "windows-31j"));
+		}
+		// "Jay Chou - Qi Li Xiang", "Eason Chan"
+		for (String text : new String[] {"\u5468\u6770\u4f26 - \u4e03\u91cc\u9999", "\u9648\u5955\u8fc5"}) {
+			Assert.assertEquals(text, Charset.forName("GBK"), detect(cueSheet(text), "GBK"));
+		}
+		// "Kino - Gruppa krovi", "DDT - Osen'"
+		for (String text : new String[] {
+			"\u041a\u0438\u043d\u043e - \u0413\u0440\u0443\u043f\u043f\u0430 \u043a\u0440\u043e\u0432\u0438",
+			"\u0414\u0414\u0422 - \u041e\u0441\u0435\u043d\u044c"
+		}) {
+			Assert.assertEquals(text, Charset.forName("windows-1251"), detect(cueSheet(text), "windows-1251"));
+		}
+	}
+
+	/**
+	 * Test that only the bytes between the position and the limit are
+	 * examined, and that the position isn't changed.
+	 */
+	@Test
+	public void testBufferPosition() {
+		byte[] bytes = ("xx" + "Bj\u00f6rk").getBytes(StandardCharsets.UTF_8);
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		buffer.position(2);
+		Assert.assertEquals(StandardCharsets.UTF_8, CharsetDetector.detect(buffer).getCharset());
+		Assert.assertEquals(2, buffer.position());
+		buffer.limit(4);
+		Assert.assertEquals(StandardCharsets.US_ASCII, CharsetDetector.detect(buffer).getCharset());
+	}
+}
@@ -0,0 +1,196 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+import org.digitalmediaserver.cuelib.CueSheet.MetaDataField;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * Unit test for {@link CompactCueSheet}.
+ *
+ * @author Nadahar
+ */
+public class CompactCueSheetTest {
+
+	/** A cue sheet using all the track properties */
+	private static final String CUE_SHEET =
+		"REM GENRE \"Art Rock\"\r\n" +
+		"REM DATE 1977\r\n" +
+		"REM DISCID 8A0B7C0D\r\n" +
+		"REM COMMENT \"Comment\"\r\n" +
+		"REM DISCNUMBER 1\r\n" +
+		"REM TOTALDISCS 2\r\n" +
+		"CATALOG 1234567890123\r\n" +
+		"CDTEXTFILE \"album.cdt\"\r\n" +
+		"PERFORMER \"Album performer\"\r\n" +
+		"TITLE \"Album\"\r\n" +
+		"SONGWRITER \"Album songwriter\"\r\n" +
+		"FILE \"a.wav\" WAVE\r\n" +
+		"  TRACK 01 AUDIO\r\n" +
+		"    TITLE \"One\"\r\n" +
+		"    FLAGS DCP PRE\r\n" +
+		"    ISRC GBAAA9700001\r\n" +
+		"    INDEX 01 00:00:00\r\n" +
+		"  TRACK 02 AUDIO\r\n" +
+		"    TITLE \"Two\"\r\n" +
+		"    PERFORMER \"Track performer\"\r\n" +
+		"    SONGWRITER \"Track songwriter\"\r\n" +
+		"    FLAGS 4CH SCMS\r\n" +
+		"    PREGAP 00:02:00\r\n" +
+		"    INDEX 00 04:12:00\r\n" +
+		"    INDEX 01 04:14:33\r\n" +
+		"    POSTGAP 00:01:74\r\n" +
+		"FILE \"b.wav\" WAVE\r\n" +
+		"  TRACK 03 MODE1/2352\r\n" +
+		"    INDEX 01 00:00:00\r\n";
+
+	/**
+	 * Test that a frozen cue sheet returns the same metadata, flags, gaps and
+	 * indices as the {@link CueSheet} it was created from.
+	 */
+	@Test
+	public void testFreeze() {
+		CueSheet cueSheet = CueParser.parse(CUE_SHEET, Paths.get("album.cue"));
+		Assert.assertTrue(cueSheet.getMessages().toString(), cueSheet.getMessages().isEmpty());
+		CompactCueSheet compact = cueSheet.freeze();
+		List<TrackData> tracks = cueSheet.getAllTrackData();
+		Assert.assertEquals(3, compact.getTrackCount());
+		Assert.assertEquals(2, compact.getFileCount());
+
+		for (MetaDataField field : MetaDataField.values()) {
+			Assert.assertEquals(field.name(), getMetaData(cueSheet, field), getMetaData(compact, field));
+			for (int track = 0; track < tracks.size(); track++) {
+				Assert.assertEquals(
+					field.name() + " of track " + track,
+					getMetaData(tracks.get(track), field),
+					getMetaData(compact, track, field)
+				);
+			}
+		}
+
+		for (int track = 0; track < tracks.size(); track++) {
+			TrackData trackData = tracks.get(track);
+			Assert.assertEquals(trackData.getNumber(), compact.getTrackNumber(track));
+			Assert.assertEquals(trackData.getDataType(), compact.getDataType(track));
+			Assert.assertEquals(trackData.getFlags(), compact.getFlags(track));
+			for (String flag : new String[] {"DCP", "4CH", "PRE", "SCMS", "DATA"}) {
+				Assert.assertEquals(trackData.getFlags().contains(flag), compact.hasFlag(track, flag));
+			}
+			assertPositionEquals(trackData.getPregap(), compact.getPregap(track));
+			assertPositionEquals(trackData.getPostgap(), compact.getPostgap(track));
+			Assert.assertEquals(trackData.getIndices().size(), compact.getIndexCount(track));
+			for (int i = 0; i < trackData.getIndices().size(); i++) {
+				Index index = trackData.getIndices().get(i);
+				Assert.assertEquals(index.getNumber(), compact.getIndexNumber(track, i));
+				assertPositionEquals(index.getPosition(), compact.getIndexPosition(track, i));
+			}
+		}
+		Assert.assertEquals(0, compact.getFlagMask(2));
+		Assert.assertNotEquals(compact.getFlagMask(0), compact.getFlagMask(1));
+		Assert.assertEquals(-1, compact.getPregapFrames(0));
+		Assert.assertEquals(150, compact.getPregapFrames(1));
+		Assert.assertEquals(149, compact.getPostgapFrames(1));
+	}
+
+	/**
+	 * Test that all per-track accessors reject invalid track ordinals the
+	 * same way.
+	 */
+	@Test
+	public void testTrackBounds() {
+		CompactCueSheet compact = CueParser.parse(CUE_SHEET, null).freeze();
+		List<IntConsumer> accessors = new ArrayList<>();
+		accessors.add(compact::getTrackNumber);
+		accessors.add(compact::getTrackFile);
+		accessors.add(compact::getDataType);
+		accessors.add(compact::getIsrcCode);
+		accessors.add(compact::getTrackPerformer);
+		accessors.add(compact::getTrackTitle);
+		accessors.add(compact::getTrackSongwriter);
+		accessors.add(compact::getPregapFrames);
+		accessors.add(compact::getPregap);
+		accessors.add(compact::getPostgapFrames);
+		accessors.add(compact::getPostgap);
+		accessors.add(compact::getSampleOffset);
+		accessors.add(compact::getFlagMask);
+		accessors.add(track -> compact.hasFlag(track, "DCP"));
+		accessors.add(track -> compact.hasFlag(track, "OTHER"));
+		accessors.add(compact::getFlags);
+		accessors.add(compact::getIndexCount);
+		accessors.add(track -> compact.findIndex(track, 1));
+		accessors.add(track -> compact.getMetaData(track, MetaDataField.TITLE));
+		for (int i = 0; i < accessors.size(); i++) {
+			for (int track : new int[] {-1, compact.getTrackCount()}) {
+				try {
+					accessors.get(i).accept(track);
+					Assert.fail("Accessor " + i + " should reject track " + track);
+				} catch (IndexOutOfBoundsException e) {
+					Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Track " + track));
+				}
+			}
+		}
+	}
+
+	private static void assertPositionEquals(Position expected, Position actual) {
+		if (expected == null) {
+			Assert.assertNull(actual);
+		} else {
+			Assert.assertNotNull(actual);
+			Assert.assertEquals(expected.getTotalFrames(), actual.getTotalFrames());
+		}
+	}
+
+	private static String getMetaData(CueSheet cueSheet, MetaDataField field) {
+		try {
+			return cueSheet.getMetaData(field);
+		} catch (IllegalArgumentException e) {
+			return "Unsupported";
+		}
+	}
+
+	private static String getMetaData(CompactCueSheet cueSheet, MetaDataField field) {
+		try {
+			return cueSheet.getMetaData(field);
+		} catch (IllegalArgumentException e) {
+			return "Unsupported";
+		}
+	}
+
+	private static String getMetaData(TrackData trackData, MetaDataField field) {
+		try {
+			return trackData.getMetaData(field);
+		} catch (IllegalArgumentException e) {
+			return "Unsupported";
+		}
+	}
+
+	private static String getMetaData(CompactCueSheet cueSheet, int track, MetaDataField field) {
+		try {
+			return cueSheet.getMetaData(track, field);
+		} catch (IllegalArgumentException e) {
+			return "Unsupported";
+		}
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+/**
+ * Unit test for {@link CueBatchParser}.
+ *
+ * @author Nadahar
+ */
+public class CueBatchParserTest {
+
+	/** The folder for the test files */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static Path writeCueSheet(Path file, String title) throws IOException {
+		Files.createDirectories(file.getParent());
+		String content =
+			"TITLE \"" + title + "\"\r\n" +
+			"FILE \"a.wav\" WAVE\r\n" +
+			"  TRACK 01 AUDIO\r\n" +
+			"    INDEX 01 00:00:00\r\n";
+		return Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Test that all cue sheets in a folder tree are found and parsed, with
+	 * both the callback and the {@link Stream} variants.
+	 *
+	 * @throws Exception if the test fails.
+	 */
+	@Test
+	public void testParseTree() throws Exception {
+		Path root = folder.getRoot().toPath();
+		Set<Path> expected = new HashSet<>();
+		expected.add(writeCueSheet(root.resolve("one.cue"), "one"));
+		expected.add(writeCueSheet(root.resolve("a/two.CUE"), "two"));
+		expected.add(writeCueSheet(root.resolve("a/b/c/three.cue"), "three"));
+		writeCueSheet(root.resolve("a/b/not a cue sheet.txt"), "none");
+		writeCueSheet(root.resolve("a/.cue"), "none");
+		Files.createDirectories(root.resolve("empty"));
+		Files.createDirectories(root.resolve("a/b/folder.cue"));
+
+		try (Stream<Path> files = CueBatchParser.findCueSheets(root)) {
+			Assert.assertEquals(expected, files.collect(Collectors.toSet()));
+		}
+		try (Stream<Path> files = CueBatchParser.findCueSheets(root.resolve("one.cue"))) {
+			Assert.assertEquals(Collections.singletonList(root.resolve("one.cue")), files.collect(Collectors.toList()));
+		}
+		try {
+			CueBatchParser.findCueSheets(root.resolve("missing"));
+			Assert.fail("A missing root should fail");
+		} catch (NoSuchFileException e) {
+			// Expected
+		}
+
+		try (CueBatchParser parser = new CueBatchParser(null, 1, StandardCharsets.UTF_8)) {
+			List<CueBatchParser.Result> results = Collections.synchronizedList(new ArrayList<>());
+			parser.parse(root, results::add);
+			assertResults(expected, results);
+
+			for (boolean ordered : new boolean[] {true, false}) {
+				try (Stream<CueBatchParser.Result> stream = parser.stream(root, ordered)) {
+					assertResults(expected, stream.collect(Collectors.toList()));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Test that the folder tree is walked as the cue sheets are consumed,
+	 * rather than before the first one is delivered.
+	 *
+	 * @throws Exception if the test fails.
+	 */
+	@Test
+	public void testLazyWalk() throws Exception {
+		Path root = folder.getRoot().toPath();
+		int folderCount = 5;
+		for (int i = 0; i < folderCount; i++) {
+			writeCueSheet(root.resolve("folder" + i).resolve("first.cue"), "first");
+		}
+		try (
+			CueBatchParser parser = new CueBatchParser(Runnable::run, 1, StandardCharsets.UTF_8);
+			Stream<CueBatchParser.Result> stream = parser.stream(root, true)
+		) {
+			Iterator<CueBatchParser.Result> iterator = stream.iterator();
+			Path firstFolder = iterator.next().getFile().getParent();
+
+			// Folders that haven't been opened yet must be listed when they are reached
+			for (int i = 0; i < folderCount; i++) {
+				Path current = root.resolve("folder" + i);
+				if (!current.equals(firstFolder)) {
+					writeCueSheet(current.resolve("second.cue"), "second");
+				}
+			}
+			int count = 1;
+			while (iterator.hasNext()) {
+				Assert.assertTrue(iterator.next().isSuccess());
+				count++;
+			}
+			Assert.assertEquals(2 * folderCount - 1, count);
+		}
+	}
+
+	private static void assertResults(Set<Path> expected, List<CueBatchParser.Result> results) {
+		Set<Path> actual = new HashSet<>();
+		for (CueBatchParser.Result result : results) {
+			Assert.assertTrue(result.toString(), result.isSuccess());
+			Assert.assertEquals(
+				result.getFile().getFileName().toString().toLowerCase().replace(".cue", ""),
+				result.getCueSheet().getTitle()
+			);
+			actual.add(result.getFile());
+		}
+		Assert.assertEquals(expected.size(), results.size());
+		Assert.assertEquals(expected, actual);
+	}
+}
@@ -0,0 +1,299 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.digitalmediaserver.cuelib.CueSheet.MetaDataField;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * Unit test for {@link CueParser} and {@link CueTokenizer}.
+ *
+ * @author Nadahar
+ */
+public class CueParserTest {
+
+	/** A valid cue sheet with mixed case keywords and varying whitespace */
+	private static final String CUE_SHEET =
+		"REM GENRE \"Art Rock\"\r\n" +
+		"REM DATE 1977\r\n" +
+		"REM DISCID 8A0B7C0D\r\n" +
+		"REM COMMENT \"ExactAudioCopy v1.6\"\r\n" +
+		"REM DISCNUMBER 1\r\n" +
+		"REM TOTALDISCS 2\r\n" +
+		"CATALOG 1234567890123\r\n" +
+		"PERFORMER \"Bj\u00f6rk\"\r\n" +
+		"title Homog\u00e9nic\r\n" +
+		"SONGWRITER \"Bj\u00f6rk Gu\u00f0mundsd\u00f3ttir\"\r\n" +
+		"FILE \"01 - Hunter.wav\" WAVE\n" +
+		"  TRACK 01 AUDIO\n" +
+		"    TITLE \"Hunter\"\n" +
+		"    FLAGS DCP PRE\n" +
+		"    ISRC GBAAA9700001\n" +
+		"    INDEX 01 00:00:00\n" +
+		"\tTRACK 02 AUDIO\n" +
+		"\t\tTITLE \"J\u00f3ga\"\n" +
+		"\t\tPERFORMER \"Bj\u00f6rk & Mark Bell\"\n" +
+		"\t\tPREGAP 00:02:00\n" +
+		"\t\tINDEX 00 04:12:00\n" +
+		"\t\tINDEX 01 04:14:33\n" +
+		"\t\tPOSTGAP 00:01:74\n" +
+		"FILE other.flac WAVE\n" +
+		"  TRACK 03 MODE1/2352\n" +
+		"    INDEX 01 00:00:00\n";
+
+	/** A cue sheet with lines that the tokenizer must reject */
+	private static final String MALFORMED_CUE_SHEET =
+		"REM\r\n" +
+		"TITLE\r\n" +
+		"PERFORMER \"\r\n" +
+		"FILE \" WAVE\r\n" +
+		"FILE \"a.wav\" WAVE\r\n" +
+		"  TRACK 01 AUDIO\r\n" +
+		"    INDEX 01 00:0x:00\r\n" +
+		"    INDEX 01 00:00:00\r\n" +
+		"  TRACK 02 AUDIO\r\n" +
+		"    INDEX 01 99999999999:00:00\r\n" +
+		"    INDEX 01 03:00:75\r\n" +
+		"REM DISCNUMBER x\r\n" +
+		"FOO bar\r\n";
+
+	/**
+	 * Test that the commands of a valid cue sheet are parsed, and that a
+	 * lower case keyword is accepted with a warning.
+	 */
+	@Test
+	public void testParse() {
+		CueSheet cueSheet = CueParser.parse(CUE_SHEET, Paths.get("album.cue"));
+		Assert.assertEquals(Paths.get("album.cue"), cueSheet.getFile());
+		Assert.assertEquals(1, cueSheet.getMessages().size());
+		Message message = cueSheet.getMessages().get(0);
+		Assert.assertEquals(9, message.getLineNumber());
+		Assert.assertEquals("Token has wrong case. Uppercase was expected", message.getMessage());
+		Assert.assertEquals("Art Rock", cueSheet.getGenre());
+		Assert.assertEquals(1977, cueSheet.getYear());
+		Assert.assertEquals("8A0B7C0D", cueSheet.getDiscId());
+		Assert.assertEquals("ExactAudioCopy v1.6", cueSheet.getComment());
+		Assert.assertEquals(1, cueSheet.getDiscNumber());
+		Assert.assertEquals(2, cueSheet.getTotalDiscs());
+		Assert.assertEquals("1234567890123", cueSheet.getCatalog());
+		Assert.assertEquals("Bj\u00f6rk", cueSheet.getPerformer());
+		Assert.assertEquals("Homog\u00e9nic", cueSheet.getTitle());
+		Assert.assertEquals("Bj\u00f6rk Gu\u00f0mundsd\u00f3ttir", cueSheet.getSongwriter());
+
+		Assert.assertEquals(2, cueSheet.getFileData().size());
+		FileData fileData = cueSheet.getFileData().get(0);
+		Assert.assertEquals("01 - Hunter.wav", fileData.getFile());
+		Assert.assertEquals("WAVE", fileData.getFileType());
+		Assert.assertEquals(2, fileData.getTrackData().size());
+
+		TrackData track = fileData.getTrackData().get(0);
+		Assert.assertEquals(1, track.getNumber());
+		Assert.assertEquals("AUDIO", track.getDataType());
+		Assert.assertEquals("Hunter", track.getTitle());
+		Assert.assertNull(track.getPerformer());
+		Assert.assertEquals("Bj\u00f6rk", track.getMetaData(MetaDataField.PERFORMER));
+		Assert.assertEquals(Arrays.asList("DCP", "PRE"), Arrays.asList(track.getFlags().toArray()));
+		Assert.assertEquals("GBAAA9700001", track.getIsrcCode());
+		Assert.assertEquals(1, track.getIndices().size());
+		assertIndex(track.getIndices().get(0), 1, 0, 0, 0);
+
+		track = fileData.getTrackData().get(1);
+		Assert.assertEquals(2, track.getNumber());
+		Assert.assertEquals("J\u00f3ga", track.getTitle());
+		Assert.assertEquals("Bj\u00f6rk & Mark Bell", track.getPerformer());
+		Assert.assertEquals(new Position(0, 2, 0).getTotalFrames(), track.getPregap().getTotalFrames());
+		Assert.assertEquals(new Position(0, 1, 74).getTotalFrames(), track.getPostgap().getTotalFrames());
+		Assert.assertEquals(2, track.getIndices().size());
+		assertIndex(track.getIndices().get(0), 0, 4, 12, 0);
+		assertIndex(track.getIndices().get(1), 1, 4, 14, 33);
+		Assert.assertSame(track.getIndices().get(1), track.getStartIndex());
+
+		fileData = cueSheet.getFileData().get(1);
+		Assert.assertEquals("other.flac", fileData.getFile());
+		track = fileData.getTrackData().get(0);
+		Assert.assertEquals(3, track.getNumber());
+		Assert.assertEquals("MODE1/2352", track.getDataType());
+	}
+
+	/**
+	 * Test that malformed lines are reported as unparseable or invalid with
+	 * the correct line numbers, and that parsing continues after them.
+	 */
+	@Test
+	public void testMalformed() {
+		CueSheet cueSheet = CueParser.parse(MALFORMED_CUE_SHEET, null);
+		List<Message> messages = cueSheet.getMessages();
+		int[] lineNumbers = {1, 2, 3, 4, 7, 10, 11, 12, 13};
+		Assert.assertEquals(messages.toString(), lineNumbers.length, messages.size());
+		String[] lines = MALFORMED_CUE_SHEET.split("\r\n");
+		for (int i = 0; i < lineNumbers.length; i++) {
+			Message message = messages.get(i);
+			Assert.assertTrue(message instanceof Warning);
+			Assert.assertEquals(lineNumbers[i], message.getLineNumber());
+			Assert.assertEquals(lines[lineNumbers[i] - 1].trim(), message.getInput());
+			if (lineNumbers[i] == 11) {
+				Assert.assertEquals("Position has invalid frame value, should be 00-74", message.getMessage());
+			} else {
+				Assert.assertEquals("Unparseable line. Will ignore", message.getMessage());
+			}
+		}
+
+		Assert.assertNull(cueSheet.getTitle());
+		Assert.assertNull(cueSheet.getPerformer());
+		Assert.assertEquals(1, cueSheet.getFileData().size());
+		Assert.assertEquals("a.wav", cueSheet.getFileData().get(0).getFile());
+		List<TrackData> tracks = cueSheet.getAllTrackData();
+		Assert.assertEquals(2, tracks.size());
+		Assert.assertEquals(1, tracks.get(0).getIndices().size());
+		assertIndex(tracks.get(0).getIndices().get(0), 1, 0, 0, 0);
+		Assert.assertEquals(1, tracks.get(1).getIndices().size());
+		assertIndex(tracks.get(1).getIndices().get(0), 1, 3, 0, 75);
+	}
+
+	/**
+	 * Test that parsing encoded bytes, directly or lazily, gives the same
+	 * result as parsing the decoded text.
+	 */
+	@Test
+	public void testBytes() {
+		Path file = Paths.get("album.cue");
+		for (String content : new String[] {CUE_SHEET, MALFORMED_CUE_SHEET}) {
+			CueSheet expected = CueParser.parse(content, file);
+			for (Charset charset : new Charset[] {StandardCharsets.UTF_8, StandardCharsets.UTF_16LE}) {
+				ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(charset));
+				assertCueSheetEquals(expected, CueParser.parse(buffer, charset, file));
+				assertCueSheetEquals(expected, CueParser.parse(buffer, charset, file, true));
+			}
+		}
+	}
+
+	/**
+	 * Test that the lazily decoded track values are returned by the getters,
+	 * that they are decoded once even when read concurrently, and that the
+	 * setters replace them.
+	 *
+	 * @throws Exception if the test fails.
+	 */
+	@Test
+	public void testLazy() throws Exception {
+		final int trackCount = 200;
+		StringBuilder sb = new StringBuilder("FILE \"album.wav\" WAVE\n");
+		for (int i = 1; i <= trackCount; i++) {
+			sb.append(String.format("  TRACK %02d AUDIO%n", i));
+			sb.append("    TITLE \"Title ").append(i).append("\"\n");
+			sb.append("    PERFORMER \"Performer ").append(i).append("\"\n");
+			sb.append("    SONGWRITER \"Songwriter ").append(i).append("\"\n");
+			sb.append("    INDEX 01 00:00:00\n");
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+		final List<TrackData> tracks = CueParser.parse(buffer, StandardCharsets.UTF_8, null, true).getAllTrackData();
+		Assert.assertEquals(trackCount, tracks.size());
+
+		final int threadCount = 4;
+		final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+		try {
+			List<Future<String[]>> results = new ArrayList<>();
+			for (int t = 0; t < threadCount; t++) {
+				results.add(executor.submit(new Callable<String[]>() {
+
+					@Override
+					public String[] call() throws Exception {
+						String[] values = new String[trackCount * 3];
+						barrier.await();
+						for (int i = 0; i < trackCount; i++) {
+							TrackData track = tracks.get(i);
+							values[i * 3] = track.getTitle();
+							values[i * 3 + 1] = track.getPerformer();
+							values[i * 3 + 2] = track.getSongwriter();
+						}
+						return values;
+					}
+				}));
+			}
+			String[] first = results.get(0).get();
+			for (int i = 0; i < trackCount; i++) {
+				Assert.assertEquals("Title " + (i + 1), first[i * 3]);
+				Assert.assertEquals("Performer " + (i + 1), first[i * 3 + 1]);
+				Assert.assertEquals("Songwriter " + (i + 1), first[i * 3 + 2]);
+			}
+			for (Future<String[]> result : results) {
+				String[] values = result.get();
+				for (int i = 0; i < values.length; i++) {
+					Assert.assertSame(first[i], values[i]);
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		TrackData track = tracks.get(0);
+		Assert.assertEquals("Performer 1", track.getMetaData(MetaDataField.PERFORMER));
+		track = CueParser.parse(buffer, StandardCharsets.UTF_8, null, true).getAllTrackData().get(1);
+		track.setTitle("New title");
+		track.setPerformer(null);
+		track.setSongwriter("New songwriter");
+		Assert.assertEquals("New title", track.getTitle());
+		Assert.assertNull(track.getPerformer());
+		Assert.assertEquals("New songwriter", track.getSongwriter());
+	}
+
+	private static void assertIndex(Index index, int number, int minutes, int seconds, int frames) {
+		Assert.assertEquals(number, index.getNumber());
+		Assert.assertEquals(minutes, index.getPosition().getMinutes());
+		Assert.assertEquals(seconds, index.getPosition().getSeconds());
+		Assert.assertEquals(frames, index.getPosition().getFrames());
+	}
+
+	private static void assertCueSheetEquals(CueSheet expected, CueSheet actual) {
+		Assert.assertEquals(expected.getMessages().size(), actual.getMessages().size());
+		for (int i = 0; i < expected.getMessages().size(); i++) {
+			Message expectedMessage = expected.getMessages().get(i);
+			Message actualMessage = actual.getMessages().get(i);
+			Assert.assertEquals(expectedMessage.getLineNumber(), actualMessage.getLineNumber());
+			Assert.assertEquals(expectedMessage.getInput(), actualMessage.getInput());
+			Assert.assertEquals(expectedMessage.getMessage(), actualMessage.getMessage());
+		}
+		List<TrackData> expectedTracks = expected.getAllTrackData();
+		List<TrackData> actualTracks = actual.getAllTrackData();
+		Assert.assertEquals(expectedTracks.size(), actualTracks.size());
+		for (int i = 0; i < expectedTracks.size(); i++) {
+			Assert.assertEquals(expectedTracks.get(i).getTitle(), actualTracks.get(i).getTitle());
+			Assert.assertEquals(expectedTracks.get(i).getPerformer(), actualTracks.get(i).getPerformer());
+			Assert.assertEquals(expectedTracks.get(i).getSongwriter(), actualTracks.get(i).getSongwriter());
+		}
+		CueSheetSerializer serializer = new CueSheetSerializer();
+		Assert.assertEquals(serializer.serializeCueSheet(expected), serializer.serializeCueSheet(actual));
+	}
+}
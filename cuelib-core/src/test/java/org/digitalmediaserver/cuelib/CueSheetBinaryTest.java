@@ -0,0 +1,266 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import org.digitalmediaserver.cuelib.CueSheetBinaryReader.Table;
+import org.digitalmediaserver.cuelib.CueSheetBinaryWriter.TableWriter;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+/**
+ * Unit test for {@link CueSheetBinaryWriter} and {@link CueSheetBinaryReader}.
+ *
+ * @author Nadahar
+ */
+public class CueSheetBinaryTest {
+
+	/** The folder for the test files */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/** A cue sheet using most of the supported commands */
+	private static final String CUE_SHEET =
+		"REM GENRE \"Rock\"\r\n" +
+		"REM DATE 1977\r\n" +
+		"REM DISCID 8A0B7C0D\r\n" +
+		"REM COMMENT \"ExactAudioCopy v1.6\"\r\n" +
+		"REM DISCNUMBER 2\r\n" +
+		"REM TOTALDISCS 3\r\n" +
+		"CATALOG 1234567890123\r\n" +
+		"CDTEXTFILE \"album.cdt\"\r\n" +
+		"PERFORMER \"Bj\u00f6rk\"\r\n" +
+		"TITLE \"Homog\u00e9nic\"\r\n" +
+		"SONGWRITER \"Bj\u00f6rk Gu\u00f0mundsd\u00f3ttir\"\r\n" +
+		"FILE \"disc 1.flac\" WAVE\r\n" +
+		"  TRACK 01 AUDIO\r\n" +
+		"    TITLE \"Hunter\"\r\n" +
+		"    ISRC GBAAA9700001\r\n" +
+		"    FLAGS DCP PRE\r\n" +
+		"    PREGAP 00:02:00\r\n" +
+		"    INDEX 01 00:00:00\r\n" +
+		"  TRACK 02 AUDIO\r\n" +
+		"    TITLE \"J\u00f3ga\"\r\n" +
+		"    PERFORMER \"Bj\u00f6rk\"\r\n" +
+		"    INDEX 00 04:10:12\r\n" +
+		"    INDEX 01 04:12:00\r\n" +
+		"    INDEX 02 05:00:74\r\n" +
+		"    POSTGAP 00:01:00\r\n" +
+		"FILE \"disc 2.wav\" WAVE\r\n" +
+		"  TRACK 03 AUDIO\r\n" +
+		"    TITLE \"Unravel\"\r\n" +
+		"    SONGWRITER \"Bj\u00f6rk\"\r\n" +
+		"    INDEX 01 00:00:00\r\n" +
+		"  TRACK 04 AUDIO\r\n" +
+		"    UNKNOWN COMMAND\r\n" +
+		"    INDEX 01 03:17:01\r\n";
+
+	/**
+	 * Asserts that two {@link CueSheet}s contain the same data.
+	 *
+	 * @param expected the expected {@link CueSheet}.
+	 * @param actual the {@link CueSheet} to check.
+	 */
+	private static void assertCueSheetEquals(CueSheet expected, CueSheet actual) {
+		Assert.assertEquals(expected.getFile(), actual.getFile());
+		Assert.assertEquals(expected.getCharset(), actual.getCharset());
+		Assert.assertEquals(expected.getCharsetConfidence(), actual.getCharsetConfidence());
+		Assert.assertEquals(expected.getMessages().size(), actual.getMessages().size());
+		for (int i = 0; i < expected.getMessages().size(); i++) {
+			Message expectedMessage = expected.getMessages().get(i);
+			Message actualMessage = actual.getMessages().get(i);
+			Assert.assertEquals(expectedMessage.getClass(), actualMessage.getClass());
+			Assert.assertEquals(expectedMessage.getLineNumber(), actualMessage.getLineNumber());
+			Assert.assertEquals(expectedMessage.getInput(), actualMessage.getInput());
+			Assert.assertEquals(expectedMessage.getMessage(), actualMessage.getMessage());
+		}
+		Assert.assertEquals(expected.getYear(), actual.getYear());
+		Assert.assertEquals(expected.getDiscNumber(), actual.getDiscNumber());
+		Assert.assertEquals(expected.getTotalDiscs(), actual.getTotalDiscs());
+		Assert.assertEquals(expected.getAllTrackData().size(), actual.getAllTrackData().size());
+		for (int i = 0; i < expected.getAllTrackData().size(); i++) {
+			TrackData expectedTrack = expected.getAllTrackData().get(i);
+			TrackData actualTrack = actual.getAllTrackData().get(i);
+			Assert.assertEquals(expectedTrack.getPerformer(), actualTrack.getPerformer());
+			Assert.assertEquals(expectedTrack.getTitle(), actualTrack.getTitle());
+			Assert.assertEquals(expectedTrack.getSongwriter(), actualTrack.getSongwriter());
+			Assert.assertEquals(expectedTrack.getSampleOffset(), actualTrack.getSampleOffset());
+			Assert.assertEquals(expectedTrack.getIndices().size(), actualTrack.getIndices().size());
+			for (int j = 0; j < expectedTrack.getIndices().size(); j++) {
+				Index expectedIndex = expectedTrack.getIndices().get(j);
+				Index actualIndex = actualTrack.getIndices().get(j);
+				Assert.assertEquals(expectedIndex.getNumber(), actualIndex.getNumber());
+				Assert.assertEquals(expectedIndex.getPosition().getTotalFrames(), actualIndex.getPosition().getTotalFrames());
+				Assert.assertEquals(expectedIndex.getSampleOffset(), actualIndex.getSampleOffset());
+			}
+		}
+		// Covers the remaining fields
+		CueSheetSerializer serializer = new CueSheetSerializer();
+		Assert.assertEquals(serializer.serializeCueSheet(expected), serializer.serializeCueSheet(actual));
+	}
+
+	/**
+	 * Sets sample offsets calculated from the positions, like those read from
+	 * a FLAC {@code CUESHEET} block, for the tracks of the specified file.
+	 *
+	 * @param fileData the {@link FileData}.
+	 */
+	private static void setSampleOffsets(FileData fileData) {
+		for (TrackData trackData : fileData.getTrackData()) {
+			for (Index index : trackData.getIndices()) {
+				// Not a multiple of 588, like exact offsets can be
+				index.setSampleOffset(index.getPosition().getTotalFrames() * 588L + 17);
+			}
+			trackData.setSampleOffset(trackData.getIndices().get(0).getSampleOffset());
+		}
+	}
+
+	/**
+	 * Test that a serialized {@link CueSheet} is read back unchanged, both
+	 * eagerly and lazily.
+	 */
+	@Test
+	public void testRoundTrip() {
+		CueSheet cueSheet = CueParser.parse(CUE_SHEET, Paths.get("album.cue"));
+		cueSheet.setCharset(StandardCharsets.UTF_8);
+		cueSheet.setCharsetConfidence(100);
+		Assert.assertFalse("The sample should produce warnings", cueSheet.getMessages().isEmpty());
+		setSampleOffsets(cueSheet.getFileData().get(0));
+
+		byte[] record = new CueSheetBinaryWriter().serializeCueSheet(cueSheet);
+		assertCueSheetEquals(cueSheet, CueSheetBinaryReader.deserializeCueSheet(record));
+
+		CueSheetBinaryReader reader = new CueSheetBinaryReader(ByteBuffer.wrap(record), true);
+		Assert.assertTrue(reader.hasNext());
+		assertCueSheetEquals(cueSheet, reader.next());
+		Assert.assertFalse(reader.hasNext());
+	}
+
+	/**
+	 * Test that sample offsets are kept by {@link CompactCueSheet}.
+	 */
+	@Test
+	public void testCompactSampleOffsets() {
+		CueSheet cueSheet = CueParser.parse(CUE_SHEET, Paths.get("album.cue"));
+		CompactCueSheet compact = cueSheet.freeze();
+		Assert.assertEquals(-1, compact.getSampleOffset(0));
+		Assert.assertEquals(-1, compact.getIndexSampleOffset(1, 0));
+
+		setSampleOffsets(cueSheet.getFileData().get(0));
+		compact = cueSheet.freeze();
+		for (int track = 0; track < compact.getTrackCount(); track++) {
+			TrackData trackData = cueSheet.getAllTrackData().get(track);
+			Assert.assertEquals(trackData.getSampleOffset(), compact.getSampleOffset(track));
+			Assert.assertEquals(trackData.getStartSampleOffset(), compact.getStartSampleOffset(track));
+			for (int i = 0; i < compact.getIndexCount(track); i++) {
+				Assert.assertEquals(trackData.getIndices().get(i).getSampleOffset(), compact.getIndexSampleOffset(track, i));
+			}
+		}
+		Assert.assertEquals(new Position(4, 12, 0).getTotalFrames() * 588L + 17, compact.getStartSampleOffset(1));
+		Assert.assertEquals(-1, compact.getStartSampleOffset(2));
+	}
+
+	/**
+	 * Test that several records written to a stream are read back in order,
+	 * and that truncated and old records are rejected.
+	 *
+	 * @throws IOException if the test fails.
+	 */
+	@Test
+	public void testStream() throws IOException {
+		CueSheet first = CueParser.parse(CUE_SHEET, Paths.get("first.cue"));
+		CueSheet second = CueParser.parse("TITLE \"Second\"\r\n", Paths.get("second.cue"));
+		CueSheetBinaryWriter writer = new CueSheetBinaryWriter();
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		int firstLength = writer.writeCueSheet(first, outputStream);
+		writer.writeCueSheet(second, outputStream);
+		byte[] bytes = outputStream.toByteArray();
+
+		CueSheetBinaryReader reader = new CueSheetBinaryReader(ByteBuffer.wrap(bytes));
+		assertCueSheetEquals(first, reader.next());
+		Assert.assertEquals(firstLength, reader.getPosition());
+		assertCueSheetEquals(second, reader.next());
+		Assert.assertFalse(reader.hasNext());
+
+		reader = new CueSheetBinaryReader(ByteBuffer.wrap(bytes));
+		reader.skip();
+		Assert.assertEquals("Second", reader.next().getTitle());
+
+		try {
+			CueSheetBinaryReader.deserializeCueSheet(Arrays.copyOf(bytes, firstLength - 1));
+			Assert.fail("A truncated record should be rejected");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+
+		byte[] record = Arrays.copyOf(bytes, firstLength);
+		Assert.assertEquals(CueSheetBinaryWriter.VERSION, record[4]);
+		record[4] = CueSheetBinaryWriter.VERSION + 1;
+		try {
+			CueSheetBinaryReader.deserializeCueSheet(record);
+			Assert.fail("A record with an unsupported version should be rejected");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+	}
+
+	/**
+	 * Test that {@link CueSheet}s written with a {@link TableWriter} can be
+	 * looked up by name and by position.
+	 *
+	 * @throws IOException if the test fails.
+	 */
+	@Test
+	public void testTable() throws IOException {
+		Path tableFile = folder.getRoot().toPath().resolve("table.bin");
+		String[] names = {"c.cue", "a.cue", "b.cue"};
+		try (TableWriter tableWriter = new TableWriter(new BufferedOutputStream(Files.newOutputStream(tableFile)))) {
+			for (String name : names) {
+				tableWriter.add(CueParser.parse("TITLE \"" + name + "\"\r\n" + CUE_SHEET, Paths.get(name)));
+			}
+			Assert.assertEquals(names.length, tableWriter.getCount());
+		}
+
+		for (boolean lazy : new boolean[] {false, true}) {
+			Table table = CueSheetBinaryReader.openTable(tableFile, lazy);
+			Assert.assertEquals(names.length, table.getCount());
+			Assert.assertEquals("a.cue", table.getName(0));
+			Assert.assertEquals("c.cue", table.getName(2));
+			for (String name : names) {
+				CueSheet cueSheet = table.get(name);
+				Assert.assertNotNull(cueSheet);
+				assertCueSheetEquals(CueParser.parse("TITLE \"" + name + "\"\r\n" + CUE_SHEET, Paths.get(name)), cueSheet);
+				Assert.assertEquals(name, table.get(table.indexOf(name)).getFile().toString());
+			}
+			Assert.assertNull(table.get("missing.cue"));
+			Assert.assertTrue(table.indexOf("missing.cue") < 0);
+		}
+	}
+}
@@ -0,0 +1,147 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+/**
+ * Unit test for {@link CueSheetCache}.
+ *
+ * @author Nadahar
+ */
+public class CueSheetCacheTest {
+
+	/** The folder for the test files */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Writes a cue sheet with the specified title.
+	 *
+	 * @param file the file to write.
+	 * @param title the title.
+	 * @param lastModified the last modified time in milliseconds.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	private static void writeCueSheet(Path file, String title, long lastModified) throws IOException {
+		Files.write(
+			file,
+			(
+				"TITLE \"" + title + "\"\r\n" +
+				"FILE \"image.flac\" WAVE\r\n" +
+				"  TRACK 01 AUDIO\r\n" +
+				"    INDEX 01 00:00:00\r\n" +
+				"  TRACK 02 AUDIO\r\n" +
+				"    INDEX 00 03:10:00\r\n" +
+				"    INDEX 01 03:12:37\r\n"
+			).getBytes(StandardCharsets.US_ASCII)
+		);
+		Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified));
+	}
+
+	/**
+	 * Test that entries are reused from memory and from the cache file after
+	 * it's reopened.
+	 *
+	 * @throws IOException if the test fails.
+	 */
+	@Test
+	public void testPersistence() throws IOException {
+		Path cacheFile = folder.getRoot().toPath().resolve("cache.bin");
+		Path cueFile = folder.newFile("album.cue").toPath();
+		writeCueSheet(cueFile, "Album", 1000000000000L);
+
+		try (CueSheetCache cache = new CueSheetCache(cacheFile)) {
+			Assert.assertEquals("Album", cache.get(cueFile, StandardCharsets.US_ASCII).getTitle());
+			Assert.assertEquals("Album", cache.get(cueFile, StandardCharsets.US_ASCII).getTitle());
+			Assert.assertEquals(1, cache.getMisses());
+			Assert.assertEquals(1, cache.getMemoryHits());
+		}
+
+		try (CueSheetCache cache = new CueSheetCache(cacheFile)) {
+			Assert.assertEquals(1, cache.size());
+			CueSheet cueSheet = cache.get(cueFile, StandardCharsets.US_ASCII);
+			Assert.assertEquals(0, cache.getMisses());
+			Assert.assertEquals(1, cache.getDiskHits());
+			Assert.assertEquals("Album", cueSheet.getTitle());
+			Assert.assertEquals(2, cueSheet.getAllTrackData().size());
+			Assert.assertEquals(new Position(3, 12, 37).getTotalFrames(), cueSheet.getAllTrackData().get(1).getStartIndex().getPosition().getTotalFrames());
+
+			// A different charset is a different entry
+			cache.get(cueFile, StandardCharsets.ISO_8859_1);
+			Assert.assertEquals(1, cache.getMisses());
+			Assert.assertEquals(2, cache.size());
+		}
+	}
+
+	/**
+	 * Test that a changed source file is loaded again and that compacting
+	 * removes the obsolete entry.
+	 *
+	 * @throws IOException if the test fails.
+	 */
+	@Test
+	public void testCompact() throws IOException {
+		Path cacheFile = folder.getRoot().toPath().resolve("cache.bin");
+		Path first = folder.newFile("first.cue").toPath();
+		Path second = folder.newFile("second.cue").toPath();
+		writeCueSheet(first, "First", 1000000000000L);
+		writeCueSheet(second, "Second", 1000000000000L);
+
+		long sizeBefore;
+		try (CueSheetCache cache = new CueSheetCache(cacheFile)) {
+			cache.get(first, StandardCharsets.US_ASCII);
+			cache.get(second, StandardCharsets.US_ASCII);
+			writeCueSheet(first, "First changed", 1000000001000L);
+			Assert.assertEquals("First changed", cache.get(first, StandardCharsets.US_ASCII).getTitle());
+			Assert.assertEquals(3, cache.getMisses());
+			Assert.assertTrue(cache.getObsoleteBytes() > 0);
+			cache.flush();
+			sizeBefore = Files.size(cacheFile);
+
+			cache.compact();
+			Assert.assertEquals(0, cache.getObsoleteBytes());
+			Assert.assertTrue(Files.size(cacheFile) < sizeBefore);
+			Assert.assertEquals("Second", cache.get(second, StandardCharsets.US_ASCII).getTitle());
+
+			// The cache must still be writable after compacting
+			writeCueSheet(second, "Second changed", 1000000001000L);
+			Assert.assertEquals("Second changed", cache.get(second, StandardCharsets.US_ASCII).getTitle());
+			cache.compact();
+		}
+
+		try (CueSheetCache cache = new CueSheetCache(cacheFile)) {
+			Assert.assertEquals(2, cache.size());
+			Assert.assertEquals(0, cache.getObsoleteBytes());
+			Assert.assertEquals("First changed", cache.get(first, StandardCharsets.US_ASCII).getTitle());
+			Assert.assertEquals("Second changed", cache.get(second, StandardCharsets.US_ASCII).getTitle());
+			Assert.assertEquals(0, cache.getMisses());
+			Assert.assertEquals(2, cache.getDiskHits());
+		}
+	}
+}
@@ -0,0 +1,186 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * Unit test for {@link CueSheetHandler} and the event based parsing of
+ * {@link CueParser}.
+ *
+ * @author Nadahar
+ */
+public class CueSheetHandlerTest {
+
+	/** A cue sheet with two files */
+	private static final String CUE_SHEET =
+		"REM GENRE Rock\r\n" +
+		"TITLE \"Album\"\r\n" +
+		"FILE \"a.wav\" WAVE\r\n" +
+		"  TRACK 01 AUDIO\r\n" +
+		"    TITLE \"One\"\r\n" +
+		"    FLAGS DCP PRE\r\n" +
+		"    INDEX 00 00:00:00\r\n" +
+		"    INDEX 01 00:02:00\r\n" +
+		"  TRACK 02 AUDIO\r\n" +
+		"    INDEX 01 03:00:00\r\n" +
+		"FILE \"b.wav\" WAVE\r\n" +
+		"  TRACK 03 AUDIO\r\n" +
+		"    PERFORMER \"Someone\"\r\n" +
+		"    INDEX 01 00:00:00\r\n" +
+		"    POSTGAP 00:01:00\r\n";
+
+	/** A cue sheet without {@code FILE} and {@code TRACK} commands */
+	private static final String IMPLIED_CUE_SHEET =
+		"TITLE \"Album\"\r\n" +
+		"    INDEX 01 00:00:70\r\n";
+
+	/**
+	 * A {@link CueSheetHandler} that records the events as {@link String}s.
+	 */
+	private static class RecordingHandler implements CueSheetHandler {
+
+		/** The recorded events */
+		private final List<String> events = new ArrayList<>();
+
+		@Override
+		public void onFile(CharSequence file, String fileType) {
+			events.add("FILE " + file + " " + fileType);
+		}
+
+		@Override
+		public void onTrack(int number, String dataType) {
+			events.add("TRACK " + number + " " + dataType);
+		}
+
+		@Override
+		public void onFlag(String flag) {
+			events.add("FLAG " + flag);
+		}
+
+		@Override
+		public void onIndex(int number, int minutes, int seconds, int frames) {
+			events.add("INDEX " + number + " " + minutes + ":" + seconds + ":" + frames);
+		}
+
+		@Override
+		public void onPerformer(CharSequence performer, boolean track) {
+			events.add("PERFORMER " + performer + " " + track);
+		}
+
+		@Override
+		public void onTitle(CharSequence title, boolean track) {
+			events.add("TITLE " + title + " " + track);
+		}
+
+		@Override
+		public void onPostgap(int minutes, int seconds, int frames) {
+			events.add("POSTGAP " + minutes + ":" + seconds + ":" + frames);
+		}
+
+		@Override
+		public void onGenre(CharSequence genre) {
+			events.add("GENRE " + genre);
+		}
+
+		@Override
+		public void onWarning(int lineNumber, CharSequence line, String warning) {
+			events.add("WARNING " + lineNumber + " " + line + ": " + warning);
+		}
+	}
+
+	/**
+	 * Test that the events for a cue sheet with two files are generated in
+	 * the order the data appears, from both text and bytes.
+	 */
+	@Test
+	public void testEvents() {
+		List<String> expected = Arrays.asList(
+			"GENRE Rock",
+			"TITLE Album false",
+			"FILE a.wav WAVE",
+			"TRACK 1 AUDIO",
+			"TITLE One true",
+			"FLAG DCP",
+			"FLAG PRE",
+			"INDEX 0 0:0:0",
+			"INDEX 1 0:2:0",
+			"TRACK 2 AUDIO",
+			"INDEX 1 3:0:0",
+			"FILE b.wav WAVE",
+			"TRACK 3 AUDIO",
+			"PERFORMER Someone true",
+			"INDEX 1 0:0:0",
+			"POSTGAP 0:1:0"
+		);
+		RecordingHandler handler = new RecordingHandler();
+		CueParser.parseEvents(CUE_SHEET, handler);
+		Assert.assertEquals(expected, handler.events);
+
+		handler = new RecordingHandler();
+		CueParser.parseEvents(ByteBuffer.wrap(CUE_SHEET.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, handler);
+		Assert.assertEquals(expected, handler.events);
+	}
+
+	/**
+	 * Test that implied {@code FILE} and {@code TRACK} events are generated
+	 * before the warnings, and that the line passed with a warning is the
+	 * trimmed input line.
+	 */
+	@Test
+	public void testImpliedAndWarnings() {
+		RecordingHandler handler = new RecordingHandler();
+		CueParser.parseEvents(IMPLIED_CUE_SHEET, handler);
+		Assert.assertEquals(
+			Arrays.asList(
+				"TITLE Album false",
+				"FILE null null",
+				"WARNING 2 INDEX 01 00:00:70: Datum must appear in FILE, but no FILE specified",
+				"TRACK -1 null",
+				"WARNING 2 INDEX 01 00:00:70: Datum must appear in TRACK, but no TRACK specified",
+				"WARNING 2 INDEX 01 00:00:70: Invalid position. First index must have position 00:00:00",
+				"INDEX 1 0:0:70"
+			),
+			handler.events
+		);
+
+		// The line is passed undecoded, so that handlers that ignore it don't pay for it
+		List<String> lines = new ArrayList<>();
+		CueParser.parseEvents(ByteBuffer.wrap(IMPLIED_CUE_SHEET.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, new CueSheetHandler() {
+
+			@Override
+			public void onWarning(int lineNumber, CharSequence line, String warning) {
+				Assert.assertTrue(line instanceof CueTokenizer.TokenText);
+				lines.add(line.toString());
+			}
+		});
+		Assert.assertEquals(3, lines.size());
+		Assert.assertEquals("INDEX 01 00:00:70", lines.get(0));
+
+		// A handler that doesn't override the warning event
+		CueParser.parseEvents(IMPLIED_CUE_SHEET, new CueSheetHandler() { });
+	}
+}
@@ -0,0 +1,110 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib;
+
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import javax.xml.XMLConstants;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * Unit test for {@link CueSheetToXmlSerializer}.
+ *
+ * @author Nadahar
+ */
+public class CueSheetToXmlSerializerTest {
+
+	/** The folder containing the XML schemas, relative to the module */
+	private static final File SCHEMA_FOLDER = new File("../doc/xsd");
+
+	/** A small cue sheet */
+	private static final String CUE_SHEET =
+		"REM GENRE \"Rock\"\r\n" +
+		"REM DATE 1977\r\n" +
+		"PERFORMER \"Performer\"\r\n" +
+		"TITLE \"Album\"\r\n" +
+		"FILE \"album.flac\" WAVE\r\n" +
+		"  TRACK 01 AUDIO\r\n" +
+		"    TITLE \"First\"\r\n" +
+		"    FLAGS DCP\r\n" +
+		"    INDEX 01 00:00:00\r\n" +
+		"  TRACK 02 AUDIO\r\n" +
+		"    TITLE \"Second\"\r\n" +
+		"    INDEX 00 04:10:12\r\n" +
+		"    INDEX 01 04:12:00\r\n";
+
+	/**
+	 * Validates the XML document against the schema.
+	 *
+	 * @param schemaName the file name of the schema.
+	 * @param xml the XML document.
+	 * @throws Exception if the document is invalid.
+	 */
+	private static void validate(String schemaName, String xml) throws Exception {
+		SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+		Schema schema = factory.newSchema(new File(SCHEMA_FOLDER, schemaName));
+		schema.newValidator().validate(new StreamSource(new StringReader(xml)));
+	}
+
+	/**
+	 * Test that a single streamed cue sheet is valid according to the
+	 * original schema.
+	 *
+	 * @throws Exception if the test fails.
+	 */
+	@Test
+	public void testStreamCueSheet() throws Exception {
+		CueSheet cueSheet = CueParser.parse(CUE_SHEET, Paths.get("album.cue"));
+		StringWriter writer = new StringWriter();
+		new CueSheetToXmlSerializer().streamCueSheet(cueSheet, writer);
+		String xml = writer.toString();
+		Assert.assertTrue(xml.contains("xmlns=\"http://jwbroek/cuelib/2008/cuesheet/1\""));
+		validate("cuesheet-2008-1.xsd", xml);
+	}
+
+	/**
+	 * Test that a {@code cuesheets} document is valid according to the
+	 * {@code cuesheets} schema.
+	 *
+	 * @throws Exception if the test fails.
+	 */
+	@Test
+	public void testStreamCueSheets() throws Exception {
+		CueSheet first = CueParser.parse(CUE_SHEET, Paths.get("first.cue"));
+		CueSheet second = CueParser.parse(CUE_SHEET, Paths.get("second.cue"));
+		StringWriter writer = new StringWriter();
+		try (CueSheetToXmlSerializer.CueSheetsWriter cueSheetsWriter = new CueSheetToXmlSerializer().openCueSheets(writer)) {
+			for (CueSheet cueSheet : Arrays.asList(first, second)) {
+				cueSheetsWriter.add(cueSheet);
+			}
+			Assert.assertEquals(2, cueSheetsWriter.getCount());
+		}
+		String xml = writer.toString();
+		Assert.assertTrue(xml.contains("<cuesheets xmlns=\"http://jwbroek/cuelib/2026/cuesheets/1\">"));
+		validate("cuesheets-2026-1.xsd", xml);
+	}
+}
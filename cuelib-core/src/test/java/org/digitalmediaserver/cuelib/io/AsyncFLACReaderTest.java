@@ -0,0 +1,163 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.io;
+
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import org.digitalmediaserver.cuelib.CueSheet;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+/**
+ * Unit test for {@link AsyncFLACReader}.
+ *
+ * @author Nadahar
+ */
+public class AsyncFLACReaderTest {
+
+	/** The folder for the test files */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/** A cue sheet to embed in a vorbis comment */
+	private static final String CUE_SHEET =
+		"TITLE \"Album\"\r\n" +
+		"FILE \"album.wav\" WAVE\r\n" +
+		"  TRACK 01 AUDIO\r\n" +
+		"    INDEX 01 00:00:00\r\n" +
+		"  TRACK 02 AUDIO\r\n" +
+		"    INDEX 01 03:00:00\r\n";
+
+	private Path write(String name, byte[] content) throws IOException {
+		Path file = folder.getRoot().toPath().resolve(name);
+		Files.write(file, content);
+		return file;
+	}
+
+	/**
+	 * Test that cue sheets are found in vorbis comments and {@code CUESHEET}
+	 * blocks, also when the blocks extend beyond the read chunks, using the
+	 * default and a specified executor.
+	 *
+	 * @throws Exception if the test fails.
+	 */
+	@Test
+	public void testGetCueSheetAsync() throws Exception {
+		Path vorbis = write("vorbis.flac", new FLACFileBuilder()
+			.id3v2(5000)
+			.streamInfo()
+			.padding(10000)
+			.vorbisComment("reference libFLAC 1.3.2", "TITLE=Album", "CUESHEET=" + CUE_SHEET)
+			.build(1000)
+		);
+		Path block = write("block.flac", new FLACFileBuilder()
+			.streamInfo()
+			.application(100)
+			.cueSheet("1234567890123", 0L, 180L * FLACFileBuilder.SAMPLE_RATE)
+			.padding(8000)
+			.build(1000)
+		);
+		Path none = write("none.flac", new FLACFileBuilder().streamInfo().padding(100).build(100));
+		Path other = write("other.wav", new byte[] {'R', 'I', 'F', 'F', 0, 0, 0, 0});
+
+		ExecutorService executor = Executors.newFixedThreadPool(1);
+		try {
+			for (ExecutorService current : new ExecutorService[] {null, executor}) {
+				CueSheet cueSheet = AsyncFLACReader.getCueSheetAsync(vorbis, current).get();
+				Assert.assertNotNull(cueSheet);
+				Assert.assertEquals("Album", cueSheet.getTitle());
+				Assert.assertEquals("vorbis.flac", cueSheet.getFileData().get(0).getFile());
+				Assert.assertEquals(2, cueSheet.getAllTrackData().size());
+
+				cueSheet = AsyncFLACReader.getCueSheetAsync(block, current).get();
+				Assert.assertNotNull(cueSheet);
+				Assert.assertEquals("1234567890123", cueSheet.getCatalog());
+				Assert.assertEquals(2, cueSheet.getAllTrackData().size());
+				Assert.assertEquals(
+					180L * FLACFileBuilder.SAMPLE_RATE,
+					cueSheet.getAllTrackData().get(1).getSampleOffset()
+				);
+
+				Assert.assertNull(AsyncFLACReader.getCueSheetAsync(none, current).get());
+				Assert.assertNull(AsyncFLACReader.getCueSheetAsync(other, current).get());
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		try {
+			AsyncFLACReader.getCueSheetAsync(folder.getRoot().toPath().resolve("missing.flac")).join();
+			Assert.fail("A missing file should fail");
+		} catch (CompletionException e) {
+			Assert.assertTrue(e.getCause() instanceof IOException);
+		}
+	}
+
+	/**
+	 * Test that the default executor is bounded.
+	 */
+	@Test
+	public void testDefaultExecutor() {
+		ExecutorService executor = AsyncFLACReader.getDefaultExecutor();
+		Assert.assertSame(executor, AsyncFLACReader.getDefaultExecutor());
+		Assert.assertTrue(executor instanceof ThreadPoolExecutor);
+		Assert.assertEquals(AsyncFLACReader.DEFAULT_THREAD_COUNT, ((ThreadPoolExecutor) executor).getMaximumPoolSize());
+	}
+
+	/**
+	 * Test that the inherited blocking methods either wait for the
+	 * asynchronous result or aren't supported.
+	 *
+	 * @throws Exception if the test fails.
+	 */
+	@Test
+	public void testInheritedMethods() throws Exception {
+		Path file = write("vorbis.flac", new FLACFileBuilder()
+			.streamInfo()
+			.vorbisComment("vendor", "CUESHEET=" + CUE_SHEET)
+			.build(100)
+		);
+		try (AsynchronousFileChannel channel = AsynchronousFileChannel.open(
+			file,
+			EnumSet.of(StandardOpenOption.READ),
+			AsyncFLACReader.getDefaultExecutor()
+		)) {
+			CueSheet cueSheet = new AsyncFLACReader(channel, file, AsyncFLACReader.DEFAULT_CHUNK_SIZE).extractCueSheet();
+			Assert.assertNotNull(cueSheet);
+			Assert.assertEquals("Album", cueSheet.getTitle());
+			try {
+				new AsyncFLACReader(channel, file, AsyncFLACReader.DEFAULT_CHUNK_SIZE).extractMetadata(null);
+				Assert.fail("extractMetadata() should be unsupported");
+			} catch (UnsupportedOperationException e) {
+				// Expected
+			}
+		}
+	}
+}
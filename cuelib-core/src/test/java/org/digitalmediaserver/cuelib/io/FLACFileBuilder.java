@@ -0,0 +1,249 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.io;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Builds synthetic FLAC files with the specified metadata blocks followed by
+ * dummy audio data, for the tests of {@link FLACReader} and
+ * {@link AsyncFLACReader}.
+ *
+ * @author Nadahar
+ */
+class FLACFileBuilder {
+
+	/** The sample rate of the {@code STREAMINFO} block */
+	static final int SAMPLE_RATE = 44100;
+
+	/** The total number of samples of the {@code STREAMINFO} block */
+	static final long TOTAL_SAMPLES = 10L * 60 * SAMPLE_RATE;
+
+	private final List<byte[]> blocks = new ArrayList<>();
+	private final List<Integer> blockTypes = new ArrayList<>();
+	private int id3v2Size = -1;
+
+	/**
+	 * Adds an {@code ID3v2} tag with the specified content size before the
+	 * stream marker.
+	 *
+	 * @param size the size of the tag content.
+	 * @return This instance.
+	 */
+	FLACFileBuilder id3v2(int size) {
+		id3v2Size = size;
+		return this;
+	}
+
+	/**
+	 * Adds a {@code STREAMINFO} block for 16-bit stereo at
+	 * {@link #SAMPLE_RATE} with {@link #TOTAL_SAMPLES} samples.
+	 *
+	 * @return This instance.
+	 */
+	FLACFileBuilder streamInfo() {
+		ByteBuffer block = ByteBuffer.allocate(34);
+		block.putShort((short) 4096).putShort((short) 4096);
+		block.put(new byte[] {0, 0, 16, 0, 0x30, 0});
+		// 20 bits sample rate, 3 bits channels - 1, 5 bits bits per sample - 1, 36 bits total samples
+		long packed = ((long) SAMPLE_RATE << 44) | (1L << 41) | (15L << 36) | TOTAL_SAMPLES;
+		block.putLong(packed);
+		block.put(new byte[16]);
+		return add(FLACReader.STREAMINFO, block.array());
+	}
+
+	/**
+	 * Adds a {@code PADDING} block.
+	 *
+	 * @param size the size of the block.
+	 * @return This instance.
+	 */
+	FLACFileBuilder padding(int size) {
+		return add(FLACReader.PADDING, new byte[size]);
+	}
+
+	/**
+	 * Adds an {@code APPLICATION} block.
+	 *
+	 * @param size the size of the block.
+	 * @return This instance.
+	 */
+	FLACFileBuilder application(int size) {
+		byte[] block = new byte[size];
+		for (int i = 0; i < size; i++) {
+			block[i] = (byte) i;
+		}
+		return add(FLACReader.APPLICATION, block);
+	}
+
+	/**
+	 * Adds a {@code SEEKTABLE} block.
+	 *
+	 * @param points the seek points as {sample number, offset, samples}. A
+	 *            sample number of {@code -1} makes a placeholder point.
+	 * @return This instance.
+	 */
+	FLACFileBuilder seekTable(long[]... points) {
+		ByteBuffer block = ByteBuffer.allocate(18 * points.length);
+		for (long[] point : points) {
+			block.putLong(point[0]).putLong(point[1]).putShort((short) point[2]);
+		}
+		return add(FLACReader.SEEKTABLE, block.array());
+	}
+
+	/**
+	 * Adds a {@code VORBIS_COMMENT} block.
+	 *
+	 * @param vendor the vendor string.
+	 * @param comments the comments in {@code NAME=value} form.
+	 * @return This instance.
+	 */
+	FLACFileBuilder vorbisComment(String vendor, String... comments) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		writeLittleEndian(out, vendor.getBytes(StandardCharsets.UTF_8));
+		ByteBuffer count = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(comments.length);
+		out.write(count.array(), 0, 4);
+		for (String comment : comments) {
+			writeLittleEndian(out, comment.getBytes(StandardCharsets.UTF_8));
+		}
+		return add(FLACReader.VORBIS_COMMENT, out.toByteArray());
+	}
+
+	/**
+	 * Adds a {@code CUESHEET} block with one index 01 per track, followed by
+	 * the lead-out track.
+	 *
+	 * @param catalog the media catalog number.
+	 * @param trackOffsets the sample offsets of the tracks.
+	 * @return This instance.
+	 */
+	FLACFileBuilder cueSheet(String catalog, long... trackOffsets) {
+		ByteBuffer block = ByteBuffer.allocate(396 + 36 * (trackOffsets.length + 1) + 12 * trackOffsets.length);
+		byte[] catalogBytes = catalog.getBytes(StandardCharsets.US_ASCII);
+		block.put(catalogBytes).put(new byte[128 - catalogBytes.length]);
+		block.putLong(88200L); // Lead-in
+		block.put((byte) 0x80); // Compact disc
+		block.put(new byte[258]);
+		block.put((byte) (trackOffsets.length + 1));
+		for (int i = 0; i <= trackOffsets.length; i++) {
+			boolean leadOut = i == trackOffsets.length;
+			block.putLong(leadOut ? TOTAL_SAMPLES : trackOffsets[i]);
+			block.put((byte) (leadOut ? 170 : i + 1));
+			block.put(leadOut ? new byte[12] : String.format("ABCDE%07d", i + 1).getBytes(StandardCharsets.US_ASCII));
+			block.put(new byte[14]);
+			block.put((byte) (leadOut ? 0 : 1));
+			if (!leadOut) {
+				block.putLong(0L).put((byte) 1).put(new byte[3]);
+			}
+		}
+		return add(FLACReader.CUESHEET, block.array());
+	}
+
+	/**
+	 * Adds a {@code PICTURE} block.
+	 *
+	 * @param mimeType the MIME type.
+	 * @param description the description.
+	 * @param dataLength the length of the dummy picture data.
+	 * @return This instance.
+	 */
+	FLACFileBuilder picture(String mimeType, String description, int dataLength) {
+		byte[] mime = mimeType.getBytes(StandardCharsets.US_ASCII);
+		byte[] text = description.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer block = ByteBuffer.allocate(32 + mime.length + text.length + dataLength);
+		block.putInt(3).putInt(mime.length).put(mime).putInt(text.length).put(text);
+		block.putInt(500).putInt(400).putInt(24).putInt(0).putInt(dataLength);
+		return add(FLACReader.PICTURE, block.array());
+	}
+
+	/**
+	 * Adds a block of the specified type.
+	 *
+	 * @param type the block type.
+	 * @param content the block content.
+	 * @return This instance.
+	 */
+	FLACFileBuilder add(int type, byte[] content) {
+		blockTypes.add(type);
+		blocks.add(content);
+		return this;
+	}
+
+	/**
+	 * @return The position of the first audio frame in the built file.
+	 */
+	int getAudioOffset() {
+		int result = id3v2Size < 0 ? 4 : 14 + id3v2Size;
+		for (byte[] block : blocks) {
+			result += 4 + block.length;
+		}
+		return result;
+	}
+
+	/**
+	 * Builds the file content.
+	 *
+	 * @param audioLength the number of dummy audio bytes after the metadata.
+	 * @return The file content.
+	 */
+	byte[] build(int audioLength) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		if (id3v2Size >= 0) {
+			out.write('I');
+			out.write('D');
+			out.write('3');
+			out.write(4);
+			out.write(0);
+			out.write(0);
+			for (int shift = 21; shift >= 0; shift -= 7) {
+				out.write((id3v2Size >> shift) & 0x7F);
+			}
+			out.write(new byte[id3v2Size], 0, id3v2Size);
+		}
+		out.write('f');
+		out.write('L');
+		out.write('a');
+		out.write('C');
+		for (int i = 0; i < blocks.size(); i++) {
+			byte[] block = blocks.get(i);
+			out.write(blockTypes.get(i) | (i == blocks.size() - 1 ? 0x80 : 0));
+			out.write(block.length >> 16);
+			out.write(block.length >> 8);
+			out.write(block.length);
+			out.write(block, 0, block.length);
+		}
+		for (int i = 0; i < audioLength; i++) {
+			// Frame sync code, followed by junk
+			out.write(i == 0 ? 0xFF : i == 1 ? 0xF8 : 0x55);
+		}
+		return out.toByteArray();
+	}
+
+	private static void writeLittleEndian(ByteArrayOutputStream out, byte[] value) {
+		ByteBuffer length = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(value.length);
+		out.write(length.array(), 0, 4);
+		out.write(value, 0, value.length);
+	}
+}
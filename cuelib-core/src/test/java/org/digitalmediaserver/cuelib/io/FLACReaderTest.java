@@ -0,0 +1,274 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.digitalmediaserver.cuelib.CueSheet;
+import org.digitalmediaserver.cuelib.io.FLACMetadata.Picture;
+import org.digitalmediaserver.cuelib.io.FLACMetadata.SeekTable;
+import org.digitalmediaserver.cuelib.io.FLACReader.StreamInfo;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+/**
+ * Unit test for {@link FLACReader}.
+ *
+ * @author Nadahar
+ */
+public class FLACReaderTest {
+
+	/** The folder for the test files */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/** A cue sheet to embed in a vorbis comment */
+	private static final String CUE_SHEET =
+		"TITLE \"Album\"\r\n" +
+		"FILE \"album.wav\" WAVE\r\n" +
+		"  TRACK 01 AUDIO\r\n" +
+		"    INDEX 01 00:00:00\r\n" +
+		"  TRACK 02 AUDIO\r\n" +
+		"    INDEX 01 03:00:00\r\n";
+
+	private Path write(String name, byte[] content) throws IOException {
+		Path file = folder.getRoot().toPath().resolve(name);
+		Files.write(file, content);
+		return file;
+	}
+
+	/**
+	 * Reads the cue sheet from {@code file} using the blocking, small buffer,
+	 * prefetch, non-seekable and asynchronous modes, and checks that they all
+	 * give the same result.
+	 *
+	 * @param file the FLAC file.
+	 * @return The {@link CueSheet} or {@code null}.
+	 * @throws Exception If an error occurs during the operation.
+	 */
+	private static CueSheet getCueSheet(Path file) throws Exception {
+		CueSheet[] results = {
+			FLACReader.getCueSheet(file),
+			FLACReader.getCueSheet(file, ByteBuffer.allocate(64)),
+			FLACReader.getCueSheet(file, FLACReader.MIN_PREFETCH_SIZE),
+			FLACReader.getCueSheet(file, FLACReader.DEFAULT_PREFETCH_SIZE),
+			FLACReader.getCueSheet(Channels.newChannel(new ByteArrayInputStream(Files.readAllBytes(file))), file),
+			AsyncFLACReader.getCueSheetAsync(file).get()
+		};
+		for (int i = 1; i < results.length; i++) {
+			if (results[0] == null) {
+				Assert.assertNull("Mode " + i, results[i]);
+			} else {
+				Assert.assertNotNull("Mode " + i, results[i]);
+				Assert.assertEquals("Mode " + i, results[0].getTitle(), results[i].getTitle());
+				Assert.assertEquals("Mode " + i, results[0].getCatalog(), results[i].getCatalog());
+				Assert.assertEquals("Mode " + i, results[0].getAllTrackData().size(), results[i].getAllTrackData().size());
+			}
+		}
+		return results[0];
+	}
+
+	/**
+	 * Test that cue sheets are found in {@code CUESHEET} blocks and in
+	 * {@code CUESHEET} vorbis comments regardless of the case of the field
+	 * name, but not in other fields that start with the same characters, and
+	 * that the first cue sheet found is returned.
+	 *
+	 * @throws Exception if the test fails.
+	 */
+	@Test
+	public void testGetCueSheet() throws Exception {
+		CueSheet cueSheet = getCueSheet(write("vorbis.flac", new FLACFileBuilder()
+			.id3v2(3000)
+			.streamInfo()
+			.padding(100000)
+			.seekTable(new long[] {0, 0, 4096}, new long[] {-1, 0, 0})
+			.vorbisComment("vendor", "A=b", "TITLE=Album", "cuesheet=" + CUE_SHEET)
+			.build(1000)
+		));
+		Assert.assertNotNull(cueSheet);
+		Assert.assertEquals("Album", cueSheet.getTitle());
+		Assert.assertEquals("vorbis.flac", cueSheet.getFileData().get(0).getFile());
+		Assert.assertEquals(2, cueSheet.getAllTrackData().size());
+
+		cueSheet = getCueSheet(write("block.flac", new FLACFileBuilder()
+			.streamInfo()
+			.application(70)
+			.cueSheet("1234567890123", 0L, 180L * FLACFileBuilder.SAMPLE_RATE, 300L * FLACFileBuilder.SAMPLE_RATE)
+			.vorbisComment("vendor", "CueSheet=" + CUE_SHEET.replace("Album", "Comment"))
+			.picture("image/png", "Cover", 5000)
+			.build(1000)
+		));
+		Assert.assertNotNull(cueSheet);
+		Assert.assertEquals("1234567890123", cueSheet.getCatalog());
+		Assert.assertEquals(3, cueSheet.getAllTrackData().size());
+		Assert.assertEquals("ABCDE0000002", cueSheet.getAllTrackData().get(1).getIsrcCode());
+		Assert.assertEquals(180L * FLACFileBuilder.SAMPLE_RATE, cueSheet.getAllTrackData().get(1).getSampleOffset());
+
+		Assert.assertNull(getCueSheet(write("other.flac", new FLACFileBuilder()
+			.streamInfo()
+			.vorbisComment("vendor", "CUESHEETS=" + CUE_SHEET, "CUE=" + CUE_SHEET, "CUESHEET")
+			.padding(10)
+			.build(100)
+		)));
+		Assert.assertNull(getCueSheet(write("none.flac", new FLACFileBuilder().streamInfo().build(100))));
+		Assert.assertNull(getCueSheet(write("not.flac", "RIFF\0\0\0\0WAVE".getBytes("US-ASCII"))));
+		Assert.assertNull(getCueSheet(write("truncated.flac", Arrays.copyOf(
+			new FLACFileBuilder().streamInfo().vorbisComment("vendor", "CUESHEET=" + CUE_SHEET).build(0),
+			100
+		))));
+	}
+
+	/**
+	 * Test that the metadata is collected in a single pass in the blocking,
+	 * small buffer, prefetch and non-seekable modes, that placeholder seek
+	 * points are dropped and that the {@code CUESHEET} block takes precedence
+	 * over the vorbis comment.
+	 *
+	 * @throws Exception if the test fails.
+	 */
+	@Test
+	public void testGetMetadata() throws Exception {
+		FLACFileBuilder builder = new FLACFileBuilder()
+			.id3v2(200)
+			.streamInfo()
+			.picture("image/jpeg", "Front", 3000)
+			.seekTable(
+				new long[] {0, 0, 4096},
+				new long[] {441000, 12345, 4096},
+				new long[] {-1, 0, 0},
+				new long[] {-1, 0, 0}
+			)
+			.padding(9000)
+			.vorbisComment("reference libFLAC 1.3.2", "TITLE=Album", "Artist=One", "ARTIST=Two", "CUESHEET=" + CUE_SHEET)
+			.cueSheet("1234567890123", 0L, 180L * FLACFileBuilder.SAMPLE_RATE);
+		byte[] content = builder.build(1000);
+		Path file = write("metadata.flac", content);
+		long pictureDataOffset = 14 + 200 + (4 + 34) + 4 + 32 + "image/jpeg".length() + "Front".length();
+
+		FLACMetadata[] results = new FLACMetadata[4];
+		results[0] = FLACReader.getMetadata(file);
+		results[1] = FLACReader.getMetadata(file, ByteBuffer.allocate(64));
+		try (SeekableByteChannel channel = Files.newByteChannel(file)) {
+			results[2] = new FLACReader(channel, file, FLACReader.DEFAULT_PREFETCH_SIZE).extractMetadata(null);
+		}
+		ReadableByteChannel stream = Channels.newChannel(new ByteArrayInputStream(content));
+		results[3] = FLACReader.getMetadata(stream, null, file);
+
+		for (FLACMetadata metadata : results) {
+			Assert.assertNotNull(metadata);
+			Assert.assertEquals(file, metadata.getFile());
+			StreamInfo streamInfo = metadata.getStreamInfo();
+			Assert.assertEquals(FLACFileBuilder.SAMPLE_RATE, streamInfo.getSampleRate());
+			Assert.assertEquals(2, streamInfo.getChannels());
+			Assert.assertEquals(16, streamInfo.getBitsPerSample());
+			Assert.assertEquals(FLACFileBuilder.TOTAL_SAMPLES, streamInfo.getTotalSamples());
+			Assert.assertEquals(4096, streamInfo.getMaxBlockSize());
+
+			Assert.assertEquals("reference libFLAC 1.3.2", metadata.getVendor());
+			Assert.assertEquals("Album", metadata.getComment("title"));
+			Assert.assertEquals(Arrays.asList("One", "Two"), metadata.getComments().get("ARTIST"));
+			Assert.assertEquals(CUE_SHEET, metadata.getComment("CUESHEET"));
+
+			SeekTable seekTable = metadata.getSeekTable();
+			Assert.assertEquals(2, seekTable.getCount());
+			Assert.assertEquals(441000, seekTable.getSampleNumber(1));
+			Assert.assertEquals(12345, seekTable.getOffset(1));
+			Assert.assertEquals(4096, seekTable.getFrameSamples(1));
+
+			Assert.assertEquals(1, metadata.getPictures().size());
+			Picture picture = metadata.getPictures().get(0);
+			Assert.assertEquals(3, picture.getType());
+			Assert.assertEquals("image/jpeg", picture.getMimeType());
+			Assert.assertEquals("Front", picture.getDescription());
+			Assert.assertEquals(500, picture.getWidth());
+			Assert.assertEquals(400, picture.getHeight());
+			Assert.assertEquals(3000, picture.getDataLength());
+			Assert.assertEquals(pictureDataOffset, picture.getDataOffset());
+
+			Assert.assertEquals("1234567890123", metadata.getCueSheet().getCatalog());
+			Assert.assertEquals(builder.getAudioOffset(), metadata.getAudioOffset());
+		}
+
+		// A file that only has placeholder seek points
+		FLACMetadata metadata = FLACReader.getMetadata(write("placeholders.flac", new FLACFileBuilder()
+			.streamInfo()
+			.seekTable(new long[] {-1, 0, 0})
+			.build(100)
+		));
+		Assert.assertEquals(0, metadata.getSeekTable().getCount());
+		Assert.assertNull(metadata.getCueSheet());
+		Assert.assertNull(FLACReader.getMetadata(write("not.flac", "RIFF\0\0\0\0WAVE".getBytes("US-ASCII"))));
+	}
+
+	/**
+	 * Test that large blocks are skipped by seeking in seekable channels and
+	 * by reading in other channels, and that a prefetch covering the
+	 * metadata needs a single read.
+	 *
+	 * @throws IOException if the test fails.
+	 */
+	@Test
+	public void testReadAndSeekCounts() throws IOException {
+		byte[] content = new FLACFileBuilder()
+			.streamInfo()
+			.padding(100000)
+			.vorbisComment("vendor", "CUESHEET=" + CUE_SHEET)
+			.build(1000);
+		Path file = write("padded.flac", content);
+		try (SeekableByteChannel channel = Files.newByteChannel(file)) {
+			FLACReader reader = new FLACReader(channel, file);
+			Assert.assertNotNull(reader.extractCueSheet());
+			Assert.assertTrue(reader.getSeekCount() > 0);
+		}
+		FLACReader reader = new FLACReader(Channels.newChannel(new ByteArrayInputStream(content)), file);
+		Assert.assertNotNull(reader.extractCueSheet());
+		Assert.assertEquals(0, reader.getSeekCount());
+
+		file = write("small.flac", new FLACFileBuilder()
+			.streamInfo()
+			.padding(1000)
+			.vorbisComment("vendor", "CUESHEET=" + CUE_SHEET)
+			.build(100000)
+		);
+		try (SeekableByteChannel channel = Files.newByteChannel(file)) {
+			reader = new FLACReader(channel, file, FLACReader.DEFAULT_PREFETCH_SIZE);
+			Assert.assertEquals(FLACReader.DEFAULT_PREFETCH_SIZE, reader.getPrefetchSize());
+			Assert.assertNotNull(reader.extractCueSheet());
+			Assert.assertEquals(1, reader.getReadCount());
+		}
+
+		try {
+			new FLACReader(null, null, FLACReader.MIN_PREFETCH_SIZE - 1);
+			Assert.fail("An invalid prefetch size should be rejected");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+	}
+}
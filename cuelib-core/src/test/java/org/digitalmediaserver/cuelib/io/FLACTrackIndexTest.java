@@ -0,0 +1,180 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.io;
+
+import java.nio.file.Paths;
+import org.digitalmediaserver.cuelib.CueParser;
+import org.digitalmediaserver.cuelib.CueSheet;
+import org.digitalmediaserver.cuelib.FileData;
+import org.digitalmediaserver.cuelib.Index;
+import org.digitalmediaserver.cuelib.Position;
+import org.digitalmediaserver.cuelib.TrackData;
+import org.digitalmediaserver.cuelib.io.FLACMetadata.SeekTable;
+import org.digitalmediaserver.cuelib.io.FLACReader.StreamInfo;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * Unit test for {@link FLACTrackIndex}.
+ *
+ * @author Nadahar
+ */
+public class FLACTrackIndexTest {
+
+	/** The sample rate used by the tests */
+	private static final int SAMPLE_RATE = 44100;
+
+	/**
+	 * Creates a {@link FLACMetadata} with the specified {@link CueSheet}.
+	 *
+	 * @param cueSheet the {@link CueSheet}.
+	 * @param seekTable the {@link SeekTable} or {@code null}.
+	 * @return The new {@link FLACMetadata}.
+	 */
+	private static FLACMetadata createMetadata(CueSheet cueSheet, SeekTable seekTable) {
+		FLACMetadata metadata = new FLACMetadata(Paths.get("image.flac"));
+		metadata.setStreamInfo(new StreamInfo(4096, 4096, 0, 0, SAMPLE_RATE, 2, 16, 10000000L, null));
+		metadata.setCueSheet(cueSheet);
+		metadata.setSeekTable(seekTable);
+		metadata.setAudioOffset(8192);
+		return metadata;
+	}
+
+	/**
+	 * Adds a track with a single index.
+	 *
+	 * @param fileData the {@link FileData} to add the track to.
+	 * @param number the track number.
+	 * @param indexNumber the index number.
+	 * @param sampleOffset the sample offset of the index.
+	 */
+	private static void addTrack(FileData fileData, int number, int indexNumber, long sampleOffset) {
+		TrackData track = new TrackData(fileData, number, "AUDIO");
+		track.setSampleOffset(sampleOffset);
+		Index index = new Index(indexNumber, new Position(sampleOffset, SAMPLE_RATE));
+		index.setSampleOffset(sampleOffset);
+		track.getIndices().add(index);
+		fileData.getTrackData().add(track);
+	}
+
+	/**
+	 * Test that a track without a start index is left out without affecting
+	 * the other tracks.
+	 */
+	@Test
+	public void testMissingStartIndex() {
+		CueSheet cueSheet = new CueSheet();
+		FileData fileData = new FileData(cueSheet, "image.flac", "WAVE");
+		cueSheet.getFileData().add(fileData);
+		addTrack(fileData, 1, 1, 0);
+		// No indices, so there is no start index
+		fileData.getTrackData().add(new TrackData(fileData, 2, "AUDIO"));
+		addTrack(fileData, 3, 1, 4000000);
+		fileData.getTrackData().add(new TrackData(fileData, 4, "AUDIO"));
+
+		SeekTable seekTable = new SeekTable(
+			new long[] {0, 1000000, 3999744},
+			new long[] {0, 300000, 1200000},
+			new int[] {4096, 4096, 4096}
+		);
+		FLACTrackIndex trackIndex = createMetadata(cueSheet, seekTable).createTrackIndex();
+		Assert.assertNotNull(trackIndex);
+		Assert.assertEquals(2, trackIndex.getTrackCount());
+		Assert.assertEquals(1, trackIndex.getTrackNumber(0));
+		Assert.assertEquals(3, trackIndex.getTrackNumber(1));
+		Assert.assertEquals(-1, trackIndex.indexOf(2));
+		Assert.assertEquals(1, trackIndex.indexOf(3));
+
+		Assert.assertEquals(0, trackIndex.getStartSample(0));
+		Assert.assertEquals(4000000, trackIndex.getEndSample(0));
+		Assert.assertEquals(8192, trackIndex.getByteOffset(0));
+		Assert.assertEquals(0, trackIndex.getSkipSamples(0));
+
+		Assert.assertEquals(4000000, trackIndex.getStartSample(1));
+		Assert.assertEquals(10000000, trackIndex.getEndSample(1));
+		Assert.assertEquals(8192 + 1200000, trackIndex.getByteOffset(1));
+		Assert.assertEquals(3999744, trackIndex.getFrameSample(1));
+		Assert.assertEquals(256, trackIndex.getSkipSamples(1));
+
+		Assert.assertEquals(-1, trackIndex.findTrack(-1));
+		Assert.assertEquals(0, trackIndex.findTrack(3999999));
+		Assert.assertEquals(1, trackIndex.findTrack(4000000));
+		Assert.assertEquals(1, trackIndex.findTrack(9999999));
+		Assert.assertNotNull(trackIndex.toString());
+	}
+
+	/**
+	 * Test that tracks are ordered by their start samples.
+	 */
+	@Test
+	public void testUnsortedTracks() {
+		CueSheet cueSheet = new CueSheet();
+		FileData fileData = new FileData(cueSheet, "image.flac", "WAVE");
+		cueSheet.getFileData().add(fileData);
+		addTrack(fileData, 2, 1, 5000000);
+		addTrack(fileData, 1, 1, 0);
+
+		FLACTrackIndex trackIndex = createMetadata(cueSheet, null).createTrackIndex();
+		Assert.assertEquals(2, trackIndex.getTrackCount());
+		Assert.assertEquals(1, trackIndex.getTrackNumber(0));
+		Assert.assertEquals(5000000, trackIndex.getEndSample(0));
+		Assert.assertEquals(2, trackIndex.getTrackNumber(1));
+		Assert.assertEquals(1, trackIndex.findTrack(6000000));
+		Assert.assertEquals(8192, trackIndex.getByteOffset(1));
+		Assert.assertEquals(5000000, trackIndex.getSkipSamples(1));
+	}
+
+	/**
+	 * Test that start samples are calculated from the positions when the
+	 * sample offsets are unknown, and that several files are rejected.
+	 */
+	@Test
+	public void testParsedCueSheet() {
+		CueSheet cueSheet = CueParser.parse(
+			"FILE \"image.flac\" WAVE\r\n" +
+			"  TRACK 01 AUDIO\r\n" +
+			"    INDEX 01 00:00:00\r\n" +
+			"  TRACK 02 AUDIO\r\n" +
+			"    INDEX 01 01:00:00\r\n",
+			null
+		);
+		FLACTrackIndex trackIndex = createMetadata(cueSheet, null).createTrackIndex();
+		Assert.assertEquals(2, trackIndex.getTrackCount());
+		Assert.assertEquals(60L * SAMPLE_RATE, trackIndex.getStartSample(1));
+
+		cueSheet = CueParser.parse(
+			"FILE \"first.flac\" WAVE\r\n" +
+			"  TRACK 01 AUDIO\r\n" +
+			"    INDEX 01 00:00:00\r\n" +
+			"FILE \"second.flac\" WAVE\r\n" +
+			"  TRACK 02 AUDIO\r\n" +
+			"    INDEX 01 00:00:00\r\n",
+			null
+		);
+		FLACMetadata metadata = createMetadata(cueSheet, null);
+		Assert.assertNull(metadata.createTrackIndex());
+		try {
+			new FLACTrackIndex(metadata);
+			Assert.fail("Several files should be rejected");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+	}
+}
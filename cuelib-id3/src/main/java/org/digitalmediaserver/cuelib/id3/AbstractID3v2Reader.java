@@ -1,41 +1,215 @@
 package org.digitalmediaserver.cuelib.id3;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import org.digitalmediaserver.cuelib.util.Utils;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import org.digitalmediaserver.cuelib.id3.v2.MalformedFrameException;
+import org.digitalmediaserver.cuelib.id3.v2.UnsupportedEncodingException;
+import org.digitalmediaserver.cuelib.id3.v2.UnsynchedInputStream;
 
 
 /**
  * An abstract ID3v2 reader.
+ * <p>
+ * The tag is loaded into memory with {@link #readTag(File)}, which reads the
+ * header and then the whole tag with a single read since the size of the tag
+ * is known from the header. Tags of at least {@link #MAP_THRESHOLD} bytes,
+ * which usually hold pictures, are memory mapped instead, so that the parts
+ * that aren't used are never read. The frames are then parsed from the
+ * {@link ByteBuffer} instead of from the file.
  *
  * @author Nadahar
  */
 public abstract class AbstractID3v2Reader implements ID3Reader {
 
+	/** The length of the ID3v2 tag header */
+	public static final int HEADER_LENGTH = 10;
+
+	/** The tag size from which tags are memory mapped instead of read */
+	public static final int MAP_THRESHOLD = 256 * 1024;
+
+	@Override
+	public ID3Tag read(File file) throws IOException, UnsupportedEncodingException, MalformedFrameException {
+		return read(file, new ID3ReadOptions());
+	}
+
+	@Override
+	public ID3Tag read(
+		File file,
+		ID3ReadOptions options
+	) throws IOException, UnsupportedEncodingException, MalformedFrameException {
+		ByteBuffer buffer = readTag(file);
+		return buffer == null ? null : read(buffer, options);
+	}
+
+	/**
+	 * Parses the tag held by the specified {@link ByteBuffer} as returned by
+	 * {@link #readTag(FileChannel)}.
+	 *
+	 * @param buffer the {@link ByteBuffer} holding the header followed by the
+	 *            content of the tag, positioned at the start of the header.
+	 * @param options the {@link ID3ReadOptions} to use.
+	 * @return The {@link ID3Tag} or {@code null} if {@code buffer} doesn't
+	 *         hold a valid tag of this version.
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws UnsupportedEncodingException If the encoding is unsupported.
+	 * @throws MalformedFrameException If a malformed frame is encountered.
+	 */
+	public abstract ID3Tag read(
+		ByteBuffer buffer,
+		ID3ReadOptions options
+	) throws IOException, UnsupportedEncodingException, MalformedFrameException;
+
 	@Override
 	public boolean hasTag(File file) throws IOException {
-		try (FileInputStream input = new FileInputStream(file)) {
-			if (input.read() == 'I' && input.read() == 'D' && input.read() == '3') {
-				int majorVersion = input.read();
-				int revision = input.read();
-				if (!isVersionValid(majorVersion, revision)) {
-					return false;
-				}
-				// Skip flags
-				Utils.skipOrThrow(input, 1);
-
-				// Check for valid length bytes
-				for (int index = 0; index < 4; index++) {
-					int sizeByte = input.read();
-					if (sizeByte >= 128) {  // Top bit cannot be used.
-						return false;
-					}
-				}
-				return true;
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			return readHeader(channel) != null;
+		}
+	}
+
+	/**
+	 * Reads the ID3v2 tag at the start of the specified file into a
+	 * {@link ByteBuffer}.
+	 *
+	 * @param file the {@link File} to read.
+	 * @return The {@link ByteBuffer} as described for
+	 *         {@link #readTag(FileChannel, ByteBuffer)}, or {@code null} if the
+	 *         file doesn't start with a valid tag of this version.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	protected ByteBuffer readTag(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			return readTag(channel);
+		}
+	}
+
+	/**
+	 * Reads the ID3v2 tag at the start of the specified {@link FileChannel}
+	 * into a {@link ByteBuffer}.
+	 *
+	 * @param channel the {@link FileChannel} to read from. Its position isn't
+	 *            used or changed.
+	 * @return The {@link ByteBuffer} as described for
+	 *         {@link #readTag(FileChannel, ByteBuffer)}, or {@code null} if the
+	 *         channel doesn't start with a valid tag of this version.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	protected ByteBuffer readTag(FileChannel channel) throws IOException {
+		ByteBuffer header = readHeader(channel);
+		return header == null ? null : readTag(channel, header);
+	}
+
+	/**
+	 * Reads the ID3v2 tag whose header has already been read from the start
+	 * of the specified {@link FileChannel} into a {@link ByteBuffer}.
+	 *
+	 * @param channel the {@link FileChannel} to read from. Its position isn't
+	 *            used or changed.
+	 * @param header the {@link ByteBuffer} holding the valid header.
+	 * @return A {@link ByteBuffer} holding the header followed by the
+	 *         content of the tag, positioned at the start of the header. If the
+	 *         file ends before the declared end of the tag, the buffer is
+	 *         limited to the available content. The buffer is read-only if the
+	 *         tag is memory mapped.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	protected ByteBuffer readTag(FileChannel channel, ByteBuffer header) throws IOException {
+		int tagLength = HEADER_LENGTH + getSyncsafeInteger(header, 6);
+		long fileSize = channel.size();
+		if (tagLength >= MAP_THRESHOLD && tagLength <= fileSize) {
+			// The mapping remains valid after the channel is closed
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, tagLength);
+		}
+		// Don't trust the declared length, a truncated tag is limited to the file
+		ByteBuffer buffer = ByteBuffer.allocate((int) Math.max(HEADER_LENGTH, Math.min(tagLength, fileSize)));
+		buffer.put(header.duplicate().position(0).limit(HEADER_LENGTH));
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, buffer.position()) < 0) {
+				break;
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Reads the ID3v2 tag header at the start of the specified
+	 * {@link FileChannel}.
+	 *
+	 * @param channel the {@link FileChannel} to read from.
+	 * @return A flipped {@link ByteBuffer} holding the header, or {@code null}
+	 *         if the channel doesn't start with a valid header of this
+	 *         version.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	protected ByteBuffer readHeader(FileChannel channel) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+		while (header.hasRemaining()) {
+			if (channel.read(header, header.position()) < 0) {
+				return null;
 			}
-			return false;
 		}
+		header.flip();
+		return isHeaderValid(header) ? header : null;
+	}
+
+	/**
+	 * Evaluates if the specified {@link ByteBuffer} starts with a valid
+	 * ID3v2 tag header of this version.
+	 *
+	 * @param header the {@link ByteBuffer} to evaluate.
+	 * @return {@code true} if the header is valid, {@code false} otherwise.
+	 */
+	protected boolean isHeaderValid(ByteBuffer header) {
+		return
+			header.limit() >= HEADER_LENGTH &&
+			header.get(0) == 'I' &&
+			header.get(1) == 'D' &&
+			header.get(2) == '3' &&
+			isVersionValid(header.get(3) & 0xFF, header.get(4) & 0xFF) &&
+			getSyncsafeInteger(header, 6) >= 0;  // Top bit cannot be used.
+	}
+
+	/**
+	 * Decodes the 4 byte "syncsafe" integer at the specified index, where
+	 * the top bit of each byte is unused.
+	 *
+	 * @param buffer the {@link ByteBuffer} to read from.
+	 * @param index the index of the first byte.
+	 * @return The decoded value or {@code -1} if the top bit of a byte is set.
+	 */
+	protected static int getSyncsafeInteger(ByteBuffer buffer, int index) {
+		int result = 0;
+		for (int i = index; i < index + 4; i++) {
+			int value = buffer.get(i) & 0xFF;
+			if (value >= 128) {
+				return -1;
+			}
+			result = result * 128 + value;
+		}
+		return result;
+	}
+
+	/**
+	 * Reverses the unsynchronization of the remaining content of the
+	 * specified {@link ByteBuffer}.
+	 *
+	 * @param buffer the {@link ByteBuffer} whose remaining content to decode.
+	 *            Its position is advanced to its limit.
+	 * @return A new {@link ByteBuffer} holding the content before the position
+	 *         of {@code buffer} unchanged, followed by the decoded content.
+	 *         It's positioned where {@code buffer} was, so that positions in
+	 *         it are offsets from the start of the tag.
+	 */
+	protected static ByteBuffer decodeUnsynchronization(ByteBuffer buffer) {
+		int start = buffer.position();
+		byte[] bytes = new byte[buffer.limit()];
+		buffer.position(0);
+		buffer.get(bytes);
+		int length = UnsynchedInputStream.decode(bytes, start, bytes.length - start);
+		return ByteBuffer.wrap(bytes, start, length);
 	}
 
 	/**
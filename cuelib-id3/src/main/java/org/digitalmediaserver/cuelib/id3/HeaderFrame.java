@@ -0,0 +1,139 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.id3;
+
+import java.util.Properties;
+
+
+/**
+ * A frame of which only the header has been read, which is the result of
+ * reading with {@link ID3ReadOptions#isHeadersOnly()}. It records where the
+ * frame is located, so that the payload can be read later if needed.
+ * <p>
+ * The offsets are counted from the start of the tag header, after any
+ * unsynchronization of the whole tag has been reversed. As the tag is at the
+ * start of the file, they are also the offsets in the file unless
+ * {@link ID3Tag#UNSYNC_USED} is set for the tag.
+ *
+ * @author Nadahar
+ */
+public class HeaderFrame implements ID3Frame {
+
+	/** The frame name as stored in the tag */
+	protected final String frameName;
+
+	/** The {@link CanonicalFrameType} or {@code null} if unsupported */
+	protected final CanonicalFrameType canonicalFrameType;
+
+	/** The offset of the frame header */
+	protected final long offset;
+
+	/** The offset of the frame payload */
+	protected final long dataOffset;
+
+	/** The size of the frame payload */
+	protected final int dataSize;
+
+	/** The total frame size including the header */
+	protected final int totalFrameSize;
+
+	/** The flags */
+	protected final Properties flags = new Properties();
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param frameName the frame name as stored in the tag.
+	 * @param canonicalFrameType the {@link CanonicalFrameType} or
+	 *            {@code null} if the frame type isn't supported.
+	 * @param offset the offset of the frame header or {@code -1} if unknown.
+	 * @param headerSize the size of the frame header including any
+	 *            additional header data that follows the flags.
+	 * @param dataSize the size of the frame payload.
+	 */
+	public HeaderFrame(
+		String frameName,
+		CanonicalFrameType canonicalFrameType,
+		long offset,
+		int headerSize,
+		int dataSize
+	) {
+		this.frameName = frameName;
+		this.canonicalFrameType = canonicalFrameType;
+		this.offset = offset;
+		this.dataOffset = offset < 0 ? -1 : offset + headerSize;
+		this.dataSize = dataSize;
+		this.totalFrameSize = headerSize + dataSize;
+	}
+
+	/**
+	 * @return The frame name as stored in the tag.
+	 */
+	public String getFrameName() {
+		return frameName;
+	}
+
+	@Override
+	public CanonicalFrameType getCanonicalFrameType() {
+		return canonicalFrameType;
+	}
+
+	/**
+	 * @return The offset of the frame header or {@code -1} if unknown.
+	 */
+	public long getOffset() {
+		return offset;
+	}
+
+	/**
+	 * @return The offset of the frame payload or {@code -1} if unknown.
+	 */
+	public long getDataOffset() {
+		return dataOffset;
+	}
+
+	/**
+	 * @return The size of the frame payload.
+	 */
+	public int getDataSize() {
+		return dataSize;
+	}
+
+	@Override
+	public int getTotalFrameSize() {
+		return totalFrameSize;
+	}
+
+	@Override
+	public Properties getFlags() {
+		return flags;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder
+			.append("Frame header: ").append(frameName).append(" (").append(canonicalFrameType)
+			.append(") [").append(totalFrameSize).append("]\n")
+			.append("Flags: ").append(flags).append('\n')
+			.append("Offset: ").append(offset).append(", data offset: ").append(dataOffset)
+			.append(", data size: ").append(dataSize);
+		return builder.toString();
+	}
+}
@@ -0,0 +1,165 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.id3;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+
+/**
+ * Options that control which frames an {@link ID3Reader} reads. By default,
+ * all supported frames are fully read.
+ * <p>
+ * Frames that aren't included are skipped by their size without being
+ * decoded, which makes it cheap to read only a few frames, for example the
+ * title and the performer, from files with large pictures.
+ *
+ * @author Nadahar
+ */
+public class ID3ReadOptions {
+
+	/** The frame types to read, or {@code null} to read all types */
+	protected Set<CanonicalFrameType> frameTypes;
+
+	/** The maximum payload size of the frames to read, or {@code -1} */
+	protected int maxPayloadSize = -1;
+
+	/** Whether to only read the frame headers */
+	protected boolean headersOnly;
+
+	/**
+	 * Creates a new instance that reads all frames.
+	 */
+	public ID3ReadOptions() {
+	}
+
+	/**
+	 * Creates a new instance that reads the specified frame types.
+	 *
+	 * @param frameTypes the {@link CanonicalFrameType}s to read, or
+	 *            {@code null} to read all types.
+	 */
+	public ID3ReadOptions(Set<CanonicalFrameType> frameTypes) {
+		setFrameTypes(frameTypes);
+	}
+
+	/**
+	 * @return The {@link CanonicalFrameType}s to read, or {@code null} if all
+	 *         types are read.
+	 */
+	public Set<CanonicalFrameType> getFrameTypes() {
+		return frameTypes == null ? null : Collections.unmodifiableSet(frameTypes);
+	}
+
+	/**
+	 * Sets the frame types to read. Frames of other types, including frames
+	 * that aren't supported, are skipped.
+	 *
+	 * @param frameTypes the {@link CanonicalFrameType}s to read, or
+	 *            {@code null} to read all types.
+	 */
+	public void setFrameTypes(Set<CanonicalFrameType> frameTypes) {
+		if (frameTypes == null) {
+			this.frameTypes = null;
+		} else if (frameTypes.isEmpty()) {
+			this.frameTypes = EnumSet.noneOf(CanonicalFrameType.class);
+		} else {
+			this.frameTypes = EnumSet.copyOf(frameTypes);
+		}
+	}
+
+	/**
+	 * @return The maximum payload size in bytes of the frames to read, or
+	 *         {@code -1} if there is no limit.
+	 */
+	public int getMaxPayloadSize() {
+		return maxPayloadSize;
+	}
+
+	/**
+	 * Sets the maximum payload size of the frames to read. Frames with a
+	 * larger payload, typically pictures, are skipped.
+	 *
+	 * @param maxPayloadSize the maximum payload size in bytes, or {@code -1}
+	 *            for no limit.
+	 */
+	public void setMaxPayloadSize(int maxPayloadSize) {
+		if (maxPayloadSize < -1) {
+			throw new IllegalArgumentException("maxPayloadSize must be -1 or more");
+		}
+		this.maxPayloadSize = maxPayloadSize;
+	}
+
+	/**
+	 * @return {@code true} if only the frame headers are read,
+	 *         {@code false} otherwise.
+	 */
+	public boolean isHeadersOnly() {
+		return headersOnly;
+	}
+
+	/**
+	 * Sets whether to only read the frame headers. If so, a
+	 * {@link HeaderFrame} that records the position and size of the frame is
+	 * added for each included frame instead of the decoded frame. The
+	 * maximum payload size doesn't apply in this mode.
+	 * <p>
+	 * This has no effect on ID3v1 tags, which have no frame headers.
+	 *
+	 * @param headersOnly {@code true} to only read the frame headers,
+	 *            {@code false} to decode the frames.
+	 */
+	public void setHeadersOnly(boolean headersOnly) {
+		this.headersOnly = headersOnly;
+	}
+
+	/**
+	 * Evaluates if frames of the specified type are included.
+	 *
+	 * @param frameType the {@link CanonicalFrameType} or {@code null} if the
+	 *            frame type isn't supported.
+	 * @return {@code true} if the frame type is included, {@code false}
+	 *         otherwise.
+	 */
+	public boolean isIncluded(CanonicalFrameType frameType) {
+		return frameTypes == null || (frameType != null && frameTypes.contains(frameType));
+	}
+
+	/**
+	 * Evaluates if a frame of the specified type and payload size should be
+	 * read.
+	 *
+	 * @param frameType the {@link CanonicalFrameType} or {@code null} if the
+	 *            frame type isn't supported.
+	 * @param payloadSize the size of the frame payload in bytes.
+	 * @return {@code true} if the frame should be read, {@code false} if it
+	 *         should be skipped.
+	 */
+	public boolean isIncluded(CanonicalFrameType frameType, int payloadSize) {
+		return isIncluded(frameType) && (headersOnly || maxPayloadSize < 0 || payloadSize <= maxPayloadSize);
+	}
+
+	@Override
+	public String toString() {
+		return
+			getClass().getSimpleName() + " [frameTypes=" + (frameTypes == null ? "All" : frameTypes) +
+			", maxPayloadSize=" + maxPayloadSize + ", headersOnly=" + headersOnly + "]";
+	}
+}
@@ -42,10 +42,33 @@ public interface ID3Reader {
 	 * Read the specified {@link File}.
 	 *
 	 * @param file the {@link File}.
-	 * @return the {@link ID3Tag}.
+	 * @return the {@link ID3Tag} or {@code null} if the file doesn't have a
+	 *         valid tag of the version handled by this reader.
 	 * @throws IOException Signals that an I/O exception has occurred.
 	 * @throws UnsupportedEncodingException If the encoding is unsupported.
 	 * @throws MalformedFrameException If a malformed frame is encountered.
 	 */
 	public ID3Tag read(File file) throws IOException, UnsupportedEncodingException, MalformedFrameException;
+
+	/**
+	 * Read the specified {@link File} using the specified
+	 * {@link ID3ReadOptions}. Frames that aren't included by the options are
+	 * skipped without being decoded.
+	 * <p>
+	 * The default implementation ignores the options and reads all frames.
+	 *
+	 * @param file the {@link File}.
+	 * @param options the {@link ID3ReadOptions} to use.
+	 * @return the {@link ID3Tag} or {@code null} if the file doesn't have a
+	 *         valid tag of the version handled by this reader.
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws UnsupportedEncodingException If the encoding is unsupported.
+	 * @throws MalformedFrameException If a malformed frame is encountered.
+	 */
+	public default ID3Tag read(
+		File file,
+		ID3ReadOptions options
+	) throws IOException, UnsupportedEncodingException, MalformedFrameException {
+		return read(file);
+	}
 }
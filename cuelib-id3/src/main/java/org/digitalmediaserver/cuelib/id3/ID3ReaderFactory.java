@@ -21,9 +21,15 @@ package org.digitalmediaserver.cuelib.id3;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import org.digitalmediaserver.cuelib.id3.v1.ID3v1Reader;
+import org.digitalmediaserver.cuelib.id3.v2.MalformedFrameException;
+import org.digitalmediaserver.cuelib.id3.v2.UnsupportedEncodingException;
 import org.digitalmediaserver.cuelib.id3.v2.r00.ID3v2r00Reader;
 import org.digitalmediaserver.cuelib.id3.v2.r30.ID3v2r30Reader;
 import org.digitalmediaserver.cuelib.id3.v2.r40.ID3v2r40Reader;
@@ -34,6 +40,9 @@ import org.digitalmediaserver.cuelib.id3.v2.r40.ID3v2r40Reader;
  */
 public class ID3ReaderFactory {
 
+	/** The length of an APEv2 tag footer */
+	private static final int APE_FOOTER_LENGTH = 32;
+
 	/**
 	 * Not to be instantiated.
 	 */
@@ -186,4 +195,111 @@ public class ID3ReaderFactory {
 			return result;
 		}
 	}
+
+	/**
+	 * Reads both the ID3v2 and the ID3v1 tag of the specified file.
+	 *
+	 * @param path the {@link Path} of the file.
+	 * @return The {@link ID3Tags}.
+	 * @throws IOException If an error occurs during the operation.
+	 * @throws UnsupportedEncodingException If the encoding is unsupported.
+	 * @throws MalformedFrameException If a malformed frame is encountered.
+	 * @see #read(Path, ID3ReadOptions)
+	 */
+	public static ID3Tags read(Path path) throws IOException, UnsupportedEncodingException, MalformedFrameException {
+		return read(path, new ID3ReadOptions());
+	}
+
+	/**
+	 * Reads both the ID3v2 and the ID3v1 tag of the specified file using the
+	 * specified {@link ID3ReadOptions}. The file is opened once, and the
+	 * head and the trailer are read with positioned reads, instead of
+	 * opening the file to find the version and again to read each tag.
+	 *
+	 * @param path the {@link Path} of the file.
+	 * @param options the {@link ID3ReadOptions} to use.
+	 * @return The {@link ID3Tags}.
+	 * @throws IOException If an error occurs during the operation.
+	 * @throws UnsupportedEncodingException If the encoding is unsupported.
+	 * @throws MalformedFrameException If a malformed frame is encountered.
+	 */
+	public static ID3Tags read(
+		Path path,
+		ID3ReadOptions options
+	) throws IOException, UnsupportedEncodingException, MalformedFrameException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+
+			// The ID3v2 tag at the start of the file
+			ID3Tag id3v2Tag = null;
+			ByteBuffer header = readFully(channel, 0, (int) Math.min(size, AbstractID3v2Reader.HEADER_LENGTH));
+			if (header.limit() == AbstractID3v2Reader.HEADER_LENGTH) {
+				AbstractID3v2Reader reader;
+				switch (header.get(3)) {
+					case 2:
+						reader = new ID3v2r00Reader();
+						break;
+					case 3:
+						reader = new ID3v2r30Reader();
+						break;
+					case 4:
+						reader = new ID3v2r40Reader();
+						break;
+					default:
+						reader = null;
+				}
+				if (reader != null && reader.isHeaderValid(header)) {
+					id3v2Tag = reader.read(reader.readTag(channel, header), options);
+				}
+			}
+
+			// The ID3v1 tag and any APEv2 tag footer before it at the end of the file
+			ID3Tag id3v1Tag = null;
+			boolean apeTagPresent = false;
+			int trailerLength = (int) Math.min(size, ID3v1Reader.TAG_LENGTH + APE_FOOTER_LENGTH);
+			ByteBuffer trailer = readFully(channel, size - trailerLength, trailerLength);
+			int apeFooterIndex = trailerLength - APE_FOOTER_LENGTH;
+			if (trailerLength >= ID3v1Reader.TAG_LENGTH) {
+				id3v1Tag = new ID3v1Reader().read(
+					trailer.duplicate().position(trailerLength - ID3v1Reader.TAG_LENGTH),
+					options
+				);
+				if (id3v1Tag != null) {
+					apeFooterIndex -= ID3v1Reader.TAG_LENGTH;
+				}
+			}
+			if (apeFooterIndex >= 0) {
+				apeTagPresent = true;
+				for (int i = 0; i < 8; i++) {
+					if (trailer.get(apeFooterIndex + i) != "APETAGEX".charAt(i)) {
+						apeTagPresent = false;
+						break;
+					}
+				}
+			}
+			return new ID3Tags(id3v2Tag, id3v1Tag, apeTagPresent);
+		}
+	}
+
+	/**
+	 * Reads the specified number of bytes at the specified position with
+	 * positioned reads.
+	 *
+	 * @param channel the {@link FileChannel} to read from.
+	 * @param position the position to read from.
+	 * @param length the number of bytes to read.
+	 * @return A flipped {@link ByteBuffer} holding the bytes read, which is
+	 *         shorter than {@code length} if the end of the file is reached.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				break;
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
 }
@@ -0,0 +1,116 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.id3;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * The ID3 tags of a file as read by {@link ID3ReaderFactory#read(java.nio.file.Path)}.
+ * A file can have both an ID3v2 tag at the start and an ID3v1 tag at the end.
+ *
+ * @author Nadahar
+ */
+public class ID3Tags {
+
+	/** The ID3v2 tag or {@code null} */
+	protected final ID3Tag id3v2Tag;
+
+	/** The ID3v1 tag or {@code null} */
+	protected final ID3Tag id3v1Tag;
+
+	/** Whether an APEv2 tag footer was found at the end of the file */
+	protected final boolean apeTagPresent;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param id3v2Tag the ID3v2 {@link ID3Tag} or {@code null}.
+	 * @param id3v1Tag the ID3v1 {@link ID3Tag} or {@code null}.
+	 * @param apeTagPresent whether an APEv2 tag footer was found.
+	 */
+	public ID3Tags(ID3Tag id3v2Tag, ID3Tag id3v1Tag, boolean apeTagPresent) {
+		this.id3v2Tag = id3v2Tag;
+		this.id3v1Tag = id3v1Tag;
+		this.apeTagPresent = apeTagPresent;
+	}
+
+	/**
+	 * @return The ID3v2 {@link ID3Tag} or {@code null} if there is none.
+	 */
+	public ID3Tag getID3v2Tag() {
+		return id3v2Tag;
+	}
+
+	/**
+	 * @return The ID3v1 {@link ID3Tag} or {@code null} if there is none.
+	 */
+	public ID3Tag getID3v1Tag() {
+		return id3v1Tag;
+	}
+
+	/**
+	 * Gets the tag with the highest version, which is the ID3v2 tag if
+	 * present.
+	 *
+	 * @return The {@link ID3Tag} or {@code null} if there are no tags.
+	 */
+	public ID3Tag getTag() {
+		return id3v2Tag != null ? id3v2Tag : id3v1Tag;
+	}
+
+	/**
+	 * @return {@code true} if an APEv2 tag footer was found at the end of the
+	 *         file, {@code false} otherwise. APEv2 tags aren't parsed.
+	 */
+	public boolean isAPETagPresent() {
+		return apeTagPresent;
+	}
+
+	/**
+	 * @return {@code true} if there are no ID3 tags, {@code false}
+	 *         otherwise.
+	 */
+	public boolean isEmpty() {
+		return id3v2Tag == null && id3v1Tag == null;
+	}
+
+	/**
+	 * Gets the versions of the tags, in the same order as
+	 * {@link ID3ReaderFactory#getVersions(java.io.File)}.
+	 *
+	 * @return The {@link List} of {@link ID3Version}s.
+	 */
+	public List<ID3Version> getVersions() {
+		List<ID3Version> result = new ArrayList<>(2);
+		if (id3v2Tag != null) {
+			result.add(id3v2Tag.getVersion());
+		}
+		if (id3v1Tag != null) {
+			result.add(id3v1Tag.getVersion());
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [versions=" + getVersions() + ", apeTagPresent=" + apeTagPresent + "]";
+	}
+}
@@ -18,14 +18,25 @@
  */
 package org.digitalmediaserver.cuelib.id3;
 
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import org.digitalmediaserver.cuelib.id3.io.ByteBufferInputStream;
 
 
 /**
  * The Class PictureFrame.
+ * <p>
+ * The image data is either held as a byte array or as a {@link ByteBuffer}
+ * that refers to the data where it was read from, typically a slice of a
+ * memory mapped tag. In the latter case, the image data isn't copied until
+ * it's requested with {@link #getImageData()}, and the data can be read
+ * without copying it with {@link #getImageBuffer()} or
+ * {@link #openImageChannel()}.
  */
 public class PictureFrame implements ID3Frame {
 
@@ -39,6 +50,7 @@ public class PictureFrame implements ID3Frame {
 	// TODO Tidy up for usecase when hyperlink is used.
 	private String imageType;
 	private byte[] imageData;
+	private ByteBuffer imageBuffer;
 
 	@Override
 	public String toString() {
@@ -154,11 +166,17 @@ public class PictureFrame implements ID3Frame {
 	}
 
 	/**
-	 * Get the imageData of this PictureFrame.
+	 * Get the imageData of this PictureFrame. If the image data is held as a
+	 * {@link ByteBuffer}, it's copied to a new array for each call.
 	 *
 	 * @return The imageData of this PictureFrame.
 	 */
 	public byte[] getImageData() {
+		if (imageData == null && imageBuffer != null) {
+			byte[] result = new byte[imageBuffer.remaining()];
+			imageBuffer.duplicate().get(result);
+			return result;
+		}
 		return imageData;
 	}
 
@@ -169,6 +187,57 @@ public class PictureFrame implements ID3Frame {
 	 */
 	public void setImageData(byte[] imageData) {
 		this.imageData = imageData;
+		this.imageBuffer = null;
+	}
+
+	/**
+	 * Get the image data of this PictureFrame without copying it.
+	 *
+	 * @return A new read-only {@link ByteBuffer} holding the image data, or
+	 *         {@code null} if there is no image data.
+	 */
+	public ByteBuffer getImageBuffer() {
+		if (imageBuffer != null) {
+			return imageBuffer.asReadOnlyBuffer();
+		}
+		return imageData == null ? null : ByteBuffer.wrap(imageData).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Set the image data of this PictureFrame as a {@link ByteBuffer} that
+	 * refers to the data instead of holding a copy of it.
+	 *
+	 * @param imageBuffer The {@link ByteBuffer} whose remaining content is the
+	 *            image data. Its position isn't changed.
+	 */
+	public void setImageBuffer(ByteBuffer imageBuffer) {
+		this.imageBuffer = imageBuffer == null ? null : imageBuffer.slice();
+		this.imageData = null;
+	}
+
+	/**
+	 * Get the size of the image data of this PictureFrame.
+	 *
+	 * @return The size of the image data in bytes.
+	 */
+	public int getImageSize() {
+		if (imageBuffer != null) {
+			return imageBuffer.remaining();
+		}
+		return imageData == null ? 0 : imageData.length;
+	}
+
+	/**
+	 * Opens a channel that reads the image data of this PictureFrame without
+	 * copying all of it first. There is nothing to release when the channel
+	 * is closed, so it's not an error to leave it open.
+	 *
+	 * @return The {@link ReadableByteChannel}, or {@code null} if there is no
+	 *         image data.
+	 */
+	public ReadableByteChannel openImageChannel() {
+		ByteBuffer buffer = getImageBuffer();
+		return buffer == null ? null : Channels.newChannel(new ByteBufferInputStream(buffer));
 	}
 
 	/**
@@ -0,0 +1,123 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.id3.io;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+
+/**
+ * An {@link InputStream} that reads the remaining content of a
+ * {@link ByteBuffer}. The position of the buffer is advanced as the stream is
+ * read or skipped, so that the buffer can be used directly after the stream
+ * has consumed a part of it.
+ * <p>
+ * Closing this stream has no effect.
+ *
+ * @author Nadahar
+ */
+public class ByteBufferInputStream extends InputStream {
+
+	/** The buffer to read from */
+	protected final ByteBuffer buffer;
+
+	/** The marked position, initially the position of the buffer */
+	protected int mark;
+
+	/**
+	 * Creates a new instance that reads from the specified buffer.
+	 *
+	 * @param buffer the {@link ByteBuffer} to read from.
+	 */
+	public ByteBufferInputStream(ByteBuffer buffer) {
+		if (buffer == null) {
+			throw new IllegalArgumentException("buffer cannot be null");
+		}
+		this.buffer = buffer;
+		this.mark = buffer.position();
+	}
+
+	/**
+	 * @return The {@link ByteBuffer} this stream reads from.
+	 */
+	public ByteBuffer getBuffer() {
+		return buffer;
+	}
+
+	@Override
+	public int read() {
+		return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) {
+		if (off < 0 || len < 0 || len > b.length - off) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (len == 0) {
+			return 0;
+		}
+		if (!buffer.hasRemaining()) {
+			return -1;
+		}
+		int count = Math.min(len, buffer.remaining());
+		buffer.get(b, off, count);
+		return count;
+	}
+
+	@Override
+	public long skip(long n) {
+		if (n <= 0) {
+			return 0;
+		}
+		int count = (int) Math.min(n, buffer.remaining());
+		buffer.position(buffer.position() + count);
+		return count;
+	}
+
+	@Override
+	public int available() {
+		return buffer.remaining();
+	}
+
+	@Override
+	public boolean markSupported() {
+		return true;
+	}
+
+	@Override
+	public void mark(int readlimit) {
+		mark = buffer.position();
+	}
+
+	@Override
+	public void reset() {
+		buffer.position(mark);
+	}
+
+	@Override
+	public void close() {
+		// Nothing to release
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [position=" + buffer.position() + ", limit=" + buffer.limit() + "]";
+	}
+}
@@ -20,7 +20,9 @@ package org.digitalmediaserver.cuelib.id3.util;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import org.digitalmediaserver.cuelib.id3.io.ByteBufferInputStream;
 import org.digitalmediaserver.cuelib.util.Utils;
 
 
@@ -62,6 +64,10 @@ public class FieldReader {
 			throw new IllegalArgumentException("Encoding not supported: " + charset.toString());
 		}
 
+		if (input instanceof ByteBufferInputStream) {
+			return readUntilNul(((ByteBufferInputStream) input).getBuffer(), length, singleNul, charset);
+		}
+
 		byte[] b = new byte[length];
 		int previousValue = -1;
 
@@ -77,6 +83,34 @@ public class FieldReader {
 		return new String(b, charset);
 	}
 
+	/**
+	 * Reads until nul directly from the specified {@link ByteBuffer}, without
+	 * copying the bytes one by one.
+	 *
+	 * @param buffer the {@link ByteBuffer} whose position to advance past the
+	 *            nul.
+	 * @param length the maximum number of bytes to read.
+	 * @param singleNul whether nul is a single 0 byte or two 0 bytes.
+	 * @param charset the {@link Charset}.
+	 * @return The read {@link String}.
+	 */
+	private static String readUntilNul(ByteBuffer buffer, int length, boolean singleNul, Charset charset) {
+		int start = buffer.position();
+		int end = start + Math.min(length, buffer.remaining());
+		byte[] b;
+		for (int index = start; index < end; index++) {
+			if (buffer.get(index) == 0 && (singleNul || (index > start && buffer.get(index - 1) == 0))) {
+				b = new byte[index - start - (singleNul ? 0 : 1)];
+				buffer.get(b);
+				buffer.position(index + 1);
+				return new String(b, charset);
+			}
+		}
+		b = new byte[end - start];
+		buffer.get(b);
+		return new String(b, charset);
+	}
+
 	/**
 	 * Read a field.
 	 *
@@ -21,7 +21,11 @@ package org.digitalmediaserver.cuelib.id3.v1;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import org.digitalmediaserver.cuelib.id3.CanonicalFrameType;
+import org.digitalmediaserver.cuelib.id3.ID3ReadOptions;
 import org.digitalmediaserver.cuelib.id3.ID3Reader;
 import org.digitalmediaserver.cuelib.id3.ID3Tag;
 import org.digitalmediaserver.cuelib.id3.ID3Version;
@@ -34,6 +38,9 @@ import org.digitalmediaserver.cuelib.util.Utils;
  */
 public class ID3v1Reader implements ID3Reader {
 
+	/** The length of an ID3v1 tag */
+	public static final int TAG_LENGTH = 128;
+
 	@Override
 	public boolean hasTag(File file) throws IOException {
 		try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
@@ -58,53 +65,86 @@ public class ID3v1Reader implements ID3Reader {
 	 */
 	@Override
 	public ID3Tag read(File file) throws IOException {
-		ID3Tag tag = new ID3Tag();
-		try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
-			if (input.length() >= 128) {
-				input.seek(input.length() - 128);
-				if (
-					input.readUnsignedByte() == 'T' &&
-					input.readUnsignedByte() == 'A' &&
-					input.readUnsignedByte() == 'G'
-				) {
-					tag.setVersion(ID3Version.ID3v1r0);
-					// TODO Don't create frame if field is empty?
-					tag.getFrames().add(new TextFrame(CanonicalFrameType.TITLE, ID3v1Reader.getField(input, 30), 30));
-					tag.getFrames().add(new TextFrame(CanonicalFrameType.PERFORMER, ID3v1Reader.getField(input, 30), 30));
-					tag.getFrames().add(new TextFrame(CanonicalFrameType.ALBUM, ID3v1Reader.getField(input, 30), 30));
-					tag.getFrames().add(new TextFrame(CanonicalFrameType.YEAR, ID3v1Reader.getField(input, 4), 4));
-					// Remember as we may extract a track number from it.
-					TextFrame commentFrame = new TextFrame(CanonicalFrameType.COMMENT, ID3v1Reader.getField(input, 30), 30);
-					tag.getFrames().add(commentFrame);
-					int rawGenre = input.readUnsignedByte();
-					if (rawGenre != 0) {
-						// TODO Perhaps a message indicating that genre was not set, if this is the case.
-						// TODO Genre is in different form than is the case for v2 tags. Normalise somehow.
-						tag.getFrames().add(new TextFrame(CanonicalFrameType.CONTENT_TYPE, "" + rawGenre, 1));
-					}
-					// ID3 1.1 extension.
-					input.seek(input.length() - 3);
-					int trackNoMarker = input.readUnsignedByte();
-					int rawTrackNo = input.readUnsignedByte();
-					if (trackNoMarker == 0) {
-						if (rawTrackNo != 0) {
-							// TODO Track no is in different form than is the case for v2 tags. Normalise somehow.
-							tag.getFrames().add(new TextFrame(CanonicalFrameType.TRACK_NO, "" + rawTrackNo, 1));
-							// Comment actually size 28.
-							commentFrame.setTotalFrameSize(28);
-							tag.setVersion(ID3Version.ID3v1r1);
-						}
-					}
-				} else {
-					// Not a valid ID3v1 tag.
-					tag = null;
-				}
-			} else {
+		return read(file, new ID3ReadOptions());
+	}
+
+	/**
+	 * Reads the ID3v1 tag of the specified {@link File}. As the tag has a
+	 * fixed size, it's always read in full, and the frames that aren't
+	 * included by the {@link ID3ReadOptions} are left out of the result.
+	 */
+	@Override
+	public ID3Tag read(File file, ID3ReadOptions options) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < TAG_LENGTH) {
 				// File too small to contain ID3v1 data.
-				tag = null;
+				return null;
 			}
+			ByteBuffer buffer = ByteBuffer.allocate(TAG_LENGTH);
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, size - TAG_LENGTH + buffer.position()) < 0) {
+					return null;
+				}
+			}
+			buffer.flip();
+			return read(buffer, options);
 		}
+	}
 
+	/**
+	 * Parses the ID3v1 tag held by the specified {@link ByteBuffer}, which
+	 * must hold the last {@link #TAG_LENGTH} bytes of a file from its
+	 * position. The frames that aren't included by the
+	 * {@link ID3ReadOptions} are left out of the result.
+	 *
+	 * @param buffer the {@link ByteBuffer} to parse. Its position isn't
+	 *            changed.
+	 * @param options the {@link ID3ReadOptions} to use.
+	 * @return The {@link ID3Tag} or {@code null} if {@code buffer} doesn't
+	 *         hold a valid ID3v1 tag.
+	 */
+	public ID3Tag read(ByteBuffer buffer, ID3ReadOptions options) {
+		int start = buffer.position();
+		if (
+			buffer.remaining() < TAG_LENGTH ||
+			buffer.get(start) != 'T' ||
+			buffer.get(start + 1) != 'A' ||
+			buffer.get(start + 2) != 'G'
+		) {
+			// Not a valid ID3v1 tag.
+			return null;
+		}
+		ID3Tag tag = new ID3Tag();
+		tag.setVersion(ID3Version.ID3v1r0);
+		// TODO Don't create frame if field is empty?
+		tag.getFrames().add(new TextFrame(CanonicalFrameType.TITLE, getField(buffer, start + 3, 30), 30));
+		tag.getFrames().add(new TextFrame(CanonicalFrameType.PERFORMER, getField(buffer, start + 33, 30), 30));
+		tag.getFrames().add(new TextFrame(CanonicalFrameType.ALBUM, getField(buffer, start + 63, 30), 30));
+		tag.getFrames().add(new TextFrame(CanonicalFrameType.YEAR, getField(buffer, start + 93, 4), 4));
+		// Remember as we may extract a track number from it.
+		TextFrame commentFrame = new TextFrame(CanonicalFrameType.COMMENT, getField(buffer, start + 97, 30), 30);
+		tag.getFrames().add(commentFrame);
+		int rawGenre = buffer.get(start + 127) & 0xFF;
+		if (rawGenre != 0) {
+			// TODO Perhaps a message indicating that genre was not set, if this is the case.
+			// TODO Genre is in different form than is the case for v2 tags. Normalise somehow.
+			tag.getFrames().add(new TextFrame(CanonicalFrameType.CONTENT_TYPE, "" + rawGenre, 1));
+		}
+		// ID3 1.1 extension.
+		int trackNoMarker = buffer.get(start + 125) & 0xFF;
+		int rawTrackNo = buffer.get(start + 126) & 0xFF;
+		if (trackNoMarker == 0) {
+			if (rawTrackNo != 0) {
+				// TODO Track no is in different form than is the case for v2 tags. Normalise somehow.
+				tag.getFrames().add(new TextFrame(CanonicalFrameType.TRACK_NO, "" + rawTrackNo, 1));
+				// Comment actually size 28.
+				commentFrame.setTotalFrameSize(28);
+				tag.setVersion(ID3Version.ID3v1r1);
+			}
+		}
+
+		tag.getFrames().removeIf(frame -> !options.isIncluded(frame.getCanonicalFrameType(), frame.getTotalFrameSize()));
 		return tag;
 	}
 
@@ -131,4 +171,26 @@ public class ID3v1Reader implements ID3Reader {
 		// TODO remove trailing spaces if desired.
 		return result.toString();
 	}
+
+	/**
+	 * Get a field from the specified {@link ByteBuffer}.
+	 *
+	 * @param buffer the {@link ByteBuffer}.
+	 * @param index the index of the field.
+	 * @param length the length.
+	 * @return the field.
+	 */
+	private static String getField(ByteBuffer buffer, int index, int length) {
+		StringBuilder result = new StringBuilder(length);
+		for (int i = index; i < index + length; i++) {
+			int c = buffer.get(i) & 0xFF;
+			if (c == 0) {
+				// End of buffer.
+				break;
+			}
+			result.append((char) c);
+		}
+		// TODO remove trailing spaces if desired.
+		return result.toString();
+	}
 }
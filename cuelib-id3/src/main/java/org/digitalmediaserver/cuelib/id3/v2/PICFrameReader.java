@@ -18,11 +18,14 @@
  */
 package org.digitalmediaserver.cuelib.id3.v2;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import org.digitalmediaserver.cuelib.id3.PictureFrame;
+import org.digitalmediaserver.cuelib.id3.io.ByteBufferInputStream;
 import org.digitalmediaserver.cuelib.id3.io.ByteCountInputStream;
 import org.digitalmediaserver.cuelib.id3.util.FieldReader;
 import org.digitalmediaserver.cuelib.util.Utils;
@@ -51,9 +54,11 @@ public class PICFrameReader implements FrameReader {
 	 * @param headerSize the header size
 	 * @param v2r00Mode the v 2 r 00 mode
 	 */
-	public PICFrameReader(int headerSize, @SuppressWarnings("unused") boolean v2r00Mode) {
+	public PICFrameReader(int headerSize, boolean v2r00Mode) {
 		this.headerSize = headerSize;
-		this.imageTypeSize = 3;
+		if (v2r00Mode) {
+			this.imageTypeSize = 3;
+		}
 	}
 
 	@Override
@@ -61,52 +66,63 @@ public class PICFrameReader implements FrameReader {
 		int size,
 		InputStream input
 	) throws IOException, UnsupportedEncodingException, MalformedFrameException {
-		try (ByteCountInputStream countingInput = new ByteCountInputStream(input)) {
-			PictureFrame result = new PictureFrame();
-			result.setTotalFrameSize(size + headerSize);
-
-			int encoding = countingInput.read();
-
-			Charset charset;
-			switch (encoding) {
-				case 0:
-					charset = StandardCharsets.ISO_8859_1;
-					break;
-				case 1:
-					charset = StandardCharsets.UTF_16;
-					break;
-				case 2:
-					// TODO Not supported until 2.4. Enable via option and throw exception otherwise.
-					charset = StandardCharsets.UTF_16BE;
-					break;
-				case 3:
-					// TODO Not supported until 2.4. Enable via option and throw exception otherwise.
-					charset = StandardCharsets.UTF_8;
-					break;
-				default:
-					throw new UnsupportedEncodingException("Encoding not supported: " + encoding);
-			}
+		// Not closed, as that would close the input
+		ByteCountInputStream countingInput = new ByteCountInputStream(input);
+		PictureFrame result = new PictureFrame();
+		result.setTotalFrameSize(size + headerSize);
+
+		int encoding = countingInput.read();
+
+		Charset charset;
+		switch (encoding) {
+			case 0:
+				charset = StandardCharsets.ISO_8859_1;
+				break;
+			case 1:
+				charset = StandardCharsets.UTF_16;
+				break;
+			case 2:
+				// TODO Not supported until 2.4. Enable via option and throw exception otherwise.
+				charset = StandardCharsets.UTF_16BE;
+				break;
+			case 3:
+				// TODO Not supported until 2.4. Enable via option and throw exception otherwise.
+				charset = StandardCharsets.UTF_8;
+				break;
+			default:
+				throw new UnsupportedEncodingException("Encoding not supported: " + encoding);
+		}
 
-			result.setCharset(charset);
+		result.setCharset(charset);
 
-			if (this.imageTypeSize > 0) {
-				result.setImageType(FieldReader.readField(countingInput, this.imageTypeSize, Charset.forName("ISO-8859-1")));
-			} else {
-				result.setImageType(FieldReader.readUntilNul(countingInput, size - 1, Charset.forName("ISO-8859-1")));
-			}
+		if (this.imageTypeSize > 0) {
+			result.setImageType(FieldReader.readField(countingInput, this.imageTypeSize, Charset.forName("ISO-8859-1")));
+		} else {
+			result.setImageType(FieldReader.readUntilNul(countingInput, size - 1, Charset.forName("ISO-8859-1")));
+		}
 
-			result.setPictureNumber(countingInput.read());
+		result.setPictureNumber(countingInput.read());
 
-			// TODO Size is actually a maximum of 64 in 2.2 and 2.3.
-			result.setDescription(FieldReader.readUntilNul(countingInput, size, charset));
+		// TODO Size is actually a maximum of 64 in 2.2 and 2.3.
+		result.setDescription(FieldReader.readUntilNul(countingInput, size, charset));
 
-			// Remainder of frame is data.
-			byte[] imageData = new byte[size - (int) countingInput.getBytesRead()];
+		// Remainder of frame is data.
+		int imageSize = size - (int) countingInput.getBytesRead();
+		if (input instanceof ByteBufferInputStream) {
+			// Refer to the data in the buffer instead of copying it
+			ByteBuffer buffer = ((ByteBufferInputStream) input).getBuffer();
+			if (imageSize > buffer.remaining()) {
+				throw new EOFException("Picture frame data ended prematurely");
+			}
+			result.setImageBuffer(buffer.slice(buffer.position(), imageSize));
+			buffer.position(buffer.position() + imageSize);
+		} else {
+			byte[] imageData = new byte[imageSize];
 			Utils.readFully(countingInput, imageData);
 			result.setImageData(imageData);
-
-			return result;
 		}
+
+		return result;
 	}
 
 }
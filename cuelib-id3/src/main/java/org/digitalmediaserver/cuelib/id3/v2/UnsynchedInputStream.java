@@ -21,49 +21,65 @@ package org.digitalmediaserver.cuelib.id3.v2;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PushbackInputStream;
 
 
 /**
  * The Class UnsynchedInputStream.
+ * <p>
+ * Reverses the unsynchronization of the underlying stream by dropping every
+ * {@code 0x00} that follows a {@code 0xFF}. Bulk reads and skips read blocks
+ * from the underlying stream and decode them in place with
+ * {@link #decode(byte[], int, int)}.
  */
 public class UnsynchedInputStream extends FilterInputStream {
 
+	/**
+	 * Whether the last byte read from the underlying stream was {@code 0xFF},
+	 * in which case a following {@code 0x00} must be dropped.
+	 */
+	private boolean afterFF;
+
 	/**
 	 * Instantiates a new unsynched input stream.
 	 *
 	 * @param in the in
 	 */
 	public UnsynchedInputStream(final InputStream in) {
-		super(new PushbackInputStream(in, 1));
+		super(in);
 	}
 
 	@Override
 	public int read() throws IOException {
-		final int c1 = this.in.read();
-		if (c1 == 0xFF) {
-			final int c2 = this.in.read();
-			if (c2 != 0x00) {
-				((PushbackInputStream) this.in).unread(c2);
-			}
+		int c = this.in.read();
+		if (this.afterFF && c == 0x00) {
+			c = this.in.read();
 		}
-		return c1;
+		this.afterFF = c == 0xFF;
+		return c;
 	}
 
 	@Override
 	public int read(byte[] b, int off, int len) throws IOException {
-		// Will have to use read() to perform unsync.
-		for (int index = 0; index < len; index++) {
-			final int i = this.read();
-			if (i == -1) {
-				if (index > 0) {
-					return index;
-				}
+		if (off < 0 || len < 0 || len > b.length - off) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (len == 0) {
+			return 0;
+		}
+		int count;
+		do {
+			count = this.in.read(b, off, len);
+			if (count < 0) {
 				return -1;
 			}
-			b[off + index] = (byte) i;
-		}
-		return len;
+			if (count == 0) {
+				continue;
+			}
+			final boolean endsWithFF = b[off + count - 1] == (byte) 0xFF;
+			count = decode(b, off, count, this.afterFF);
+			this.afterFF = endsWithFF;
+		} while (count == 0); // Only a dropped 0x00 was read
+		return count;
 	}
 
 	@Override
@@ -74,16 +90,71 @@ public class UnsynchedInputStream extends FilterInputStream {
 
 	@Override
 	public long skip(long n) throws IOException {
-		// Have to override, as javadoc is inconsistent on default behaviour,
-		// and is imperative that read() is used. Otherwise it is possible
-		// to skip to the second byte of an unsync sequence resulting in
-		// data corruption.
-		for (long index = 0; index < n; index++) {
-			final int i = this.read();
-			if (i == -1) {
-				return index;
+		// Have to override, as the bytes must be decoded to know how many
+		// of them to skip. Otherwise it is possible to skip to the second
+		// byte of an unsync sequence resulting in data corruption.
+		if (n <= 0) {
+			return 0;
+		}
+		final byte[] buffer = new byte[(int) Math.min(n, 8192)];
+		long skipped = 0;
+		while (skipped < n) {
+			final int count = read(buffer, 0, (int) Math.min(n - skipped, buffer.length));
+			if (count < 0) {
+				break;
+			}
+			skipped += count;
+		}
+		return skipped;
+	}
+
+	/**
+	 * Reverses the unsynchronization of the specified part of the array in
+	 * place, by dropping every {@code 0x00} that follows a {@code 0xFF}.
+	 *
+	 * @param b the array holding the unsynchronized data.
+	 * @param off the offset of the data.
+	 * @param len the length of the data.
+	 * @return The length of the decoded data, which starts at {@code off}.
+	 */
+	public static int decode(byte[] b, int off, int len) {
+		return decode(b, off, len, false);
+	}
+
+	/**
+	 * Reverses the unsynchronization of the specified part of the array in
+	 * place. The array is scanned for {@code 0xFF}, and the runs between the
+	 * dropped bytes are moved with {@link System#arraycopy}.
+	 *
+	 * @param b the array holding the unsynchronized data.
+	 * @param off the offset of the data.
+	 * @param len the length of the data.
+	 * @param afterFF whether the byte preceding the data was {@code 0xFF}.
+	 * @return The length of the decoded data, which starts at {@code off}.
+	 */
+	private static int decode(byte[] b, int off, int len, boolean afterFF) {
+		final int end = off + len;
+		int readIndex = off;
+		int writeIndex = off;
+		if (afterFF && readIndex < end && b[readIndex] == 0x00) {
+			readIndex++;
+		}
+		while (readIndex < end) {
+			int index = readIndex;
+			while (index < end && b[index] != (byte) 0xFF) {
+				index++;
+			}
+			// Include the 0xFF, if any
+			int runEnd = index < end ? index + 1 : end;
+			if (writeIndex != readIndex) {
+				System.arraycopy(b, readIndex, b, writeIndex, runEnd - readIndex);
+			}
+			writeIndex += runEnd - readIndex;
+			readIndex = runEnd;
+			if (index < end && readIndex < end && b[readIndex] == 0x00) {
+				readIndex++;
 			}
 		}
-		return n;
+		return writeIndex - off;
 	}
 }
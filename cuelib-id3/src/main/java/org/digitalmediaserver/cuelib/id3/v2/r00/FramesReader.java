@@ -20,10 +20,14 @@ package org.digitalmediaserver.cuelib.id3.v2.r00;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 import org.digitalmediaserver.cuelib.id3.CanonicalFrameType;
+import org.digitalmediaserver.cuelib.id3.HeaderFrame;
+import org.digitalmediaserver.cuelib.id3.ID3ReadOptions;
 import org.digitalmediaserver.cuelib.id3.ID3Tag;
+import org.digitalmediaserver.cuelib.id3.io.ByteBufferInputStream;
 import org.digitalmediaserver.cuelib.id3.v2.COMFrameReader;
 import org.digitalmediaserver.cuelib.id3.v2.FrameReader;
 import org.digitalmediaserver.cuelib.id3.v2.IPLFrameReader;
@@ -267,12 +271,53 @@ public class FramesReader {
 	 */
 	public int readNextFrame(ID3Tag tag, InputStream input) throws IOException, UnsupportedEncodingException,
 		MalformedFrameException {
+		return readNextFrame(tag, input, new ID3ReadOptions(), -1);
+	}
+
+	/**
+	 * Reads the next frame if it's included by the specified
+	 * {@link ID3ReadOptions}, or skips it by its size otherwise.
+	 *
+	 * @param tag the {@link ID3Tag} to add the frame to.
+	 * @param input the {@link InputStream} positioned at the frame header.
+	 * @param options the {@link ID3ReadOptions} to use.
+	 * @param offset the offset of the frame header in the tag, or {@code -1}
+	 *            if unknown.
+	 * @return The number of bytes consumed.
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws UnsupportedEncodingException the unsupported encoding exception
+	 * @throws MalformedFrameException the malformed frame exception
+	 */
+	public int readNextFrame(
+		ID3Tag tag,
+		InputStream input,
+		ID3ReadOptions options,
+		long offset
+	) throws IOException, UnsupportedEncodingException, MalformedFrameException {
 		StringBuilder frameNameBuilder = new StringBuilder(3);
 		frameNameBuilder.append((char) input.read());
 		frameNameBuilder.append((char) input.read());
 		frameNameBuilder.append((char) input.read());
 		String frameName = frameNameBuilder.toString();
 		int frameSize = input.read() * 65536 + input.read() * 256 + input.read();
+
+		if (!"\u0000\u0000\u0000".equals(frameName)) {
+			CanonicalFrameType frameType = getCanonicalFrameType(frameName);
+			if (options.isHeadersOnly()) {
+				if (options.isIncluded(frameType)) {
+					tag.getFrames().add(
+						new HeaderFrame(frameName, frameType, offset, FramesReader.FRAME_HEADER_LENGTH, frameSize)
+					);
+				}
+				Utils.skipOrThrow(input, frameSize);
+				return frameSize + FramesReader.FRAME_HEADER_LENGTH;
+			}
+			if (!options.isIncluded(frameType, frameSize)) {
+				Utils.skipOrThrow(input, frameSize);
+				return frameSize + FramesReader.FRAME_HEADER_LENGTH;
+			}
+		}
+
 		FrameReader reader = FramesReader.frameReaders.get(frameName);
 		if (reader == null) {
 			if ("\u0000\u0000\u0000".equals(frameName)) {
@@ -305,24 +350,69 @@ public class FramesReader {
 		return frameSize + FramesReader.FRAME_HEADER_LENGTH; // Size + header size.
 	}
 
+	/**
+	 * Gets the {@link CanonicalFrameType} that a frame with the specified name
+	 * is read as.
+	 *
+	 * @param frameName the frame name.
+	 * @return The {@link CanonicalFrameType} or {@code null} if the frame type
+	 *         isn't supported.
+	 */
+	protected static CanonicalFrameType getCanonicalFrameType(String frameName) {
+		if (FramesReader.frameReaders.containsKey(frameName)) {
+			return frameDictionary.getCanonicalFrameType(frameName);
+		}
+		switch (frameName.charAt(0)) {
+			case 'T':
+				return CanonicalFrameType.USER_DEFINED_TEXT;
+			case 'W':
+				return CanonicalFrameType.USER_DEFINED_URL;
+			default:
+				return null;
+		}
+	}
+
 	/**
 	 * Read frames.
 	 *
-	 * @param tag the {@link ID3Tag}.
-	 * @param input the {@link InputStream}.
-	 * @param length the length.
+	 * @param tag the tag
+	 * @param input the input
+	 * @param length the length
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws UnsupportedEncodingException the unsupported encoding exception
+	 * @throws MalformedFrameException the malformed frame exception
+	 */
+	public void readFrames(
+		ID3Tag tag,
+		InputStream input,
+		long length
+	) throws IOException, UnsupportedEncodingException, MalformedFrameException {
+		readFrames(tag, input, length, new ID3ReadOptions());
+	}
+
+	/**
+	 * Reads the frames included by the specified {@link ID3ReadOptions} and
+	 * skips the rest. The frame offsets are only known if {@code input} is a
+	 * {@link ByteBufferInputStream}.
+	 *
+	 * @param tag the {@link ID3Tag} to add the frames to.
+	 * @param input the {@link InputStream} positioned at the first frame.
+	 * @param length the number of bytes to read.
+	 * @param options the {@link ID3ReadOptions} to use.
 	 * @throws IOException Signals that an I/O exception has occurred.
-	 * @throws UnsupportedEncodingException the unsupported encoding exception.
-	 * @throws MalformedFrameException the malformed frame exception.
+	 * @throws UnsupportedEncodingException the unsupported encoding exception
+	 * @throws MalformedFrameException the malformed frame exception
 	 */
 	public void readFrames(
 		ID3Tag tag,
 		InputStream input,
-		int length
+		long length,
+		ID3ReadOptions options
 	) throws IOException, UnsupportedEncodingException, MalformedFrameException {
-		int bytesLeft = length;
+		ByteBuffer buffer = input instanceof ByteBufferInputStream ? ((ByteBufferInputStream) input).getBuffer() : null;
+		long bytesLeft = length;
 		while (bytesLeft >= FramesReader.FRAME_HEADER_LENGTH) {
-			int bytesRead = readNextFrame(tag, input);
+			int bytesRead = readNextFrame(tag, input, options, buffer == null ? -1 : buffer.position());
 			bytesLeft -= bytesRead;
 			if (bytesRead == FramesReader.FRAME_HEADER_LENGTH) {
 				Utils.skipOrThrow(input, bytesLeft);
@@ -331,4 +421,42 @@ public class FramesReader {
 		}
 		Utils.skipOrThrow(input, bytesLeft);
 	}
+
+	/**
+	 * Reads the frames from the remaining content of the specified
+	 * {@link ByteBuffer}, which is typically the whole tag read with a single
+	 * read. The position of the buffer is advanced to its limit.
+	 *
+	 * @param tag the {@link ID3Tag} to add the frames to.
+	 * @param buffer the {@link ByteBuffer} holding the frames.
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws UnsupportedEncodingException the unsupported encoding exception
+	 * @throws MalformedFrameException the malformed frame exception
+	 */
+	public void readFrames(
+		ID3Tag tag,
+		ByteBuffer buffer
+	) throws IOException, UnsupportedEncodingException, MalformedFrameException {
+		readFrames(tag, buffer, new ID3ReadOptions());
+	}
+
+	/**
+	 * Reads the frames included by the specified {@link ID3ReadOptions} from
+	 * the remaining content of the specified {@link ByteBuffer}, and skips
+	 * the rest. The position of the buffer is advanced to its limit.
+	 *
+	 * @param tag the {@link ID3Tag} to add the frames to.
+	 * @param buffer the {@link ByteBuffer} holding the frames.
+	 * @param options the {@link ID3ReadOptions} to use.
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws UnsupportedEncodingException the unsupported encoding exception
+	 * @throws MalformedFrameException the malformed frame exception
+	 */
+	public void readFrames(
+		ID3Tag tag,
+		ByteBuffer buffer,
+		ID3ReadOptions options
+	) throws IOException, UnsupportedEncodingException, MalformedFrameException {
+		readFrames(tag, new ByteBufferInputStream(buffer), buffer.remaining(), options);
+	}
 }
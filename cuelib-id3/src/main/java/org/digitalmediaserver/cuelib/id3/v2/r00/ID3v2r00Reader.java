@@ -18,16 +18,16 @@
  */
 package org.digitalmediaserver.cuelib.id3.v2.r00;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import org.digitalmediaserver.cuelib.id3.AbstractID3v2Reader;
+import org.digitalmediaserver.cuelib.id3.ID3ReadOptions;
 import org.digitalmediaserver.cuelib.id3.ID3Tag;
 import org.digitalmediaserver.cuelib.id3.ID3Version;
+import org.digitalmediaserver.cuelib.id3.io.ByteBufferInputStream;
 import org.digitalmediaserver.cuelib.id3.v2.MalformedFrameException;
 import org.digitalmediaserver.cuelib.id3.v2.UnsupportedEncodingException;
-import org.digitalmediaserver.cuelib.id3.v2.UnsynchedInputStream;
 
 
 /**
@@ -41,10 +41,13 @@ public class ID3v2r00Reader extends AbstractID3v2Reader {
 	}
 
 	@Override
-	public ID3Tag read(File file) throws IOException, UnsupportedEncodingException, MalformedFrameException {
+	public ID3Tag read(
+		ByteBuffer buffer,
+		ID3ReadOptions options
+	) throws IOException, UnsupportedEncodingException, MalformedFrameException {
 		ID3Tag tag = new ID3Tag();
 
-		try (FileInputStream input = new FileInputStream(file)) {
+		try (InputStream input = new ByteBufferInputStream(buffer)) {
 			if (input.read() == 'I' && input.read() == 'D' && input.read() == '3') {
 				int majorVersion = input.read();
 				int revision = input.read();
@@ -68,15 +71,9 @@ public class ID3v2r00Reader extends AbstractID3v2Reader {
 					if (size >= 0) {
 						tag.setDeclaredSize(size);
 
-						// Now to read the frames.
-						InputStream frameInputStream;
-						if (unsyncUsed) {
-							frameInputStream = new UnsynchedInputStream(input);
-						} else {
-							frameInputStream = input;
-						}
+						// Now to read the frames, which follow the part of the buffer consumed by input.
 						FramesReader frameReader = new FramesReader();
-						frameReader.readFrames(tag, frameInputStream, size);
+						frameReader.readFrames(tag, unsyncUsed ? decodeUnsynchronization(buffer) : buffer, options);
 					} else {
 						// TODO Emit warning.
 						// Invalid size byte encountered. Not a valid ID3 tag.
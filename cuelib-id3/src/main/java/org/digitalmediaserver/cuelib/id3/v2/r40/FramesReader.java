@@ -20,6 +20,7 @@ package org.digitalmediaserver.cuelib.id3.v2.r40;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -27,8 +28,11 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import org.digitalmediaserver.cuelib.id3.CanonicalFrameType;
+import org.digitalmediaserver.cuelib.id3.HeaderFrame;
 import org.digitalmediaserver.cuelib.id3.ID3Frame;
+import org.digitalmediaserver.cuelib.id3.ID3ReadOptions;
 import org.digitalmediaserver.cuelib.id3.ID3Tag;
+import org.digitalmediaserver.cuelib.id3.io.ByteBufferInputStream;
 import org.digitalmediaserver.cuelib.id3.v2.COMFrameReader;
 import org.digitalmediaserver.cuelib.id3.v2.FrameReader;
 import org.digitalmediaserver.cuelib.id3.v2.ITunesPodcastFrameReader;
@@ -40,6 +44,7 @@ import org.digitalmediaserver.cuelib.id3.v2.TextFrameReader;
 import org.digitalmediaserver.cuelib.id3.v2.UFIFrameReader;
 import org.digitalmediaserver.cuelib.id3.v2.URLFrameReader;
 import org.digitalmediaserver.cuelib.id3.v2.UnsupportedEncodingException;
+import org.digitalmediaserver.cuelib.id3.v2.UnsynchedInputStream;
 import org.digitalmediaserver.cuelib.id3.v2.WXXFrameReader;
 import org.digitalmediaserver.cuelib.util.Utils;
 import org.slf4j.Logger;
@@ -233,7 +238,31 @@ public class FramesReader {
 	 * @throws UnsupportedEncodingException the unsupported encoding exception
 	 * @throws MalformedFrameException the malformed frame exception
 	 */
-	public int readNextFrame(ID3Tag tag, InputStream input) throws IOException, UnsupportedEncodingException, MalformedFrameException {
+	public int readNextFrame(ID3Tag tag, InputStream input) throws IOException, UnsupportedEncodingException,
+		MalformedFrameException {
+		return readNextFrame(tag, input, new ID3ReadOptions(), -1);
+	}
+
+	/**
+	 * Reads the next frame if it's included by the specified
+	 * {@link ID3ReadOptions}, or skips it by its size otherwise.
+	 *
+	 * @param tag the {@link ID3Tag} to add the frame to.
+	 * @param input the {@link InputStream} positioned at the frame header.
+	 * @param options the {@link ID3ReadOptions} to use.
+	 * @param offset the offset of the frame header in the tag, or {@code -1}
+	 *            if unknown.
+	 * @return The number of bytes consumed.
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws UnsupportedEncodingException the unsupported encoding exception
+	 * @throws MalformedFrameException the malformed frame exception
+	 */
+	public int readNextFrame(
+		ID3Tag tag,
+		InputStream input,
+		ID3ReadOptions options,
+		long offset
+	) throws IOException, UnsupportedEncodingException, MalformedFrameException {
 		ID3Frame frame;
 		StringBuilder frameNameBuilder = new StringBuilder(4);
 		frameNameBuilder.append((char) input.read());
@@ -270,22 +299,60 @@ public class FramesReader {
 		boolean compressionUsed = (flagsBytes & 8) == 8;
 		flags.put(ID3Frame.COMPRESSION_USED, Boolean.toString(compressionUsed));
 		boolean encryptionUsed = (flagsBytes & 4) == 4;
-		boolean unsyncUsed = (flagsBytes & 2) == 2;
-		// TODO Handle unsync in frames. Take care not to do double unsync when tag flag is also set.
+		// Unsynchronization is applied to each frame, and the tag flag means that it's applied to all of them
+		boolean unsyncUsed = (flagsBytes & 2) == 2 || Boolean.parseBoolean(tag.getFlags().getProperty(ID3Tag.UNSYNC_USED));
 		flags.put(ID3Frame.UNSYNC_USED, Boolean.toString(unsyncUsed));
 		boolean dataLengthIndicatorPresent = (flagsBytes & 1) == 1;
 
+		// The additional header data is included in the frame size
+		int additionalHeaderSize = 0;
 		if (containsGroupInformation) {
 			int groupId = input.read();
 			flags.put(ID3Frame.GROUP_ID, Integer.toString(groupId));
+			additionalHeaderSize++;
 		}
 		if (encryptionUsed) {
 			int encryptionMethodUsed = input.read();
 			flags.put(ID3Frame.ENCRYPTION_METHOD_USED, Integer.toString(encryptionMethodUsed));
+			additionalHeaderSize++;
 		}
 		if (dataLengthIndicatorPresent) {
 			int dataLength = input.read() * (1 << 20) + input.read() * (1 << 13) + input.read() * (1 << 6) + input.read();
 			flags.put(ID3Frame.DATA_LENGTH_INDICATOR, Integer.toString(dataLength));
+			additionalHeaderSize += 4;
+		}
+		int dataSize = frameSize - additionalHeaderSize;
+
+		if (!"\u0000\u0000\u0000\u0000".equals(frameName)) {
+			CanonicalFrameType frameType = getCanonicalFrameType(frameName);
+			if (options.isHeadersOnly()) {
+				if (options.isIncluded(frameType)) {
+					frame = new HeaderFrame(
+						frameName,
+						frameType,
+						offset,
+						FramesReader.FRAME_HEADER_LENGTH + additionalHeaderSize,
+						dataSize
+					);
+					frame.getFlags().putAll(flags);
+					tag.getFrames().add(frame);
+				}
+				Utils.skipOrThrow(input, dataSize);
+				return frameSize + FramesReader.FRAME_HEADER_LENGTH;
+			}
+			if (!options.isIncluded(frameType, dataSize)) {
+				Utils.skipOrThrow(input, dataSize);
+				return frameSize + FramesReader.FRAME_HEADER_LENGTH;
+			}
+		}
+
+		InputStream frameInput = input;
+		int frameDataSize = dataSize;
+		if (unsyncUsed && dataSize > 0) {
+			byte[] data = new byte[dataSize];
+			Utils.readFully(input, data);
+			frameDataSize = UnsynchedInputStream.decode(data, 0, dataSize);
+			frameInput = new ByteBufferInputStream(ByteBuffer.wrap(data, 0, frameDataSize));
 		}
 
 		FrameReader reader = FramesReader.frameReaders.get(frameName.toString());
@@ -299,22 +366,22 @@ public class FramesReader {
 				frame = new TextFrameReader(
 					CanonicalFrameType.USER_DEFINED_TEXT,
 					FramesReader.FRAME_HEADER_LENGTH
-				).readFrameBody(frameName, frameSize, input);
+				).readFrameBody(frameName, frameDataSize, frameInput);
 			} else if (frameName.charAt(0) == 'W') {
 				// TODO: Add option to enable/disable this behaviour.
 				LOGGER.warn("Encountered unknown URL frame: \"{}\"", frameName);
 				frame = new URLFrameReader(
 					CanonicalFrameType.USER_DEFINED_URL,
 					FramesReader.FRAME_HEADER_LENGTH
-				).readFrameBody(frameName, frameSize, input);
+				).readFrameBody(frameName, frameDataSize, frameInput);
 			} else {
 				LOGGER.warn("Encountered unsupported frame type: \"{}\" of length {}", frameName, frameSize);
-				Utils.skipOrThrow(input, frameSize);
+				Utils.skipOrThrow(frameInput, frameDataSize);
 				frame = null;
 				// TODO Handle
 			}
 		} else {
-			frame = reader.readFrameBody(frameSize, input);
+			frame = reader.readFrameBody(frameDataSize, frameInput);
 		}
 
 		if (frame != null) {
@@ -325,6 +392,28 @@ public class FramesReader {
 		return frameSize + FramesReader.FRAME_HEADER_LENGTH; // Size + header size.
 	}
 
+	/**
+	 * Gets the {@link CanonicalFrameType} that a frame with the specified name
+	 * is read as.
+	 *
+	 * @param frameName the frame name.
+	 * @return The {@link CanonicalFrameType} or {@code null} if the frame type
+	 *         isn't supported.
+	 */
+	protected static CanonicalFrameType getCanonicalFrameType(String frameName) {
+		if (FramesReader.frameReaders.containsKey(frameName)) {
+			return frameDictionary.getCanonicalFrameType(frameName);
+		}
+		switch (frameName.charAt(0)) {
+			case 'T':
+				return CanonicalFrameType.USER_DEFINED_TEXT;
+			case 'W':
+				return CanonicalFrameType.USER_DEFINED_URL;
+			default:
+				return null;
+		}
+	}
+
 	/**
 	 * Read frames.
 	 *
@@ -340,9 +429,32 @@ public class FramesReader {
 		InputStream input,
 		long length
 	) throws IOException, UnsupportedEncodingException, MalformedFrameException {
+		readFrames(tag, input, length, new ID3ReadOptions());
+	}
+
+	/**
+	 * Reads the frames included by the specified {@link ID3ReadOptions} and
+	 * skips the rest. The frame offsets are only known if {@code input} is a
+	 * {@link ByteBufferInputStream}.
+	 *
+	 * @param tag the {@link ID3Tag} to add the frames to.
+	 * @param input the {@link InputStream} positioned at the first frame.
+	 * @param length the number of bytes to read.
+	 * @param options the {@link ID3ReadOptions} to use.
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws UnsupportedEncodingException the unsupported encoding exception
+	 * @throws MalformedFrameException the malformed frame exception
+	 */
+	public void readFrames(
+		ID3Tag tag,
+		InputStream input,
+		long length,
+		ID3ReadOptions options
+	) throws IOException, UnsupportedEncodingException, MalformedFrameException {
+		ByteBuffer buffer = input instanceof ByteBufferInputStream ? ((ByteBufferInputStream) input).getBuffer() : null;
 		long bytesLeft = length;
 		while (bytesLeft >= FramesReader.FRAME_HEADER_LENGTH) {
-			long bytesRead = readNextFrame(tag, input);
+			long bytesRead = readNextFrame(tag, input, options, buffer == null ? -1 : buffer.position());
 			bytesLeft -= bytesRead;
 			if (bytesRead == FramesReader.FRAME_HEADER_LENGTH) {
 				Utils.skipOrThrow(input, bytesLeft);
@@ -351,4 +463,42 @@ public class FramesReader {
 		}
 		Utils.skipOrThrow(input, bytesLeft);
 	}
+
+	/**
+	 * Reads the frames from the remaining content of the specified
+	 * {@link ByteBuffer}, which is typically the whole tag read with a single
+	 * read. The position of the buffer is advanced to its limit.
+	 *
+	 * @param tag the {@link ID3Tag} to add the frames to.
+	 * @param buffer the {@link ByteBuffer} holding the frames.
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws UnsupportedEncodingException the unsupported encoding exception
+	 * @throws MalformedFrameException the malformed frame exception
+	 */
+	public void readFrames(
+		ID3Tag tag,
+		ByteBuffer buffer
+	) throws IOException, UnsupportedEncodingException, MalformedFrameException {
+		readFrames(tag, buffer, new ID3ReadOptions());
+	}
+
+	/**
+	 * Reads the frames included by the specified {@link ID3ReadOptions} from
+	 * the remaining content of the specified {@link ByteBuffer}, and skips
+	 * the rest. The position of the buffer is advanced to its limit.
+	 *
+	 * @param tag the {@link ID3Tag} to add the frames to.
+	 * @param buffer the {@link ByteBuffer} holding the frames.
+	 * @param options the {@link ID3ReadOptions} to use.
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws UnsupportedEncodingException the unsupported encoding exception
+	 * @throws MalformedFrameException the malformed frame exception
+	 */
+	public void readFrames(
+		ID3Tag tag,
+		ByteBuffer buffer,
+		ID3ReadOptions options
+	) throws IOException, UnsupportedEncodingException, MalformedFrameException {
+		readFrames(tag, new ByteBufferInputStream(buffer), buffer.remaining(), options);
+	}
 }
@@ -0,0 +1,132 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.id3;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.digitalmediaserver.cuelib.id3.v2.r30.ID3v2r30Reader;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+/**
+ * Unit test for {@link AbstractID3v2Reader}.
+ *
+ * @author Nadahar
+ */
+public class AbstractID3v2ReaderTest {
+
+	/** The temporary folder */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Test that a tag is read from a file and from a {@link ByteBuffer}.
+	 *
+	 * @throws Exception if the test fails.
+	 */
+	@Test
+	public void testRead() throws Exception {
+		byte[] frame = createTextFrame("TIT2", "Title");
+		byte[] tag = createTag(frame, 5, frame.length + 5);
+		File file = folder.newFile("tag.mp3");
+		Files.write(file.toPath(), tag);
+
+		ID3v2r30Reader reader = new ID3v2r30Reader();
+		Assert.assertTrue(reader.hasTag(file));
+		assertTitle(reader.read(file), frame.length + 5);
+		assertTitle(reader.read(ByteBuffer.wrap(tag), new ID3ReadOptions()), frame.length + 5);
+	}
+
+	/**
+	 * Test that a tag that declares a length beyond the end of the file is
+	 * read up to the end of the file.
+	 *
+	 * @throws Exception if the test fails.
+	 */
+	@Test
+	public void testTruncated() throws Exception {
+		byte[] frame = createTextFrame("TIT2", "Title");
+		// The largest syncsafe size, beyond the memory mapping threshold
+		int declaredSize = 0x0FFFFFFF;
+		File file = folder.newFile("truncated.mp3");
+		Files.write(file.toPath(), createTag(frame, 0, declaredSize));
+
+		ID3v2r30Reader reader = new ID3v2r30Reader();
+		ByteBuffer buffer = reader.readTag(file);
+		Assert.assertEquals(AbstractID3v2Reader.HEADER_LENGTH + frame.length, buffer.capacity());
+		Assert.assertEquals(AbstractID3v2Reader.HEADER_LENGTH + frame.length, buffer.limit());
+		assertTitle(reader.read(file), declaredSize);
+	}
+
+	/**
+	 * Test that {@code null} is returned for files without a valid tag.
+	 *
+	 * @throws Exception if the test fails.
+	 */
+	@Test
+	public void testNoTag() throws Exception {
+		ID3v2r30Reader reader = new ID3v2r30Reader();
+		File empty = folder.newFile("empty.mp3");
+		Assert.assertFalse(reader.hasTag(empty));
+		Assert.assertNull(reader.read(empty));
+
+		File other = folder.newFile("other.mp3");
+		byte[] tag = createTag(createTextFrame("TIT2", "Title"), 0, 20);
+		tag[3] = 4; // ID3v2.4
+		Files.write(other.toPath(), tag);
+		Assert.assertFalse(reader.hasTag(other));
+		Assert.assertNull(reader.read(other));
+	}
+
+	private static void assertTitle(ID3Tag tag, int declaredSize) {
+		Assert.assertNotNull(tag);
+		Assert.assertEquals(ID3Version.ID3v2r3, tag.getVersion());
+		Assert.assertEquals(declaredSize, tag.getDeclaredSize());
+		Assert.assertEquals(1, tag.getFrames().size());
+		TextFrame frame = (TextFrame) tag.getFrames().get(0);
+		Assert.assertEquals(CanonicalFrameType.TITLE, frame.getCanonicalFrameType());
+		Assert.assertEquals("Title", frame.getText());
+	}
+
+	private static byte[] createTextFrame(String name, String text) {
+		byte[] content = text.getBytes(StandardCharsets.ISO_8859_1);
+		ByteBuffer buffer = ByteBuffer.allocate(11 + content.length);
+		buffer.put(name.getBytes(StandardCharsets.ISO_8859_1));
+		buffer.putInt(content.length + 1);
+		buffer.putShort((short) 0);
+		buffer.put((byte) 0); // ISO-8859-1
+		buffer.put(content);
+		return buffer.array();
+	}
+
+	private static byte[] createTag(byte[] frames, int padding, int declaredSize) {
+		ByteBuffer buffer = ByteBuffer.allocate(AbstractID3v2Reader.HEADER_LENGTH + frames.length + padding);
+		buffer.put(new byte[] {'I', 'D', '3', 3, 0, 0});
+		for (int shift = 21; shift >= 0; shift -= 7) {
+			buffer.put((byte) ((declaredSize >> shift) & 0x7F));
+		}
+		buffer.put(frames);
+		return buffer.array();
+	}
+}
@@ -0,0 +1,161 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.id3;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import org.digitalmediaserver.cuelib.id3.v1.ID3v1Reader;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+/**
+ * Unit test for {@link ID3ReaderFactory}.
+ *
+ * @author Nadahar
+ */
+public class ID3ReaderFactoryTest {
+
+	/** The temporary folder */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Test that both tags and an APEv2 footer are found with
+	 * {@link ID3ReaderFactory#read(Path)}, and that the result is the same as
+	 * from the individual readers.
+	 *
+	 * @throws Exception if the test fails.
+	 */
+	@Test
+	public void testRead() throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write(createID3v2Tag("Title"));
+		out.write(new byte[1000]);
+		out.write(createAPEFooter());
+		out.write(createID3v1Tag("Title v1", 7));
+		Path file = folder.getRoot().toPath().resolve("both.mp3");
+		Files.write(file, out.toByteArray());
+
+		ID3Tags tags = ID3ReaderFactory.read(file);
+		Assert.assertFalse(tags.isEmpty());
+		Assert.assertTrue(tags.isAPETagPresent());
+		Assert.assertEquals(Arrays.asList(ID3Version.ID3v2r3, ID3Version.ID3v1r1), tags.getVersions());
+		Assert.assertEquals(ID3ReaderFactory.getVersions(file.toFile()), tags.getVersions());
+		Assert.assertSame(tags.getID3v2Tag(), tags.getTag());
+		Assert.assertEquals("Title", getText(tags.getID3v2Tag(), CanonicalFrameType.TITLE));
+		Assert.assertEquals("Title v1", getText(tags.getID3v1Tag(), CanonicalFrameType.TITLE));
+		Assert.assertEquals("7", getText(tags.getID3v1Tag(), CanonicalFrameType.TRACK_NO));
+		assertTagEquals(ID3ReaderFactory.getReader(ID3Version.ID3v2r3).read(file.toFile()), tags.getID3v2Tag());
+		assertTagEquals(new ID3v1Reader().read(file.toFile()), tags.getID3v1Tag());
+
+		// Only the title
+		ID3ReadOptions options = new ID3ReadOptions(EnumSet.of(CanonicalFrameType.TITLE));
+		tags = ID3ReaderFactory.read(file, options);
+		Assert.assertEquals(1, tags.getID3v2Tag().getFrames().size());
+		Assert.assertEquals(1, tags.getID3v1Tag().getFrames().size());
+		Assert.assertEquals("Title v1", getText(tags.getID3v1Tag(), CanonicalFrameType.TITLE));
+	}
+
+	/**
+	 * Test that files that are too short or have no tags are read as empty.
+	 *
+	 * @throws Exception if the test fails.
+	 */
+	@Test
+	public void testNoTags() throws Exception {
+		for (int length : new int[] {0, 5, 10, 100, 200}) {
+			Path file = folder.getRoot().toPath().resolve("empty" + length + ".mp3");
+			Files.write(file, new byte[length]);
+			ID3Tags tags = ID3ReaderFactory.read(file);
+			Assert.assertTrue(tags.isEmpty());
+			Assert.assertFalse(tags.isAPETagPresent());
+			Assert.assertNull(tags.getTag());
+			Assert.assertEquals(Collections.emptyList(), tags.getVersions());
+		}
+
+		// Only an ID3v1 tag, which fills the whole file
+		Path file = folder.getRoot().toPath().resolve("v1.mp3");
+		Files.write(file, createID3v1Tag("Only", 0));
+		ID3Tags tags = ID3ReaderFactory.read(file);
+		Assert.assertNull(tags.getID3v2Tag());
+		Assert.assertEquals(ID3Version.ID3v1r0, tags.getTag().getVersion());
+		Assert.assertEquals("Only", getText(tags.getTag(), CanonicalFrameType.TITLE));
+		Assert.assertFalse(tags.isAPETagPresent());
+	}
+
+	private static String getText(ID3Tag tag, CanonicalFrameType type) {
+		for (ID3Frame frame : tag.getFrames()) {
+			if (frame.getCanonicalFrameType() == type) {
+				return ((TextFrame) frame).getText();
+			}
+		}
+		return null;
+	}
+
+	private static void assertTagEquals(ID3Tag expected, ID3Tag actual) {
+		Assert.assertEquals(expected.getVersion(), actual.getVersion());
+		Assert.assertEquals(expected.getDeclaredSize(), actual.getDeclaredSize());
+		List<ID3Frame> expectedFrames = expected.getFrames();
+		List<ID3Frame> actualFrames = actual.getFrames();
+		Assert.assertEquals(expectedFrames.size(), actualFrames.size());
+		for (int i = 0; i < expectedFrames.size(); i++) {
+			Assert.assertEquals(expectedFrames.get(i).toString(), actualFrames.get(i).toString());
+		}
+	}
+
+	private static byte[] createID3v2Tag(String title) {
+		byte[] text = title.getBytes(StandardCharsets.ISO_8859_1);
+		int size = 11 + text.length + 20;
+		ByteBuffer buffer = ByteBuffer.allocate(AbstractID3v2Reader.HEADER_LENGTH + size);
+		buffer.put(new byte[] {'I', 'D', '3', 3, 0, 0, 0, 0, 0, (byte) size});
+		buffer.put("TIT2".getBytes(StandardCharsets.ISO_8859_1));
+		buffer.putInt(text.length + 1);
+		buffer.putShort((short) 0);
+		buffer.put((byte) 0); // ISO-8859-1
+		buffer.put(text);
+		return buffer.array();
+	}
+
+	private static byte[] createAPEFooter() {
+		byte[] footer = new byte[32];
+		System.arraycopy("APETAGEX".getBytes(StandardCharsets.ISO_8859_1), 0, footer, 0, 8);
+		return footer;
+	}
+
+	private static byte[] createID3v1Tag(String title, int trackNumber) {
+		byte[] tag = new byte[ID3v1Reader.TAG_LENGTH];
+		tag[0] = 'T';
+		tag[1] = 'A';
+		tag[2] = 'G';
+		byte[] text = title.getBytes(StandardCharsets.ISO_8859_1);
+		System.arraycopy(text, 0, tag, 3, text.length);
+		tag[126] = (byte) trackNumber;
+		return tag;
+	}
+}
@@ -0,0 +1,180 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.id3.v2;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * Unit test for {@link UnsynchedInputStream}.
+ *
+ * @author Nadahar
+ */
+public class UnsynchedInputStreamTest {
+
+	/**
+	 * Test that {@link UnsynchedInputStream#decode(byte[], int, int)} gives
+	 * the same result as reversing the unsynchronization one byte at a time.
+	 *
+	 * @throws IOException if the test fails.
+	 */
+	@Test
+	public void testDecode() throws IOException {
+		Random random = new Random(4711);
+		for (byte[] data : createData(random)) {
+			byte[] expected = decodeBytewise(data);
+			int off = random.nextInt(4);
+			byte[] b = new byte[off + data.length + 3];
+			Arrays.fill(b, (byte) 0x55);
+			System.arraycopy(data, 0, b, off, data.length);
+			int length = UnsynchedInputStream.decode(b, off, data.length);
+			Assert.assertArrayEquals(expected, Arrays.copyOfRange(b, off, off + length));
+			for (int i = off + data.length; i < b.length; i++) {
+				Assert.assertEquals((byte) 0x55, b[i]);
+			}
+		}
+	}
+
+	/**
+	 * Test that single byte reads, bulk reads and skips of
+	 * {@link UnsynchedInputStream} give the same result as reversing the
+	 * unsynchronization one byte at a time, also when the underlying stream
+	 * returns short reads that split {@code 0xFF 0x00} pairs.
+	 *
+	 * @throws IOException if the test fails.
+	 */
+	@Test
+	public void testStream() throws IOException {
+		Random random = new Random(42);
+		for (byte[] data : createData(random)) {
+			byte[] expected = decodeBytewise(data);
+
+			// Single byte reads
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			try (InputStream input = new UnsynchedInputStream(new ByteArrayInputStream(data))) {
+				int c;
+				while ((c = input.read()) >= 0) {
+					out.write(c);
+				}
+			}
+			Assert.assertArrayEquals(expected, out.toByteArray());
+
+			// Bulk reads with short underlying reads
+			for (int maxRead : new int[] {1, 2, 3, 7, 64}) {
+				out.reset();
+				byte[] buffer = new byte[5];
+				try (InputStream input = new UnsynchedInputStream(new ShortReadInputStream(data, maxRead))) {
+					int count;
+					while ((count = input.read(buffer, 1, 4)) >= 0) {
+						Assert.assertTrue(count > 0);
+						out.write(buffer, 1, count);
+					}
+				}
+				Assert.assertArrayEquals("maxRead " + maxRead, expected, out.toByteArray());
+			}
+
+			// Skip followed by single byte reads
+			if (expected.length > 0) {
+				int skip = random.nextInt(expected.length);
+				try (InputStream input = new UnsynchedInputStream(new ShortReadInputStream(data, 3))) {
+					Assert.assertEquals(skip, input.skip(skip));
+					for (int i = skip; i < expected.length; i++) {
+						Assert.assertEquals(expected[i] & 0xFF, input.read());
+					}
+					Assert.assertEquals(-1, input.read());
+					Assert.assertEquals(0, input.skip(1));
+				}
+			}
+		}
+	}
+
+	private static byte[][] createData(Random random) {
+		byte[][] result = new byte[203][];
+		result[0] = new byte[0];
+		result[1] = new byte[] {(byte) 0xFF, 0x00, (byte) 0xFF, 0x00, 0x00, (byte) 0xFF, (byte) 0xFF, 0x00, (byte) 0xFF};
+		result[2] = new byte[] {0x00, (byte) 0xFF, 0x00};
+		for (int i = 3; i < result.length; i++) {
+			byte[] data = new byte[random.nextInt(100)];
+			for (int j = 0; j < data.length; j++) {
+				// Mostly 0xFF and 0x00 to get many unsynchronization sequences
+				switch (random.nextInt(4)) {
+					case 0:
+						data[j] = (byte) 0xFF;
+						break;
+					case 1:
+					case 2:
+						data[j] = 0x00;
+						break;
+					default:
+						data[j] = (byte) random.nextInt(256);
+				}
+			}
+			result[i] = data;
+		}
+		return result;
+	}
+
+	/**
+	 * Reverses the unsynchronization one byte at a time like the original
+	 * {@link UnsynchedInputStream} did.
+	 */
+	private static byte[] decodeBytewise(byte[] data) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (PushbackInputStream input = new PushbackInputStream(new ByteArrayInputStream(data), 1)) {
+			int c1;
+			while ((c1 = input.read()) >= 0) {
+				if (c1 == 0xFF) {
+					int c2 = input.read();
+					if (c2 != 0x00 && c2 >= 0) {
+						input.unread(c2);
+					}
+				}
+				out.write(c1);
+			}
+		}
+		return out.toByteArray();
+	}
+
+	/**
+	 * An {@link InputStream} that returns at most the specified number of
+	 * bytes from each bulk read.
+	 */
+	private static class ShortReadInputStream extends ByteArrayInputStream {
+
+		private final int maxRead;
+
+		public ShortReadInputStream(byte[] buf, int maxRead) {
+			super(buf);
+			this.maxRead = maxRead;
+		}
+
+		@Override
+		public synchronized int read(byte[] b, int off, int len) {
+			return super.read(b, off, Math.min(len, maxRead));
+		}
+	}
+}
@@ -0,0 +1,337 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.tools.flac;
+
+import java.io.IOException;
+
+
+/**
+ * A decoder for single FLAC frames. It's only used for the frames that are
+ * split at a track boundary, so it's written for clarity rather than speed.
+ *
+ * @author Nadahar
+ */
+public class FLACFrameDecoder {
+
+	/** The data to decode */
+	protected final byte[] buffer;
+
+	/** The end of the frame in {@link #buffer} */
+	protected final int limit;
+
+	/** The current bit position in {@link #buffer} */
+	protected long bitPosition;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param buffer the array holding the frame.
+	 * @param offset the offset of the frame.
+	 * @param length the length of the frame including the CRC-16.
+	 */
+	protected FLACFrameDecoder(byte[] buffer, int offset, int length) {
+		this.buffer = buffer;
+		this.limit = offset + length;
+		this.bitPosition = (long) offset << 3;
+	}
+
+	/**
+	 * Decodes a frame.
+	 *
+	 * @param buffer the array holding the frame.
+	 * @param offset the offset of the frame.
+	 * @param length the length of the frame including the CRC-16.
+	 * @param header the parsed {@link FLACFrameHeader} of the frame.
+	 * @param streamBitsPerSample the number of bits per sample from
+	 *            {@code STREAMINFO}, used if the frame header doesn't specify
+	 *            it.
+	 * @return The decoded samples indexed by channel and sample.
+	 * @throws IOException If the frame is invalid.
+	 */
+	public static int[][] decode(
+		byte[] buffer,
+		int offset,
+		int length,
+		FLACFrameHeader header,
+		int streamBitsPerSample
+	) throws IOException {
+		int bitsPerSample = header.getBitsPerSample() > 0 ? header.getBitsPerSample() : streamBitsPerSample;
+		int channels = header.getChannels();
+		int blockSize = header.getBlockSize();
+		int assignment = header.getChannelAssignment();
+		FLACFrameDecoder decoder = new FLACFrameDecoder(buffer, offset, length);
+		decoder.bitPosition += header.getLength() << 3;
+		long[][] samples = new long[channels][blockSize];
+		for (int channel = 0; channel < channels; channel++) {
+			boolean side =
+				(assignment == 8 && channel == 1) ||
+				(assignment == 9 && channel == 0) ||
+				(assignment == 10 && channel == 1);
+			decoder.decodeSubframe(bitsPerSample + (side ? 1 : 0), samples[channel]);
+		}
+		long[] left;
+		long[] right;
+		switch (assignment) {
+			case 8:
+				left = samples[0];
+				right = samples[1];
+				for (int i = 0; i < blockSize; i++) {
+					right[i] = left[i] - right[i];
+				}
+				break;
+			case 9:
+				left = samples[0];
+				right = samples[1];
+				for (int i = 0; i < blockSize; i++) {
+					left[i] += right[i];
+				}
+				break;
+			case 10:
+				left = samples[0];
+				right = samples[1];
+				for (int i = 0; i < blockSize; i++) {
+					long side = right[i];
+					long mid = (left[i] << 1) | (side & 1);
+					left[i] = (mid + side) >> 1;
+					right[i] = (mid - side) >> 1;
+				}
+				break;
+			default:
+				break;
+		}
+		decoder.bitPosition = (decoder.bitPosition + 7) & ~7L;
+		if ((decoder.bitPosition >> 3) + 2 != decoder.limit) {
+			throw new IOException("Invalid FLAC frame length");
+		}
+
+		int[][] result = new int[channels][blockSize];
+		for (int channel = 0; channel < channels; channel++) {
+			for (int i = 0; i < blockSize; i++) {
+				result[channel][i] = (int) samples[channel][i];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Decodes a subframe.
+	 *
+	 * @param bitsPerSample the number of bits per sample of the subframe.
+	 * @param samples the array to store the samples in.
+	 * @throws IOException If the subframe is invalid.
+	 */
+	protected void decodeSubframe(int bitsPerSample, long[] samples) throws IOException {
+		if (readBits(1) != 0) {
+			throw new IOException("Invalid FLAC subframe padding");
+		}
+		int type = (int) readBits(6);
+		int wastedBits = 0;
+		if (readBits(1) != 0) {
+			wastedBits = readUnary() + 1;
+			bitsPerSample -= wastedBits;
+		}
+		int blockSize = samples.length;
+		if (type == 0) {
+			long value = readSigned(bitsPerSample);
+			for (int i = 0; i < blockSize; i++) {
+				samples[i] = value;
+			}
+		} else if (type == 1) {
+			for (int i = 0; i < blockSize; i++) {
+				samples[i] = readSigned(bitsPerSample);
+			}
+		} else if (type >= 8 && type <= 12) {
+			int order = type - 8;
+			for (int i = 0; i < order; i++) {
+				samples[i] = readSigned(bitsPerSample);
+			}
+			decodeResidual(order, samples);
+			restoreFixed(order, samples);
+		} else if (type >= 32) {
+			int order = type - 31;
+			for (int i = 0; i < order; i++) {
+				samples[i] = readSigned(bitsPerSample);
+			}
+			int precision = (int) readBits(4) + 1;
+			if (precision == 16) {
+				throw new IOException("Invalid FLAC LPC coefficient precision");
+			}
+			int shift = (int) readSigned(5);
+			if (shift < 0) {
+				throw new IOException("Invalid FLAC LPC shift");
+			}
+			long[] coefficients = new long[order];
+			for (int i = 0; i < order; i++) {
+				coefficients[i] = readSigned(precision);
+			}
+			decodeResidual(order, samples);
+			for (int i = order; i < blockSize; i++) {
+				long sum = 0;
+				for (int j = 0; j < order; j++) {
+					sum += coefficients[j] * samples[i - 1 - j];
+				}
+				samples[i] += sum >> shift;
+			}
+		} else {
+			throw new IOException("Invalid FLAC subframe type " + type);
+		}
+		if (wastedBits > 0) {
+			for (int i = 0; i < blockSize; i++) {
+				samples[i] <<= wastedBits;
+			}
+		}
+	}
+
+	/**
+	 * Decodes the residual of a predicted subframe into {@code samples},
+	 * following the warm-up samples.
+	 *
+	 * @param order the predictor order.
+	 * @param samples the array to store the residual in.
+	 * @throws IOException If the residual is invalid.
+	 */
+	protected void decodeResidual(int order, long[] samples) throws IOException {
+		int method = (int) readBits(2);
+		if (method > 1) {
+			throw new IOException("Invalid FLAC residual coding method");
+		}
+		int parameterBits = method == 0 ? 4 : 5;
+		int escape = method == 0 ? 15 : 31;
+		int partitionOrder = (int) readBits(4);
+		int partitions = 1 << partitionOrder;
+		int partitionSize = samples.length >> partitionOrder;
+		if (partitionSize << partitionOrder != samples.length || partitionSize < order) {
+			throw new IOException("Invalid FLAC residual partition order");
+		}
+		int pos = order;
+		for (int partition = 0; partition < partitions; partition++) {
+			int end = (partition + 1) * partitionSize;
+			int parameter = (int) readBits(parameterBits);
+			if (parameter == escape) {
+				int bits = (int) readBits(5);
+				for (; pos < end; pos++) {
+					samples[pos] = bits == 0 ? 0 : readSigned(bits);
+				}
+			} else {
+				for (; pos < end; pos++) {
+					long value = ((long) readUnary() << parameter) | readBits(parameter);
+					samples[pos] = (value >>> 1) ^ -(value & 1);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Restores the samples of a subframe using a fixed predictor.
+	 *
+	 * @param order the predictor order.
+	 * @param samples the warm-up samples followed by the residual.
+	 */
+	protected static void restoreFixed(int order, long[] samples) {
+		for (int i = order; i < samples.length; i++) {
+			switch (order) {
+				case 1:
+					samples[i] += samples[i - 1];
+					break;
+				case 2:
+					samples[i] += 2 * samples[i - 1] - samples[i - 2];
+					break;
+				case 3:
+					samples[i] += 3 * samples[i - 1] - 3 * samples[i - 2] + samples[i - 3];
+					break;
+				case 4:
+					samples[i] += 4 * samples[i - 1] - 6 * samples[i - 2] + 4 * samples[i - 3] - samples[i - 4];
+					break;
+				default:
+					break;
+			}
+		}
+	}
+
+	/**
+	 * Reads an unsigned value.
+	 *
+	 * @param count the number of bits to read, at most 56.
+	 * @return The value.
+	 * @throws IOException If the end of the frame is reached.
+	 */
+	protected long readBits(int count) throws IOException {
+		if (count == 0) {
+			return 0;
+		}
+		if (bitPosition + count > (long) limit << 3) {
+			throw new IOException("Unexpected end of FLAC frame");
+		}
+		long result = 0;
+		int remaining = count;
+		while (remaining > 0) {
+			int index = (int) (bitPosition >> 3);
+			int bitOffset = (int) (bitPosition & 7);
+			int available = 8 - bitOffset;
+			int bits = Math.min(available, remaining);
+			int value = ((buffer[index] & 0xFF) >> (available - bits)) & ((1 << bits) - 1);
+			result = (result << bits) | value;
+			remaining -= bits;
+			bitPosition += bits;
+		}
+		return result;
+	}
+
+	/**
+	 * Reads a two's complement signed value.
+	 *
+	 * @param count the number of bits to read, at most 56.
+	 * @return The value.
+	 * @throws IOException If the end of the frame is reached.
+	 */
+	protected long readSigned(int count) throws IOException {
+		if (count == 0) {
+			return 0;
+		}
+		long value = readBits(count);
+		return (value << (64 - count)) >> (64 - count);
+	}
+
+	/**
+	 * Reads an unary coded value, the number of zero bits before the next
+	 * one bit.
+	 *
+	 * @return The value.
+	 * @throws IOException If the end of the frame is reached.
+	 */
+	protected int readUnary() throws IOException {
+		int result = 0;
+		long end = (long) limit << 3;
+		while (bitPosition < end) {
+			int index = (int) (bitPosition >> 3);
+			int bitOffset = (int) (bitPosition & 7);
+			int value = (buffer[index] << bitOffset) & 0xFF;
+			if (value == 0) {
+				result += 8 - bitOffset;
+				bitPosition += 8 - bitOffset;
+			} else {
+				int zeros = Integer.numberOfLeadingZeros(value) - 24;
+				result += zeros;
+				bitPosition += zeros + 1;
+				return result;
+			}
+		}
+		throw new IOException("Unexpected end of FLAC frame");
+	}
+}
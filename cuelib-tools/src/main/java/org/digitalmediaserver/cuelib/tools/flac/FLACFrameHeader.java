@@ -0,0 +1,625 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.tools.flac;
+
+import org.digitalmediaserver.cuelib.io.FLACReader.StreamInfo;
+
+
+/**
+ * This class represents a FLAC {@code FRAME_HEADER}. It can parse headers,
+ * write them back with a different number and compute the checksums used in
+ * FLAC frames.
+ *
+ * @author Nadahar
+ */
+public class FLACFrameHeader {
+
+	/** The maximum length of a frame header in bytes */
+	public static final int MAX_LENGTH = 16;
+
+	/** The sample rates of sample rate codes 1 to 11 */
+	protected static final int[] SAMPLE_RATES = {
+		0, 88200, 176400, 192000, 8000, 16000, 22050, 24000, 32000, 44100, 48000, 96000
+	};
+
+	/** The sample sizes of sample size codes 0 to 7, 0 is reserved or from {@code STREAMINFO} */
+	protected static final int[] SAMPLE_SIZES = {0, 8, 12, 0, 16, 20, 24, 32};
+
+	/** The CRC-8 lookup table, polynomial {@code x^8 + x^2 + x^1 + x^0} */
+	protected static final int[] CRC8_TABLE = new int[256];
+
+	/**
+	 * The CRC-16 lookup tables, polynomial {@code x^16 + x^15 + x^2 + x^0}.
+	 * Table {@code n} holds the CRC of each byte value followed by {@code n}
+	 * zero bytes, which allows processing 8 bytes at a time.
+	 */
+	protected static final int[][] CRC16_TABLES = new int[8][256];
+
+	/**
+	 * The operators that advance a CRC-16 over {@code 2^n} zero bytes, as
+	 * the results for each of the 16 bits of the CRC.
+	 */
+	protected static final int[][] CRC16_ZEROS = new int[31][16];
+
+	static {
+		for (int i = 0; i < 256; i++) {
+			int crc8 = i;
+			int crc16 = i << 8;
+			for (int j = 0; j < 8; j++) {
+				crc8 = (crc8 & 0x80) != 0 ? (crc8 << 1) ^ 0x07 : crc8 << 1;
+				crc16 = (crc16 & 0x8000) != 0 ? (crc16 << 1) ^ 0x8005 : crc16 << 1;
+			}
+			CRC8_TABLE[i] = crc8 & 0xFF;
+			CRC16_TABLES[0][i] = crc16 & 0xFFFF;
+		}
+		for (int n = 1; n < 8; n++) {
+			for (int i = 0; i < 256; i++) {
+				int crc = CRC16_TABLES[n - 1][i];
+				CRC16_TABLES[n][i] = ((crc << 8) ^ CRC16_TABLES[0][crc >> 8]) & 0xFFFF;
+			}
+		}
+		for (int bit = 0; bit < 16; bit++) {
+			int crc = 1 << bit;
+			CRC16_ZEROS[0][bit] = ((crc << 8) ^ CRC16_TABLES[0][crc >> 8]) & 0xFFFF;
+		}
+		for (int n = 1; n < CRC16_ZEROS.length; n++) {
+			for (int bit = 0; bit < 16; bit++) {
+				CRC16_ZEROS[n][bit] = apply(CRC16_ZEROS[n - 1], CRC16_ZEROS[n - 1][bit]);
+			}
+		}
+	}
+
+	/** Whether the variable block size strategy is used */
+	protected final boolean variableBlockSize;
+
+	/** The block size code */
+	protected final int blockSizeCode;
+
+	/** The number of samples per channel */
+	protected final int blockSize;
+
+	/** The sample rate code */
+	protected final int sampleRateCode;
+
+	/** The sample rate or {@code 0} if it's given by {@code STREAMINFO} */
+	protected final int sampleRate;
+
+	/** The channel assignment */
+	protected final int channelAssignment;
+
+	/** The sample size code */
+	protected final int sampleSizeCode;
+
+	/** The frame number or the sample number, depending on the block size strategy */
+	protected final long number;
+
+	/** The length of the header in bytes, including the CRC-8 */
+	protected final int length;
+
+	/**
+	 * Creates a new instance using the specified values.
+	 *
+	 * @param variableBlockSize whether the variable block size strategy is
+	 *            used.
+	 * @param blockSizeCode the block size code.
+	 * @param blockSize the number of samples per channel.
+	 * @param sampleRateCode the sample rate code.
+	 * @param sampleRate the sample rate or {@code 0} if it's given by
+	 *            {@code STREAMINFO}.
+	 * @param channelAssignment the channel assignment.
+	 * @param sampleSizeCode the sample size code.
+	 * @param number the frame number or the sample number, depending on
+	 *            {@code variableBlockSize}.
+	 * @param length the length of the header in bytes, including the CRC-8.
+	 */
+	public FLACFrameHeader(
+		boolean variableBlockSize,
+		int blockSizeCode,
+		int blockSize,
+		int sampleRateCode,
+		int sampleRate,
+		int channelAssignment,
+		int sampleSizeCode,
+		long number,
+		int length
+	) {
+		this.variableBlockSize = variableBlockSize;
+		this.blockSizeCode = blockSizeCode;
+		this.blockSize = blockSize;
+		this.sampleRateCode = sampleRateCode;
+		this.sampleRate = sampleRate;
+		this.channelAssignment = channelAssignment;
+		this.sampleSizeCode = sampleSizeCode;
+		this.number = number;
+		this.length = length;
+	}
+
+	/**
+	 * @return {@code true} if the variable block size strategy is used,
+	 *         {@code false} otherwise.
+	 */
+	public boolean isVariableBlockSize() {
+		return variableBlockSize;
+	}
+
+	/**
+	 * @return The number of samples per channel.
+	 */
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	/**
+	 * @return The sample rate or {@code 0} if it's given by
+	 *         {@code STREAMINFO}.
+	 */
+	public int getSampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * @return The channel assignment.
+	 */
+	public int getChannelAssignment() {
+		return channelAssignment;
+	}
+
+	/**
+	 * @return The number of channels.
+	 */
+	public int getChannels() {
+		return channelAssignment < 8 ? channelAssignment + 1 : 2;
+	}
+
+	/**
+	 * @return The number of bits per sample or {@code 0} if it's given by
+	 *         {@code STREAMINFO}.
+	 */
+	public int getBitsPerSample() {
+		return SAMPLE_SIZES[sampleSizeCode];
+	}
+
+	/**
+	 * @return The frame number or the sample number, depending on the block
+	 *         size strategy.
+	 */
+	public long getNumber() {
+		return number;
+	}
+
+	/**
+	 * @return The length of the header in bytes, including the CRC-8.
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Returns the number of the first sample in this frame.
+	 *
+	 * @param streamInfo the {@link StreamInfo} of the stream.
+	 * @return The first sample number.
+	 */
+	public long getFirstSample(StreamInfo streamInfo) {
+		return variableBlockSize ? number : number * streamInfo.getMaxBlockSize();
+	}
+
+	/**
+	 * Writes this header with the variable block size strategy and the
+	 * specified sample number.
+	 *
+	 * @param buffer the array to write to.
+	 * @param offset the offset to write at.
+	 * @param sampleNumber the sample number to write.
+	 * @return The number of bytes written.
+	 */
+	public int write(byte[] buffer, int offset, long sampleNumber) {
+		return write(
+			buffer,
+			offset,
+			blockSizeCode,
+			blockSize,
+			sampleRateCode,
+			sampleRate,
+			channelAssignment,
+			sampleSizeCode,
+			sampleNumber
+		);
+	}
+
+	/**
+	 * Parses a frame header.
+	 *
+	 * @param buffer the array to parse from.
+	 * @param offset the offset of the header.
+	 * @param limit the end of the valid data in {@code buffer}.
+	 * @return The new {@link FLACFrameHeader} or {@code null} if there is no
+	 *         valid header at {@code offset}.
+	 */
+	public static FLACFrameHeader parse(byte[] buffer, int offset, int limit) {
+		if (
+			limit - offset < 6 ||
+			buffer[offset] != (byte) 0xFF ||
+			(buffer[offset + 1] & 0xFE) != 0xF8
+		) {
+			return null;
+		}
+		boolean variableBlockSize = (buffer[offset + 1] & 1) != 0;
+		int blockSizeCode = (buffer[offset + 2] & 0xF0) >> 4;
+		int sampleRateCode = buffer[offset + 2] & 0x0F;
+		int channelAssignment = (buffer[offset + 3] & 0xF0) >> 4;
+		int sampleSizeCode = (buffer[offset + 3] & 0x0E) >> 1;
+		if (
+			blockSizeCode == 0 ||
+			sampleRateCode == 15 ||
+			channelAssignment > 10 ||
+			sampleSizeCode == 3 ||
+			(buffer[offset + 3] & 1) != 0
+		) {
+			return null;
+		}
+
+		// The UTF-8 like coded number
+		int pos = offset + 4;
+		int first = buffer[pos++] & 0xFF;
+		int extra;
+		long number;
+		if (first < 0x80) {
+			number = first;
+			extra = 0;
+		} else if (first >= 0xC0 && first < 0xE0) {
+			number = first & 0x1F;
+			extra = 1;
+		} else if (first >= 0xE0 && first < 0xF0) {
+			number = first & 0x0F;
+			extra = 2;
+		} else if (first >= 0xF0 && first < 0xF8) {
+			number = first & 0x07;
+			extra = 3;
+		} else if (first >= 0xF8 && first < 0xFC) {
+			number = first & 0x03;
+			extra = 4;
+		} else if (first >= 0xFC && first < 0xFE) {
+			number = first & 0x01;
+			extra = 5;
+		} else if (first == 0xFE) {
+			number = 0;
+			extra = 6;
+		} else {
+			return null;
+		}
+		if (!variableBlockSize && extra > 5) {
+			return null;
+		}
+		if (limit - pos < extra) {
+			return null;
+		}
+		for (int i = 0; i < extra; i++) {
+			int b = buffer[pos++] & 0xFF;
+			if ((b & 0xC0) != 0x80) {
+				return null;
+			}
+			number = (number << 6) | (b & 0x3F);
+		}
+
+		int blockSize;
+		if (blockSizeCode == 1) {
+			blockSize = 192;
+		} else if (blockSizeCode <= 5) {
+			blockSize = 576 << (blockSizeCode - 2);
+		} else if (blockSizeCode == 6) {
+			if (limit - pos < 1) {
+				return null;
+			}
+			blockSize = (buffer[pos++] & 0xFF) + 1;
+		} else if (blockSizeCode == 7) {
+			if (limit - pos < 2) {
+				return null;
+			}
+			blockSize = (((buffer[pos] & 0xFF) << 8) | (buffer[pos + 1] & 0xFF)) + 1;
+			pos += 2;
+		} else {
+			blockSize = 256 << (blockSizeCode - 8);
+		}
+
+		int sampleRate;
+		if (sampleRateCode == 0) {
+			sampleRate = 0;
+		} else if (sampleRateCode < 12) {
+			sampleRate = SAMPLE_RATES[sampleRateCode];
+		} else if (sampleRateCode == 12) {
+			if (limit - pos < 1) {
+				return null;
+			}
+			sampleRate = (buffer[pos++] & 0xFF) * 1000;
+		} else {
+			if (limit - pos < 2) {
+				return null;
+			}
+			sampleRate = ((buffer[pos] & 0xFF) << 8) | (buffer[pos + 1] & 0xFF);
+			if (sampleRateCode == 14) {
+				sampleRate *= 10;
+			}
+			pos += 2;
+		}
+
+		if (limit - pos < 1 || crc8(buffer, offset, pos - offset) != (buffer[pos] & 0xFF)) {
+			return null;
+		}
+		pos++;
+		return new FLACFrameHeader(
+			variableBlockSize,
+			blockSizeCode,
+			blockSize,
+			sampleRateCode,
+			sampleRate,
+			channelAssignment,
+			sampleSizeCode,
+			number,
+			pos - offset
+		);
+	}
+
+	/**
+	 * Writes a frame header with the variable block size strategy.
+	 *
+	 * @param buffer the array to write to.
+	 * @param offset the offset to write at.
+	 * @param blockSizeCode the block size code.
+	 * @param blockSize the number of samples per channel.
+	 * @param sampleRateCode the sample rate code.
+	 * @param sampleRate the sample rate.
+	 * @param channelAssignment the channel assignment.
+	 * @param sampleSizeCode the sample size code.
+	 * @param sampleNumber the sample number.
+	 * @return The number of bytes written.
+	 */
+	public static int write(
+		byte[] buffer,
+		int offset,
+		int blockSizeCode,
+		int blockSize,
+		int sampleRateCode,
+		int sampleRate,
+		int channelAssignment,
+		int sampleSizeCode,
+		long sampleNumber
+	) {
+		int pos = offset;
+		buffer[pos++] = (byte) 0xFF;
+		buffer[pos++] = (byte) 0xF9;
+		buffer[pos++] = (byte) ((blockSizeCode << 4) | sampleRateCode);
+		buffer[pos++] = (byte) ((channelAssignment << 4) | (sampleSizeCode << 1));
+
+		// The UTF-8 like coded number
+		if (sampleNumber < 0x80) {
+			buffer[pos++] = (byte) sampleNumber;
+		} else {
+			int extra;
+			int mask;
+			if (sampleNumber < 0x800L) {
+				extra = 1;
+				mask = 0xC0;
+			} else if (sampleNumber < 0x10000L) {
+				extra = 2;
+				mask = 0xE0;
+			} else if (sampleNumber < 0x200000L) {
+				extra = 3;
+				mask = 0xF0;
+			} else if (sampleNumber < 0x4000000L) {
+				extra = 4;
+				mask = 0xF8;
+			} else if (sampleNumber < 0x80000000L) {
+				extra = 5;
+				mask = 0xFC;
+			} else {
+				extra = 6;
+				mask = 0xFE;
+			}
+			buffer[pos++] = (byte) (mask | (sampleNumber >>> (6 * extra)));
+			for (int i = extra - 1; i >= 0; i--) {
+				buffer[pos++] = (byte) (0x80 | ((sampleNumber >>> (6 * i)) & 0x3F));
+			}
+		}
+
+		if (blockSizeCode == 6) {
+			buffer[pos++] = (byte) (blockSize - 1);
+		} else if (blockSizeCode == 7) {
+			buffer[pos++] = (byte) ((blockSize - 1) >> 8);
+			buffer[pos++] = (byte) (blockSize - 1);
+		}
+		if (sampleRateCode == 12) {
+			buffer[pos++] = (byte) (sampleRate / 1000);
+		} else if (sampleRateCode == 13 || sampleRateCode == 14) {
+			int value = sampleRateCode == 14 ? sampleRate / 10 : sampleRate;
+			buffer[pos++] = (byte) (value >> 8);
+			buffer[pos++] = (byte) value;
+		}
+		buffer[pos] = (byte) crc8(buffer, offset, pos - offset);
+		return pos + 1 - offset;
+	}
+
+	/**
+	 * Finds the block size code for the specified block size, using the
+	 * explicit 8 or 16 bit codes unless the block size has a code of its own.
+	 *
+	 * @param blockSize the number of samples per channel, at most 65536.
+	 * @return The block size code.
+	 */
+	public static int getBlockSizeCode(int blockSize) {
+		if (blockSize == 192) {
+			return 1;
+		}
+		for (int code = 2; code <= 5; code++) {
+			if (blockSize == 576 << (code - 2)) {
+				return code;
+			}
+		}
+		for (int code = 8; code <= 15; code++) {
+			if (blockSize == 256 << (code - 8)) {
+				return code;
+			}
+		}
+		return blockSize <= 256 ? 6 : 7;
+	}
+
+	/**
+	 * Finds the sample rate code for the specified sample rate.
+	 *
+	 * @param sampleRate the sample rate.
+	 * @return The sample rate code, {@code 0} if the sample rate must be read
+	 *         from {@code STREAMINFO}.
+	 */
+	public static int getSampleRateCode(int sampleRate) {
+		for (int code = 1; code < SAMPLE_RATES.length; code++) {
+			if (SAMPLE_RATES[code] == sampleRate) {
+				return code;
+			}
+		}
+		if (sampleRate % 1000 == 0 && sampleRate / 1000 <= 0xFF) {
+			return 12;
+		}
+		if (sampleRate <= 0xFFFF) {
+			return 13;
+		}
+		if (sampleRate % 10 == 0 && sampleRate / 10 <= 0xFFFF) {
+			return 14;
+		}
+		return 0;
+	}
+
+	/**
+	 * Finds the sample size code for the specified number of bits per sample.
+	 *
+	 * @param bitsPerSample the number of bits per sample.
+	 * @return The sample size code, {@code 0} if the sample size must be read
+	 *         from {@code STREAMINFO}.
+	 */
+	public static int getSampleSizeCode(int bitsPerSample) {
+		for (int code = 1; code < SAMPLE_SIZES.length; code++) {
+			if (SAMPLE_SIZES[code] == bitsPerSample) {
+				return code;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Calculates the CRC-8 used in frame headers.
+	 *
+	 * @param buffer the data.
+	 * @param offset the offset of the data.
+	 * @param length the length of the data.
+	 * @return The CRC-8.
+	 */
+	public static int crc8(byte[] buffer, int offset, int length) {
+		int crc = 0;
+		for (int i = offset, end = offset + length; i < end; i++) {
+			crc = CRC8_TABLE[crc ^ (buffer[i] & 0xFF)];
+		}
+		return crc;
+	}
+
+	/**
+	 * Calculates the CRC-16 used in frame footers.
+	 *
+	 * @param buffer the data.
+	 * @param offset the offset of the data.
+	 * @param length the length of the data.
+	 * @return The CRC-16.
+	 */
+	public static int crc16(byte[] buffer, int offset, int length) {
+		return updateCRC16(0, buffer, offset, length);
+	}
+
+	/**
+	 * Continues the calculation of a CRC-16 used in frame footers.
+	 *
+	 * @param crc the CRC-16 of the preceding data.
+	 * @param buffer the data.
+	 * @param offset the offset of the data.
+	 * @param length the length of the data.
+	 * @return The CRC-16.
+	 */
+	public static int updateCRC16(int crc, byte[] buffer, int offset, int length) {
+		int i = offset;
+		int end = offset + length;
+		int[] t0 = CRC16_TABLES[0];
+		for (int end8 = end - 7; i < end8; i += 8) {
+			crc =
+				CRC16_TABLES[7][((crc >> 8) ^ buffer[i]) & 0xFF] ^
+				CRC16_TABLES[6][(crc ^ buffer[i + 1]) & 0xFF] ^
+				CRC16_TABLES[5][buffer[i + 2] & 0xFF] ^
+				CRC16_TABLES[4][buffer[i + 3] & 0xFF] ^
+				CRC16_TABLES[3][buffer[i + 4] & 0xFF] ^
+				CRC16_TABLES[2][buffer[i + 5] & 0xFF] ^
+				CRC16_TABLES[1][buffer[i + 6] & 0xFF] ^
+				t0[buffer[i + 7] & 0xFF];
+		}
+		for (; i < end; i++) {
+			crc = ((crc << 8) ^ t0[((crc >> 8) ^ buffer[i]) & 0xFF]) & 0xFFFF;
+		}
+		return crc;
+	}
+
+	/**
+	 * Advances a CRC-16 over the specified number of zero bytes. Since the
+	 * CRC is linear, this can be used to find the CRC-16 of a frame whose
+	 * header has changed without processing the rest of the frame again: the
+	 * new CRC is the old CRC XOR the difference of the CRCs of the headers,
+	 * advanced over the length of the rest of the frame.
+	 *
+	 * @param crc the CRC-16.
+	 * @param length the number of zero bytes.
+	 * @return The advanced CRC-16.
+	 */
+	public static int shiftCRC16(int crc, int length) {
+		for (int n = 0; length != 0 && crc != 0; n++, length >>>= 1) {
+			if ((length & 1) != 0) {
+				crc = apply(CRC16_ZEROS[n], crc);
+			}
+		}
+		return crc;
+	}
+
+	/**
+	 * Applies a CRC-16 operator from {@link #CRC16_ZEROS}.
+	 *
+	 * @param operator the operator.
+	 * @param crc the CRC-16.
+	 * @return The result.
+	 */
+	protected static int apply(int[] operator, int crc) {
+		int result = 0;
+		for (int bit = 0; crc != 0; bit++, crc >>>= 1) {
+			if ((crc & 1) != 0) {
+				result ^= operator[bit];
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return
+			getClass().getSimpleName() + " [" + (variableBlockSize ? "sample=" : "frame=") + number +
+			", blockSize=" + blockSize + ", channelAssignment=" + channelAssignment +
+			", length=" + length + "]";
+	}
+}
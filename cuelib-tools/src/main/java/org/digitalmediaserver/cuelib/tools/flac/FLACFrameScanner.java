@@ -0,0 +1,329 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.tools.flac;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * Reads the frames of a FLAC stream one by one without decoding them. Since
+ * FLAC frames don't store their length, the end of a frame is found by
+ * looking for the next valid frame header and verifying the CRC-16 of the
+ * frame in between. The frame or sample numbers in the headers aren't
+ * required to be consecutive, since some encoders get them wrong. The last
+ * frame extends to the end of the file, except for a trailing ID3v1 or APEv2
+ * tag.
+ * <p>
+ * The current frame is available in {@link #getBuffer()} until the next call
+ * to {@link #next()} or {@link #seek(long)}.
+ *
+ * @author Nadahar
+ */
+public class FLACFrameScanner {
+
+	/** The default buffer size */
+	public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+	/** The ID3v1 tag identifier */
+	protected static final byte[] ID3V1_ID = "TAG".getBytes(StandardCharsets.US_ASCII);
+
+	/** The APEv2 tag identifier */
+	protected static final byte[] APE_ID = "APETAGEX".getBytes(StandardCharsets.US_ASCII);
+
+	/** The {@link FileChannel} to read from */
+	protected final FileChannel channel;
+
+	/** The buffer */
+	protected byte[] buffer;
+
+	/** The file position of the first byte in {@link #buffer} */
+	protected long bufferPosition;
+
+	/** The index in {@link #buffer} of the next frame */
+	protected int position;
+
+	/** The end of the valid data in {@link #buffer} */
+	protected int limit;
+
+	/** Whether the end of the file has been reached */
+	protected boolean endOfFile;
+
+	/** The header of the current frame */
+	protected FLACFrameHeader header;
+
+	/** The index in {@link #buffer} of the current frame */
+	protected int frameOffset;
+
+	/** The length of the current frame including the CRC-16 */
+	protected int frameLength;
+
+	/** The file position of the current frame */
+	protected long framePosition = -1;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param channel the {@link FileChannel} to read from. It's read using
+	 *            absolute positions, so its position isn't changed.
+	 * @param position the file position of the first frame.
+	 * @param bufferSize the initial buffer size. The buffer will grow if a
+	 *            frame doesn't fit.
+	 */
+	public FLACFrameScanner(FileChannel channel, long position, int bufferSize) {
+		if (channel == null) {
+			throw new IllegalArgumentException("channel cannot be null");
+		}
+		if (bufferSize < 1024) {
+			throw new IllegalArgumentException("bufferSize must be at least 1024");
+		}
+		this.channel = channel;
+		this.buffer = new byte[bufferSize];
+		this.bufferPosition = position;
+	}
+
+	/**
+	 * Moves to the frame at the specified file position. Data that is
+	 * already buffered is reused.
+	 *
+	 * @param filePosition the file position of a frame.
+	 */
+	public void seek(long filePosition) {
+		if (filePosition >= bufferPosition && filePosition <= bufferPosition + limit) {
+			position = (int) (filePosition - bufferPosition);
+		} else {
+			bufferPosition = filePosition;
+			position = 0;
+			limit = 0;
+			endOfFile = false;
+		}
+		header = null;
+		framePosition = -1;
+	}
+
+	/**
+	 * @return The file position of the next frame.
+	 */
+	public long getPosition() {
+		return bufferPosition + position;
+	}
+
+	/**
+	 * Reads the next frame.
+	 *
+	 * @return The {@link FLACFrameHeader} of the frame or {@code null} if the
+	 *         end of the stream has been reached.
+	 * @throws IOException If an error occurs while reading or if there is no
+	 *             valid frame at the current position.
+	 */
+	public FLACFrameHeader next() throws IOException {
+		header = null;
+		framePosition = -1;
+		int available = fill(FLACFrameHeader.MAX_LENGTH);
+		if (available == 0) {
+			return null;
+		}
+		FLACFrameHeader current = FLACFrameHeader.parse(buffer, position, limit);
+		if (current == null) {
+			if (isTrailer(position, available)) {
+				position = limit;
+				return null;
+			}
+			throw new IOException("Lost FLAC frame sync at position " + getPosition());
+		}
+
+		int end = -1;
+		int relative = current.getLength() + 1;
+		while (true) {
+			if (relative + FLACFrameHeader.MAX_LENGTH >= available) {
+				available = fill(relative + FLACFrameHeader.MAX_LENGTH + 1);
+				if (relative + 2 > available) {
+					break;
+				}
+			}
+			int i = position + relative;
+			int searchEnd = position + available - (endOfFile ? 1 : FLACFrameHeader.MAX_LENGTH);
+			while (i < searchEnd && (buffer[i] != (byte) 0xFF || (buffer[i + 1] & 0xFE) != 0xF8)) {
+				i++;
+			}
+			relative = i - position;
+			if (i < searchEnd) {
+				FLACFrameHeader candidate = FLACFrameHeader.parse(buffer, i, limit);
+				if (
+					candidate != null &&
+					candidate.isVariableBlockSize() == current.isVariableBlockSize() &&
+					isValid(position, relative)
+				) {
+					end = relative;
+					break;
+				}
+				relative++;
+			}
+		}
+		if (end < 0) {
+			// The last frame
+			if (isValid(position, available)) {
+				end = available;
+			} else if (available > 128 && isTrailer(limit - 128, 128) && isValid(position, available - 128)) {
+				end = available - 128;
+			} else {
+				for (int i = position + current.getLength(); i <= limit - 32; i++) {
+					if (isTrailer(i, limit - i) && isValid(position, i - position)) {
+						end = i - position;
+						break;
+					}
+				}
+				if (end < 0) {
+					throw new IOException("Invalid FLAC frame at position " + getPosition());
+				}
+			}
+		}
+		header = current;
+		frameOffset = position;
+		frameLength = end;
+		framePosition = bufferPosition + position;
+		position += end;
+		return current;
+	}
+
+	/**
+	 * @return The header of the current frame or {@code null}.
+	 */
+	public FLACFrameHeader getHeader() {
+		return header;
+	}
+
+	/**
+	 * @return The buffer holding the current frame.
+	 */
+	public byte[] getBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * @return The index in {@link #getBuffer()} of the current frame.
+	 */
+	public int getFrameOffset() {
+		return frameOffset;
+	}
+
+	/**
+	 * @return The length of the current frame including the CRC-16.
+	 */
+	public int getFrameLength() {
+		return frameLength;
+	}
+
+	/**
+	 * @return The file position of the current frame or {@code -1}.
+	 */
+	public long getFramePosition() {
+		return framePosition;
+	}
+
+	/**
+	 * Checks the CRC-16 of a frame.
+	 *
+	 * @param offset the index in {@link #buffer} of the frame.
+	 * @param length the length of the frame including the CRC-16.
+	 * @return {@code true} if the CRC-16 matches, {@code false} otherwise.
+	 */
+	protected boolean isValid(int offset, int length) {
+		if (length < 4) {
+			return false;
+		}
+		int end = offset + length;
+		int crc = ((buffer[end - 2] & 0xFF) << 8) | (buffer[end - 1] & 0xFF);
+		return FLACFrameHeader.crc16(buffer, offset, length - 2) == crc;
+	}
+
+	/**
+	 * Checks if the data at the specified index is an ID3v1 or APEv2 tag
+	 * following the last frame.
+	 *
+	 * @param offset the index in {@link #buffer}.
+	 * @param available the number of bytes from {@code offset} to the end of
+	 *            the file.
+	 * @return {@code true} if there is a tag, {@code false} otherwise.
+	 */
+	protected boolean isTrailer(int offset, int available) {
+		if (available == 128 && startsWith(offset, ID3V1_ID)) {
+			return true;
+		}
+		return available >= 32 && startsWith(offset, APE_ID);
+	}
+
+	/**
+	 * Checks if the data at the specified index starts with the specified
+	 * bytes.
+	 *
+	 * @param offset the index in {@link #buffer}.
+	 * @param bytes the bytes to look for.
+	 * @return {@code true} if they match, {@code false} otherwise.
+	 */
+	protected boolean startsWith(int offset, byte[] bytes) {
+		if (limit - offset < bytes.length) {
+			return false;
+		}
+		for (int i = 0; i < bytes.length; i++) {
+			if (buffer[offset + i] != bytes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Makes sure that the specified number of bytes from {@link #position} is
+	 * buffered, unless the end of the file is reached first. The buffer is
+	 * compacted or grown as needed, which changes {@link #position}.
+	 *
+	 * @param count the number of bytes needed.
+	 * @return The number of bytes buffered from {@link #position}.
+	 * @throws IOException If an error occurs while reading.
+	 */
+	protected int fill(int count) throws IOException {
+		if (limit - position >= count || endOfFile) {
+			return limit - position;
+		}
+		if (position > 0) {
+			System.arraycopy(buffer, position, buffer, 0, limit - position);
+			bufferPosition += position;
+			limit -= position;
+			position = 0;
+		}
+		if (buffer.length < count) {
+			byte[] newBuffer = new byte[Math.max(count, buffer.length * 2)];
+			System.arraycopy(buffer, 0, newBuffer, 0, limit);
+			buffer = newBuffer;
+		}
+		ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, limit, buffer.length - limit);
+		while (limit < count) {
+			int read = channel.read(byteBuffer, bufferPosition + limit);
+			if (read < 0) {
+				endOfFile = true;
+				break;
+			}
+			limit += read;
+		}
+		return limit - position;
+	}
+}
@@ -0,0 +1,708 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.tools.flac;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.LongConsumer;
+import org.digitalmediaserver.cuelib.io.FLACMetadata;
+import org.digitalmediaserver.cuelib.io.FLACMetadata.SeekTable;
+import org.digitalmediaserver.cuelib.io.FLACReader;
+import org.digitalmediaserver.cuelib.io.FLACReader.StreamInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Splits a FLAC file into tracks without transcoding it. The frames that lie
+ * completely within a track are copied as they are, only their headers are
+ * rewritten so that each track starts at sample zero. The frames that
+ * straddle a track boundary are decoded, and the part that belongs to the
+ * track is stored as a new frame with verbatim subframes. The
+ * {@code SEEKTABLE} is used to find the first frame of a track, and
+ * consecutive tracks continue from where the previous track ended.
+ * <p>
+ * {@link FLACFrameScanner} computes the CRC-16 of every frame it reads, since
+ * that's how the end of a frame is found. A copied frame gets its new CRC-16
+ * from the stored one and the difference made by the new header, so the CRC-16
+ * isn't computed over the frame body a second time.
+ * <p>
+ * The written files have a {@code STREAMINFO} block describing the track and
+ * an optional {@code VORBIS_COMMENT} block. The MD5 signature in
+ * {@code STREAMINFO} is left unset, since it would require decoding every
+ * frame.
+ *
+ * @author Nadahar
+ */
+public class FLACTrackSplitter implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(FLACTrackSplitter.class);
+
+	/** The vendor string written to the {@code VORBIS_COMMENT} block */
+	public static final String VENDOR = "cuelib";
+
+	/** The minimum number of samples in the first frame of a track */
+	protected static final int MIN_HEAD_SAMPLES = 16;
+
+	/** The maximum number of samples in a re-encoded frame */
+	protected static final int MAX_ENCODED_SAMPLES = 4608;
+
+	/** The size of the output buffer */
+	protected static final int OUTPUT_BUFFER_SIZE = 1 << 20;
+
+	/** The number of samples between progress reports */
+	protected static final int PROGRESS_INTERVAL = 1 << 18;
+
+	/** The offset of the {@code STREAMINFO} data in the written files */
+	protected static final int STREAMINFO_OFFSET = 8;
+
+	/** The FLAC file to split */
+	protected final Path source;
+
+	/** The {@link FLACMetadata} of {@link #source} */
+	protected final FLACMetadata metadata;
+
+	/** The {@link StreamInfo} of {@link #source} */
+	protected final StreamInfo streamInfo;
+
+	/** The {@link FileChannel} of {@link #source} */
+	protected final FileChannel channel;
+
+	/** The {@link FLACFrameScanner} */
+	protected final FLACFrameScanner scanner;
+
+	/** The first sample of the frame the scanner will return next or {@code -1} */
+	protected long nextSample = -1;
+
+	/** The number of frames copied */
+	protected long copiedFrameCount;
+
+	/** The number of frames decoded and re-encoded */
+	protected long encodedFrameCount;
+
+	/** The output buffer */
+	protected ByteBuffer output;
+
+	/** The {@link FileChannel} currently written to */
+	protected FileChannel target;
+
+	/** The minimum block size written, excluding the last frame */
+	protected int minBlockSize;
+
+	/** The maximum block size written */
+	protected int maxBlockSize;
+
+	/** The block size of the last frame written */
+	protected int lastBlockSize;
+
+	/** The minimum frame size written */
+	protected int minFrameSize;
+
+	/** The maximum frame size written */
+	protected int maxFrameSize;
+
+	/**
+	 * Creates a new instance and opens the specified FLAC file.
+	 *
+	 * @param source the FLAC file to split.
+	 * @throws IOException If an error occurs while reading or if
+	 *             {@code source} isn't a valid FLAC file.
+	 */
+	public FLACTrackSplitter(Path source) throws IOException {
+		this(source, source == null ? null : FLACReader.getMetadata(source));
+	}
+
+	/**
+	 * Creates a new instance and opens the specified FLAC file using already
+	 * parsed metadata. This allows several instances to split the same file
+	 * concurrently without parsing the metadata more than once.
+	 *
+	 * @param source the FLAC file to split.
+	 * @param metadata the {@link FLACMetadata} of {@code source}.
+	 * @throws IOException If an error occurs while opening {@code source} or
+	 *             if {@code metadata} isn't valid.
+	 */
+	public FLACTrackSplitter(Path source, FLACMetadata metadata) throws IOException {
+		if (source == null) {
+			throw new IllegalArgumentException("source cannot be null");
+		}
+		this.source = source;
+		this.metadata = metadata;
+		if (
+			metadata == null ||
+			metadata.getStreamInfo() == null ||
+			metadata.getAudioOffset() < 0
+		) {
+			throw new IOException("\"" + source + "\" isn't a valid FLAC file");
+		}
+		this.streamInfo = metadata.getStreamInfo();
+		if (streamInfo.getSampleRate() < 1 || streamInfo.getMaxBlockSize() < 16) {
+			throw new IOException("\"" + source + "\" has an invalid STREAMINFO block");
+		}
+		this.channel = FileChannel.open(source, StandardOpenOption.READ);
+		this.scanner = new FLACFrameScanner(channel, metadata.getAudioOffset(), FLACFrameScanner.DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Checks if the specified file starts with the FLAC stream marker,
+	 * possibly after an ID3v2 tag.
+	 *
+	 * @param file the file to check.
+	 * @return {@code true} if {@code file} is a FLAC file, {@code false}
+	 *         otherwise.
+	 * @throws IOException If an error occurs while reading.
+	 */
+	public static boolean isFLAC(Path file) throws IOException {
+		try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate(10);
+			long position = 0;
+			while (true) {
+				buffer.clear();
+				while (buffer.hasRemaining() && fileChannel.read(buffer, position + buffer.position()) > 0) {
+					// Read until full or end of file
+				}
+				buffer.flip();
+				if (buffer.remaining() < 4) {
+					return false;
+				}
+				if (buffer.get(0) == 'f' && buffer.get(1) == 'L' && buffer.get(2) == 'a' && buffer.get(3) == 'C') {
+					return true;
+				}
+				if (buffer.remaining() < 10 || buffer.get(0) != 'I' || buffer.get(1) != 'D' || buffer.get(2) != '3') {
+					return false;
+				}
+				// Skip the ID3v2 tag
+				position += 10 +
+					((buffer.get(6) & 0x7F) << 21 | (buffer.get(7) & 0x7F) << 14 |
+					(buffer.get(8) & 0x7F) << 7 | buffer.get(9) & 0x7F) +
+					((buffer.get(5) & 0x10) != 0 ? 10 : 0);
+			}
+		}
+	}
+
+	/**
+	 * @return The FLAC file to split.
+	 */
+	public Path getSource() {
+		return source;
+	}
+
+	/**
+	 * @return The {@link FLACMetadata} of the FLAC file to split.
+	 */
+	public FLACMetadata getMetadata() {
+		return metadata;
+	}
+
+	/**
+	 * @return The number of frames that have been copied.
+	 */
+	public long getCopiedFrameCount() {
+		return copiedFrameCount;
+	}
+
+	/**
+	 * @return The number of frames that have been decoded and re-encoded.
+	 */
+	public long getEncodedFrameCount() {
+		return encodedFrameCount;
+	}
+
+	/**
+	 * Writes the specified range of samples to a new FLAC file.
+	 *
+	 * @param startSample the first sample to write.
+	 * @param endSample the sample following the last sample to write, or
+	 *            {@code -1} to write to the end of the stream.
+	 * @param targetFile the file to write to. It's overwritten if it exists.
+	 * @param comments the vorbis comments to write or {@code null}.
+	 * @return The {@link StreamInfo} of the written file.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public StreamInfo split(
+		long startSample,
+		long endSample,
+		Path targetFile,
+		Map<String, String> comments
+	) throws IOException {
+		return split(startSample, endSample, targetFile, comments, null);
+	}
+
+	/**
+	 * Writes the specified range of samples to a new FLAC file, reporting the
+	 * number of samples written at intervals.
+	 *
+	 * @param startSample the first sample to write.
+	 * @param endSample the sample following the last sample to write, or
+	 *            {@code -1} to write to the end of the stream.
+	 * @param targetFile the file to write to. It's overwritten if it exists.
+	 * @param comments the vorbis comments to write or {@code null}.
+	 * @param progress the {@link LongConsumer} to report the number of
+	 *            samples written to or {@code null}.
+	 * @return The {@link StreamInfo} of the written file.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public StreamInfo split(
+		long startSample,
+		long endSample,
+		Path targetFile,
+		Map<String, String> comments,
+		LongConsumer progress
+	) throws IOException {
+		long totalSamples = streamInfo.getTotalSamples();
+		if (totalSamples > 0 && (endSample < 0 || endSample > totalSamples)) {
+			endSample = totalSamples;
+		}
+		if (startSample < 0 || (endSample >= 0 && endSample <= startSample)) {
+			throw new IllegalArgumentException("Invalid sample range " + startSample + " - " + endSample);
+		}
+		LOGGER.debug("Splitting samples {} - {} from \"{}\" to \"{}\"", startSample, endSample, source, targetFile);
+
+		FLACFrameHeader header = locate(startSample);
+		long firstSample = nextSample;
+		if (header == null) {
+			throw new IOException("Sample " + startSample + " is beyond the end of \"" + source + "\"");
+		}
+		if (output == null) {
+			output = ByteBuffer.allocate(OUTPUT_BUFFER_SIZE);
+		}
+		output.clear();
+		minBlockSize = Integer.MAX_VALUE;
+		maxBlockSize = 0;
+		lastBlockSize = 0;
+		minFrameSize = Integer.MAX_VALUE;
+		maxFrameSize = 0;
+		int bitsPerSample = streamInfo.getBitsPerSample();
+		long outputSample = 0;
+		long nextProgress = PROGRESS_INTERVAL;
+		int[][] pending = null;
+
+		try (FileChannel targetChannel = FileChannel.open(
+			targetFile,
+			StandardOpenOption.CREATE,
+			StandardOpenOption.TRUNCATE_EXISTING,
+			StandardOpenOption.WRITE
+		)) {
+			target = targetChannel;
+			writeMetadata(comments);
+			while (header != null) {
+				int blockSize = header.getBlockSize();
+				long frameEnd = firstSample + blockSize;
+				int from = (int) Math.max(0, startSample - firstSample);
+				int to = endSample < 0 ? blockSize : (int) Math.min(blockSize, endSample - firstSample);
+				if (from == 0 && to == blockSize && pending == null) {
+					copyFrame(header, outputSample);
+					outputSample += blockSize;
+				} else {
+					int[][] samples = FLACFrameDecoder.decode(
+						scanner.getBuffer(),
+						scanner.getFrameOffset(),
+						scanner.getFrameLength(),
+						header,
+						bitsPerSample
+					);
+					if (pending != null) {
+						samples = join(pending, samples, from, to);
+						from = 0;
+						to = samples[0].length;
+						pending = null;
+					}
+					if (to - from < MIN_HEAD_SAMPLES && (endSample < 0 || frameEnd < endSample)) {
+						// Merge a short first frame with the next frame
+						pending = join(null, samples, from, to);
+					} else {
+						writeFrames(samples, from, to, outputSample);
+						outputSample += to - from;
+					}
+				}
+				if (progress != null && outputSample >= nextProgress) {
+					progress.accept(outputSample);
+					nextProgress = outputSample + PROGRESS_INTERVAL;
+				}
+				if (endSample >= 0 && frameEnd >= endSample) {
+					if (frameEnd > endSample) {
+						// The next track starts in this frame
+						scanner.seek(scanner.getFramePosition());
+						nextSample = firstSample;
+					} else {
+						nextSample = frameEnd;
+					}
+					break;
+				}
+				header = scanner.next();
+				firstSample = frameEnd;
+				if (header == null) {
+					nextSample = -1;
+					if (endSample >= 0) {
+						LOGGER.warn("\"{}\" ended before sample {}", source, endSample);
+					}
+				}
+			}
+			if (pending != null) {
+				writeFrames(pending, 0, pending[0].length, outputSample);
+				outputSample += pending[0].length;
+			}
+			flush();
+
+			if (minBlockSize == Integer.MAX_VALUE) {
+				// The last frame only counts if it's the only frame
+				minBlockSize = lastBlockSize;
+			}
+			StreamInfo result = new StreamInfo(
+				minBlockSize,
+				maxBlockSize,
+				minFrameSize == Integer.MAX_VALUE ? 0 : minFrameSize,
+				maxFrameSize,
+				streamInfo.getSampleRate(),
+				streamInfo.getChannels(),
+				bitsPerSample,
+				outputSample,
+				new byte[16]
+			);
+			output.clear();
+			writeStreamInfo(result);
+			output.flip();
+			while (output.hasRemaining()) {
+				targetChannel.write(output, STREAMINFO_OFFSET + output.position());
+			}
+			output.clear();
+			if (progress != null) {
+				progress.accept(outputSample);
+			}
+			return result;
+		} catch (IOException | RuntimeException e) {
+			// The scanner position is unknown, so the next split must seek
+			nextSample = -1;
+			throw e;
+		} finally {
+			target = null;
+		}
+	}
+
+	/**
+	 * Finds the frame that contains the specified sample, using the
+	 * {@link SeekTable} unless the scanner is already positioned between the
+	 * seek point and the sample. The frame number or sample number is only
+	 * read from the first frame after a seek, the following frames are
+	 * counted. On return, {@link #nextSample} holds the first sample of the
+	 * returned frame.
+	 *
+	 * @param sample the sample to find.
+	 * @return The {@link FLACFrameHeader} of the frame or {@code null} if the
+	 *         end of the stream was reached.
+	 * @throws IOException If an error occurs while reading.
+	 */
+	protected FLACFrameHeader locate(long sample) throws IOException {
+		long position = metadata.getAudioOffset();
+		long positionSample = 0;
+		SeekTable seekTable = metadata.getSeekTable();
+		if (seekTable != null) {
+			int seekPoint = seekTable.find(sample);
+			if (seekPoint >= 0) {
+				position += seekTable.getOffset(seekPoint);
+				positionSample = seekTable.getSampleNumber(seekPoint);
+			}
+		}
+		if (nextSample < 0 || nextSample > sample || nextSample < positionSample) {
+			scanner.seek(position);
+			nextSample = -1;
+		}
+		FLACFrameHeader header;
+		while ((header = scanner.next()) != null) {
+			if (nextSample < 0) {
+				nextSample = header.getFirstSample(streamInfo);
+				if (nextSample > sample) {
+					throw new IOException("Couldn't find sample " + sample + " in \"" + source + "\"");
+				}
+			}
+			if (nextSample + header.getBlockSize() > sample) {
+				return header;
+			}
+			nextSample += header.getBlockSize();
+		}
+		nextSample = -1;
+		return null;
+	}
+
+	/**
+	 * Copies the current frame of the scanner to the output, with a new
+	 * header that uses the variable block size strategy.
+	 *
+	 * @param header the {@link FLACFrameHeader} of the frame.
+	 * @param sampleNumber the first sample number of the frame in the output.
+	 * @throws IOException If an error occurs while writing.
+	 */
+	protected void copyFrame(FLACFrameHeader header, long sampleNumber) throws IOException {
+		int bodyOffset = scanner.getFrameOffset() + header.getLength();
+		int bodyLength = scanner.getFrameLength() - header.getLength() - 2;
+		ensureOutput(FLACFrameHeader.MAX_LENGTH + bodyLength + 2);
+		byte[] array = output.array();
+		byte[] source = scanner.getBuffer();
+		int offset = output.position();
+		int length = header.write(array, offset, sampleNumber);
+		System.arraycopy(source, bodyOffset, array, offset + length, bodyLength);
+
+		// The scanner has verified the stored CRC and the body is unchanged, so
+		// only the difference made by the new header is needed
+		int crc = ((source[bodyOffset + bodyLength] & 0xFF) << 8) | (source[bodyOffset + bodyLength + 1] & 0xFF);
+		crc ^= FLACFrameHeader.shiftCRC16(
+			FLACFrameHeader.crc16(source, scanner.getFrameOffset(), header.getLength()) ^
+			FLACFrameHeader.crc16(array, offset, length),
+			bodyLength
+		);
+		length += bodyLength;
+		array[offset + length++] = (byte) (crc >> 8);
+		array[offset + length++] = (byte) crc;
+		output.position(offset + length);
+		addFrame(header.getBlockSize(), length);
+		copiedFrameCount++;
+	}
+
+	/**
+	 * Writes the specified samples as one or more frames with verbatim
+	 * subframes.
+	 *
+	 * @param samples the samples indexed by channel and sample.
+	 * @param from the first sample to write.
+	 * @param to the sample following the last sample to write.
+	 * @param sampleNumber the first sample number of the samples in the
+	 *            output.
+	 * @throws IOException If an error occurs while writing.
+	 */
+	protected void writeFrames(int[][] samples, int from, int to, long sampleNumber) throws IOException {
+		while (from < to) {
+			int count = to - from;
+			if (count > MAX_ENCODED_SAMPLES) {
+				// Don't leave a too short frame at the end
+				count = count - MAX_ENCODED_SAMPLES < MIN_HEAD_SAMPLES ? count / 2 : MAX_ENCODED_SAMPLES;
+			}
+			writeVerbatimFrame(samples, from, count, sampleNumber);
+			from += count;
+			sampleNumber += count;
+		}
+	}
+
+	/**
+	 * Writes the specified samples as a frame with verbatim subframes and
+	 * independent channels.
+	 *
+	 * @param samples the samples indexed by channel and sample.
+	 * @param from the first sample to write.
+	 * @param count the number of samples to write, at most 65536.
+	 * @param sampleNumber the first sample number of the frame in the output.
+	 * @throws IOException If an error occurs while writing.
+	 */
+	protected void writeVerbatimFrame(int[][] samples, int from, int count, long sampleNumber) throws IOException {
+		int channels = samples.length;
+		int bitsPerSample = streamInfo.getBitsPerSample();
+		int sampleRate = streamInfo.getSampleRate();
+		ensureOutput(FLACFrameHeader.MAX_LENGTH + channels * (1 + (int) (((long) count * bitsPerSample + 7) >> 3)) + 2);
+		byte[] array = output.array();
+		int offset = output.position();
+		int pos = offset + FLACFrameHeader.write(
+			array,
+			offset,
+			FLACFrameHeader.getBlockSizeCode(count),
+			count,
+			FLACFrameHeader.getSampleRateCode(sampleRate),
+			sampleRate,
+			channels - 1,
+			FLACFrameHeader.getSampleSizeCode(bitsPerSample),
+			sampleNumber
+		);
+		long accumulator = 0;
+		int bits = 0;
+		long mask = (1L << bitsPerSample) - 1;
+		for (int channel = 0; channel < channels; channel++) {
+			// Zero padding, VERBATIM type and no wasted bits
+			accumulator = (accumulator << 8) | 0x02;
+			bits += 8;
+			int[] channelSamples = samples[channel];
+			for (int i = from, end = from + count; i < end; i++) {
+				accumulator = (accumulator << bitsPerSample) | (channelSamples[i] & mask);
+				bits += bitsPerSample;
+				while (bits >= 8) {
+					bits -= 8;
+					array[pos++] = (byte) (accumulator >>> bits);
+				}
+			}
+		}
+		if (bits > 0) {
+			array[pos++] = (byte) (accumulator << (8 - bits));
+		}
+		int crc = FLACFrameHeader.crc16(array, offset, pos - offset);
+		array[pos++] = (byte) (crc >> 8);
+		array[pos++] = (byte) crc;
+		output.position(pos);
+		addFrame(count, pos - offset);
+		encodedFrameCount++;
+	}
+
+	/**
+	 * Joins the specified range of samples to the end of other samples.
+	 *
+	 * @param head the samples to join to or {@code null}.
+	 * @param samples the samples to join.
+	 * @param from the first sample to join.
+	 * @param to the sample following the last sample to join.
+	 * @return The joined samples.
+	 */
+	protected static int[][] join(int[][] head, int[][] samples, int from, int to) {
+		int headCount = head == null ? 0 : head[0].length;
+		int[][] result = new int[samples.length][headCount + to - from];
+		for (int channel = 0; channel < samples.length; channel++) {
+			if (head != null) {
+				System.arraycopy(head[channel], 0, result[channel], 0, headCount);
+			}
+			System.arraycopy(samples[channel], from, result[channel], headCount, to - from);
+		}
+		return result;
+	}
+
+	/**
+	 * Updates the block and frame size statistics for a written frame.
+	 *
+	 * @param blockSize the number of samples in the frame.
+	 * @param frameSize the size of the frame in bytes.
+	 */
+	protected void addFrame(int blockSize, int frameSize) {
+		if (lastBlockSize > 0) {
+			minBlockSize = Math.min(minBlockSize, lastBlockSize);
+		}
+		lastBlockSize = blockSize;
+		maxBlockSize = Math.max(maxBlockSize, blockSize);
+		minFrameSize = Math.min(minFrameSize, frameSize);
+		maxFrameSize = Math.max(maxFrameSize, frameSize);
+	}
+
+	/**
+	 * Writes the stream marker, a placeholder {@code STREAMINFO} block and a
+	 * {@code VORBIS_COMMENT} block to the output buffer.
+	 *
+	 * @param comments the vorbis comments or {@code null}.
+	 * @throws IOException If an error occurs while writing.
+	 */
+	protected void writeMetadata(Map<String, String> comments) throws IOException {
+		output.put((byte) 'f').put((byte) 'L').put((byte) 'a').put((byte) 'C');
+		boolean hasComments = comments != null && !comments.isEmpty();
+		output.put((byte) (hasComments ? 0 : 0x80)).put((byte) 0).put((byte) 0).put((byte) 34);
+		output.put(new byte[34]);
+		if (hasComments) {
+			byte[] vendor = VENDOR.getBytes(StandardCharsets.UTF_8);
+			int length = 8 + vendor.length;
+			byte[][] entries = new byte[comments.size()][];
+			int i = 0;
+			for (Entry<String, String> entry : comments.entrySet()) {
+				entries[i] = (entry.getKey() + "=" + entry.getValue()).getBytes(StandardCharsets.UTF_8);
+				length += 4 + entries[i++].length;
+			}
+			if (length > 0xFFFFFF) {
+				throw new IOException("The vorbis comments are too long");
+			}
+			ensureOutput(4 + length);
+			output.putInt(0x84000000 | length);
+			putIntLE(vendor.length);
+			output.put(vendor);
+			putIntLE(entries.length);
+			for (byte[] entry : entries) {
+				putIntLE(entry.length);
+				output.put(entry);
+			}
+		}
+	}
+
+	/**
+	 * Writes the specified {@link StreamInfo} as {@code STREAMINFO} data to
+	 * the output buffer.
+	 *
+	 * @param info the {@link StreamInfo} to write.
+	 */
+	protected void writeStreamInfo(StreamInfo info) {
+		output.putShort((short) info.getMinBlockSize());
+		output.putShort((short) info.getMaxBlockSize());
+		output.put((byte) (info.getMinFrameSize() >> 16)).putShort((short) info.getMinFrameSize());
+		output.put((byte) (info.getMaxFrameSize() >> 16)).putShort((short) info.getMaxFrameSize());
+		output.putLong(
+			(long) info.getSampleRate() << 44 |
+			(long) (info.getChannels() - 1) << 41 |
+			(long) (info.getBitsPerSample() - 1) << 36 |
+			info.getTotalSamples() & 0xFFFFFFFFFL
+		);
+		byte[] md5 = info.getMD5();
+		output.put(md5 == null || md5.length != 16 ? new byte[16] : md5);
+	}
+
+	/**
+	 * Writes a little-endian integer to the output buffer.
+	 *
+	 * @param value the value.
+	 */
+	protected void putIntLE(int value) {
+		output.put((byte) value).put((byte) (value >> 8)).put((byte) (value >> 16)).put((byte) (value >> 24));
+	}
+
+	/**
+	 * Makes sure that the output buffer has room for the specified number of
+	 * bytes, flushing or growing it as needed.
+	 *
+	 * @param count the number of bytes needed.
+	 * @throws IOException If an error occurs while writing.
+	 */
+	protected void ensureOutput(int count) throws IOException {
+		if (output.remaining() >= count) {
+			return;
+		}
+		flush();
+		if (output.capacity() < count) {
+			output = ByteBuffer.allocate(count);
+		}
+	}
+
+	/**
+	 * Writes the content of the output buffer to the target.
+	 *
+	 * @throws IOException If an error occurs while writing.
+	 */
+	protected void flush() throws IOException {
+		output.flip();
+		while (output.hasRemaining()) {
+			target.write(output);
+		}
+		output.clear();
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	@Override
+	public String toString() {
+		return
+			getClass().getSimpleName() + " [source=\"" + source + "\", copiedFrames=" + copiedFrameCount +
+			", encodedFrames=" + encodedFrameCount + "]";
+	}
+}
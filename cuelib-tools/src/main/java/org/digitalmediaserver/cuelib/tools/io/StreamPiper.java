@@ -23,6 +23,9 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,6 +34,10 @@ import org.slf4j.LoggerFactory;
  * Utility class for piping data from an InputStream to an OutputStream, or to
  * nowhere. This class is particularly useful for reading the output streams of
  * a java.lang.Process, as such a Process may block if its output is not read.
+ * <p>
+ * The data is copied in blocks of {@link #BUFFER_SIZE} bytes. The last part
+ * of the data can optionally be kept in a {@link TailCapture}, and the
+ * number of bytes piped and the time spent is recorded for each pipe.
  *
  * @author jwbroek
  */
@@ -52,6 +59,36 @@ public class StreamPiper implements Runnable {
 	 */
 	private boolean closeOutput;
 
+	/**
+	 * The capture to keep the last part of the data in. May be null.
+	 */
+	private TailCapture capture;
+
+	/**
+	 * The number of bytes piped so far.
+	 */
+	private volatile long bytesPiped;
+
+	/**
+	 * The value of {@link System#nanoTime()} when piping started, or 0.
+	 */
+	private volatile long startTime;
+
+	/**
+	 * The value of {@link System#nanoTime()} when piping ended, or 0.
+	 */
+	private volatile long endTime;
+
+	/**
+	 * Released when piping has ended.
+	 */
+	private final CountDownLatch done = new CountDownLatch(1);
+
+	/**
+	 * The size of the copy buffer.
+	 */
+	public static final int BUFFER_SIZE = 8192;
+
 	/**
 	 * The logger for this class.
 	 */
@@ -83,9 +120,29 @@ public class StreamPiper implements Runnable {
 	 *            use.
 	 */
 	public StreamPiper(InputStream from, OutputStream to, boolean closeOutput) {
+		this(from, to, closeOutput, null);
+	}
+
+	/**
+	 * Pipe all input from the InputStream to the OutputStream, and keep the
+	 * last part of it in the specified {@link TailCapture}. The OutputStream
+	 * is explicitly allowed to be null. In such a case, all input will only
+	 * be captured. The OutputStream will only be closed by StreamPiper if
+	 * this is requested, while the InputStream will always be, once its end
+	 * is reached.
+	 *
+	 * @param from the source {@link InputStream}.
+	 * @param to the target {@link OutputStream}.
+	 * @param closeOutput whether or not to close the {@link OutputStream} after
+	 *            use.
+	 * @param capture the {@link TailCapture} to keep the last part of the
+	 *            input in, or null.
+	 */
+	public StreamPiper(InputStream from, OutputStream to, boolean closeOutput, TailCapture capture) {
 		this.from = from;
 		this.to = to;
 		this.closeOutput = closeOutput;
+		this.capture = capture;
 	}
 
 	/**
@@ -105,18 +162,122 @@ public class StreamPiper implements Runnable {
 		new Thread(new StreamPiper(from, out, true)).start();
 	}
 
+	/**
+	 * Pipe the contents of the specified input stream to the specified file, or
+	 * throw it away if the file is null, using a thread from the specified
+	 * {@link ExecutorService}. The last part of the input is kept in a
+	 * {@link TailCapture} of the specified size.
+	 *
+	 * @param from The input to stream to file.
+	 * @param file The file to pipe input to, or null if the input should be
+	 *            thrown away.
+	 * @param captureSize The number of bytes to capture, or 0 to not capture
+	 *            anything.
+	 * @param executor The {@link ExecutorService} to run the piping on.
+	 * @return The submitted StreamPiper, which can be used to wait for
+	 *         completion and to get the captured data.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public static StreamPiper pipeStream(
+		InputStream from,
+		File file,
+		int captureSize,
+		ExecutorService executor
+	) throws IOException {
+		OutputStream out = null;
+		if (file != null) {
+			out = new FileOutputStream(file);
+		}
+		StreamPiper piper = new StreamPiper(from, out, true, captureSize > 0 ? new TailCapture(captureSize) : null);
+		try {
+			executor.execute(piper);
+		} catch (RuntimeException e) {
+			if (out != null) {
+				out.close();
+			}
+			throw e;
+		}
+		return piper;
+	}
+
+	/**
+	 * Get the capture that keeps the last part of the data.
+	 *
+	 * @return The {@link TailCapture}, or null if the data isn't captured.
+	 */
+	public TailCapture getCapture() {
+		return this.capture;
+	}
+
+	/**
+	 * Get the number of bytes piped so far.
+	 *
+	 * @return The number of bytes piped.
+	 */
+	public long getBytesPiped() {
+		return this.bytesPiped;
+	}
+
+	/**
+	 * Get the time spent piping, until now if piping hasn't ended.
+	 *
+	 * @return The time spent piping in nanoseconds.
+	 */
+	public long getElapsedTime() {
+		long start = this.startTime;
+		if (start == 0) {
+			return 0;
+		}
+		long end = this.endTime;
+		return (end == 0 ? System.nanoTime() : end) - start;
+	}
+
+	/**
+	 * Get the average throughput since piping started.
+	 *
+	 * @return The throughput in bytes per second.
+	 */
+	public double getThroughput() {
+		long elapsed = getElapsedTime();
+		return elapsed <= 0 ? 0 : this.bytesPiped * 1e9 / elapsed;
+	}
+
+	/**
+	 * Check if piping has ended.
+	 *
+	 * @return Whether or not piping has ended.
+	 */
+	public boolean isDone() {
+		return this.done.getCount() == 0;
+	}
+
+	/**
+	 * Wait until piping has ended.
+	 *
+	 * @throws InterruptedException If the current thread is interrupted while
+	 *             waiting.
+	 */
+	public void awaitCompletion() throws InterruptedException {
+		this.done.await();
+	}
+
 	/**
 	 * Perform the data piping.
 	 */
 	@Override
 	public void run() {
+		this.startTime = System.nanoTime();
 		try {
-			int input = this.from.read();
-			while (input != -1) {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int read;
+			while ((read = this.from.read(buffer)) != -1) {
 				if (this.to != null) {
-					this.to.write(input);
+					this.to.write(buffer, 0, read);
 				}
-				input = this.from.read();
+				if (this.capture != null) {
+					this.capture.write(buffer, 0, read);
+				}
+				this.bytesPiped += read;
 			}
 		} catch (IOException e) {
 			// Nothing we can do.
@@ -136,6 +297,16 @@ public class StreamPiper implements Runnable {
 					LOGGER.warn("", e);
 				}
 			}
+			this.endTime = System.nanoTime();
+			this.done.countDown();
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug(
+					"Piped {} bytes in {} ms ({} KiB/s).",
+					this.bytesPiped,
+					TimeUnit.NANOSECONDS.toMillis(getElapsedTime()),
+					Math.round(getThroughput() / 1024)
+				);
+			}
 		}
 	}
 }
@@ -0,0 +1,145 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.tools.io;
+
+import java.nio.charset.Charset;
+
+
+/**
+ * A fixed size ring buffer that keeps the last bytes written to it. It's
+ * used to keep the tail of the output of a process, so that it can be
+ * included in error reports without storing all of it.
+ * <p>
+ * This class is thread-safe, so the content can be read while another thread
+ * is writing.
+ *
+ * @author Nadahar
+ */
+public class TailCapture {
+
+	/** The buffer */
+	protected final byte[] buffer;
+
+	/** The index in {@link #buffer} of the next byte to write */
+	protected int position;
+
+	/** The total number of bytes written */
+	protected long total;
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param capacity the maximum number of bytes to keep.
+	 */
+	public TailCapture(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		this.buffer = new byte[capacity];
+	}
+
+	/**
+	 * @return The maximum number of bytes kept.
+	 */
+	public int getCapacity() {
+		return buffer.length;
+	}
+
+	/**
+	 * Writes the specified bytes, overwriting the oldest bytes if the buffer
+	 * is full.
+	 *
+	 * @param bytes the array holding the bytes.
+	 * @param offset the offset of the first byte.
+	 * @param length the number of bytes.
+	 */
+	public synchronized void write(byte[] bytes, int offset, int length) {
+		total += length;
+		if (length >= buffer.length) {
+			System.arraycopy(bytes, offset + length - buffer.length, buffer, 0, buffer.length);
+			position = 0;
+			return;
+		}
+		int first = Math.min(length, buffer.length - position);
+		System.arraycopy(bytes, offset, buffer, position, first);
+		System.arraycopy(bytes, offset + first, buffer, 0, length - first);
+		position = (position + length) % buffer.length;
+	}
+
+	/**
+	 * @return The total number of bytes written.
+	 */
+	public synchronized long getTotal() {
+		return total;
+	}
+
+	/**
+	 * @return {@code true} if more bytes have been written than are kept,
+	 *         {@code false} otherwise.
+	 */
+	public synchronized boolean isTruncated() {
+		return total > buffer.length;
+	}
+
+	/**
+	 * @return The kept bytes, oldest first.
+	 */
+	public synchronized byte[] getBytes() {
+		if (total <= buffer.length) {
+			byte[] result = new byte[(int) total];
+			System.arraycopy(buffer, 0, result, 0, result.length);
+			return result;
+		}
+		byte[] result = new byte[buffer.length];
+		System.arraycopy(buffer, position, result, 0, buffer.length - position);
+		System.arraycopy(buffer, 0, result, buffer.length - position, position);
+		return result;
+	}
+
+	/**
+	 * Decodes the kept bytes as text. If the content has been truncated, the
+	 * partial first line is left out, unless it's the only line.
+	 *
+	 * @param charset the {@link Charset} to decode with.
+	 * @return The kept text.
+	 */
+	public String getText(Charset charset) {
+		byte[] bytes;
+		boolean truncated;
+		synchronized (this) {
+			bytes = getBytes();
+			truncated = isTruncated();
+		}
+		int start = 0;
+		if (truncated) {
+			for (int i = 0; i < bytes.length - 1; i++) {
+				if (bytes[i] == '\n') {
+					start = i + 1;
+					break;
+				}
+			}
+		}
+		return new String(bytes, start, bytes.length - start, charset);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [capacity=" + buffer.length + ", total=" + getTotal() + "]";
+	}
+}
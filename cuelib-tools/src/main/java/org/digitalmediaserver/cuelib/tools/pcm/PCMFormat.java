@@ -0,0 +1,441 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.tools.pcm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import javax.sound.sampled.AudioFileFormat;
+
+
+/**
+ * This class describes the layout of an uncompressed RIFF/WAVE or AIFF file:
+ * the format of the samples and where the sample data is located. It can
+ * write the header of a new file with the same format and a different number
+ * of sample frames.
+ * <p>
+ * AIFF-C files are supported if they are uncompressed and big-endian
+ * ({@code NONE}). They are written as plain AIFF.
+ *
+ * @author Nadahar
+ */
+public class PCMFormat {
+
+	/** The supported container types */
+	public enum Container {
+
+		/** RIFF/WAVE */
+		WAVE(AudioFileFormat.Type.WAVE),
+
+		/** AIFF */
+		AIFF(AudioFileFormat.Type.AIFF);
+
+		private final AudioFileFormat.Type type;
+
+		private Container(AudioFileFormat.Type type) {
+			this.type = type;
+		}
+
+		/**
+		 * @return The corresponding {@link AudioFileFormat.Type}.
+		 */
+		public AudioFileFormat.Type getType() {
+			return type;
+		}
+	}
+
+	/** The maximum size of a RIFF/WAVE or AIFF file */
+	public static final long MAX_FILE_SIZE = 0xFFFFFFFFL;
+
+	/** The size of the buffer used to find the sample data */
+	protected static final int HEADER_BUFFER_SIZE = 8192;
+
+	/** The {@link Container} */
+	protected final Container container;
+
+	/** The number of channels */
+	protected final int channels;
+
+	/** The number of sample frames per second */
+	protected final double sampleRate;
+
+	/** The number of bits per sample */
+	protected final int bitsPerSample;
+
+	/** The size of a sample frame in bytes */
+	protected final int frameSize;
+
+	/** The position of the first sample frame in the file */
+	protected final long dataOffset;
+
+	/** The length of the sample data in bytes, a whole number of frames */
+	protected final long dataLength;
+
+	/** The content of the {@code fmt } or {@code COMM} chunk */
+	protected final byte[] formatChunk;
+
+	/**
+	 * Creates a new instance using the specified values.
+	 *
+	 * @param container the {@link Container}.
+	 * @param channels the number of channels.
+	 * @param sampleRate the number of sample frames per second.
+	 * @param bitsPerSample the number of bits per sample.
+	 * @param frameSize the size of a sample frame in bytes.
+	 * @param dataOffset the position of the first sample frame in the file.
+	 * @param dataLength the length of the sample data in bytes.
+	 * @param formatChunk the content of the {@code fmt } or {@code COMM}
+	 *            chunk.
+	 */
+	public PCMFormat(
+		Container container,
+		int channels,
+		double sampleRate,
+		int bitsPerSample,
+		int frameSize,
+		long dataOffset,
+		long dataLength,
+		byte[] formatChunk
+	) {
+		if (container == null) {
+			throw new IllegalArgumentException("container cannot be null");
+		}
+		if (frameSize < 1) {
+			throw new IllegalArgumentException("Invalid frame size " + frameSize);
+		}
+		this.container = container;
+		this.channels = channels;
+		this.sampleRate = sampleRate;
+		this.bitsPerSample = bitsPerSample;
+		this.frameSize = frameSize;
+		this.dataOffset = dataOffset;
+		this.dataLength = dataLength - dataLength % frameSize;
+		this.formatChunk = formatChunk;
+	}
+
+	/**
+	 * @return The {@link Container}.
+	 */
+	public Container getContainer() {
+		return container;
+	}
+
+	/**
+	 * @return The number of channels.
+	 */
+	public int getChannels() {
+		return channels;
+	}
+
+	/**
+	 * @return The number of sample frames per second.
+	 */
+	public double getSampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * @return The number of bits per sample.
+	 */
+	public int getBitsPerSample() {
+		return bitsPerSample;
+	}
+
+	/**
+	 * @return The size of a sample frame in bytes.
+	 */
+	public int getFrameSize() {
+		return frameSize;
+	}
+
+	/**
+	 * @return The position of the first sample frame in the file.
+	 */
+	public long getDataOffset() {
+		return dataOffset;
+	}
+
+	/**
+	 * @return The length of the sample data in bytes.
+	 */
+	public long getDataLength() {
+		return dataLength;
+	}
+
+	/**
+	 * @return The number of sample frames.
+	 */
+	public long getFrameCount() {
+		return dataLength / frameSize;
+	}
+
+	/**
+	 * Reads the format of the specified file.
+	 *
+	 * @param file the file to read.
+	 * @return The {@link PCMFormat} or {@code null} if {@code file} isn't an
+	 *         uncompressed RIFF/WAVE or AIFF file.
+	 * @throws IOException If an error occurs while reading.
+	 */
+	public static PCMFormat read(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return read(channel);
+		}
+	}
+
+	/**
+	 * Reads the format of the file of the specified {@link FileChannel}.
+	 *
+	 * @param channel the {@link FileChannel} to read from. It's read using
+	 *            absolute positions, so its position isn't changed.
+	 * @return The {@link PCMFormat} or {@code null} if the file isn't an
+	 *         uncompressed RIFF/WAVE or AIFF file.
+	 * @throws IOException If an error occurs while reading.
+	 */
+	public static PCMFormat read(FileChannel channel) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(12);
+		if (read(channel, buffer, 0) < 12) {
+			return null;
+		}
+		int id = buffer.getInt(0);
+		int formType = buffer.getInt(8);
+		if (id == 0x52494646 && formType == 0x57415645) { // RIFF, WAVE
+			return readWave(channel);
+		}
+		if (id == 0x464F524D && (formType == 0x41494646 || formType == 0x41494643)) { // FORM, AIFF or AIFC
+			return readAIFF(channel, formType == 0x41494643);
+		}
+		return null;
+	}
+
+	/**
+	 * Reads the format of a RIFF/WAVE file.
+	 *
+	 * @param channel the {@link FileChannel} to read from.
+	 * @return The {@link PCMFormat} or {@code null} if the file isn't
+	 *         supported.
+	 * @throws IOException If an error occurs while reading.
+	 */
+	protected static PCMFormat readWave(FileChannel channel) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+		long fileSize = channel.size();
+		long position = 12;
+		byte[] formatChunk = null;
+		while (position + 8 <= fileSize) {
+			if (read(channel, header, position) < 8) {
+				return null;
+			}
+			int id = header.order(ByteOrder.BIG_ENDIAN).getInt(0);
+			long size = header.order(ByteOrder.LITTLE_ENDIAN).getInt(4) & 0xFFFFFFFFL;
+			if (id == 0x666D7420) { // "fmt "
+				if (size < 16 || size > HEADER_BUFFER_SIZE) {
+					return null;
+				}
+				ByteBuffer chunk = ByteBuffer.allocate((int) size);
+				if (read(channel, chunk, position + 8) < size) {
+					return null;
+				}
+				formatChunk = chunk.array();
+			} else if (id == 0x64617461) { // "data"
+				if (formatChunk == null) {
+					return null;
+				}
+				ByteBuffer format = ByteBuffer.wrap(formatChunk).order(ByteOrder.LITTLE_ENDIAN);
+				int formatTag = format.getShort(0) & 0xFFFF;
+				if (formatTag == 0xFFFE && formatChunk.length >= 26) {
+					// WAVE_FORMAT_EXTENSIBLE, the format tag is the start of the sub-format GUID
+					formatTag = format.getShort(24) & 0xFFFF;
+				}
+				if (formatTag != 1 && formatTag != 3) {
+					return null;
+				}
+				long dataLength = Math.min(size, fileSize - position - 8);
+				return new PCMFormat(
+					Container.WAVE,
+					format.getShort(2) & 0xFFFF,
+					format.getInt(4) & 0xFFFFFFFFL,
+					format.getShort(14) & 0xFFFF,
+					format.getShort(12) & 0xFFFF,
+					position + 8,
+					dataLength,
+					formatChunk
+				);
+			}
+			position += 8 + size + (size & 1);
+		}
+		return null;
+	}
+
+	/**
+	 * Reads the format of an AIFF or AIFF-C file.
+	 *
+	 * @param channel the {@link FileChannel} to read from.
+	 * @param aifc {@code true} if the file is AIFF-C, {@code false} otherwise.
+	 * @return The {@link PCMFormat} or {@code null} if the file isn't
+	 *         supported.
+	 * @throws IOException If an error occurs while reading.
+	 */
+	protected static PCMFormat readAIFF(FileChannel channel, boolean aifc) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(16);
+		long fileSize = channel.size();
+		long position = 12;
+		byte[] formatChunk = null;
+		while (position + 8 <= fileSize) {
+			if (read(channel, header, position) < 8) {
+				return null;
+			}
+			int id = header.getInt(0);
+			long size = header.getInt(4) & 0xFFFFFFFFL;
+			if (id == 0x434F4D4D) { // "COMM"
+				if (size < 18 || size > HEADER_BUFFER_SIZE || (aifc && size < 22)) {
+					return null;
+				}
+				ByteBuffer chunk = ByteBuffer.allocate((int) size);
+				if (read(channel, chunk, position + 8) < size) {
+					return null;
+				}
+				if (aifc && chunk.getInt(18) != 0x4E4F4E45) { // "NONE"
+					return null;
+				}
+				formatChunk = Arrays.copyOf(chunk.array(), 18);
+			} else if (id == 0x53534E44) { // "SSND"
+				if (formatChunk == null || read(channel, header, position) < 16) {
+					return null;
+				}
+				long offset = header.getInt(8) & 0xFFFFFFFFL;
+				ByteBuffer format = ByteBuffer.wrap(formatChunk);
+				int channels = format.getShort(0) & 0xFFFF;
+				int bitsPerSample = format.getShort(6) & 0xFFFF;
+				long dataOffset = position + 16 + offset;
+				long dataLength = Math.min(size - 8 - offset, fileSize - dataOffset);
+				return new PCMFormat(
+					Container.AIFF,
+					channels,
+					readExtended(formatChunk, 8),
+					bitsPerSample,
+					channels * ((bitsPerSample + 7) / 8),
+					dataOffset,
+					dataLength,
+					formatChunk
+				);
+			}
+			position += 8 + size + (size & 1);
+		}
+		return null;
+	}
+
+	/**
+	 * Writes the header of a file with this format and the specified number
+	 * of sample frames. The sample data must follow the header directly.
+	 *
+	 * @param frameCount the number of sample frames.
+	 * @return A {@link ByteBuffer} with the header, ready for reading.
+	 * @throws IOException If the resulting file would be too large.
+	 */
+	public ByteBuffer createHeader(long frameCount) throws IOException {
+		long dataLength = frameCount * frameSize;
+		ByteBuffer result;
+		if (container == Container.WAVE) {
+			int headerLength = 20 + formatChunk.length + (formatChunk.length & 1) + 8;
+			if (headerLength - 8 + dataLength + (dataLength & 1) > MAX_FILE_SIZE) {
+				throw new IOException("The sample data is too large for a RIFF/WAVE file");
+			}
+			result = ByteBuffer.allocate(headerLength).order(ByteOrder.LITTLE_ENDIAN);
+			result.putInt(0x46464952); // "RIFF"
+			result.putInt((int) (headerLength - 8 + dataLength + (dataLength & 1)));
+			result.putInt(0x45564157); // "WAVE"
+			result.putInt(0x20746D66); // "fmt "
+			result.putInt(formatChunk.length);
+			result.put(formatChunk);
+			if ((formatChunk.length & 1) != 0) {
+				result.put((byte) 0);
+			}
+			result.putInt(0x61746164); // "data"
+			result.putInt((int) dataLength);
+		} else {
+			int headerLength = 12 + 8 + formatChunk.length + 16;
+			if (headerLength - 8 + dataLength + (dataLength & 1) > MAX_FILE_SIZE) {
+				throw new IOException("The sample data is too large for an AIFF file");
+			}
+			result = ByteBuffer.allocate(headerLength);
+			result.putInt(0x464F524D); // "FORM"
+			result.putInt((int) (headerLength - 8 + dataLength + (dataLength & 1)));
+			result.putInt(0x41494646); // "AIFF"
+			result.putInt(0x434F4D4D); // "COMM"
+			result.putInt(formatChunk.length);
+			result.put(formatChunk);
+			result.putInt(result.position() - formatChunk.length + 2, (int) frameCount);
+			result.putInt(0x53534E44); // "SSND"
+			result.putInt((int) (dataLength + 8));
+			result.putInt(0); // offset
+			result.putInt(0); // block size
+		}
+		result.flip();
+		return result;
+	}
+
+	/**
+	 * Reads an 80-bit IEEE 754 extended precision number.
+	 *
+	 * @param bytes the array to read from.
+	 * @param offset the offset of the number.
+	 * @return The value.
+	 */
+	protected static double readExtended(byte[] bytes, int offset) {
+		int exponent = ((bytes[offset] & 0x7F) << 8) | (bytes[offset + 1] & 0xFF);
+		long mantissa = ByteBuffer.wrap(bytes, offset + 2, 8).getLong();
+		if (exponent == 0 && mantissa == 0) {
+			return 0;
+		}
+		double result = (mantissa >>> 11) * Math.pow(2, exponent - 16383 - 52);
+		return (bytes[offset] & 0x80) != 0 ? -result : result;
+	}
+
+	/**
+	 * Reads from a {@link FileChannel} until the buffer is full or the end of
+	 * the file is reached. The buffer is cleared first.
+	 *
+	 * @param channel the {@link FileChannel} to read from.
+	 * @param buffer the buffer to read to.
+	 * @param position the file position to read from.
+	 * @return The number of bytes read.
+	 * @throws IOException If an error occurs while reading.
+	 */
+	protected static int read(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		buffer.clear();
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				break;
+			}
+		}
+		return buffer.position();
+	}
+
+	@Override
+	public String toString() {
+		return
+			getClass().getSimpleName() + " [container=" + container + ", channels=" + channels +
+			", sampleRate=" + sampleRate + ", bitsPerSample=" + bitsPerSample + ", frameSize=" + frameSize +
+			", dataOffset=" + dataOffset + ", dataLength=" + dataLength + "]";
+	}
+}
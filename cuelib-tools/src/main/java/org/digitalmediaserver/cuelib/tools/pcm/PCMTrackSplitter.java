@@ -0,0 +1,195 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.tools.pcm;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongConsumer;
+import org.digitalmediaserver.cuelib.Position;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Splits an uncompressed RIFF/WAVE or AIFF file into tracks. A new header is
+ * written for each track, and the sample data is copied with
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)},
+ * which lets the operating system copy the data without passing it through
+ * the Java heap where supported.
+ *
+ * @author Nadahar
+ */
+public class PCMTrackSplitter implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(PCMTrackSplitter.class);
+
+	/** The number of bytes to transfer between progress reports */
+	protected static final long PROGRESS_INTERVAL = 8L << 20;
+
+	/** The source file */
+	protected final Path source;
+
+	/** The {@link PCMFormat} of {@link #source} */
+	protected final PCMFormat format;
+
+	/** The {@link FileChannel} of {@link #source} */
+	protected final FileChannel channel;
+
+	/**
+	 * Creates a new instance and opens the specified file.
+	 *
+	 * @param source the RIFF/WAVE or AIFF file to split.
+	 * @throws IOException If an error occurs while reading or if
+	 *             {@code source} isn't an uncompressed RIFF/WAVE or AIFF file.
+	 */
+	public PCMTrackSplitter(Path source) throws IOException {
+		if (source == null) {
+			throw new IllegalArgumentException("source cannot be null");
+		}
+		this.source = source;
+		this.channel = FileChannel.open(source, StandardOpenOption.READ);
+		PCMFormat pcmFormat;
+		try {
+			pcmFormat = PCMFormat.read(channel);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+		if (pcmFormat == null) {
+			channel.close();
+			throw new IOException("\"" + source + "\" isn't an uncompressed RIFF/WAVE or AIFF file");
+		}
+		this.format = pcmFormat;
+	}
+
+	/**
+	 * @return The source file.
+	 */
+	public Path getSource() {
+		return source;
+	}
+
+	/**
+	 * @return The {@link PCMFormat} of the source file.
+	 */
+	public PCMFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Get the number of sample frames represented by the specified
+	 * {@link Position}, rounded to the closest frame.
+	 *
+	 * @param position the {@link Position}.
+	 * @return The number of sample frames.
+	 */
+	public long getFrames(Position position) {
+		return Math.round(format.getSampleRate() / 75 * position.getTotalFrames());
+	}
+
+	/**
+	 * Writes the specified range of sample frames to a new file with the same
+	 * format as the source.
+	 *
+	 * @param startFrame the first sample frame to write.
+	 * @param endFrame the sample frame following the last sample frame to
+	 *            write, or {@code -1} to write to the end of the data.
+	 * @param targetFile the file to write to. It's overwritten if it exists.
+	 * @return The number of sample frames written.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public long split(long startFrame, long endFrame, Path targetFile) throws IOException {
+		return split(startFrame, endFrame, targetFile, null);
+	}
+
+	/**
+	 * Writes the specified range of sample frames to a new file with the same
+	 * format as the source, reporting the number of sample frames written at
+	 * intervals. The data is transferred in chunks when progress is reported.
+	 *
+	 * @param startFrame the first sample frame to write.
+	 * @param endFrame the sample frame following the last sample frame to
+	 *            write, or {@code -1} to write to the end of the data.
+	 * @param targetFile the file to write to. It's overwritten if it exists.
+	 * @param progress the {@link LongConsumer} to report the number of sample
+	 *            frames written to or {@code null}.
+	 * @return The number of sample frames written.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public long split(long startFrame, long endFrame, Path targetFile, LongConsumer progress) throws IOException {
+		long frameCount = format.getFrameCount();
+		if (endFrame < 0 || endFrame > frameCount) {
+			endFrame = frameCount;
+		}
+		if (startFrame < 0 || startFrame >= endFrame) {
+			throw new IllegalArgumentException("Invalid frame range " + startFrame + " - " + endFrame);
+		}
+		long frames = endFrame - startFrame;
+		ByteBuffer header = format.createHeader(frames);
+		long position = format.getDataOffset() + startFrame * format.getFrameSize();
+		long length = frames * format.getFrameSize();
+		LOGGER.debug("Copying {} bytes at position {} from \"{}\" to \"{}\"", length, position, source, targetFile);
+
+		try (FileChannel target = FileChannel.open(
+			targetFile,
+			StandardOpenOption.CREATE,
+			StandardOpenOption.TRUNCATE_EXISTING,
+			StandardOpenOption.WRITE
+		)) {
+			while (header.hasRemaining()) {
+				target.write(header);
+			}
+			long remaining = length;
+			long chunk = progress == null ? length : PROGRESS_INTERVAL - PROGRESS_INTERVAL % format.getFrameSize();
+			while (remaining > 0) {
+				long transferred = channel.transferTo(position, Math.min(remaining, chunk), target);
+				if (transferred <= 0) {
+					throw new IOException("Unexpected end of file in \"" + source + "\"");
+				}
+				position += transferred;
+				remaining -= transferred;
+				if (progress != null) {
+					progress.accept((length - remaining) / format.getFrameSize());
+				}
+			}
+			if ((length & 1) != 0) {
+				// Chunks are padded to an even length
+				ByteBuffer padding = ByteBuffer.allocate(1);
+				while (padding.hasRemaining()) {
+					target.write(padding);
+				}
+			}
+		}
+		return frames;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [source=\"" + source + "\", format=" + format + "]";
+	}
+}
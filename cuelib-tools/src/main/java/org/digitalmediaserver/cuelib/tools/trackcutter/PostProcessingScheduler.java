@@ -0,0 +1,572 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.tools.trackcutter;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.digitalmediaserver.cuelib.tools.io.StreamPiper;
+import org.digitalmediaserver.cuelib.tools.io.TailCapture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Runs the post-processing commands of a {@link TrackCutter} with a bounded
+ * number of processes running at the same time. Commands that are submitted
+ * while all processes are busy wait in a bounded queue, and
+ * {@link #submit(TrackCutterProcessingAction)} blocks when the queue is full,
+ * so that cutting can't get far ahead of post-processing.
+ * <p>
+ * The output of the processes is piped on a shared pool of daemon threads,
+ * and the exit code of every process is collected as a {@link Result}
+ * together with the last part of its output, which is included in the
+ * error report if the command fails.
+ * <p>
+ * Instances must be closed when no longer needed.
+ *
+ * @author Nadahar
+ */
+public class PostProcessingScheduler implements Closeable {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(PostProcessingScheduler.class);
+
+	/** The default number of bytes of output to keep from each process stream */
+	public static final int DEFAULT_CAPTURE_SIZE = 4096;
+
+	/** The maximum number of processes running at the same time */
+	protected final int maxProcesses;
+
+	/** The maximum number of commands waiting for a process */
+	protected final int queueSize;
+
+	/** The number of bytes of output to keep from each process stream */
+	protected final int captureSize;
+
+	/** The permits for running processes */
+	protected final Semaphore running;
+
+	/** The permits for running and queued commands */
+	protected final Semaphore admitted;
+
+	/** The {@link ExecutorService} that runs the queued commands */
+	protected final ExecutorService executor;
+
+	/**
+	 * The {@link ExecutorService} that pipes the process output, with two
+	 * threads for each process that can run at the same time
+	 */
+	protected final ExecutorService pipeExecutor;
+
+	/** The {@link ExecutorService} that waits for the started processes */
+	protected final ExecutorService waitExecutor;
+
+	/** The {@link Result}s of the finished commands */
+	protected final List<Result> results = new ArrayList<>();
+
+	/**
+	 * Creates a new instance using the specified parameters.
+	 *
+	 * @param maxProcesses the maximum number of processes running at the same
+	 *            time. If less than {@code 1}, the number of available
+	 *            processors is used.
+	 * @param queueSize the maximum number of commands waiting for a process.
+	 *            If less than {@code 1}, {@code maxProcesses} is used.
+	 */
+	public PostProcessingScheduler(int maxProcesses, int queueSize) {
+		this(maxProcesses, queueSize, DEFAULT_CAPTURE_SIZE);
+	}
+
+	/**
+	 * Creates a new instance using the specified parameters.
+	 *
+	 * @param maxProcesses the maximum number of processes running at the same
+	 *            time. If less than {@code 1}, the number of available
+	 *            processors is used.
+	 * @param queueSize the maximum number of commands waiting for a process.
+	 *            If less than {@code 1}, {@code maxProcesses} is used.
+	 * @param captureSize the number of bytes of output to keep from the
+	 *            standard and error output of each process, or {@code 0} to
+	 *            not keep any.
+	 */
+	public PostProcessingScheduler(int maxProcesses, int queueSize, int captureSize) {
+		if (captureSize < 0) {
+			throw new IllegalArgumentException("captureSize cannot be negative");
+		}
+		this.maxProcesses = maxProcesses < 1 ? Runtime.getRuntime().availableProcessors() : maxProcesses;
+		this.queueSize = queueSize < 1 ? this.maxProcesses : queueSize;
+		this.captureSize = captureSize;
+		this.running = new Semaphore(this.maxProcesses);
+		this.admitted = new Semaphore(this.maxProcesses + this.queueSize);
+		this.executor = createExecutor(this.maxProcesses, "PostProcessor-");
+		// A pipe is only submitted while its process holds a running permit,
+		// and the permit isn't released until both pipes have finished
+		this.pipeExecutor = createExecutor(2 * this.maxProcesses, "PostProcessorPipe-");
+		this.waitExecutor = createExecutor(this.maxProcesses, "PostProcessorWait-");
+	}
+
+	/**
+	 * Creates a {@link ThreadPoolExecutor} with a fixed number of daemon
+	 * threads that are stopped when idle.
+	 *
+	 * @param threads the number of threads.
+	 * @param namePrefix the prefix of the thread names.
+	 * @return The new {@link ThreadPoolExecutor}.
+	 */
+	protected static ThreadPoolExecutor createExecutor(int threads, String namePrefix) {
+		AtomicInteger threadCount = new AtomicInteger();
+		ThreadPoolExecutor result = new ThreadPoolExecutor(
+			threads,
+			threads,
+			60L,
+			TimeUnit.SECONDS,
+			new LinkedBlockingQueue<>(),
+			runnable -> {
+				Thread thread = new Thread(runnable, namePrefix + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		);
+		result.allowCoreThreadTimeOut(true);
+		return result;
+	}
+
+	/**
+	 * @return The maximum number of processes running at the same time.
+	 */
+	public int getMaxProcesses() {
+		return maxProcesses;
+	}
+
+	/**
+	 * @return The maximum number of commands waiting for a process.
+	 */
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	/**
+	 * @return The number of bytes of output kept from each process stream.
+	 */
+	public int getCaptureSize() {
+		return captureSize;
+	}
+
+	/**
+	 * Queues the post-processing command of the specified
+	 * {@link TrackCutterProcessingAction}. Blocks while the queue is full.
+	 *
+	 * @param processAction the {@link TrackCutterProcessingAction}.
+	 * @throws InterruptedException If the current thread is interrupted while
+	 *             waiting.
+	 */
+	public void submit(TrackCutterProcessingAction processAction) throws InterruptedException {
+		admitted.acquire();
+		try {
+			executor.execute(() -> {
+				try {
+					running.acquire();
+				} catch (InterruptedException e) {
+					addResult(new Result(processAction, -1, e));
+					admitted.release();
+					return;
+				}
+				try {
+					Process process;
+					List<StreamPiper> pipes = new ArrayList<>(2);
+					try {
+						process = launch(processAction, pipes);
+					} catch (IOException | RuntimeException e) {
+						logFailure(processAction, e);
+						addResult(new Result(processAction, -1, e));
+						return;
+					}
+					awaitProcess(processAction, process, pipes);
+				} finally {
+					running.release();
+					admitted.release();
+				}
+			});
+		} catch (RuntimeException e) {
+			admitted.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Starts the post-processing command of the specified
+	 * {@link TrackCutterProcessingAction} immediately, bypassing the queue,
+	 * so that the caller can write to the standard input of the process.
+	 * Blocks until the number of running processes is below the limit.
+	 *
+	 * @param processAction the {@link TrackCutterProcessingAction}.
+	 * @return The started {@link Process}.
+	 * @throws IOException If the process can't be started.
+	 * @throws InterruptedException If the current thread is interrupted while
+	 *             waiting.
+	 */
+	public Process start(TrackCutterProcessingAction processAction) throws IOException, InterruptedException {
+		admitted.acquire();
+		try {
+			running.acquire();
+		} catch (InterruptedException e) {
+			admitted.release();
+			throw e;
+		}
+		Process process;
+		List<StreamPiper> pipes = new ArrayList<>(2);
+		try {
+			process = launch(processAction, pipes);
+		} catch (IOException | RuntimeException e) {
+			addResult(new Result(processAction, -1, e));
+			running.release();
+			admitted.release();
+			throw e;
+		}
+		try {
+			waitExecutor.execute(() -> {
+				try {
+					awaitProcess(processAction, process, pipes);
+				} finally {
+					running.release();
+					admitted.release();
+				}
+			});
+		} catch (RuntimeException e) {
+			running.release();
+			admitted.release();
+			throw e;
+		}
+		return process;
+	}
+
+	/**
+	 * Waits until all submitted and started commands have finished.
+	 *
+	 * @return The {@link Result}s of all finished commands.
+	 * @throws InterruptedException If the current thread is interrupted while
+	 *             waiting.
+	 */
+	public List<Result> awaitCompletion() throws InterruptedException {
+		int permits = maxProcesses + queueSize;
+		admitted.acquire(permits);
+		admitted.release(permits);
+		return getResults();
+	}
+
+	/**
+	 * @return A snapshot of the {@link Result}s of the finished commands.
+	 */
+	public List<Result> getResults() {
+		synchronized (results) {
+			return new ArrayList<>(results);
+		}
+	}
+
+	/**
+	 * Logs a summary of the {@link Result}s of the finished commands, with
+	 * the command, exit code and last error output of each failed command.
+	 */
+	public void logSummary() {
+		List<Result> snapshot = getResults();
+		int failed = 0;
+		for (Result result : snapshot) {
+			if (!result.isSuccess()) {
+				failed++;
+				if (result.getException() == null) {
+					String errorOutput = result.getErrorOutput();
+					if (errorOutput == null || errorOutput.isEmpty()) {
+						LOGGER.error(
+							"Post-processing command \"{}\" exited with code {}",
+							result.getCommand(),
+							result.getExitCode()
+						);
+					} else {
+						LOGGER.error(
+							"Post-processing command \"{}\" exited with code {}, last error output:\n{}",
+							result.getCommand(),
+							result.getExitCode(),
+							errorOutput
+						);
+					}
+				}
+			}
+		}
+		LOGGER.info(
+			"Post-processing finished: {} of {} commands succeeded, {} failed.",
+			snapshot.size() - failed,
+			snapshot.size(),
+			failed
+		);
+	}
+
+	/**
+	 * Starts the post-processing process and pipes its output.
+	 *
+	 * @param processAction the {@link TrackCutterProcessingAction}.
+	 * @param pipes the {@link List} to add the {@link StreamPiper}s for the
+	 *            standard and error output to.
+	 * @return The started {@link Process}.
+	 * @throws IOException If the process can't be started.
+	 */
+	protected Process launch(TrackCutterProcessingAction processAction, List<StreamPiper> pipes) throws IOException {
+		LOGGER.debug("Creating post-processing process for command: {}", processAction.getPostProcessCommand());
+		File folder = processAction.getPostProcessFile().getParentFile();
+		if (folder != null) {
+			Files.createDirectories(folder.toPath());
+		}
+
+		Process process = Runtime.getRuntime().exec(processAction.getPostProcessCommand());
+
+		try {
+			pipes.add(StreamPiper.pipeStream(
+				process.getInputStream(),
+				processAction.getStdOutRedirectFile(),
+				captureSize,
+				pipeExecutor
+			));
+			pipes.add(StreamPiper.pipeStream(
+				process.getErrorStream(),
+				processAction.getErrRedirectFile(),
+				captureSize,
+				pipeExecutor
+			));
+		} catch (IOException | RuntimeException e) {
+			process.destroy();
+			throw e;
+		}
+		return process;
+	}
+
+	/**
+	 * Waits for a process and its pipes to finish and stores the
+	 * {@link Result}.
+	 *
+	 * @param processAction the {@link TrackCutterProcessingAction}.
+	 * @param process the {@link Process}.
+	 * @param pipes the {@link StreamPiper}s for the standard and error
+	 *            output.
+	 */
+	protected void awaitProcess(TrackCutterProcessingAction processAction, Process process, List<StreamPiper> pipes) {
+		try {
+			int exitCode = process.waitFor();
+			for (StreamPiper pipe : pipes) {
+				pipe.awaitCompletion();
+			}
+			LOGGER.debug(
+				"Post-processing command \"{}\" exited with code {}",
+				processAction.getPostProcessCommand(),
+				exitCode
+			);
+			addResult(new Result(
+				processAction,
+				exitCode,
+				null,
+				getCapturedText(pipes.get(0)),
+				getCapturedText(pipes.get(1))
+			));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			process.destroy();
+			addResult(new Result(processAction, -1, e));
+		}
+	}
+
+	/**
+	 * Gets the captured output of a pipe as text.
+	 *
+	 * @param pipe the {@link StreamPiper}.
+	 * @return The captured text or {@code null}.
+	 */
+	protected static String getCapturedText(StreamPiper pipe) {
+		TailCapture capture = pipe.getCapture();
+		return capture == null ? null : capture.getText(Charset.defaultCharset());
+	}
+
+	/**
+	 * Adds a {@link Result}.
+	 *
+	 * @param result the {@link Result} to add.
+	 */
+	protected void addResult(Result result) {
+		synchronized (results) {
+			results.add(result);
+		}
+	}
+
+	/**
+	 * Logs an error that made a post-processing command fail.
+	 *
+	 * @param processAction the {@link TrackCutterProcessingAction}.
+	 * @param error the error.
+	 */
+	protected static void logFailure(TrackCutterProcessingAction processAction, Throwable error) {
+		LOGGER.error(
+			"Encountered {} when post-processing \"{}\": {}",
+			error.getClass().getCanonicalName(),
+			processAction.getCutFile(),
+			error.getMessage()
+		);
+		LOGGER.trace("", error);
+	}
+
+	/**
+	 * Shuts down the executors without waiting for the commands to finish.
+	 */
+	@Override
+	public void close() {
+		executor.shutdown();
+		pipeExecutor.shutdown();
+		waitExecutor.shutdown();
+	}
+
+	@Override
+	public String toString() {
+		return
+			getClass().getSimpleName() + " [maxProcesses=" + maxProcesses + ", queueSize=" + queueSize +
+			", captureSize=" + captureSize + ", finished=" + getResults().size() + "]";
+	}
+
+	/**
+	 * The result of a post-processing command.
+	 */
+	public static class Result {
+
+		/** The {@link TrackCutterProcessingAction} */
+		protected final TrackCutterProcessingAction processAction;
+
+		/** The exit code of the process or {@code -1} */
+		protected final int exitCode;
+
+		/** The error that made the command fail or {@code null} */
+		protected final Throwable exception;
+
+		/** The last part of the standard output or {@code null} */
+		protected final String standardOutput;
+
+		/** The last part of the error output or {@code null} */
+		protected final String errorOutput;
+
+		/**
+		 * Creates a new instance without captured output.
+		 *
+		 * @param processAction the {@link TrackCutterProcessingAction}.
+		 * @param exitCode the exit code of the process or {@code -1}.
+		 * @param exception the error or {@code null}.
+		 */
+		public Result(TrackCutterProcessingAction processAction, int exitCode, Throwable exception) {
+			this(processAction, exitCode, exception, null, null);
+		}
+
+		/**
+		 * Creates a new instance using the specified parameters.
+		 *
+		 * @param processAction the {@link TrackCutterProcessingAction}.
+		 * @param exitCode the exit code of the process or {@code -1}.
+		 * @param exception the error or {@code null}.
+		 * @param standardOutput the last part of the standard output or
+		 *            {@code null}.
+		 * @param errorOutput the last part of the error output or
+		 *            {@code null}.
+		 */
+		public Result(
+			TrackCutterProcessingAction processAction,
+			int exitCode,
+			Throwable exception,
+			String standardOutput,
+			String errorOutput
+		) {
+			this.processAction = processAction;
+			this.exitCode = exitCode;
+			this.exception = exception;
+			this.standardOutput = standardOutput;
+			this.errorOutput = errorOutput;
+		}
+
+		/**
+		 * @return The {@link TrackCutterProcessingAction}.
+		 */
+		public TrackCutterProcessingAction getProcessAction() {
+			return processAction;
+		}
+
+		/**
+		 * @return The post-processing command.
+		 */
+		public String getCommand() {
+			return processAction.getPostProcessCommand();
+		}
+
+		/**
+		 * @return The exit code of the process or {@code -1} if it didn't
+		 *         run to completion.
+		 */
+		public int getExitCode() {
+			return exitCode;
+		}
+
+		/**
+		 * @return The error that made the command fail or {@code null}.
+		 */
+		public Throwable getException() {
+			return exception;
+		}
+
+		/**
+		 * @return The last part of the standard output of the process or
+		 *         {@code null} if it wasn't captured.
+		 */
+		public String getStandardOutput() {
+			return standardOutput;
+		}
+
+		/**
+		 * @return The last part of the error output of the process or
+		 *         {@code null} if it wasn't captured.
+		 */
+		public String getErrorOutput() {
+			return errorOutput;
+		}
+
+		/**
+		 * @return {@code true} if the process exited with code {@code 0},
+		 *         {@code false} otherwise.
+		 */
+		public boolean isSuccess() {
+			return exception == null && exitCode == 0;
+		}
+
+		@Override
+		public String toString() {
+			return
+				getClass().getSimpleName() + " [command=\"" + getCommand() + "\", exitCode=" + exitCode +
+				(exception == null ? "" : ", exception=" + exception) + "]";
+		}
+	}
+}
@@ -21,20 +21,40 @@ package org.digitalmediaserver.cuelib.tools.trackcutter;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.sound.sampled.AudioFormat;
 import javax.sound.sampled.AudioInputStream;
 import javax.sound.sampled.AudioSystem;
 import javax.sound.sampled.UnsupportedAudioFileException;
 import org.digitalmediaserver.cuelib.CueParser;
 import org.digitalmediaserver.cuelib.CueSheet;
+import org.digitalmediaserver.cuelib.CueSheet.MetaDataField;
 import org.digitalmediaserver.cuelib.FileData;
 import org.digitalmediaserver.cuelib.Position;
 import org.digitalmediaserver.cuelib.TrackData;
-import org.digitalmediaserver.cuelib.tools.io.StreamPiper;
+import org.digitalmediaserver.cuelib.io.FLACMetadata;
+import org.digitalmediaserver.cuelib.io.FLACMetadata.SeekTable;
+import org.digitalmediaserver.cuelib.io.FLACReader;
+import org.digitalmediaserver.cuelib.io.FLACReader.StreamInfo;
+import org.digitalmediaserver.cuelib.tools.flac.FLACTrackSplitter;
+import org.digitalmediaserver.cuelib.tools.pcm.PCMFormat;
+import org.digitalmediaserver.cuelib.tools.pcm.PCMTrackSplitter;
 import org.digitalmediaserver.cuelib.util.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,6 +67,26 @@ import org.slf4j.LoggerFactory;
  * It can do some audio type conversions, file naming based on information in
  * the cue sheet, and offers the option of having the tracks post-processed by a
  * another application based on information in the cue sheet.
+ * <p>
+ * FLAC files are cut without decoding them when the cut files have the
+ * {@code .flac} extension and the audio isn't redirected to post-processing,
+ * see {@link FLACTrackSplitter}. Uncompressed RIFF/WAVE and AIFF files are
+ * cut by copying the sample data directly when the target type is the same
+ * as the source type, see {@link PCMTrackSplitter}.
+ * <p>
+ * If {@link TrackCutterConfiguration#getWorkerCount()} is greater than one,
+ * the tracks are cut concurrently. Each track in an uncompressed file, or in
+ * a FLAC file with a {@code SEEKTABLE}, is then cut independently on its own
+ * {@link java.nio.channels.FileChannel}. The tracks in a FLAC file without a
+ * {@code SEEKTABLE} are cut one at a time by a single job, so that each track
+ * continues the scan from where the previous track ended instead of scanning
+ * from the first frame. The tracks in other files are also cut one at a time,
+ * since they must be decoded from the start. A failed track is logged and
+ * doesn't stop the other tracks.
+ * <p>
+ * Post-processing commands are run by a {@link PostProcessingScheduler},
+ * which limits the number of processes running at the same time and pauses
+ * cutting while its queue is full.
  *
  * @author jwbroek
  */
@@ -62,13 +102,41 @@ public class TrackCutter {
 	 */
 	private TrackCutterConfiguration configuration;
 
+	/**
+	 * The listener to report the progress of each processing action to.
+	 */
+	private TrackCutterListener listener;
+
+	/**
+	 * The scheduler for the post-processing commands while cutting.
+	 */
+	private PostProcessingScheduler postProcessingScheduler;
+
+	/**
+	 * The results of the post-processing commands of the last cue sheet.
+	 */
+	private List<PostProcessingScheduler.Result> postProcessingResults = Collections.emptyList();
+
 	/**
 	 * Create a new TrackCutter instance, based on the configuration provided.
 	 *
 	 * @param configuration the {@link TrackCutterConfiguration}.
 	 */
 	public TrackCutter(TrackCutterConfiguration configuration) {
+		this(configuration, null);
+	}
+
+	/**
+	 * Create a new TrackCutter instance, based on the configuration provided,
+	 * that reports the progress of each processing action to the specified
+	 * listener.
+	 *
+	 * @param configuration the {@link TrackCutterConfiguration}.
+	 * @param listener the {@link TrackCutterListener} or {@code null}.
+	 */
+	public TrackCutter(TrackCutterConfiguration configuration, TrackCutterListener listener) {
 		this.configuration = configuration;
+		this.listener = listener == null ? new TrackCutterListener() { } : listener;
 	}
 
 	/**
@@ -91,16 +159,8 @@ public class TrackCutter {
 	 * @throws IOException If an error occurs during the operation.
 	 */
 	public void cutTracksInCueSheet(File cueFile, Charset charset) throws IOException {
-		LOGGER.info("Cutting tracks in cue sheet from file '{}'.", cueFile);
-
 		CueSheet cueSheet = null;
 
-		// If no parent directory specified, then set the parent directory of the cue file.
-		if (getConfiguration().getParentDirectory() == null) {
-			getConfiguration().setParentDirectory(cueFile.getParentFile());
-			LOGGER.debug("Have set base directory to directory of File  '{}'.", cueFile);
-		}
-
 		try {
 			LOGGER.debug("Parsing cue sheet.");
 			cueSheet = CueParser.parse(cueFile, charset);
@@ -110,6 +170,27 @@ public class TrackCutter {
 			throw new IOException("Problem parsing cue file '" + cueFile + "'.", e);
 		}
 
+		cutTracksInCueSheet(cueFile, cueSheet);
+	}
+
+	/**
+	 * Cut the the files specified in the cue sheet that has been parsed from
+	 * the specified file into tracks.
+	 *
+	 * @param cueFile the CUE {@link File} that {@code cueSheet} was parsed
+	 *            from.
+	 * @param cueSheet the {@link CueSheet}.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	public void cutTracksInCueSheet(File cueFile, CueSheet cueSheet) throws IOException {
+		LOGGER.info("Cutting tracks in cue sheet from file '{}'.", cueFile);
+
+		// If no parent directory specified, then set the parent directory of the cue file.
+		if (getConfiguration().getParentDirectory() == null) {
+			getConfiguration().setParentDirectory(cueFile.getParentFile());
+			LOGGER.debug("Have set base directory to directory of File  '{}'.", cueFile);
+		}
+
 		cutTracksInCueSheet(cueSheet);
 	}
 
@@ -160,23 +241,229 @@ public class TrackCutter {
 	public void cutTracksInCueSheet(CueSheet cueSheet) throws IOException {
 		LOGGER.info("Cutting tracks in cue sheet.");
 
-		// We can process each file in the cue sheet independently.
-		for (FileData fileData : cueSheet.getFileData()) {
-			try {
-				cutTracksInFileData(fileData);
-			} catch (IOException | UnsupportedAudioFileException e) {
-				LOGGER.error(
-					"Encountered {} when processing \"{}\": {}",
-					e.getClass().getCanonicalName(),
-					fileData.getFile(),
-					e.getMessage()
-				);
-				LOGGER.trace("", e);
+		PostProcessingScheduler scheduler = null;
+		if (getConfiguration().getDoPostProcessing()) {
+			scheduler = new PostProcessingScheduler(
+				getConfiguration().getPostProcessingWorkerCount(),
+				getConfiguration().getPostProcessingQueueSize(),
+				getConfiguration().getPostProcessingCaptureSize() * 1024
+			);
+			LOGGER.debug("Created post-processing scheduler {}.", scheduler);
+		}
+		postProcessingScheduler = scheduler;
+		postProcessingResults = Collections.emptyList();
+		try {
+			if (getConfiguration().getWorkerCount() > 1) {
+				cutTracksConcurrently(cueSheet);
+			} else {
+				// We can process each file in the cue sheet independently.
+				for (FileData fileData : cueSheet.getFileData()) {
+					try {
+						cutTracksInFileData(fileData);
+					} catch (IOException | UnsupportedAudioFileException e) {
+						logFileError(fileData, e);
+					}
+				}
+			}
+			if (scheduler != null) {
+				LOGGER.debug("Waiting for post-processing to finish.");
+				postProcessingResults = scheduler.awaitCompletion();
+				scheduler.logSummary();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for post-processing");
+		} finally {
+			postProcessingScheduler = null;
+			if (scheduler != null) {
+				scheduler.close();
 			}
 		}
 		LOGGER.info("Done cutting tracks in cue sheet.");
 	}
 
+	/**
+	 * Get the results of the post-processing commands of the last cue sheet
+	 * that was cut.
+	 *
+	 * @return The {@link PostProcessingScheduler.Result}s, or an empty
+	 *         {@link List} if there was no post-processing.
+	 */
+	public List<PostProcessingScheduler.Result> getPostProcessingResults() {
+		return postProcessingResults;
+	}
+
+	/**
+	 * Cut the files specified in the cue sheet into tracks using
+	 * {@link TrackCutterConfiguration#getWorkerCount()} threads. The tracks
+	 * in uncompressed files and in FLAC files with a {@code SEEKTABLE} are
+	 * submitted as separate jobs, each reading from its own channel, while
+	 * other files are submitted as one job each. Failures are logged, and
+	 * don't stop the other jobs.
+	 *
+	 * @param cueSheet the {@link CueSheet}.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	private void cutTracksConcurrently(CueSheet cueSheet) throws IOException {
+		int workerCount = getConfiguration().getWorkerCount();
+		LOGGER.debug("Cutting tracks with {} workers.", workerCount);
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(workerCount, runnable -> {
+			Thread thread = new Thread(runnable, "TrackCutter-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			Map<Future<?>, FileData> jobs = new LinkedHashMap<>();
+			for (FileData fileData : cueSheet.getFileData()) {
+				try {
+					submitJobs(fileData, executor, jobs);
+				} catch (IOException e) {
+					logFileError(fileData, e);
+				}
+			}
+			Error error = null;
+			for (Entry<Future<?>, FileData> job : jobs.entrySet()) {
+				try {
+					job.getKey().get();
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof Error) {
+						// Collect the other jobs before giving up
+						if (error == null) {
+							error = (Error) cause;
+						} else {
+							error.addSuppressed(cause);
+						}
+					} else {
+						logFileError(job.getValue(), cause);
+					}
+				}
+			}
+			if (error != null) {
+				throw error;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while cutting tracks");
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Submit the jobs needed to cut the file specified in the FileData into
+	 * tracks.
+	 *
+	 * @param fileData
+	 * @param executor the {@link ExecutorService} to submit the jobs to.
+	 * @param jobs the {@link Map} to add the submitted jobs to.
+	 * @throws IOException If an error occurs while inspecting the file.
+	 */
+	private void submitJobs(
+		FileData fileData,
+		ExecutorService executor,
+		Map<Future<?>, FileData> jobs
+	) throws IOException {
+		File audioFile = getConfiguration().getAudioFile(fileData);
+		List<TrackCutterProcessingAction> processActions = getProcessActionList(fileData);
+		Path audioPath = audioFile.toPath();
+		if (isFLACCut(audioFile, processActions)) {
+			FLACMetadata metadata = FLACReader.getMetadata(audioPath);
+			SeekTable seekTable = metadata == null ? null : metadata.getSeekTable();
+			if (seekTable == null || seekTable.getCount() == 0) {
+				// Without seek points, each splitter would scan from the first frame
+				LOGGER.info(
+					"Cutting {} tracks from FLAC file '{}' one at a time, since it has no seek table.",
+					processActions.size(),
+					audioFile
+				);
+				jobs.put(executor.submit(() -> {
+					try (FLACTrackSplitter splitter = new FLACTrackSplitter(audioPath, metadata)) {
+						for (TrackCutterProcessingAction processAction : processActions) {
+							try {
+								cutFLACTrack(splitter, processAction);
+							} catch (IOException | RuntimeException e) {
+								logTrackError(processAction, e);
+							}
+						}
+					}
+					return null;
+				}), fileData);
+			} else {
+				LOGGER.info("Cutting {} tracks from FLAC file '{}' concurrently.", processActions.size(), audioFile);
+				for (TrackCutterProcessingAction processAction : processActions) {
+					jobs.put(executor.submit(() -> {
+						try (FLACTrackSplitter splitter = new FLACTrackSplitter(audioPath, metadata)) {
+							cutFLACTrack(splitter, processAction);
+						} catch (IOException | RuntimeException e) {
+							logTrackError(processAction, e);
+						}
+						return null;
+					}), fileData);
+				}
+			}
+		} else if (isPCMCut(audioFile, processActions)) {
+			LOGGER.info(
+				"Cutting {} tracks from {} file '{}' concurrently.",
+				processActions.size(),
+				getConfiguration().getTargetType(),
+				audioFile
+			);
+			for (TrackCutterProcessingAction processAction : processActions) {
+				jobs.put(executor.submit(() -> {
+					try (PCMTrackSplitter splitter = new PCMTrackSplitter(audioPath)) {
+						cutPCMTrack(splitter, processAction);
+					} catch (IOException | RuntimeException e) {
+						logTrackError(processAction, e);
+					}
+					return null;
+				}), fileData);
+			}
+		} else {
+			jobs.put(executor.submit(() -> {
+				LOGGER.info("Cutting tracks from file: '{}'.", fileData.getFile());
+				cutTracksWithAudioSystem(audioFile, processActions);
+				return null;
+			}), fileData);
+		}
+	}
+
+	/**
+	 * Log an error that stopped the processing of the specified FileData.
+	 *
+	 * @param fileData
+	 * @param error the error.
+	 */
+	private static void logFileError(FileData fileData, Throwable error) {
+		LOGGER.error(
+			"Encountered {} when processing \"{}\": {}",
+			error.getClass().getCanonicalName(),
+			fileData.getFile(),
+			error.getMessage()
+		);
+		LOGGER.trace("", error);
+	}
+
+	/**
+	 * Log an error that stopped the processing of the specified process
+	 * action.
+	 *
+	 * @param processAction the process action.
+	 * @param error the error.
+	 */
+	private static void logTrackError(TrackCutterProcessingAction processAction, Throwable error) {
+		LOGGER.error(
+			"Encountered {} when cutting {}track #{} of \"{}\": {}",
+			error.getClass().getCanonicalName(),
+			processAction.getIsPregap() ? "pregap of " : "",
+			processAction.getTrackData().getNumber(),
+			processAction.getTrackData().getParent().getFile(),
+			error.getMessage()
+		);
+		LOGGER.trace("", error);
+	}
+
 	/**
 	 * Cut the the files specified in the FileData into tracks.
 	 *
@@ -187,23 +474,46 @@ public class TrackCutter {
 	private void cutTracksInFileData(FileData fileData) throws IOException, UnsupportedAudioFileException {
 		LOGGER.info("Cutting tracks from file: '{}'.", fileData.getFile());
 
-			// Determine the complete path to the audio file.
-			LOGGER.debug("Determining complete path to audio file.");
-			File audioFile = getConfiguration().getAudioFile(fileData);
+		// Determine the complete path to the audio file.
+		LOGGER.debug("Determining complete path to audio file.");
+		File audioFile = getConfiguration().getAudioFile(fileData);
 
-			// Open the audio file.
-			// Sadly, we can't do much with the file type information from the cue sheet, as javax.sound.sampled
-			// needs more information before it can process a specific type of sound file. Best then to let it
-			// determine all aspects of the audio type by itself.
-			LOGGER.debug("Opening audio stream.");
-			try (AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(audioFile)) {
+		List<TrackCutterProcessingAction> processActions = getProcessActionList(fileData);
+		if (isFLACCut(audioFile, processActions)) {
+			cutFLACTracks(audioFile, processActions);
+		} else if (isPCMCut(audioFile, processActions)) {
+			cutPCMTracks(audioFile, processActions);
+		} else {
+			cutTracksWithAudioSystem(audioFile, processActions);
+		}
+	}
+
+	/**
+	 * Performs the specified process actions by decoding the audio file with
+	 * {@link AudioSystem} and reading through it from the start.
+	 *
+	 * @param audioFile the audio file.
+	 * @param processActions the process actions.
+	 * @throws IOException If an error occurs during the operation.
+	 * @throws UnsupportedAudioFileException If the audio file isn't supported.
+	 */
+	private void cutTracksWithAudioSystem(
+		File audioFile,
+		List<TrackCutterProcessingAction> processActions
+	) throws IOException, UnsupportedAudioFileException {
+		// Open the audio file.
+		// Sadly, we can't do much with the file type information from the cue sheet, as javax.sound.sampled
+		// needs more information before it can process a specific type of sound file. Best then to let it
+		// determine all aspects of the audio type by itself.
+		LOGGER.debug("Opening audio stream.");
+		try (AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(audioFile)) {
 
 			// Current position in terms of the frames as per audioInputStream.getFrameLength().
 			// Note that these frames need not be equal to cue sheet frames.
 			long currentAudioFramePos = 0;
 
 			// Process tracks.
-			for (TrackCutterProcessingAction processAction : getProcessActionList(fileData)) {
+			for (TrackCutterProcessingAction processAction : processActions) {
 				currentAudioFramePos = performProcessAction(processAction, audioInputStream, currentAudioFramePos);
 			}
 		} finally {
@@ -211,6 +521,232 @@ public class TrackCutter {
 		}
 	}
 
+	/**
+	 * Checks if the specified process actions can be performed by splitting
+	 * a FLAC file without decoding it.
+	 *
+	 * @param audioFile the audio file.
+	 * @param processActions the process actions.
+	 * @return {@code true} if {@code audioFile} is a FLAC file and all cut
+	 *         files have the {@code .flac} extension, {@code false}
+	 *         otherwise.
+	 * @throws IOException If an error occurs while reading.
+	 */
+	private boolean isFLACCut(File audioFile, List<TrackCutterProcessingAction> processActions) throws IOException {
+		if (processActions.isEmpty() || getConfiguration().getRedirectToPostprocessing() || !audioFile.isFile()) {
+			return false;
+		}
+		for (TrackCutterProcessingAction processAction : processActions) {
+			if (!processAction.getCutFile().getName().toLowerCase(Locale.ROOT).endsWith(".flac")) {
+				return false;
+			}
+		}
+		return FLACTrackSplitter.isFLAC(audioFile.toPath());
+	}
+
+	/**
+	 * Performs the specified process actions by splitting a FLAC file into
+	 * FLAC tracks without decoding more than the frames at the track
+	 * boundaries.
+	 *
+	 * @param audioFile the FLAC file.
+	 * @param processActions the process actions.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	private void cutFLACTracks(File audioFile, List<TrackCutterProcessingAction> processActions) throws IOException {
+		LOGGER.debug("Splitting FLAC file '{}'.", audioFile);
+		try (FLACTrackSplitter splitter = new FLACTrackSplitter(audioFile.toPath())) {
+			for (TrackCutterProcessingAction processAction : processActions) {
+				cutFLACTrack(splitter, processAction);
+			}
+			LOGGER.debug(
+				"Copied {} and re-encoded {} FLAC frames.",
+				splitter.getCopiedFrameCount(),
+				splitter.getEncodedFrameCount()
+			);
+		}
+	}
+
+	/**
+	 * Performs the specified process action using a {@link FLACTrackSplitter}.
+	 *
+	 * @param splitter the {@link FLACTrackSplitter} for the FLAC file.
+	 * @param processAction
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	private void cutFLACTrack(FLACTrackSplitter splitter, TrackCutterProcessingAction processAction) throws IOException {
+		LOGGER.info(
+			"Performing processing action for {}track #{}.",
+			processAction.getIsPregap() ? "pregap of " : "",
+			processAction.getTrackData().getNumber()
+		);
+		StreamInfo sourceInfo = splitter.getMetadata().getStreamInfo();
+		int sampleRate = sourceInfo.getSampleRate();
+		long startSample = getSamples(processAction.getStartPosition(), sampleRate);
+		long endSample = processAction.getEndPosition() == null ? -1 : getSamples(processAction.getEndPosition(), sampleRate);
+		long length =
+			endSample >= 0 ? endSample - startSample :
+			sourceInfo.getTotalSamples() > 0 ? sourceInfo.getTotalSamples() - startSample : -1;
+		listener.actionStarted(processAction, length);
+		try {
+			File cutFile = processAction.getCutFile();
+			if (cutFile.getParentFile() != null) {
+				Files.createDirectories(cutFile.getParentFile().toPath());
+			}
+			StreamInfo streamInfo = splitter.split(
+				startSample,
+				endSample,
+				cutFile.toPath(),
+				getVorbisComments(processAction.getTrackData()),
+				written -> listener.actionProgress(processAction, written, length)
+			);
+			LOGGER.debug("Wrote {} samples to '{}'.", streamInfo.getTotalSamples(), cutFile);
+
+			if (configuration.getDoPostProcessing()) {
+				LOGGER.debug("Scheduling postprocessing.");
+				schedulePostProcessing(processAction);
+			}
+		} catch (IOException | RuntimeException e) {
+			listener.actionFinished(processAction, e);
+			throw e;
+		}
+		listener.actionFinished(processAction, null);
+	}
+
+	/**
+	 * Checks if the specified process actions can be performed by copying
+	 * the sample data of an uncompressed file directly.
+	 *
+	 * @param audioFile the audio file.
+	 * @param processActions the process actions.
+	 * @return {@code true} if {@code audioFile} is an uncompressed RIFF/WAVE
+	 *         or AIFF file of the target type, {@code false} otherwise.
+	 * @throws IOException If an error occurs while reading.
+	 */
+	private boolean isPCMCut(File audioFile, List<TrackCutterProcessingAction> processActions) throws IOException {
+		if (processActions.isEmpty() || getConfiguration().getRedirectToPostprocessing() || !audioFile.isFile()) {
+			return false;
+		}
+		PCMFormat format = PCMFormat.read(audioFile.toPath());
+		return format != null && format.getContainer().getType().equals(getConfiguration().getTargetType());
+	}
+
+	/**
+	 * Performs the specified process actions by writing new headers and
+	 * copying the sample data of each track from an uncompressed file, using
+	 * zero-copy transfers where the operating system supports it.
+	 *
+	 * @param audioFile the RIFF/WAVE or AIFF file.
+	 * @param processActions the process actions.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	private void cutPCMTracks(File audioFile, List<TrackCutterProcessingAction> processActions) throws IOException {
+		LOGGER.debug("Splitting {} file '{}'.", getConfiguration().getTargetType(), audioFile);
+		try (PCMTrackSplitter splitter = new PCMTrackSplitter(audioFile.toPath())) {
+			for (TrackCutterProcessingAction processAction : processActions) {
+				cutPCMTrack(splitter, processAction);
+			}
+		}
+	}
+
+	/**
+	 * Performs the specified process action using a {@link PCMTrackSplitter}.
+	 *
+	 * @param splitter the {@link PCMTrackSplitter} for the uncompressed file.
+	 * @param processAction
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	private void cutPCMTrack(PCMTrackSplitter splitter, TrackCutterProcessingAction processAction) throws IOException {
+		LOGGER.info(
+			"Performing processing action for {}track #{}.",
+			processAction.getIsPregap() ? "pregap of " : "",
+			processAction.getTrackData().getNumber()
+		);
+		long startFrame = splitter.getFrames(processAction.getStartPosition());
+		long endFrame = processAction.getEndPosition() == null ? -1 : splitter.getFrames(processAction.getEndPosition());
+		long length = (endFrame < 0 ? splitter.getFormat().getFrameCount() : endFrame) - startFrame;
+		listener.actionStarted(processAction, length);
+		try {
+			File cutFile = processAction.getCutFile();
+			if (cutFile.getParentFile() != null) {
+				Files.createDirectories(cutFile.getParentFile().toPath());
+			}
+			long frames = splitter.split(
+				startFrame,
+				endFrame,
+				cutFile.toPath(),
+				written -> listener.actionProgress(processAction, written, length)
+			);
+			LOGGER.debug("Wrote {} sample frames to '{}'.", frames, cutFile);
+
+			if (configuration.getDoPostProcessing()) {
+				LOGGER.debug("Scheduling postprocessing.");
+				schedulePostProcessing(processAction);
+			}
+		} catch (IOException | RuntimeException e) {
+			listener.actionFinished(processAction, e);
+			throw e;
+		}
+		listener.actionFinished(processAction, null);
+	}
+
+	/**
+	 * Get the number of samples represented by the specified Position.
+	 *
+	 * @param position
+	 * @param sampleRate the number of samples per second.
+	 * @return The number of samples represented by the specified Position.
+	 */
+	private static long getSamples(Position position, int sampleRate) {
+		return Math.round((double) sampleRate / 75 * position.getTotalFrames());
+	}
+
+	/**
+	 * Get the vorbis comments to write to a FLAC track.
+	 *
+	 * @param trackData
+	 * @return The vorbis comments.
+	 */
+	private static Map<String, String> getVorbisComments(TrackData trackData) {
+		Map<String, String> result = new LinkedHashMap<>();
+		addVorbisComment(result, "TITLE", trackData, MetaDataField.TITLE);
+		addVorbisComment(result, "ARTIST", trackData, MetaDataField.PERFORMER);
+		addVorbisComment(result, "ALBUM", trackData, MetaDataField.ALBUMTITLE);
+		addVorbisComment(result, "ALBUMARTIST", trackData, MetaDataField.ALBUMPERFORMER);
+		addVorbisComment(result, "COMPOSER", trackData, MetaDataField.SONGWRITER);
+		addVorbisComment(result, "GENRE", trackData, MetaDataField.GENRE);
+		addVorbisComment(result, "DATE", trackData, MetaDataField.YEAR);
+		addVorbisComment(result, "DISCNUMBER", trackData, MetaDataField.DISCNUMBER);
+		addVorbisComment(result, "TRACKNUMBER", trackData, MetaDataField.TRACKNUMBER);
+		addVorbisComment(result, "ISRC", trackData, MetaDataField.ISRCCODE);
+		return result;
+	}
+
+	/**
+	 * Add a vorbis comment if the metadata field has a value.
+	 *
+	 * @param comments the vorbis comments to add to.
+	 * @param name the vorbis comment field name.
+	 * @param trackData
+	 * @param metaDataField the {@link MetaDataField} to get the value from.
+	 */
+	private static void addVorbisComment(
+		Map<String, String> comments,
+		String name,
+		TrackData trackData,
+		MetaDataField metaDataField
+	) {
+		String value;
+		try {
+			value = trackData.getMetaData(metaDataField);
+		} catch (IllegalArgumentException e) {
+			return;
+		}
+		if (value != null && !value.isEmpty()) {
+			comments.put(name, value);
+		}
+	}
+
 	/**
 	 * Get a list of ProcessActions based on the specified FileData.
 	 *
@@ -356,10 +892,17 @@ public class TrackCutter {
 			toAudioFramePos = getAudioFormatFrames(processAction.getEndPosition(), audioInputStream.getFormat());
 		}
 
-		performProcessAction(
-			processAction,
-			new AudioInputStream(audioInputStream, audioInputStream.getFormat(), toAudioFramePos - fromAudioFramePos)
-		);
+		listener.actionStarted(processAction, toAudioFramePos < 0 ? -1 : toAudioFramePos - fromAudioFramePos);
+		try {
+			performProcessAction(
+				processAction,
+				new AudioInputStream(audioInputStream, audioInputStream.getFormat(), toAudioFramePos - fromAudioFramePos)
+			);
+		} catch (IOException | RuntimeException e) {
+			listener.actionFinished(processAction, e);
+			throw e;
+		}
+		listener.actionFinished(processAction, null);
 
 		return toAudioFramePos;
 	}
@@ -384,16 +927,14 @@ public class TrackCutter {
 			File folder = processAction.getCutFile().getParentFile();
 			if (folder != null) {
 				LOGGER.debug("Creating directory for target files.");
-				if (!folder.mkdirs()) {
-					throw new IOException("Failed to create folder \"" + folder + "\"");
-				}
+				Files.createDirectories(folder.toPath());
 			}
 		}
 
 		if (configuration.getDoPostProcessing() && configuration.getRedirectToPostprocessing()) {
 
 			LOGGER.debug("Writing audio to postprocessor.");
-			try (OutputStream audioOutputStream = createPostProcessingProcess(processAction).getOutputStream()) {
+			try (OutputStream audioOutputStream = startPostProcessing(processAction).getOutputStream()) {
 				AudioSystem.write(audioInputStream, configuration.getTargetType(), audioOutputStream);
 			} finally {
 				LOGGER.debug("Closing audio stream.");
@@ -403,34 +944,43 @@ public class TrackCutter {
 			AudioSystem.write(audioInputStream, configuration.getTargetType(), processAction.getCutFile());
 
 			if (configuration.getDoPostProcessing()) {
-				LOGGER.debug("Performing postprocessing.");
-				createPostProcessingProcess(processAction);
+				LOGGER.debug("Scheduling postprocessing.");
+				schedulePostProcessing(processAction);
 			}
 		}
 	}
 
 	/**
-	 * Create the specified post-processing process.
+	 * Queue the post-processing command of the specified ProcessAction. Blocks
+	 * while the post-processing queue is full.
 	 *
 	 * @param processAction
-	 * @return The specified post-processing process.
-	 * @throws IOException If an error occurs during the operation.
+	 * @throws IOException If interrupted while waiting.
 	 */
-	private static Process createPostProcessingProcess(TrackCutterProcessingAction processAction) throws IOException {
-		LOGGER.debug("Creating post-processing process for command: {}", processAction.getPostProcessCommand());
-		File folder = processAction.getPostProcessFile().getParentFile();
-		if (folder != null) {
-			if (!folder.mkdirs()) {
-				throw new IOException("Failed to create folder \"" + folder + "\"");
-			}
+	private void schedulePostProcessing(TrackCutterProcessingAction processAction) throws IOException {
+		try {
+			postProcessingScheduler.submit(processAction);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the post-processing queue");
 		}
+	}
 
-		Process process = Runtime.getRuntime().exec(processAction.getPostProcessCommand());
-
-		StreamPiper.pipeStream(process.getInputStream(), processAction.getStdOutRedirectFile());
-		StreamPiper.pipeStream(process.getErrorStream(), processAction.getErrRedirectFile());
-
-		return process;
+	/**
+	 * Start the post-processing process of the specified ProcessAction, so
+	 * that the audio can be written to it.
+	 *
+	 * @param processAction
+	 * @return The post-processing process.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	private Process startPostProcessing(TrackCutterProcessingAction processAction) throws IOException {
+		try {
+			return postProcessingScheduler.start(processAction);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a post-processing process");
+		}
 	}
 
 	/**
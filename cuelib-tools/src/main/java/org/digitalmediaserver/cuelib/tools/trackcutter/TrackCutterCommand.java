@@ -24,15 +24,19 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Scanner;
 import java.util.Set;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 import javax.sound.sampled.AudioFileFormat;
+import org.digitalmediaserver.cuelib.CueBatchParser;
 import org.digitalmediaserver.cuelib.Position;
 import org.digitalmediaserver.cuelib.tools.io.FileSelector;
 import org.digitalmediaserver.cuelib.tools.trackcutter.TrackCutterConfiguration.PregapHandling;
@@ -140,6 +144,14 @@ public class TrackCutterCommand {
 		System.out.println("                     specified.");
 		System.out.println(" -pt length          Threshold for pregap processing. Pregaps with length shorter than this");
 		System.out.println("                     will not be processed. Length as per the position field in cue sheets.");
+		System.out.println(" -w count            Number of tracks to cut concurrently. Tracks in FLAC and uncompressed");
+		System.out.println("                     files are cut independently, other files are cut one track at a time.");
+		System.out.println(" -pw count           Maximum number of post-processing processes running at the same time.");
+		System.out.println("                     Defaults to the number of processors.");
+		System.out.println(" -pq length          Maximum number of post-processing commands waiting for a process.");
+		System.out.println("                     Cutting pauses while the queue is full. Defaults to the -pw count.");
+		System.out.println(" -pc size            KiB of output to keep from each post-processing stream for error");
+		System.out.println("                     reports. Defaults to 4, 0 disables.");
 		System.out.println(" -s                  Redirect audio to post-processing step.");
 		System.out.println(" -ro                 Redirect output of post-processing step to log file.");
 		System.out.println(" -re                 Redirect error output of post-processing step to log file.");
@@ -330,6 +342,42 @@ public class TrackCutterCommand {
 				}
 			}
 		}, "-g");
+		argumentsParser.registerOption(new SimpleOptionsParser.OptionHandler() {
+
+			@Override
+			public int handleOption(String[] options, int offset) {
+				// Number of concurrent workers
+				getConfiguration().setWorkerCount(Integer.parseInt(options[offset + 1]));
+				return offset + 2;
+			}
+		}, "-w");
+		argumentsParser.registerOption(new SimpleOptionsParser.OptionHandler() {
+
+			@Override
+			public int handleOption(String[] options, int offset) {
+				// Number of concurrent post-processing processes
+				getConfiguration().setPostProcessingWorkerCount(Integer.parseInt(options[offset + 1]));
+				return offset + 2;
+			}
+		}, "-pw");
+		argumentsParser.registerOption(new SimpleOptionsParser.OptionHandler() {
+
+			@Override
+			public int handleOption(String[] options, int offset) {
+				// Length of the post-processing queue
+				getConfiguration().setPostProcessingQueueSize(Integer.parseInt(options[offset + 1]));
+				return offset + 2;
+			}
+		}, "-pq");
+		argumentsParser.registerOption(new SimpleOptionsParser.OptionHandler() {
+
+			@Override
+			public int handleOption(String[] options, int offset) {
+				// Size of the post-processing output capture
+				getConfiguration().setPostProcessingCaptureSize(Integer.parseInt(options[offset + 1]));
+				return offset + 2;
+			}
+		}, "-pc");
 		argumentsParser.registerOption(new SimpleOptionsParser.OptionHandler() {
 
 			@Override
@@ -556,13 +604,24 @@ public class TrackCutterCommand {
 				fileSet.addAll(fileList);
 			}
 
-			// Process all specified files.
-			for (File cueFile : fileSet) {
-				try {
-					cutter.cutTracksInCueSheet(cueFile);
-				} catch (IOException e) {
-					LOGGER.error("An error occurred while processing cue file \"{}\": {}", cueFile, e.getMessage());
-					LOGGER.trace("", e);
+			// Process all specified files. The cue sheets are parsed concurrently ahead of the cutting.
+			try (
+				CueBatchParser batchParser = new CueBatchParser(null, 0, Charset.defaultCharset());
+				Stream<CueBatchParser.Result> results = batchParser.stream(fileSet.stream().map(File::toPath), true)
+			) {
+				Iterator<CueBatchParser.Result> iterator = results.iterator();
+				while (iterator.hasNext()) {
+					CueBatchParser.Result result = iterator.next();
+					File cueFile = result.getFile().toFile();
+					try {
+						if (!result.isSuccess()) {
+							throw new IOException("Problem parsing cue file '" + cueFile + "'.", result.getException());
+						}
+						cutter.cutTracksInCueSheet(cueFile, result.getCueSheet());
+					} catch (IOException e) {
+						LOGGER.error("An error occurred while processing cue file \"{}\": {}", cueFile, e.getMessage());
+						LOGGER.trace("", e);
+					}
 				}
 			}
 
@@ -97,6 +97,29 @@ public class TrackCutterConfiguration {
 	 */
 	private boolean redirectToPostprocessing = false;
 
+	/**
+	 * The number of tracks to cut concurrently.
+	 */
+	private int workerCount = 1;
+
+	/**
+	 * The maximum number of post-processing processes running at the same
+	 * time, or 0 to use the number of available processors.
+	 */
+	private int postProcessingWorkerCount = 0;
+
+	/**
+	 * The maximum number of post-processing commands waiting for a process,
+	 * or 0 to use the post-processing worker count.
+	 */
+	private int postProcessingQueueSize = 0;
+
+	/**
+	 * The number of KiB of output to keep from each post-processing stream
+	 * for error reports, or 0 to keep none.
+	 */
+	private int postProcessingCaptureSize = 4;
+
 	/**
 	 * Template for the file name of the cut tracks.
 	 */
@@ -176,6 +199,10 @@ public class TrackCutterConfiguration {
 	 * <tr><td>redirectStdOut</td><td>Whether or not standard output from post-processing should be redirected.</td><td>{@link Boolean}.</td></tr>
 	 * <tr><td>doPostProcessing</td><td>Whether or not we should do post-processing.</td><td>{@link Boolean}.</td></tr>
 	 * <tr><td>redirectToPostprocessing</td><td>Whether or not we should redirect output directly to post-processing.</td><td>{@link Boolean}.</td></tr>
+	 * <tr><td>workerCount</td><td>The number of tracks to cut concurrently.</td><td>{@link Integer}.</td></tr>
+	 * <tr><td>postProcessingWorkerCount</td><td>The maximum number of post-processing processes running at the same time, or 0 for the number of processors.</td><td>{@link Integer}.</td></tr>
+	 * <tr><td>postProcessingCaptureSize</td><td>The number of KiB of output to keep from each post-processing stream for error reports.</td><td>{@link Integer}.</td></tr>
+	 * <tr><td>postProcessingQueueSize</td><td>The maximum number of post-processing commands waiting for a process, or 0 for the post-processing worker count.</td><td>{@link Integer}.</td></tr>
 	 * <tr><td>cutFileNameTemplate</td><td>Template for the file name of the cut tracks.</td><td>{@link String}.</td></tr>
 	 * <tr><td>postProcessFileNameTemplate</td><td>Template for the file name of the post-processed tracks.</td><td>{@link String}.</td></tr>
 	 * <tr><td>postProcessCommandTemplate</td><td>Template for the post-processing command.</td><td>{@link String}.</td></tr>
@@ -185,6 +212,8 @@ public class TrackCutterConfiguration {
 	 * </table>
 	 *
 	 * @param properties The Properties to load configuration from.
+	 * @throws IllegalArgumentException If a worker count or a post-processing queue or capture
+	 *             size is out of range.
 	 */
 	public void loadProperties(EnhancedProperties properties) {
 		parentDirectory = properties.getProperty("parentDirectory", parentDirectory, FilePropertyHandler.getInstance());
@@ -195,6 +224,10 @@ public class TrackCutterConfiguration {
 		redirectStdOut = properties.getPropertyAsBoolean("redirectStdOut", redirectStdOut);
 		doPostProcessing = properties.getPropertyAsBoolean("doPostProcessing", doPostProcessing);
 		redirectToPostprocessing = properties.getPropertyAsBoolean("redirectToPostprocessing", redirectToPostprocessing);
+		setWorkerCount(properties.getPropertyAsLong("workerCount", (long) workerCount).intValue());
+		setPostProcessingWorkerCount(properties.getPropertyAsLong("postProcessingWorkerCount", (long) postProcessingWorkerCount).intValue());
+		setPostProcessingQueueSize(properties.getPropertyAsLong("postProcessingQueueSize", (long) postProcessingQueueSize).intValue());
+		setPostProcessingCaptureSize(properties.getPropertyAsLong("postProcessingCaptureSize", (long) postProcessingCaptureSize).intValue());
 		cutFileNameTemplate = properties.getProperty("cutFileNameTemplate", cutFileNameTemplate);
 		postProcessFileNameTemplate = properties.getProperty("postProcessFileNameTemplate", postProcessFileNameTemplate);
 		postProcessCommandTemplate = properties.getProperty("postProcessCommandTemplate", postProcessCommandTemplate);
@@ -222,6 +255,10 @@ public class TrackCutterConfiguration {
 		properties.setProperty("redirectStdOut", this.redirectStdOut);
 		properties.setProperty("doPostProcessing", this.doPostProcessing);
 		properties.setProperty("redirectToPostprocessing", this.redirectToPostprocessing);
+		properties.setProperty("workerCount", (long) this.workerCount);
+		properties.setProperty("postProcessingWorkerCount", (long) this.postProcessingWorkerCount);
+		properties.setProperty("postProcessingQueueSize", (long) this.postProcessingQueueSize);
+		properties.setProperty("postProcessingCaptureSize", (long) this.postProcessingCaptureSize);
 		properties.setProperty("cutFileNameTemplate", this.cutFileNameTemplate);
 		properties.setProperty("postProcessFileNameTemplate", this.postProcessFileNameTemplate);
 		properties.setProperty("postProcessCommandTemplate", this.postProcessCommandTemplate);
@@ -695,4 +732,102 @@ public class TrackCutterConfiguration {
 	public void setPregapFrameLengthThreshold(long pregapFrameLengthThreshold) {
 		this.pregapFrameLengthThreshold = pregapFrameLengthThreshold;
 	}
+
+	/**
+	 * Get the number of tracks to cut concurrently. Tracks are only cut
+	 * concurrently if this is greater than one.
+	 *
+	 * @return The number of tracks to cut concurrently.
+	 */
+	public int getWorkerCount() {
+		return this.workerCount;
+	}
+
+	/**
+	 * Set the number of tracks to cut concurrently. Tracks are only cut
+	 * concurrently if this is greater than one.
+	 *
+	 * @param workerCount The number of tracks to cut concurrently.
+	 */
+	public void setWorkerCount(int workerCount) {
+		if (workerCount < 1) {
+			throw new IllegalArgumentException("workerCount must be at least 1");
+		}
+		this.workerCount = workerCount;
+	}
+
+	/**
+	 * Get the maximum number of post-processing processes running at the
+	 * same time. 0 means the number of available processors.
+	 *
+	 * @return The maximum number of post-processing processes.
+	 */
+	public int getPostProcessingWorkerCount() {
+		return this.postProcessingWorkerCount;
+	}
+
+	/**
+	 * Set the maximum number of post-processing processes running at the
+	 * same time. 0 means the number of available processors.
+	 *
+	 * @param postProcessingWorkerCount The maximum number of post-processing
+	 *            processes.
+	 */
+	public void setPostProcessingWorkerCount(int postProcessingWorkerCount) {
+		if (postProcessingWorkerCount < 0) {
+			throw new IllegalArgumentException("postProcessingWorkerCount cannot be negative");
+		}
+		this.postProcessingWorkerCount = postProcessingWorkerCount;
+	}
+
+	/**
+	 * Get the maximum number of post-processing commands waiting for a
+	 * process. Cutting is paused while the queue is full. 0 means the same as
+	 * the post-processing worker count.
+	 *
+	 * @return The maximum number of queued post-processing commands.
+	 */
+	public int getPostProcessingQueueSize() {
+		return this.postProcessingQueueSize;
+	}
+
+	/**
+	 * Set the maximum number of post-processing commands waiting for a
+	 * process. Cutting is paused while the queue is full. 0 means the same as
+	 * the post-processing worker count.
+	 *
+	 * @param postProcessingQueueSize The maximum number of queued
+	 *            post-processing commands.
+	 */
+	public void setPostProcessingQueueSize(int postProcessingQueueSize) {
+		if (postProcessingQueueSize < 0) {
+			throw new IllegalArgumentException("postProcessingQueueSize cannot be negative");
+		}
+		this.postProcessingQueueSize = postProcessingQueueSize;
+	}
+
+	/**
+	 * Get the number of KiB of output to keep from the standard and error
+	 * output of each post-processing process, so that it can be included in
+	 * error reports. 0 means that no output is kept.
+	 *
+	 * @return The number of KiB to keep.
+	 */
+	public int getPostProcessingCaptureSize() {
+		return this.postProcessingCaptureSize;
+	}
+
+	/**
+	 * Set the number of KiB of output to keep from the standard and error
+	 * output of each post-processing process, so that it can be included in
+	 * error reports. 0 means that no output is kept.
+	 *
+	 * @param postProcessingCaptureSize The number of KiB to keep.
+	 */
+	public void setPostProcessingCaptureSize(int postProcessingCaptureSize) {
+		if (postProcessingCaptureSize < 0) {
+			throw new IllegalArgumentException("postProcessingCaptureSize cannot be negative");
+		}
+		this.postProcessingCaptureSize = postProcessingCaptureSize;
+	}
 }
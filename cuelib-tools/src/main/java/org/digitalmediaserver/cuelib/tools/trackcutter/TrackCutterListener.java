@@ -0,0 +1,69 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.tools.trackcutter;
+
+
+/**
+ * A callback interface for following the progress of a {@link TrackCutter}.
+ * Each {@link TrackCutterProcessingAction} is reported as a separate job.
+ * <p>
+ * When tracks are cut concurrently, the methods are called from the worker
+ * threads, so implementations must be thread-safe. The calls for a given
+ * {@link TrackCutterProcessingAction} are always made in order and from the
+ * same thread.
+ * <p>
+ * All methods have empty default implementations, so that implementations
+ * only need to override the methods they're interested in.
+ *
+ * @author Nadahar
+ */
+public interface TrackCutterListener {
+
+	/**
+	 * Called when a {@link TrackCutterProcessingAction} is started.
+	 *
+	 * @param processAction the {@link TrackCutterProcessingAction}.
+	 * @param length the length of the track in sample frames, or {@code -1}
+	 *            if it isn't known.
+	 */
+	default void actionStarted(TrackCutterProcessingAction processAction, long length) {
+	}
+
+	/**
+	 * Called at intervals while a {@link TrackCutterProcessingAction} is
+	 * processed. Not all processing methods report progress.
+	 *
+	 * @param processAction the {@link TrackCutterProcessingAction}.
+	 * @param written the number of sample frames written so far.
+	 * @param length the length of the track in sample frames, or {@code -1}
+	 *            if it isn't known.
+	 */
+	default void actionProgress(TrackCutterProcessingAction processAction, long written, long length) {
+	}
+
+	/**
+	 * Called when a {@link TrackCutterProcessingAction} has finished.
+	 *
+	 * @param processAction the {@link TrackCutterProcessingAction}.
+	 * @param error the error that stopped the processing, or {@code null} if
+	 *            it completed successfully.
+	 */
+	default void actionFinished(TrackCutterProcessingAction processAction, Throwable error) {
+	}
+}
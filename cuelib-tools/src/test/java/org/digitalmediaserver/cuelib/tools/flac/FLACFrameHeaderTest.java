@@ -0,0 +1,145 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.tools.flac;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * Unit test for {@link FLACFrameHeader}.
+ *
+ * @author Nadahar
+ */
+public class FLACFrameHeaderTest {
+
+	/**
+	 * Test that written headers are parsed back with the same values, for
+	 * all the ways of coding the block size, sample rate and sample number.
+	 */
+	@Test
+	public void testWriteParse() {
+		int[] blockSizes = {192, 576, 4608, 256, 4096, 32768, 17, 256 + 1, 65536};
+		int[] sampleRates = {44100, 48000, 11000, 11025, 655350, 700000};
+		long[] sampleNumbers = {0, 0x7F, 0x80, 0x7FF, 0x800, 0xFFFF, 0x10000, 0x3FFFFFFL, 0x7FFFFFFFL, 0x80000000L, 0xFFFFFFFFFL};
+		byte[] buffer = new byte[FLACFrameHeader.MAX_LENGTH + 3];
+		for (int blockSize : blockSizes) {
+			for (int sampleRate : sampleRates) {
+				for (long sampleNumber : sampleNumbers) {
+					int blockSizeCode = FLACFrameHeader.getBlockSizeCode(blockSize);
+					int sampleRateCode = FLACFrameHeader.getSampleRateCode(sampleRate);
+					int length = FLACFrameHeader.write(
+						buffer,
+						3,
+						blockSizeCode,
+						blockSize,
+						sampleRateCode,
+						sampleRate,
+						1,
+						FLACFrameHeader.getSampleSizeCode(16),
+						sampleNumber
+					);
+					Assert.assertTrue(length <= FLACFrameHeader.MAX_LENGTH);
+					FLACFrameHeader header = FLACFrameHeader.parse(buffer, 3, 3 + length);
+					String message = blockSize + "/" + sampleRate + "/" + sampleNumber;
+					Assert.assertNotNull(message, header);
+					Assert.assertTrue(message, header.isVariableBlockSize());
+					Assert.assertEquals(message, blockSize, header.getBlockSize());
+					Assert.assertEquals(message, sampleRateCode == 0 ? 0 : sampleRate, header.getSampleRate());
+					Assert.assertEquals(message, 2, header.getChannels());
+					Assert.assertEquals(message, 16, header.getBitsPerSample());
+					Assert.assertEquals(message, sampleNumber, header.getNumber());
+					Assert.assertEquals(message, length, header.getLength());
+
+					// Rewriting gives the same bytes
+					byte[] copy = new byte[FLACFrameHeader.MAX_LENGTH];
+					Assert.assertEquals(length, header.write(copy, 0, sampleNumber));
+					for (int i = 0; i < length; i++) {
+						Assert.assertEquals(message, buffer[3 + i], copy[i]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Test that damaged or truncated headers are rejected.
+	 */
+	@Test
+	public void testInvalid() {
+		byte[] buffer = new byte[FLACFrameHeader.MAX_LENGTH];
+		int length = FLACFrameHeader.write(buffer, 0, 7, 1000, 13, 12345, 0, 4, 1000000);
+		Assert.assertNotNull(FLACFrameHeader.parse(buffer, 0, length));
+		Assert.assertNull(FLACFrameHeader.parse(buffer, 0, length - 1));
+		for (int i = 0; i < length; i++) {
+			buffer[i] ^= 0x10;
+			Assert.assertNull("Byte " + i, FLACFrameHeader.parse(buffer, 0, length));
+			buffer[i] ^= 0x10;
+		}
+	}
+
+	/**
+	 * Test the CRCs against the standard check values, and that a CRC-16 can
+	 * be calculated in parts.
+	 */
+	@Test
+	public void testCRC() {
+		byte[] check = "123456789".getBytes(StandardCharsets.US_ASCII);
+		Assert.assertEquals(0xF4, FLACFrameHeader.crc8(check, 0, check.length));
+		Assert.assertEquals(0xFEE8, FLACFrameHeader.crc16(check, 0, check.length));
+
+		byte[] data = new byte[1000];
+		new Random(1).nextBytes(data);
+		int crc = FLACFrameHeader.crc16(data, 0, data.length);
+		for (int split : new int[] {0, 1, 7, 8, 9, 500, 999}) {
+			int first = FLACFrameHeader.crc16(data, 0, split);
+			Assert.assertEquals(crc, FLACFrameHeader.updateCRC16(first, data, split, data.length - split));
+		}
+	}
+
+	/**
+	 * Test that the CRC-16 of a frame with a rewritten header can be derived
+	 * from the old CRC-16, as done when frames are copied.
+	 */
+	@Test
+	public void testShiftCRC16() {
+		Random random = new Random(2);
+		for (int bodyLength : new int[] {0, 1, 2, 15, 16, 17, 4095, 65536, 100000}) {
+			byte[] oldFrame = new byte[FLACFrameHeader.MAX_LENGTH + bodyLength];
+			byte[] body = new byte[bodyLength];
+			random.nextBytes(body);
+			int oldLength = FLACFrameHeader.write(oldFrame, 0, 12, 4096, 9, 44100, 1, 4, 123456789L);
+			System.arraycopy(body, 0, oldFrame, oldLength, bodyLength);
+			int oldCRC = FLACFrameHeader.crc16(oldFrame, 0, oldLength + bodyLength);
+
+			byte[] newFrame = new byte[FLACFrameHeader.MAX_LENGTH + bodyLength];
+			int newLength = FLACFrameHeader.write(newFrame, 0, 12, 4096, 9, 44100, 1, 4, 4096L);
+			System.arraycopy(body, 0, newFrame, newLength, bodyLength);
+			int newCRC = FLACFrameHeader.crc16(newFrame, 0, newLength + bodyLength);
+
+			int derived = oldCRC ^ FLACFrameHeader.shiftCRC16(
+				FLACFrameHeader.crc16(oldFrame, 0, oldLength) ^ FLACFrameHeader.crc16(newFrame, 0, newLength),
+				bodyLength
+			);
+			Assert.assertEquals("Body length " + bodyLength, newCRC, derived);
+		}
+	}
+}
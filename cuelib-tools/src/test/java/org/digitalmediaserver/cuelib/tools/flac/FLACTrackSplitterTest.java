@@ -0,0 +1,522 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.tools.flac;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import org.digitalmediaserver.cuelib.io.FLACMetadata;
+import org.digitalmediaserver.cuelib.io.FLACReader;
+import org.digitalmediaserver.cuelib.io.FLACReader.StreamInfo;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+/**
+ * Unit test for {@link FLACTrackSplitter}, {@link FLACFrameScanner} and
+ * {@link FLACFrameDecoder}.
+ *
+ * @author Nadahar
+ */
+public class FLACTrackSplitterTest {
+
+	/** The number of samples per frame in the test file */
+	private static final int BLOCK_SIZE = 1024;
+
+	/** The number of samples in the test file */
+	private static final int TOTAL_SAMPLES = 9 * BLOCK_SIZE + 500;
+
+	/** The sample rate of the test file */
+	private static final int SAMPLE_RATE = 44100;
+
+	/** The folder for the test files */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/** The channel assignments used by the frames of the test file, in turn */
+	private static final int[] CHANNEL_ASSIGNMENTS = {1, 8, 9, 10};
+
+	/** The LPC coefficients by order, with a precision of 12 bits and a shift of 9 */
+	private static final int[][] LPC_COEFFICIENTS = {
+		{460},
+		{900, -420},
+		{1000, -600, 90},
+		{1100, -700, 150, -40}
+	};
+
+	/** The samples of the test file indexed by channel and sample */
+	private static final int[][] SAMPLES = createSamples();
+
+	/**
+	 * Creates the samples of the test file. The samples of every third frame
+	 * are multiples of four, so that they are coded with wasted bits, and
+	 * some samples are at the extremes, so that the side channel needs 17
+	 * bits.
+	 *
+	 * @return The samples indexed by channel and sample.
+	 */
+	private static int[][] createSamples() {
+		int[][] result = new int[2][TOTAL_SAMPLES];
+		for (int i = 0; i < TOTAL_SAMPLES; i++) {
+			int left = (int) (6000 * Math.sin(i / 40.0)) + Math.floorMod(i * 7919, 401) - 200;
+			int right = (int) (5000 * Math.sin(i / 55.0 + 1)) + Math.floorMod(i * 7919 + 12345, 401) - 200;
+			if (i % 251 == 0) {
+				left = (i & 1) == 0 ? Short.MAX_VALUE : Short.MIN_VALUE;
+				right = (i & 1) == 0 ? Short.MIN_VALUE : Short.MAX_VALUE;
+			}
+			if ((i / BLOCK_SIZE) % 3 == 2) {
+				left &= ~3;
+				right &= ~3;
+			}
+			result[0][i] = left;
+			result[1][i] = right;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the value of a sample in the test file.
+	 *
+	 * @param channel the channel.
+	 * @param sample the sample number.
+	 * @return The 16 bit sample value.
+	 */
+	private static int getSample(int channel, int sample) {
+		return SAMPLES[channel][sample];
+	}
+
+	/**
+	 * Writes a 16 bit stereo FLAC file, using the fixed block size strategy
+	 * like most encoders. The frames take turns using the independent,
+	 * left/side, side/right and mid/side channel assignments, and the
+	 * subframes take turns using FIXED, LPC and VERBATIM coding, with Rice
+	 * coded and escaped residual partitions and wasted bits where possible.
+	 *
+	 * @param file the file to write.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	private static void writeTestFile(Path file) throws IOException {
+		byte[] array = new byte[42 + 10 * (FLACFrameHeader.MAX_LENGTH + 8 * (1 + 3 * BLOCK_SIZE) + 2)];
+		ByteBuffer buffer = ByteBuffer.wrap(array);
+		buffer.put(new byte[] {'f', 'L', 'a', 'C', (byte) 0x80, 0, 0, 34});
+		buffer.putShort((short) BLOCK_SIZE).putShort((short) BLOCK_SIZE);
+		buffer.put(new byte[6]);
+		// Sample rate (20 bits), channels - 1 (3 bits), bits per sample - 1 (5 bits) and total samples (36 bits)
+		buffer.putLong((long) SAMPLE_RATE << 44 | 1L << 41 | 15L << 36 | TOTAL_SAMPLES);
+		buffer.put(new byte[16]);
+
+		for (int frame = 0, first = 0; first < TOTAL_SAMPLES; frame++, first += BLOCK_SIZE) {
+			int count = Math.min(BLOCK_SIZE, TOTAL_SAMPLES - first);
+			int assignment = CHANNEL_ASSIGNMENTS[frame % CHANNEL_ASSIGNMENTS.length];
+			int offset = buffer.position();
+			int length = FLACFrameHeader.write(
+				array,
+				offset,
+				FLACFrameHeader.getBlockSizeCode(count),
+				count,
+				FLACFrameHeader.getSampleRateCode(SAMPLE_RATE),
+				SAMPLE_RATE,
+				assignment,
+				FLACFrameHeader.getSampleSizeCode(16),
+				frame
+			);
+			// Switch to the fixed block size strategy, where the number is the frame number
+			array[offset + 1] = (byte) 0xF8;
+			array[offset + length - 1] = (byte) FLACFrameHeader.crc8(array, offset, length - 1);
+
+			long[] left = new long[count];
+			long[] right = new long[count];
+			long[] side = new long[count];
+			for (int i = 0; i < count; i++) {
+				left[i] = getSample(0, first + i);
+				right[i] = getSample(1, first + i);
+				side[i] = left[i] - right[i];
+			}
+			long[][] channels;
+			switch (assignment) {
+				case 8:
+					channels = new long[][] {left, side};
+					break;
+				case 9:
+					channels = new long[][] {side, right};
+					break;
+				case 10:
+					long[] mid = new long[count];
+					for (int i = 0; i < count; i++) {
+						mid[i] = (left[i] + right[i]) >> 1;
+					}
+					channels = new long[][] {mid, side};
+					break;
+				default:
+					channels = new long[][] {left, right};
+					break;
+			}
+			BitWriter writer = new BitWriter(array, offset + length);
+			for (int channel = 0; channel < 2; channel++) {
+				writeSubframe(writer, channels[channel], channels[channel] == side ? 17 : 16, frame, (frame + channel) % 3);
+			}
+			buffer.position(writer.align());
+			buffer.putShort((short) FLACFrameHeader.crc16(array, offset, buffer.position() - offset));
+		}
+		buffer.flip();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	/**
+	 * Writes a subframe.
+	 *
+	 * @param writer the {@link BitWriter} to write to.
+	 * @param samples the samples of the subframe.
+	 * @param bitsPerSample the number of bits per sample of the subframe.
+	 * @param frame the frame number, used to vary the coding.
+	 * @param kind {@code 0} for FIXED, {@code 1} for LPC and {@code 2} for
+	 *            VERBATIM coding.
+	 */
+	private static void writeSubframe(BitWriter writer, long[] samples, int bitsPerSample, int frame, int kind) {
+		long bits = 0;
+		for (long sample : samples) {
+			bits |= sample;
+		}
+		int wastedBits = bits == 0 ? 0 : Math.min(Long.numberOfTrailingZeros(bits), bitsPerSample - 1);
+		long[] values = new long[samples.length];
+		for (int i = 0; i < samples.length; i++) {
+			values[i] = samples[i] >> wastedBits;
+		}
+		bitsPerSample -= wastedBits;
+
+		int order = kind == 0 ? frame % 5 : kind == 1 ? 1 + frame % 4 : 0;
+		writer.write(0, 1);
+		writer.write(kind == 0 ? 8 + order : kind == 1 ? 31 + order : 1, 6);
+		if (wastedBits > 0) {
+			writer.write(1, 1);
+			writer.writeUnary(wastedBits - 1);
+		} else {
+			writer.write(0, 1);
+		}
+		if (kind == 2) {
+			for (long value : values) {
+				writer.writeSigned(value, bitsPerSample);
+			}
+			return;
+		}
+		for (int i = 0; i < order; i++) {
+			writer.writeSigned(values[i], bitsPerSample);
+		}
+		long[] residual = new long[values.length];
+		if (kind == 0) {
+			for (int i = order; i < values.length; i++) {
+				long prediction;
+				switch (order) {
+					case 1:
+						prediction = values[i - 1];
+						break;
+					case 2:
+						prediction = 2 * values[i - 1] - values[i - 2];
+						break;
+					case 3:
+						prediction = 3 * values[i - 1] - 3 * values[i - 2] + values[i - 3];
+						break;
+					case 4:
+						prediction = 4 * values[i - 1] - 6 * values[i - 2] + 4 * values[i - 3] - values[i - 4];
+						break;
+					default:
+						prediction = 0;
+						break;
+				}
+				residual[i] = values[i] - prediction;
+			}
+		} else {
+			int[] coefficients = LPC_COEFFICIENTS[order - 1];
+			writer.write(11, 4);
+			writer.writeSigned(9, 5);
+			for (int coefficient : coefficients) {
+				writer.writeSigned(coefficient, 12);
+			}
+			for (int i = order; i < values.length; i++) {
+				long sum = 0;
+				for (int j = 0; j < order; j++) {
+					sum += coefficients[j] * values[i - 1 - j];
+				}
+				residual[i] = values[i] - (sum >> 9);
+			}
+		}
+		writeResidual(writer, residual, order, frame & 1);
+	}
+
+	/**
+	 * Writes the residual of a predicted subframe. Every third partition and
+	 * the partitions that need too large a Rice parameter are escaped.
+	 *
+	 * @param writer the {@link BitWriter} to write to.
+	 * @param residual the residual following the warm-up samples.
+	 * @param order the predictor order.
+	 * @param method the residual coding method.
+	 */
+	private static void writeResidual(BitWriter writer, long[] residual, int order, int method) {
+		int parameterBits = method == 0 ? 4 : 5;
+		int escape = method == 0 ? 15 : 31;
+		int partitionOrder = 4;
+		while (
+			partitionOrder > 0 &&
+			(residual.length % (1 << partitionOrder) != 0 || residual.length >> partitionOrder < order)
+		) {
+			partitionOrder--;
+		}
+		int partitionSize = residual.length >> partitionOrder;
+		writer.write(method, 2);
+		writer.write(partitionOrder, 4);
+		for (int partition = 0; partition < 1 << partitionOrder; partition++) {
+			int start = partition == 0 ? order : partition * partitionSize;
+			int end = (partition + 1) * partitionSize;
+			long max = 0;
+			int signedBits = 0;
+			for (int i = start; i < end; i++) {
+				max = Math.max(max, (residual[i] << 1) ^ (residual[i] >> 63));
+				signedBits = Math.max(signedBits, 65 - Long.numberOfLeadingZeros(residual[i] ^ (residual[i] >> 63)));
+			}
+			int parameter = Math.max(0, 61 - Long.numberOfLeadingZeros(max));
+			if (partition % 3 == 1 || parameter >= escape) {
+				writer.write(escape, parameterBits);
+				writer.write(max == 0 ? 0 : signedBits, 5);
+				for (int i = start; i < end; i++) {
+					writer.writeSigned(residual[i], max == 0 ? 0 : signedBits);
+				}
+			} else {
+				writer.write(parameter, parameterBits);
+				for (int i = start; i < end; i++) {
+					long value = (residual[i] << 1) ^ (residual[i] >> 63);
+					writer.writeUnary((int) (value >>> parameter));
+					writer.write(value, parameter);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Decodes all frames of a FLAC file and checks that they contain the
+	 * specified range of samples from the test file, numbered from zero.
+	 *
+	 * @param file the file to check.
+	 * @param startSample the first sample of the test file expected.
+	 * @param endSample the sample following the last sample expected.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	private static void assertSamples(Path file, int startSample, int endSample) throws IOException {
+		FLACMetadata metadata = FLACReader.getMetadata(file);
+		StreamInfo streamInfo = metadata.getStreamInfo();
+		Assert.assertEquals(endSample - startSample, streamInfo.getTotalSamples());
+		Assert.assertEquals(SAMPLE_RATE, streamInfo.getSampleRate());
+		Assert.assertEquals(2, streamInfo.getChannels());
+		Assert.assertEquals(16, streamInfo.getBitsPerSample());
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			FLACFrameScanner scanner = new FLACFrameScanner(channel, metadata.getAudioOffset(), 1024);
+			int sample = 0;
+			FLACFrameHeader header;
+			while ((header = scanner.next()) != null) {
+				Assert.assertTrue(header.isVariableBlockSize());
+				Assert.assertEquals(sample, header.getNumber());
+				Assert.assertTrue(header.getBlockSize() >= streamInfo.getMinBlockSize());
+				Assert.assertTrue(header.getBlockSize() <= streamInfo.getMaxBlockSize());
+				int[][] samples = FLACFrameDecoder.decode(
+					scanner.getBuffer(),
+					scanner.getFrameOffset(),
+					scanner.getFrameLength(),
+					header,
+					streamInfo.getBitsPerSample()
+				);
+				for (int i = 0; i < header.getBlockSize(); i++, sample++) {
+					Assert.assertEquals(getSample(0, startSample + sample), samples[0][i]);
+					Assert.assertEquals(getSample(1, startSample + sample), samples[1][i]);
+				}
+			}
+			Assert.assertEquals(endSample - startSample, sample);
+		}
+	}
+
+	/**
+	 * Test that the frames of the test file, which use all channel
+	 * assignments and subframe codings, are decoded to the right samples.
+	 *
+	 * @throws IOException if the test fails.
+	 */
+	@Test
+	public void testDecode() throws IOException {
+		Path source = folder.getRoot().toPath().resolve("image.flac");
+		writeTestFile(source);
+		FLACMetadata metadata = FLACReader.getMetadata(source);
+		try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+			FLACFrameScanner scanner = new FLACFrameScanner(channel, metadata.getAudioOffset(), 1024);
+			int frame = 0;
+			FLACFrameHeader header;
+			while ((header = scanner.next()) != null) {
+				Assert.assertFalse(header.isVariableBlockSize());
+				Assert.assertEquals(frame, header.getNumber());
+				Assert.assertEquals(CHANNEL_ASSIGNMENTS[frame % CHANNEL_ASSIGNMENTS.length], header.getChannelAssignment());
+				int[][] samples = FLACFrameDecoder.decode(
+					scanner.getBuffer(),
+					scanner.getFrameOffset(),
+					scanner.getFrameLength(),
+					header,
+					16
+				);
+				for (int i = 0; i < header.getBlockSize(); i++) {
+					Assert.assertEquals(getSample(0, frame * BLOCK_SIZE + i), samples[0][i]);
+					Assert.assertEquals(getSample(1, frame * BLOCK_SIZE + i), samples[1][i]);
+				}
+				frame++;
+			}
+			Assert.assertEquals(10, frame);
+		}
+	}
+
+	/**
+	 * Test that tracks are split with whole frames copied and boundary frames
+	 * re-encoded, and that the written files decode to the right samples.
+	 *
+	 * @throws IOException if the test fails.
+	 */
+	@Test
+	public void testSplit() throws IOException {
+		Path source = folder.getRoot().toPath().resolve("image.flac");
+		writeTestFile(source);
+		Assert.assertTrue(FLACTrackSplitter.isFLAC(source));
+
+		Path first = folder.getRoot().toPath().resolve("first.flac");
+		Path second = folder.getRoot().toPath().resolve("second.flac");
+		Path third = folder.getRoot().toPath().resolve("third.flac");
+		try (FLACTrackSplitter splitter = new FLACTrackSplitter(source)) {
+			StreamInfo streamInfo = splitter.split(1500, 5000, first, Collections.singletonMap("TITLE", "First"));
+			Assert.assertEquals(3500, streamInfo.getTotalSamples());
+			// Two whole frames in the middle, one partial frame at each end
+			Assert.assertEquals(2, splitter.getCopiedFrameCount());
+			Assert.assertEquals(2, splitter.getEncodedFrameCount());
+
+			// Continues from the previous track
+			splitter.split(5000, -1, second, null);
+			// Requires a seek back to the start
+			splitter.split(0, BLOCK_SIZE, third, null);
+		}
+		assertSamples(first, 1500, 5000);
+		assertSamples(second, 5000, TOTAL_SAMPLES);
+		assertSamples(third, 0, BLOCK_SIZE);
+		Assert.assertTrue(Files.size(third) < Files.size(first));
+	}
+
+	/**
+	 * Test that a failed split doesn't affect the next split with the same
+	 * splitter.
+	 *
+	 * @throws IOException if the test fails.
+	 */
+	@Test
+	public void testSplitAfterFailure() throws IOException {
+		Path source = folder.getRoot().toPath().resolve("image.flac");
+		writeTestFile(source);
+		Path missing = folder.getRoot().toPath().resolve("missing").resolve("first.flac");
+		Path second = folder.getRoot().toPath().resolve("second.flac");
+		try (FLACTrackSplitter splitter = new FLACTrackSplitter(source)) {
+			try {
+				splitter.split(1500, 2500, missing, null);
+				Assert.fail("The split should fail");
+			} catch (IOException e) {
+				// Expected
+			}
+			splitter.split(2500, 5000, second, null);
+		}
+		assertSamples(second, 2500, 5000);
+	}
+
+	/**
+	 * Writes values to a byte array bit by bit, most significant bit first.
+	 */
+	private static class BitWriter {
+
+		/** The array to write to */
+		private final byte[] buffer;
+
+		/** The current bit position in {@link #buffer} */
+		private long bitPosition;
+
+		/**
+		 * Creates a new instance.
+		 *
+		 * @param buffer the array to write to.
+		 * @param offset the offset to start writing at.
+		 */
+		public BitWriter(byte[] buffer, int offset) {
+			this.buffer = buffer;
+			this.bitPosition = (long) offset << 3;
+		}
+
+		/**
+		 * Writes the lowest {@code count} bits of {@code value}.
+		 *
+		 * @param value the value.
+		 * @param count the number of bits to write.
+		 */
+		public void write(long value, int count) {
+			for (int i = count - 1; i >= 0; i--, bitPosition++) {
+				if ((value >>> i & 1) != 0) {
+					buffer[(int) (bitPosition >> 3)] |= 0x80 >>> (bitPosition & 7);
+				}
+			}
+		}
+
+		/**
+		 * Writes a two's complement signed value.
+		 *
+		 * @param value the value.
+		 * @param count the number of bits to write.
+		 */
+		public void writeSigned(long value, int count) {
+			Assert.assertTrue(count == 0 && value == 0 || count > 0 && value >> (count - 1) >= -1 && value >> (count - 1) <= 0);
+			write(value, count);
+		}
+
+		/**
+		 * Writes {@code value} zero bits followed by a one bit.
+		 *
+		 * @param value the value.
+		 */
+		public void writeUnary(int value) {
+			bitPosition += value;
+			write(1, 1);
+		}
+
+		/**
+		 * Pads to the next byte boundary with zero bits.
+		 *
+		 * @return The byte offset following the written data.
+		 */
+		public int align() {
+			bitPosition = (bitPosition + 7) & ~7L;
+			return (int) (bitPosition >> 3);
+		}
+	}
+}
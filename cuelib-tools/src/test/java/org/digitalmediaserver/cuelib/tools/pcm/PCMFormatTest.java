@@ -0,0 +1,194 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.tools.pcm;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import org.digitalmediaserver.cuelib.tools.pcm.PCMFormat.Container;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+
+/**
+ * Unit test for {@link PCMFormat} and {@link PCMTrackSplitter}.
+ *
+ * @author Nadahar
+ */
+public class PCMFormatTest {
+
+	/** The folder for the test files */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/**
+	 * Writes a file with the specified format using {@link AudioSystem}.
+	 *
+	 * @param file the file to write.
+	 * @param container the {@link Container}.
+	 * @param format the {@link AudioFormat}.
+	 * @param data the sample data.
+	 * @throws IOException If an error occurs during the operation.
+	 */
+	private static void writeFile(Path file, Container container, AudioFormat format, byte[] data) throws IOException {
+		try (AudioInputStream stream = new AudioInputStream(
+			new ByteArrayInputStream(data),
+			format,
+			data.length / format.getFrameSize()
+		)) {
+			AudioSystem.write(stream, container.getType(), file.toFile());
+		}
+	}
+
+	/**
+	 * Creates sample data.
+	 *
+	 * @param length the length in bytes.
+	 * @return The sample data.
+	 */
+	private static byte[] createData(int length) {
+		byte[] data = new byte[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = (byte) (i * 31 + (i >> 8));
+		}
+		return data;
+	}
+
+	/**
+	 * Test that the headers created by {@link PCMFormat#createHeader(long)}
+	 * are read back with the same format, both by {@link PCMFormat} and by
+	 * {@link AudioSystem}.
+	 *
+	 * @throws Exception if the test fails.
+	 */
+	@Test
+	public void testCreateHeader() throws Exception {
+		AudioFormat[] formats = {
+			new AudioFormat(44100, 16, 2, true, false),
+			new AudioFormat(22050, 8, 1, false, false),
+			new AudioFormat(48000, 24, 2, true, false),
+			new AudioFormat(96000, 16, 6, true, true)
+		};
+		Path source = folder.getRoot().toPath().resolve("source");
+		Path target = folder.getRoot().toPath().resolve("target");
+		for (Container container : Container.values()) {
+			for (AudioFormat audioFormat : formats) {
+				if (container == Container.AIFF) {
+					audioFormat = new AudioFormat(
+						audioFormat.getSampleRate(),
+						audioFormat.getSampleSizeInBits(),
+						audioFormat.getChannels(),
+						true,
+						true
+					);
+				} else if (audioFormat.isBigEndian()) {
+					audioFormat = new AudioFormat(
+						audioFormat.getSampleRate(),
+						audioFormat.getSampleSizeInBits(),
+						audioFormat.getChannels(),
+						true,
+						false
+					);
+				}
+				String message = container + " " + audioFormat;
+				writeFile(source, container, audioFormat, createData(audioFormat.getFrameSize() * 1001));
+				PCMFormat format = PCMFormat.read(source);
+				Assert.assertNotNull(message, format);
+				Assert.assertEquals(message, container, format.getContainer());
+				Assert.assertEquals(message, audioFormat.getChannels(), format.getChannels());
+				Assert.assertEquals(message, audioFormat.getSampleRate(), format.getSampleRate(), 0.001);
+				Assert.assertEquals(message, audioFormat.getSampleSizeInBits(), format.getBitsPerSample());
+				Assert.assertEquals(message, audioFormat.getFrameSize(), format.getFrameSize());
+				Assert.assertEquals(message, 1001, format.getFrameCount());
+
+				// An odd number of frames, which needs padding with 8 bit mono
+				long frameCount = 333;
+				ByteBuffer header = format.createHeader(frameCount);
+				int headerLength = header.remaining();
+				long dataLength = frameCount * format.getFrameSize();
+				try (FileChannel channel = FileChannel.open(
+					target,
+					StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING,
+					StandardOpenOption.WRITE
+				)) {
+					channel.write(header);
+					channel.write(ByteBuffer.allocate((int) (dataLength + (dataLength & 1))));
+				}
+				PCMFormat reparsed = PCMFormat.read(target);
+				Assert.assertNotNull(message, reparsed);
+				Assert.assertEquals(message, container, reparsed.getContainer());
+				Assert.assertEquals(message, format.getChannels(), reparsed.getChannels());
+				Assert.assertEquals(message, format.getSampleRate(), reparsed.getSampleRate(), 0.0);
+				Assert.assertEquals(message, format.getBitsPerSample(), reparsed.getBitsPerSample());
+				Assert.assertEquals(message, format.getFrameSize(), reparsed.getFrameSize());
+				Assert.assertEquals(message, headerLength, reparsed.getDataOffset());
+				Assert.assertEquals(message, dataLength, reparsed.getDataLength());
+				Assert.assertEquals(message, frameCount, reparsed.getFrameCount());
+
+				AudioFileFormat fileFormat = AudioSystem.getAudioFileFormat(target.toFile());
+				Assert.assertEquals(message, container.getType(), fileFormat.getType());
+				Assert.assertEquals(message, frameCount, fileFormat.getFrameLength());
+				Assert.assertTrue(message, audioFormat.matches(fileFormat.getFormat()));
+			}
+		}
+	}
+
+	/**
+	 * Test that a range of sample frames is copied unchanged.
+	 *
+	 * @throws IOException if the test fails.
+	 * @throws UnsupportedAudioFileException if the test fails.
+	 */
+	@Test
+	public void testSplit() throws IOException, UnsupportedAudioFileException {
+		AudioFormat audioFormat = new AudioFormat(44100, 16, 2, true, false);
+		byte[] data = createData(4 * 44100);
+		Path source = folder.getRoot().toPath().resolve("source.wav");
+		Path target = folder.getRoot().toPath().resolve("target.wav");
+		writeFile(source, Container.WAVE, audioFormat, data);
+
+		try (PCMTrackSplitter splitter = new PCMTrackSplitter(source)) {
+			Assert.assertEquals(44100, splitter.getFormat().getFrameCount());
+			Assert.assertEquals(300, splitter.split(1000, 1300, target));
+		}
+		Assert.assertEquals(44 + 300 * 4, Files.size(target));
+		try (AudioInputStream stream = AudioSystem.getAudioInputStream(target.toFile())) {
+			Assert.assertEquals(300, stream.getFrameLength());
+			byte[] read = new byte[300 * 4];
+			int total = 0;
+			for (int n; total < read.length && (n = stream.read(read, total, read.length - total)) > 0;) {
+				total += n;
+			}
+			Assert.assertArrayEquals(Arrays.copyOfRange(data, 1000 * 4, 1300 * 4), read);
+		}
+	}
+}
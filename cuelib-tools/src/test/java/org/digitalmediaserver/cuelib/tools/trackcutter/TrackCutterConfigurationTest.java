@@ -0,0 +1,69 @@
+/*
+ * Cuelib library for manipulating cue sheets.
+ * Copyright (C) 2026 Digital Media Server developers.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+package org.digitalmediaserver.cuelib.tools.trackcutter;
+
+import org.digitalmediaserver.cuelib.tools.util.properties.EnhancedProperties;
+import org.junit.Assert;
+import org.junit.Test;
+
+
+/**
+ * Unit test for {@link TrackCutterConfiguration}.
+ *
+ * @author Nadahar
+ */
+public class TrackCutterConfigurationTest {
+
+	/**
+	 * Test that the worker and post-processing settings are loaded from
+	 * properties and that invalid values are rejected.
+	 */
+	@Test
+	public void testLoadProperties() {
+		TrackCutterConfiguration configuration = new TrackCutterConfiguration();
+		EnhancedProperties properties = new EnhancedProperties();
+		properties.setProperty("workerCount", "3");
+		properties.setProperty("postProcessingWorkerCount", "2");
+		properties.setProperty("postProcessingQueueSize", "5");
+		properties.setProperty("postProcessingCaptureSize", "16");
+		configuration.loadProperties(properties);
+		Assert.assertEquals(3, configuration.getWorkerCount());
+		Assert.assertEquals(2, configuration.getPostProcessingWorkerCount());
+		Assert.assertEquals(5, configuration.getPostProcessingQueueSize());
+		Assert.assertEquals(16, configuration.getPostProcessingCaptureSize());
+
+		String[][] invalid = {
+			{"workerCount", "0"},
+			{"postProcessingWorkerCount", "-1"},
+			{"postProcessingQueueSize", "-1"},
+			{"postProcessingCaptureSize", "-1"}
+		};
+		for (String[] entry : invalid) {
+			EnhancedProperties invalidProperties = new EnhancedProperties();
+			invalidProperties.setProperty(entry[0], entry[1]);
+			try {
+				configuration.loadProperties(invalidProperties);
+				Assert.fail("Loaded " + entry[0] + "=" + entry[1]);
+			} catch (IllegalArgumentException e) {
+				// Expected
+			}
+		}
+		Assert.assertEquals(3, configuration.getWorkerCount());
+	}
+}